@@ -15,6 +15,7 @@ import com.itkolleg.bookingsystem.repos.ressourcebooking.RessourceBookingRepo;
 import com.itkolleg.bookingsystem.repos.room.DBAccessRoom;
 import com.itkolleg.bookingsystem.repos.roombooking.RoomBookingRepo;
 import com.itkolleg.bookingsystem.repos.timeslot.TimeslotRepo;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.SpringApplication;
@@ -22,6 +23,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -30,6 +32,7 @@ import java.util.Arrays;
 import java.util.List;
 
 @EnableJpaAuditing
+@EnableScheduling
 @SpringBootApplication
 @EnableJpaRepositories(basePackages = "com.itkolleg.bookingsystem.*")
 //@ComponentScan("com.itkolleg.Bookingsystem")//to scan repository files
@@ -47,8 +50,13 @@ public class WABS implements ApplicationRunner {
     final RessourceBookingRepo ressourceBookingRepo;
     final DBAccessRoom dbAccessRoom;
     final RoomBookingRepo roombookingRepo;
+    /**
+     * True if the SyntheticDataRunner fills the database, the demo data is left out then.
+     */
+    final boolean syntheticData;
 
-    public WABS(EmployeeDBAccess employeeDBAccess, DeskRepo deskRepo, DeskBookingRepo deskBookingRepo, TimeslotRepo timeSlotRepo, HolidayRepo holidayRepo, DBAccessRessource dbAccessRessource, RessourceBookingRepo ressourceBookingRepo, DBAccessRoom dbAccessRoom, RoomBookingRepo roombookingRepo) {
+    public WABS(EmployeeDBAccess employeeDBAccess, DeskRepo deskRepo, DeskBookingRepo deskBookingRepo, TimeslotRepo timeSlotRepo, HolidayRepo holidayRepo, DBAccessRessource dbAccessRessource, RessourceBookingRepo ressourceBookingRepo, DBAccessRoom dbAccessRoom, RoomBookingRepo roombookingRepo,
+                @Value("${wabs.synthetic.enabled:false}") boolean syntheticData) {
         this.employeeDBAccess = employeeDBAccess;
         this.deskRepo = deskRepo;
         this.deskBookingRepo = deskBookingRepo;
@@ -58,6 +66,7 @@ public class WABS implements ApplicationRunner {
         this.ressourceBookingRepo = ressourceBookingRepo;
         this.dbAccessRoom = dbAccessRoom;
         this.roombookingRepo = roombookingRepo;
+        this.syntheticData = syntheticData;
     }
 
     public static void main(String[] args) {
@@ -67,6 +76,9 @@ public class WABS implements ApplicationRunner {
     @Override
     public void run(ApplicationArguments args) throws Exception {
         System.out.println("\n\nSystem is up and running!\n");
+        if (syntheticData) {
+            return;
+        }
 
 
         Room room1 = this.dbAccessRoom.addRoom(new Room(1L, "1"));
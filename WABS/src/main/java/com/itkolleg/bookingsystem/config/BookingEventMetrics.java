@@ -0,0 +1,48 @@
+package com.itkolleg.bookingsystem.config;
+
+import com.itkolleg.bookingsystem.service.events.BookingEvent;
+import com.itkolleg.bookingsystem.service.events.BookingEventDispatcher;
+import com.itkolleg.bookingsystem.service.events.BookingEventListener;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the committed bookings as {@code wabs.bookings}, tagged with the {@code kind} (DESK, ROOM, RESSOURCE) and the
+ * {@code type} of change (CREATED, UPDATED, CANCELLED), and publishes the backlog of the
+ * {@link BookingEventDispatcher} as {@code wabs.booking.events.queued} and {@code wabs.booking.events.dropped}.
+ */
+@Component
+public class BookingEventMetrics implements BookingEventListener, MeterBinder {
+
+    private final BookingEventDispatcher dispatcher;
+    private volatile MeterRegistry registry;
+
+    /**
+     * @param dispatcher Lazy, since the dispatcher itself is created with all listeners, this one included.
+     */
+    public BookingEventMetrics(@Lazy BookingEventDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("wabs.booking.events.queued", dispatcher, BookingEventDispatcher::getQueuedCount)
+                .description("Booking events waiting for their listeners")
+                .register(registry);
+        FunctionCounter.builder("wabs.booking.events.dropped", dispatcher, BookingEventDispatcher::getDroppedCount)
+                .description("Booking events dropped because the dispatcher queue was full")
+                .register(registry);
+    }
+
+    @Override
+    public void onBookingEvent(BookingEvent event) {
+        if (registry != null) {
+            registry.counter("wabs.bookings", "kind", event.kind().name(), "type", event.type().name()).increment();
+        }
+    }
+}
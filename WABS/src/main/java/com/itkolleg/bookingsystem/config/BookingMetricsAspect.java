@@ -0,0 +1,100 @@
+package com.itkolleg.bookingsystem.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every call of the desk, room and ressource booking services and of the repository finders.
+ * <ul>
+ *   <li>{@code wabs.booking.service} - tagged with the service class and method</li>
+ *   <li>{@code wabs.repository.finder} - tagged with the repository class or interface and method, for every
+ *   {@code get*}, {@code find*}, {@code is*}, {@code exists*} and {@code count*} method</li>
+ * </ul>
+ * Both timers are also tagged with the {@code outcome}: {@code SUCCESS}, {@code REJECTED} for checked exceptions such
+ * as {@code DeskNotAvailableException} or {@code RoomNotAvailableException}, which are the booking rules saying no, and
+ * {@code ERROR} for everything else; {@code exception} holds the simple name of the exception class or {@code none}.
+ * The histogram buckets are configured in {@code application.properties}.
+ */
+@Aspect
+@Component
+public class BookingMetricsAspect {
+
+    static final String SERVICE_TIMER = "wabs.booking.service";
+    static final String FINDER_TIMER = "wabs.repository.finder";
+
+    private final MeterRegistry registry;
+
+    public BookingMetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Pointcut("execution(* com.itkolleg.bookingsystem.service.deskbooking.DeskBookingService.*(..))"
+            + " || execution(* com.itkolleg.bookingsystem.service.roombooking.RoomBookingService.*(..))"
+            + " || execution(* com.itkolleg.bookingsystem.service.ressourcebooking.RessourceBookingService.*(..))")
+    void bookingServices() {
+    }
+
+    /**
+     * The finders of all repositories; the in-memory occupancy index is left out, it answers in microseconds and is
+     * called for every desk of a floor plan.
+     */
+    @Pointcut("(execution(* com.itkolleg.bookingsystem.repos..*.get*(..))"
+            + " || execution(* com.itkolleg.bookingsystem.repos..*.find*(..))"
+            + " || execution(* com.itkolleg.bookingsystem.repos..*.is*(..))"
+            + " || execution(* com.itkolleg.bookingsystem.repos..*.exists*(..))"
+            + " || execution(* com.itkolleg.bookingsystem.repos..*.count*(..)))"
+            + " && !within(com.itkolleg.bookingsystem.repos.occupancy..*)")
+    void repositoryFinders() {
+    }
+
+    @Around("bookingServices()")
+    public Object timeBookingService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, SERVICE_TIMER, "service");
+    }
+
+    @Around("repositoryFinders()")
+    public Object timeRepositoryFinder(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, FINDER_TIMER, "repository");
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String timerName, String typeTag) throws Throwable {
+        Timer.Sample sample = Timer.start(registry);
+        Throwable failure = null;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(timerName)
+                    .tag(typeTag, joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("outcome", outcome(failure))
+                    .tag("exception", exception(failure))
+                    .register(registry));
+        }
+    }
+
+    /**
+     * @return SUCCESS without an exception, REJECTED for checked exceptions and ERROR for unchecked ones.
+     */
+    static String outcome(Throwable failure) {
+        if (failure == null) {
+            return "SUCCESS";
+        }
+        return failure instanceof RuntimeException || failure instanceof Error ? "ERROR" : "REJECTED";
+    }
+
+    static String exception(Throwable failure) {
+        if (failure == null) {
+            return "none";
+        }
+        String name = failure.getClass().getSimpleName();
+        return name.isEmpty() ? failure.getClass().getName() : name;
+    }
+}
@@ -0,0 +1,77 @@
+package com.itkolleg.bookingsystem.config;
+
+import com.itkolleg.bookingsystem.domains.CustomEmployeeDetails;
+import com.itkolleg.bookingsystem.exceptions.employeeExceptions.EmployeeNotFoundException;
+import com.itkolleg.bookingsystem.service.employee.EmployeePrincipalService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolves controller parameters of type {@link CustomEmployeeDetails} to the logged-in employee.
+ * <p>
+ * The employee is taken from the security context of the session, so resolving it does not hit the database.
+ * Only if the employee was changed since the principal was loaded (see {@link EmployeePrincipalService}), or the
+ * session still holds a principal of another type, it is loaded once and the session is updated.
+ */
+@Component
+public class EmployeePrincipalArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final EmployeePrincipalService employeePrincipalService;
+    private final SecurityContextRepository securityContextRepository = new HttpSessionSecurityContextRepository();
+
+    public EmployeePrincipalArgumentResolver(EmployeePrincipalService employeePrincipalService) {
+        this.employeePrincipalService = employeePrincipalService;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return CustomEmployeeDetails.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public CustomEmployeeDetails resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                                 NativeWebRequest webRequest, WebDataBinderFactory binderFactory) throws EmployeeNotFoundException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetails user)) {
+            throw new EmployeeNotFoundException("employee not found");
+        }
+        if (user instanceof CustomEmployeeDetails principal && employeePrincipalService.isCurrent(principal)) {
+            return principal;
+        }
+
+        CustomEmployeeDetails principal = user instanceof CustomEmployeeDetails outdated
+                ? employeePrincipalService.reloadPrincipal(outdated.getId())
+                : employeePrincipalService.loadPrincipal(user.getUsername());
+        if (principal == null) {
+            throw new EmployeeNotFoundException("employee not found");
+        }
+        principal.eraseCredentials();
+        storeInSession(principal, authentication, webRequest);
+        return principal;
+    }
+
+    private void storeInSession(CustomEmployeeDetails principal, Authentication previous, NativeWebRequest webRequest) {
+        UsernamePasswordAuthenticationToken authentication =
+                UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities());
+        authentication.setDetails(previous.getDetails());
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication);
+        SecurityContextHolder.setContext(context);
+        securityContextRepository.saveContext(context,
+                webRequest.getNativeRequest(HttpServletRequest.class),
+                webRequest.getNativeResponse(HttpServletResponse.class));
+    }
+}
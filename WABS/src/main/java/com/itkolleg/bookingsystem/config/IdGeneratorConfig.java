@@ -0,0 +1,27 @@
+package com.itkolleg.bookingsystem.config;
+
+import com.itkolleg.bookingsystem.domains.PooledSequenceGenerator;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.Map;
+
+/**
+ * Hands the {@code wabs.id.*} settings, i.e. the allocation sizes of the id sequences, to Hibernate, where the
+ * {@link PooledSequenceGenerator} reads them.
+ */
+@Configuration
+public class IdGeneratorConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer idGeneratorSettingsCustomizer(Environment environment) {
+        Map<String, String> settings = Binder.get(environment)
+                .bind("wabs.id", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of());
+        return properties -> settings.forEach((key, value) -> properties.put(PooledSequenceGenerator.SETTINGS_PREFIX + key, value));
+    }
+}
@@ -0,0 +1,83 @@
+package com.itkolleg.bookingsystem.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Times the form login as {@code wabs.login}, tagged with the {@code outcome} ({@code SUCCESS} or {@code REJECTED})
+ * and the {@code exception}, e.g. {@code BadCredentialsException}.
+ * <p>
+ * The {@link #filter()} starts the timer before the credentials are checked; the success and failure handlers of the
+ * login in {@link WebSecurityConfig} stop it. Most of the time is spent on the bcrypt comparison, so this is the
+ * latency to watch when the cost factor or the user cache changes.
+ * </p>
+ */
+@Component
+public class LoginMetrics {
+
+    static final String LOGIN_TIMER = "wabs.login";
+
+    private static final String SAMPLE_ATTRIBUTE = LoginMetrics.class.getName() + ".sample";
+    private static final RequestMatcher LOGIN_REQUEST = new AntPathRequestMatcher("/web/login", "POST");
+
+    private final MeterRegistry registry;
+
+    public LoginMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * @return A filter to be placed before the {@code UsernamePasswordAuthenticationFilter} that starts the timer of
+     * every login attempt.
+     */
+    public OncePerRequestFilter filter() {
+        return new OncePerRequestFilter() {
+            @Override
+            protected boolean shouldNotFilter(HttpServletRequest request) {
+                return !LOGIN_REQUEST.matches(request);
+            }
+
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+                    throws ServletException, IOException {
+                request.setAttribute(SAMPLE_ATTRIBUTE, Timer.start(registry));
+                filterChain.doFilter(request, response);
+            }
+        };
+    }
+
+    /**
+     * Stops the timer of a successful login.
+     */
+    public void recordSuccess(HttpServletRequest request) {
+        record(request, "SUCCESS", "none");
+    }
+
+    /**
+     * Stops the timer of a failed login.
+     */
+    public void recordFailure(HttpServletRequest request, AuthenticationException exception) {
+        record(request, "REJECTED", exception.getClass().getSimpleName());
+    }
+
+    private void record(HttpServletRequest request, String outcome, String exception) {
+        if (request.getAttribute(SAMPLE_ATTRIBUTE) instanceof Timer.Sample sample) {
+            request.removeAttribute(SAMPLE_ATTRIBUTE);
+            sample.stop(Timer.builder(LOGIN_TIMER)
+                    .tag("outcome", outcome)
+                    .tag("exception", exception)
+                    .register(registry));
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.itkolleg.bookingsystem.config;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Records the SQL statements sent through the data source, see {@link SqlProfilerDataSourcePostProcessor}.
+ * <ul>
+ *   <li>Statements per HTTP request: the {@link SqlProfilerFilter} opens and closes a request on the current thread,
+ *   every statement executed on that thread in between is counted by its shape, i.e. the SQL with literals replaced
+ *   by {@code ?}.</li>
+ *   <li>N+1 detection: a request that executes the same shape more than {@code wabs.sql-profiler.n-plus-one-threshold}
+ *   times, typically one query per row of a list, is logged and kept.</li>
+ *   <li>Slow queries: statements taking at least {@code wabs.sql-profiler.slow-query-ms} are logged and kept with their
+ *   bind values, also outside of requests, e.g. in scheduled jobs. The warning shows only the shape of the statement,
+ *   the bind values are logged at DEBUG. Statements that mention one of the {@code wabs.sql-profiler.masked-columns},
+ *   e.g. the password hashes and e-mail addresses of employees, are kept and logged with {@value #MASK} instead of
+ *   their bind values.</li>
+ * </ul>
+ * The last {@code wabs.sql-profiler.history-size} entries of each list are available under {@code /actuator/sqlprofile}.
+ */
+@Slf4j
+@Component
+public class SqlProfiler implements QueryExecutionListener {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_CACHED_SHAPES = 10_000;
+    private static final int MAX_BIND_VALUE_LENGTH = 100;
+    static final String MASK = "***";
+
+    private final long slowQueryMillis;
+    private final int nPlusOneThreshold;
+    private final int historySize;
+    private final Pattern maskedColumns;
+
+    private final ThreadLocal<RequestStatements> currentRequest = new ThreadLocal<>();
+    private final Map<String, String> shapes = new ConcurrentHashMap<>();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+    private final Deque<RequestProfile> recentRequests = new ArrayDeque<>();
+    private final Deque<RepeatedStatement> nPlusOneFindings = new ArrayDeque<>();
+    private final Deque<SlowQuery> slowQueries = new ArrayDeque<>();
+
+    public SqlProfiler(@Value("${wabs.sql-profiler.slow-query-ms:100}") long slowQueryMillis,
+                       @Value("${wabs.sql-profiler.n-plus-one-threshold:10}") int nPlusOneThreshold,
+                       @Value("${wabs.sql-profiler.history-size:100}") int historySize,
+                       @Value("${wabs.sql-profiler.masked-columns:password,email}") List<String> maskedColumns) {
+        this.slowQueryMillis = slowQueryMillis;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.historySize = historySize;
+        List<String> columns = maskedColumns.stream().map(String::trim).filter(column -> !column.isEmpty()).toList();
+        this.maskedColumns = columns.isEmpty() ? null : Pattern.compile(columns.stream().map(Pattern::quote)
+                .collect(Collectors.joining("|", "\\b(?:", ")\\b")), Pattern.CASE_INSENSITIVE);
+    }
+
+    /**
+     * Starts counting the statements of a request executed on the current thread.
+     *
+     * @param request A description of the request, e.g. {@code GET /web/rooms/floors}.
+     */
+    public void beginRequest(String request) {
+        currentRequest.set(new RequestStatements(request));
+    }
+
+    /**
+     * Stops counting for the current thread and records the request if it executed any statement.
+     *
+     * @return The statements of the request, or null if no request was begun or it executed none.
+     */
+    public RequestProfile endRequest() {
+        RequestStatements request = currentRequest.get();
+        currentRequest.remove();
+        if (request == null || request.count == 0) {
+            return null;
+        }
+        requests.increment();
+        List<StatementCount> repeated = request.counts.entrySet().stream()
+                .filter(entry -> entry.getValue() > nPlusOneThreshold)
+                .map(entry -> new StatementCount(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingInt(StatementCount::executions).reversed())
+                .toList();
+        RequestProfile profile = new RequestProfile(Instant.now().toString(), request.request, request.count,
+                request.counts.size(), request.elapsedMillis, repeated);
+        synchronized (this) {
+            addBounded(recentRequests, profile);
+            for (StatementCount statement : repeated) {
+                addBounded(nPlusOneFindings, new RepeatedStatement(profile.at(), request.request, statement.statement(), statement.executions()));
+            }
+        }
+        for (StatementCount statement : repeated) {
+            log.warn("Possible N+1 in {}: {} executions of {}", request.request, statement.executions(), statement.statement());
+        }
+        return profile;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        statements.increment();
+        RequestStatements request = currentRequest.get();
+        if (request != null) {
+            request.elapsedMillis += execInfo.getElapsedTime();
+            for (QueryInfo query : queryInfoList) {
+                request.count++;
+                request.counts.merge(shapeOf(query.getQuery()), 1, Integer::sum);
+            }
+        }
+        if (execInfo.getElapsedTime() >= slowQueryMillis) {
+            for (QueryInfo query : queryInfoList) {
+                SlowQuery slowQuery = new SlowQuery(Instant.now().toString(), request != null ? request.request : null,
+                        execInfo.getElapsedTime(), query.getQuery(), bindValues(query), execInfo.isBatch() ? execInfo.getBatchSize() : 0);
+                synchronized (this) {
+                    addBounded(slowQueries, slowQuery);
+                }
+                log.warn("Slow query ({} ms): {}", slowQuery.millis(), shapeOf(slowQuery.statement()));
+                log.debug("Bind values of the slow query: {}", slowQuery.bindValues());
+            }
+        }
+    }
+
+    /**
+     * @return The totals and the recorded requests, N+1 findings and slow queries, the requests with the most
+     * statements first.
+     */
+    public synchronized Report getReport() {
+        List<RequestProfile> busiest = recentRequests.stream()
+                .sorted(Comparator.comparingInt(RequestProfile::statements).reversed())
+                .toList();
+        return new Report(statements.sum(), requests.sum(), slowQueryMillis, nPlusOneThreshold,
+                busiest, new ArrayList<>(nPlusOneFindings), new ArrayList<>(slowQueries));
+    }
+
+    /**
+     * @return The SQL with string and number literals and the values of IN lists replaced by {@code ?}, so that
+     * statements differing only in their values count as the same statement.
+     */
+    static String normalize(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    private String shapeOf(String sql) {
+        String shape = shapes.get(sql);
+        if (shape == null) {
+            shape = normalize(sql);
+            if (shapes.size() < MAX_CACHED_SHAPES) {
+                shapes.put(sql, shape);
+            }
+        }
+        return shape;
+    }
+
+    /**
+     * @return The bind values of the first parameter set in the order they were set, each cut to 100 characters, or
+     * {@value #MASK} for every value if the statement mentions a masked column.
+     */
+    private List<String> bindValues(QueryInfo query) {
+        if (query.getParametersList().isEmpty()) {
+            return List.of();
+        }
+        boolean masked = maskedColumns != null && maskedColumns.matcher(query.getQuery()).find();
+        return query.getParametersList().get(0).stream()
+                .map(operation -> masked ? MASK : bindValue(operation))
+                .collect(Collectors.toList());
+    }
+
+    private static String bindValue(ParameterSetOperation operation) {
+        if (ParameterSetOperation.isSetNullParameterOperation(operation)) {
+            return "null";
+        }
+        Object[] args = operation.getArgs();
+        String value = String.valueOf(args.length > 1 ? args[1] : null);
+        return value.length() > MAX_BIND_VALUE_LENGTH ? value.substring(0, MAX_BIND_VALUE_LENGTH) + "..." : value;
+    }
+
+    private <T> void addBounded(Deque<T> entries, T entry) {
+        if (entries.size() >= historySize) {
+            entries.removeFirst();
+        }
+        entries.addLast(entry);
+    }
+
+    private static final class RequestStatements {
+        private final String request;
+        private final Map<String, Integer> counts = new HashMap<>();
+        private int count;
+        private long elapsedMillis;
+
+        private RequestStatements(String request) {
+            this.request = request;
+        }
+    }
+
+    /**
+     * @param statements        The total number of statements executed since the start.
+     * @param requests          The number of requests that executed statements.
+     * @param slowQueryMillis   The threshold of the slow query log.
+     * @param nPlusOneThreshold How often a request may execute the same statement before it counts as N+1.
+     * @param requestProfiles   The recent requests, the ones with the most statements first.
+     * @param nPlusOne          The recent N+1 findings.
+     * @param slowQueries       The recent slow queries.
+     */
+    public record Report(long statements, long requests, long slowQueryMillis, int nPlusOneThreshold,
+                         List<RequestProfile> requestProfiles, List<RepeatedStatement> nPlusOne, List<SlowQuery> slowQueries) {
+    }
+
+    /**
+     * @param at                 The end of the request.
+     * @param request            The method and path of the request.
+     * @param statements         The number of statements it executed.
+     * @param distinctStatements The number of different statement shapes.
+     * @param sqlMillis          The time spent executing them.
+     * @param repeated           The statements executed more often than the N+1 threshold.
+     */
+    public record RequestProfile(String at, String request, int statements, int distinctStatements, long sqlMillis,
+                                 List<StatementCount> repeated) {
+    }
+
+    public record StatementCount(String statement, int executions) {
+    }
+
+    public record RepeatedStatement(String at, String request, String statement, int executions) {
+    }
+
+    /**
+     * @param request    The request that executed the statement, null outside of requests.
+     * @param batchSize  The number of rows of a batch, 0 for single statements.
+     * @param bindValues The values of the first row, masked for statements with masked columns.
+     */
+    public record SlowQuery(String at, String request, long millis, String statement, List<String> bindValues, int batchSize) {
+    }
+}
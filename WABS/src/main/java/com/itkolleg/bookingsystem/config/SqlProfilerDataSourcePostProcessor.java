@@ -0,0 +1,39 @@
+package com.itkolleg.bookingsystem.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Routes every statement of the data source through the {@link SqlProfiler}. Switched off with
+ * {@code wabs.sql-profiler.enabled=false}.
+ */
+@Component
+@ConditionalOnProperty(name = "wabs.sql-profiler.enabled", matchIfMissing = true)
+public class SqlProfilerDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<SqlProfiler> sqlProfiler;
+
+    /**
+     * @param sqlProfiler Looked up when the data source is created, post processors are created before other beans.
+     */
+    public SqlProfilerDataSourcePostProcessor(ObjectProvider<SqlProfiler> sqlProfiler) {
+        this.sqlProfiler = sqlProfiler;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+            return ProxyDataSourceBuilder.create(dataSource)
+                    .name(beanName)
+                    .listener(sqlProfiler.getObject())
+                    .build();
+        }
+        return bean;
+    }
+}
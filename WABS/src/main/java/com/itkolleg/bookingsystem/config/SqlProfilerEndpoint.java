@@ -0,0 +1,25 @@
+package com.itkolleg.bookingsystem.config;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shows the statements per request, N+1 findings and slow queries recorded by the {@link SqlProfiler} under
+ * {@code /actuator/sqlprofile}.
+ */
+@Component
+@Endpoint(id = "sqlprofile")
+public class SqlProfilerEndpoint {
+
+    private final SqlProfiler sqlProfiler;
+
+    public SqlProfilerEndpoint(SqlProfiler sqlProfiler) {
+        this.sqlProfiler = sqlProfiler;
+    }
+
+    @ReadOperation
+    public SqlProfiler.Report report() {
+        return sqlProfiler.getReport();
+    }
+}
@@ -0,0 +1,38 @@
+package com.itkolleg.bookingsystem.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Counts the statements of every HTTP request with the {@link SqlProfiler}. Runs before the security filters, so the
+ * statements of the login and of loading the current user are included.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlProfilerFilter extends OncePerRequestFilter {
+
+    private final SqlProfiler sqlProfiler;
+
+    public SqlProfilerFilter(SqlProfiler sqlProfiler) {
+        this.sqlProfiler = sqlProfiler;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        sqlProfiler.beginRequest(request.getMethod() + " " + request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            sqlProfiler.endRequest();
+        }
+    }
+}
@@ -1,18 +1,32 @@
 package com.itkolleg.bookingsystem.config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @Configuration
 @EnableWebMvc
 public class WebMvcConfig implements WebMvcConfigurer {
 
+    private final EmployeePrincipalArgumentResolver employeePrincipalArgumentResolver;
+
+    public WebMvcConfig(EmployeePrincipalArgumentResolver employeePrincipalArgumentResolver) {
+        this.employeePrincipalArgumentResolver = employeePrincipalArgumentResolver;
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry.addResourceHandler("/static/**")
                 .addResourceLocations("classpath:/static/");
     }
 
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(employeePrincipalArgumentResolver);
+    }
+
 }
@@ -1,24 +1,30 @@
 package com.itkolleg.bookingsystem.config;
 
-import com.itkolleg.bookingsystem.service.employee.EmployeeService;
-import com.itkolleg.bookingsystem.domains.Employee;
+import com.itkolleg.bookingsystem.domains.CustomEmployeeDetails;
+import com.itkolleg.bookingsystem.service.employee.EmployeePrincipalService;
+import com.itkolleg.bookingsystem.service.employee.EmployeeUserCache;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.core.authority.AuthorityUtils;
-import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
 import java.util.Set;
 
+import static org.springframework.security.config.Customizer.withDefaults;
+
 /**
  * Konfigurationsklasse für die Sicherheitseinstellungen.
  */
@@ -26,15 +32,18 @@ import java.util.Set;
 @EnableWebSecurity
 public class WebSecurityConfig {
 
-    private final EmployeeService employeeService;
+    private final EmployeePrincipalService employeePrincipalService;
+    private final LoginMetrics loginMetrics;
 
     /**
      * Konstruktor der WebSecurityConfig-Klasse.
      *
-     * @param employeeService     Der EmployeeService.
+     * @param employeePrincipalService Der EmployeePrincipalService.
+     * @param loginMetrics             Misst die Dauer der Anmeldungen.
      */
-    public WebSecurityConfig(EmployeeService employeeService) {
-        this.employeeService = employeeService;
+    public WebSecurityConfig(EmployeePrincipalService employeePrincipalService, LoginMetrics loginMetrics) {
+        this.employeePrincipalService = employeePrincipalService;
+        this.loginMetrics = loginMetrics;
     }
 
     /**
@@ -47,6 +56,29 @@ public class WebSecurityConfig {
         return new BCryptPasswordEncoder();
     }
 
+    /**
+     * Konfiguriert die Sicherheitseinstellungen für die Actuator-Endpunkte.
+     * <p>
+     * Neben der Session aus der Formularanmeldung ist hier auch HTTP Basic erlaubt, damit z.B. Prometheus die Metriken
+     * unter /actuator/prometheus mit einem Admin-Konto abrufen kann. Der Health-Endpunkt bleibt öffentlich.
+     *
+     * @param http Die HttpSecurity-Instanz.
+     * @return die SecurityFilterChain-Instanz.
+     * @throws Exception wenn Fehler bei der Konfiguration auftreten.
+     */
+    @Bean
+    @Order(1)
+    SecurityFilterChain actuatorFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatcher("/actuator/**")
+                .authorizeHttpRequests(authConfig -> {
+                    authConfig.requestMatchers(HttpMethod.GET, "/actuator/health").permitAll();
+                    authConfig.anyRequest().hasRole("ADMIN");
+                })
+                .httpBasic(withDefaults());
+        return http.build();
+    }
+
     /**
      * Konfiguriert die Sicherheitseinstellungen für die Http-Requests.
      *
@@ -65,18 +97,23 @@ public class WebSecurityConfig {
 
                     authConfig.requestMatchers(HttpMethod.GET, "/web/login","/error", "/web/login-error", "/web/logout", "/static/**", "/templates/**","/webjars/**").permitAll();
                     authConfig.requestMatchers(HttpMethod.POST, "/web/login","/static/**").permitAll();
-                    authConfig.requestMatchers(HttpMethod.GET, "/web/deskbookings/mydeskbookings", "/web/deskbookings/view/**", "/web/deskbookings/new/**","/web/deskbookings/update/**","/web/deskbookings/deskbookinghistory/**","/web/deskbookings/cancel/**","/web/user/start", "/web/ressourceBooking/allBookingsEmployee", "/web/ressourceBooking/createBookingEmployee/**", "/web/ressourceBooking/deleteBookingEmployee/**","/web/deskbookings/mydeskbookings","/web/ressource/allRessourcesEmployee", "/web/rooms/allRoomsEmployee", "/web/roomBooking/allBookingsEmployee","/web/roomBooking/createBookingEmployee/**").hasAnyRole("ADMIN", "OPERATOR", "N_EMPLOYEE", "P_EMPLOYEE");
+                    authConfig.requestMatchers(HttpMethod.GET, "/actuator/health").permitAll();
+                    authConfig.requestMatchers("/actuator/**").hasRole("ADMIN");
+                    authConfig.requestMatchers(HttpMethod.GET, "/web/deskbookings/mydeskbookings", "/web/deskbookings/view/**", "/web/deskbookings/new/**","/web/deskbookings/update/**","/web/deskbookings/deskbookinghistory/**","/web/deskbookings/cancel/**","/web/deskbookings/recurring","/web/user/start", "/web/ressourceBooking/allBookingsEmployee", "/web/ressourceBooking/createBookingEmployee/**", "/web/ressourceBooking/deleteBookingEmployee/**","/web/deskbookings/mydeskbookings","/web/ressource/allRessourcesEmployee", "/web/rooms/allRoomsEmployee", "/web/roomBooking/allBookingsEmployee","/web/roomBooking/createBookingEmployee/**", "/web/feed/availability").hasAnyRole("ADMIN", "OPERATOR", "N_EMPLOYEE", "P_EMPLOYEE");
                     authConfig.requestMatchers(HttpMethod.GET,"/web/**","/web/desks/**","web/deskbookings/**","web/deskbookings/admin/**").hasAnyRole("ADMIN", "OPERATOR");
-                    authConfig.requestMatchers(HttpMethod.POST,  "web/deskbookings/**","/web/deskbookings/add","/web/deskbookings/new","/web/deskbookings/update","/web/deskbookings/cancel/**","/web/ressource/**", "/web/roomBooking/**", "/web/ressourceBooking/**", "/web/rooms/**","/web/roomBooking/createBookingEmployee/**","/web/roomBooking/updateBooking/**").hasAnyRole( "ADMIN", "OPERATOR","N_EMPLOYEE", "P_EMPLOYEE");
+                    authConfig.requestMatchers(HttpMethod.POST,  "web/deskbookings/**","/web/deskbookings/add","/web/deskbookings/new","/web/deskbookings/update","/web/deskbookings/cancel/**","/web/deskbookings/recurring","/web/ressource/**", "/web/roomBooking/**", "/web/ressourceBooking/**", "/web/rooms/**","/web/roomBooking/createBookingEmployee/**","/web/roomBooking/updateBooking/**").hasAnyRole( "ADMIN", "OPERATOR","N_EMPLOYEE", "P_EMPLOYEE");
                     authConfig.requestMatchers(HttpMethod.POST, "/web/**","/web/desks/**","web/deskbookings/admin/**").hasAnyRole("ADMIN", "OPERATOR");
 
                 })
+                .addFilterBefore(loginMetrics.filter(), UsernamePasswordAuthenticationFilter.class)
                 .formLogin(login -> login.loginPage("/web/login")
                         .failureHandler((request, response, exception) -> {
+                            loginMetrics.recordFailure(request, exception);
                             String errorMessage = "Falsche Anmeldeinformationen.";
                             response.sendRedirect("/web/login-error" + errorMessage);
                         })
                         .successHandler((request, response, authentication) -> {
+                            loginMetrics.recordSuccess(request);
                             Set<String> roles = AuthorityUtils.authorityListToSet(authentication.getAuthorities());
                             if (roles.contains("ROLE_ADMIN")) {
                                 response.sendRedirect("/web/admin/admin-start");
@@ -101,39 +138,46 @@ public class WebSecurityConfig {
 
     /**
      * Bean für den AuthenticationManager.
+     * <p>
+     * Wird direkt aus einem DaoAuthenticationProvider gebaut und nicht aus dem gemeinsamen AuthenticationManagerBuilder
+     * der HttpSecurity: dieser hat den AuthenticationManager selbst als Parent, wodurch jede fehlgeschlagene Anmeldung
+     * in einem StackOverflowError endete.
      *
-     * @param httpSecurity          Die HttpSecurity-Instanz.
      * @param userDetailsService    Das UserDetailsService-Objekt.
      * @param bCryptPasswordEncoder Das BCryptPasswordEncoder-Objekt.
      * @return die AuthenticationManager-Instanz.
-     * @throws Exception wenn Fehler bei der Konfiguration auftreten.
      */
     @Bean
-    public AuthenticationManager authenticationManager(HttpSecurity httpSecurity, UserDetailsService userDetailsService, BCryptPasswordEncoder bCryptPasswordEncoder) throws Exception {
-        AuthenticationManagerBuilder authenticationManagerBuilder = httpSecurity.getSharedObject(AuthenticationManagerBuilder.class);
-        authenticationManagerBuilder.userDetailsService(userDetailsService)
-                .passwordEncoder(bCryptPasswordEncoder);
-        return authenticationManagerBuilder.build();
+    public AuthenticationManager authenticationManager(UserDetailsService userDetailsService, BCryptPasswordEncoder bCryptPasswordEncoder) {
+        DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
+        authenticationProvider.setUserDetailsService(userDetailsService);
+        authenticationProvider.setPasswordEncoder(bCryptPasswordEncoder);
+        return new ProviderManager(authenticationProvider);
     }
 
     /**
      * Bean für den UserDetailsService.
+     * <p>
+     * Die Passwörter sind bereits als bcrypt-Hash gespeichert (siehe EmployeePasswordListener) und werden direkt
+     * übernommen. Geladene Benutzer werden im EmployeeUserCache abgelegt. Der Benutzer ist ein CustomEmployeeDetails
+     * mit ID und Rolle und bleibt in der Session, die Controller erhalten ihn über den EmployeePrincipalArgumentResolver.
      *
-     * @param bCryptPasswordEncoder Das BCryptPasswordEncoder-Objekt.
+     * @param userCache Der Cache für die geladenen Benutzer.
      * @return das UserDetailsService-Objekt.
      */
     @Bean
-    public UserDetailsService userDetailsService(BCryptPasswordEncoder bCryptPasswordEncoder) {
+    public UserDetailsService userDetailsService(EmployeeUserCache userCache) {
         return username -> {
-            Employee employee = employeeService.getEmployeeByNick(username);
-            if (employee == null) {
+            UserDetails cached = userCache.getUserFromCache(username);
+            if (cached != null) {
+                return cached;
+            }
+            CustomEmployeeDetails user = employeePrincipalService.loadPrincipal(username);
+            if (user == null) {
                 throw new UsernameNotFoundException("Mitarbeiter mit dem Nick " + username + " nicht gefunden!");
             }
-            return User.builder()
-                    .username(employee.getNick())
-                    .password(bCryptPasswordEncoder.encode(employee.getPassword()))
-                    .authorities(employee.getAuthorities())
-                    .build();
+            userCache.putUserInCache(user);
+            return user;
         };
     }
 }
\ No newline at end of file
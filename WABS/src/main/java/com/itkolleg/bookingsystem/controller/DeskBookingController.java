@@ -1,23 +1,31 @@
 package com.itkolleg.bookingsystem.controller;
 
 import com.itkolleg.bookingsystem.domains.*;
+import com.itkolleg.bookingsystem.exceptions.CustomIllegalArgumentException;
 import com.itkolleg.bookingsystem.exceptions.DeskNotAvailableException;
 import com.itkolleg.bookingsystem.exceptions.ResourceDeletionFailureException;
 import com.itkolleg.bookingsystem.exceptions.ResourceNotFoundException;
+import com.itkolleg.bookingsystem.service.booking.BookingExportWriter;
 import com.itkolleg.bookingsystem.service.desk.DeskService;
 import com.itkolleg.bookingsystem.service.deskbooking.DeskBookingService;
 import com.itkolleg.bookingsystem.service.employee.EmployeeService;
+import com.itkolleg.bookingsystem.domains.booking.BookingOccurrence;
 import com.itkolleg.bookingsystem.domains.booking.DeskBooking;
+import com.itkolleg.bookingsystem.domains.booking.RecurringDeskBooking;
 import com.itkolleg.bookingsystem.exceptions.employeeExceptions.EmployeeNotFoundException;
-import com.itkolleg.bookingsystem.service.timeslot.TimeslotService;
+import com.itkolleg.bookingsystem.repos.booking.BookingCursor;
+import com.itkolleg.bookingsystem.repos.booking.BookingSlice;
+import com.itkolleg.bookingsystem.service.referencedata.ReferenceDataCache;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
+import java.io.IOException;
 import java.time.format.DateTimeFormatter;
 import java.util.Collections;
 import java.util.Date;
@@ -36,8 +44,8 @@ import static com.itkolleg.bookingsystem.domains.ViewConstants.*;
  * It handles operations such as retrieving desk bookings, adding desk bookings, updating desk bookings,
  * and canceling desk bookings.
  *
- * <p>It interacts with the {@link DeskBookingService}, {@link DeskService}, {@link EmployeeService},
- * and {@link TimeslotService} to perform the necessary operations.
+ * <p>It interacts with the {@link DeskBookingService}, {@link DeskService} and {@link EmployeeService}
+ * to perform the necessary operations. The reference data for the forms is read from the {@link ReferenceDataCache}.
  *
  * <p>The controller is responsible for handling all HTTP requests related to desk bookings.
  *
@@ -46,6 +54,7 @@ import static com.itkolleg.bookingsystem.domains.ViewConstants.*;
  * <p>The endpoints provided by this controller are:
  * <ul>
  *   <li>/web/deskbookings/admin - Retrieves all desk bookings (accessible to admins and operators)</li>
+ *   <li>/web/deskbookings/admin/export - Streams the desk bookings of a date range as CSV or NDJSON (accessible to admins and operators)</li>
  *   <li>/web/deskbookings/admin/view/{id} - Retrieves the details of a specific desk booking (accessible to admins and operators)</li>
  *   <li>/web/deskbookings/admin/add - Displays the form for adding a desk booking (accessible to admins and operators)</li>
  *   <li>/web/deskbookings/admin/add - Adds a new desk booking based on the submitted form data (accessible to admins and operators)</li>
@@ -64,6 +73,8 @@ import static com.itkolleg.bookingsystem.domains.ViewConstants.*;
  *   <li>/web/deskbookings/deskbookinghistory/{id} - Retrieves the desk booking history for a specific employee</li>
  *   <li>/web/deskbookings/cancel/{id} - Displays the form for cancelling a specific desk booking for the currently logged-in employee</li>
  *   <li>/web/deskbookings/cancel/{id} - Cancels a specific desk booking for the currently logged-in employee</li>
+ *   <li>/web/deskbookings/recurring - Displays the form for booking a desk on several days, e.g. every Tuesday for 12 weeks</li>
+ *   <li>/web/deskbookings/recurring - Books the series for the currently logged-in employee and shows the outcome of every day</li>
  *   <li>/web/deskbookings/error - Displays the error page</li>
  * </ul>
  *
@@ -84,19 +95,21 @@ public class DeskBookingController {
     private final DeskBookingService deskBookingService;
     private final DeskService deskService;
     private final EmployeeService employeeService;
-    private final TimeslotService timeslotService;
+    private final ReferenceDataCache referenceDataCache;
+    private final BookingExportWriter bookingExportWriter;
 
-    public DeskBookingController(DeskBookingService deskBookingService, DeskService deskService, EmployeeService employeeService, TimeslotService timeslotService) {
+    public DeskBookingController(DeskBookingService deskBookingService, DeskService deskService, EmployeeService employeeService, ReferenceDataCache referenceDataCache, BookingExportWriter bookingExportWriter) {
         this.deskBookingService = deskBookingService;
         this.deskService = deskService;
         this.employeeService = employeeService;
-        this.timeslotService = timeslotService;
+        this.referenceDataCache = referenceDataCache;
+        this.bookingExportWriter = bookingExportWriter;
     }
 
 
     /**
      * Retrieves a list of all employees to be used as a model attribute.
-     * This method attempts to retrieve all employees from the employee service.
+     * The employees are read from the reference data cache and only loaded from the database after a change.
      * If any exception occurs during the fetch operation, it logs the error and returns an empty list as a fallback.
      *
      * @return A list of all employees, or an empty list if an error occurs.
@@ -105,7 +118,7 @@ public class DeskBookingController {
     @ModelAttribute("employees")
     public List<Employee> getEmployees() {
         try {
-            return this.employeeService.getAllEmployees();
+            return this.referenceDataCache.getEmployees();
         } catch (Exception e) { // Catch specific exception
             log.error("Error occurred while getting all employees: {}", e.getMessage(), e);
             return Collections.emptyList();
@@ -114,7 +127,7 @@ public class DeskBookingController {
 
     /**
      * Retrieves a list of all desks to be used as a model attribute.
-     * This method attempts to retrieve all desks from the desk service.
+     * The desks are read from the reference data cache and only loaded from the database after a change.
      * If any exception occurs during the fetch operation, it logs the error and returns an empty list as a fallback.
      *
      * @return A list of all desks, or an empty list if an error occurs.
@@ -122,7 +135,7 @@ public class DeskBookingController {
     @ModelAttribute("desks")
     public List<Desk> getDesks(){
         try {
-            return this.deskService.getAllDesks();
+            return this.referenceDataCache.getDesks();
         } catch (Exception e) {
             log.error("Error occurred while getting all desks: {}", e.getMessage(), e);
             return Collections.emptyList(); // Returns an empty list as a default value
@@ -131,17 +144,13 @@ public class DeskBookingController {
 
     /**
      * Retrieves a list of all start times for time slots to be used as a model attribute.
-     * * This method fetches all time slots from the timeslot service, converts them to a list of start times, and removes duplicates.
+     * The distinct start times are computed once per change of the timeslots and served from the reference data cache.
      * @return A list of all start times.
      */
     @ModelAttribute("startTimes")
     public List<String> getStartTimes() {
         try {
-            return this.timeslotService.getAllTimeslots()
-                    .stream()
-                    .map(Timeslot::getStartTimeAsString)
-                    .distinct()
-                    .collect(Collectors.toList());
+            return this.referenceDataCache.getStartTimes();
         } catch (Exception e) {
             log.error("Error occurred while getting all start times: {}", e.getMessage(), e);
             return Collections.emptyList(); // Returns an empty list as a default value
@@ -150,17 +159,13 @@ public class DeskBookingController {
 
     /**
      * Retrieves a list of all end times for time slots to be used as a model attribute.
-     * This method fetches all time slots from the timeslot service, converts them to a list of end times, and removes duplicates.
+     * The distinct end times are computed once per change of the timeslots and served from the reference data cache.
      * @return A list of all end times.
      */
     @ModelAttribute("endTimes")
     public List<String> getEndTimes() {
         try {
-            return this.timeslotService.getAllTimeslots()
-                    .stream()
-                    .map(Timeslot::getEndTimeAsString)
-                    .distinct()
-                    .collect(Collectors.toList());
+            return this.referenceDataCache.getEndTimes();
         } catch (Exception e) {
             log.error("Error occurred while getting all end times: {}", e.getMessage(), e);
             return Collections.emptyList(); // Returns an empty list as a default value
@@ -180,31 +185,56 @@ public class DeskBookingController {
 
 
     /**
-     * Handles the request to retrieve and display all desk bookings in the admin view.
+     * Handles the request to display one page of the desk bookings in the admin view.
+     * The bookings are ordered by date and id and filtered by date in the database; the next page continues after the
+     * cursor of the previous one.
      *
+     * @param from  The first date to show, defaults to today.
+     * @param to    The last date to show, optional.
+     * @param after The cursor of the previous page, optional.
+     * @param size  The number of bookings per page, optional.
      * @param model The model object to which attributes can be added.
      * @return The view name for the admin view that displays all desk bookings.
-     * @throws ResourceNotFoundException If there are no desk bookings available.
      */
     @GetMapping(ADMIN_VIEW_ALL)
-    public String getAllDeskBookings(Model model) throws ResourceNotFoundException {
-        // Fetch all the desk bookings
-        List<DeskBooking> bookings = this.deskBookingService.getAllBookings();
-
-        // Check if there are no desk bookings
-        if (bookings.isEmpty()) {
-            // Add a message to the model indicating no bookings are available
-            model.addAttribute("errorMessage", "No desk bookings are available.");
-            // Throw an exception indicating no desk bookings were found
-            throw new ResourceNotFoundException("No desk bookings found.");
-        } else {
-            // Add the list of desk bookings to the model for the view to access
-            model.addAttribute("viewAllDeskBookings", bookings);
-        }
+    public String getAllDeskBookings(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                     @RequestParam(required = false) String after,
+                                     @RequestParam(required = false) Integer size,
+                                     Model model) {
+        LocalDate firstDate = from != null ? from : LocalDate.now();
+        int pageSize = BookingSlice.limitSize(size);
+        BookingSlice<DeskBooking> slice = this.deskBookingService.getBookingSlice(firstDate, to, BookingCursor.parse(after), pageSize);
+
+        model.addAttribute("viewAllDeskBookings", slice.getContent());
+        model.addAttribute("slice", slice);
+        model.addAttribute("from", firstDate);
+        model.addAttribute("to", to);
+        model.addAttribute("size", pageSize);
+        model.addAttribute("paged", after != null && !after.isBlank());
         // Return the view name for the admin view that displays all desk bookings
         return A_ALL_DESKBOOKINGS;
     }
 
+    /**
+     * Handles the request to export the desk bookings of a date range for reporting.
+     * The bookings are streamed from the database straight into the response, so the memory used does not depend on
+     * the length of the range.
+     *
+     * @param from     The first date to export, defaults to the first day of the current month.
+     * @param to       The last date to export, defaults to the last day of the month of {@code from}.
+     * @param format   {@code csv} (default) or {@code ndjson}.
+     * @param response The response the bookings are written to.
+     * @throws IOException If writing the response fails.
+     */
+    @GetMapping(ADMIN_EXPORT)
+    public void exportDeskBookings(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                   @RequestParam(required = false) String format,
+                                   HttpServletResponse response) throws IOException {
+        bookingExportWriter.export(response, "deskbookings", from, to, format, this.deskBookingService::exportBookings);
+    }
+
     /**
      * Handles the request to view a specific desk booking in the admin view.
      *
@@ -470,14 +500,10 @@ public class DeskBookingController {
      * @throws ResourceNotFoundException If no desk bookings are found in the system.
      */
     @GetMapping(EMP_View_All)
-    public String getBookings(Model model, Principal principal) throws ResourceNotFoundException {
+    public String getBookings(Model model, CustomEmployeeDetails currentEmployee) throws ResourceNotFoundException {
 
-        // Get the currently logged-in user's username
-        String user = principal.getName();
-
-        // Fetch the employee details using the logged-in user's username
-        Employee employee = employeeService.findByNick(user);
-        Long employeeId = employee.getId();
+        // The logged-in employee is resolved from the session
+        Long employeeId = currentEmployee.getId();
 
         // Fetch the bookings specific to the logged-in employee
         List<DeskBooking> myBookings = this.deskBookingService.getBookingsByEmployeeId(employeeId);
@@ -520,15 +546,9 @@ public class DeskBookingController {
     }
 
     @GetMapping({EMP_NEW, EMP_ADD})
-    public String eDeskBookingForm(@PathVariable(value = "deskId", required = false) Long deskId, Model model, DeskBooking flashDeskBooking, Principal principal) throws ResourceNotFoundException {
-        // Get the currently logged-in user's username
-        String user = principal.getName();
-
-        // Fetch the employee details using the logged-in user's username
-        Employee loggedInEmployee = employeeService.getEmployeeByNick(user);
-
+    public String eDeskBookingForm(@PathVariable(value = "deskId", required = false) Long deskId, Model model, DeskBooking flashDeskBooking, CustomEmployeeDetails currentEmployee) throws ResourceNotFoundException {
         // Ensure that the employee is only allowed to create a booking for themselves
-        if (flashDeskBooking != null && !flashDeskBooking.getEmployee().getId().equals(loggedInEmployee.getId())) {
+        if (flashDeskBooking != null && !flashDeskBooking.getEmployee().getId().equals(currentEmployee.getId())) {
             model.addAttribute("errorMessage", "You can only create a booking for yourself.");
             return ERROR; // or any other error page you have
         }
@@ -560,7 +580,7 @@ public class DeskBookingController {
     }
 
     @PostMapping({EMP_NEW, EMP_ADD})
-    public String empNewDeskBooking(@ModelAttribute("deskBooking") @Valid DeskBooking booking, Principal principal, BindingResult bindingResult, @RequestParam(value = "desk.id", required = false) Long deskId, Model model) throws ResourceNotFoundException, EmployeeNotFoundException, DeskNotAvailableException, InterruptedException, ExecutionException {
+    public String empNewDeskBooking(@ModelAttribute("deskBooking") @Valid DeskBooking booking, CustomEmployeeDetails currentEmployee, BindingResult bindingResult, @RequestParam(value = "desk.id", required = false) Long deskId, Model model) throws ResourceNotFoundException, EmployeeNotFoundException, DeskNotAvailableException, InterruptedException, ExecutionException {
         if (deskId == null && booking.getDesk().getId() == null) {
             model.addAttribute("errorMessage", "Desk ID is missing.");
             return E_ADD_DESKBOOKING;
@@ -571,12 +591,8 @@ public class DeskBookingController {
             booking.setDesk(desk);
         }
 
-        // Get the currently logged-in user's username
-        String user = principal.getName();
-
-        // Fetch the employee details using the logged-in user's username
-        Employee employee = employeeService.getEmployeeByNick(user);
-        booking.setEmployee(employee);
+        // Book for the logged-in employee; the reference is not loaded from the database
+        booking.setEmployee(employeeService.getEmployeeReference(currentEmployee.getId()));
 
         if (bindingResult.hasErrors()) {
             if (deskId != null) {
@@ -589,7 +605,8 @@ public class DeskBookingController {
         }
 
         try {
-            this.deskBookingService.addDeskBooking(booking);
+            // the role comes from the principal as well, so the employee reference stays uninitialized
+            this.deskBookingService.addDeskBooking(booking, currentEmployee.getRole());
         } catch (DeskNotAvailableException e) {
             model.addAttribute("errorMessage", e.getMessage());
             if (deskId != null) {
@@ -602,8 +619,57 @@ public class DeskBookingController {
         return "redirect:" + EMP_View_All_P;
     }
 
+    /**
+     * Displays the form for a recurring desk booking of the logged-in employee.
+     *
+     * @param model The model object to which attributes can be added.
+     * @return The view name of the recurring booking form.
+     */
+    @GetMapping(EMP_RECURRING)
+    public String recurringDeskBookingForm(Model model) {
+        RecurringDeskBooking series = new RecurringDeskBooking();
+        series.setFirstDate(LocalDate.now());
+        model.addAttribute("recurringDeskBooking", series);
+        return E_RECURRING_DESKBOOKING;
+    }
+
+    /**
+     * Books the series for the logged-in employee. Occurrences that conflict or fall on a weekend or public holiday
+     * are skipped and listed together with the booked ones.
+     *
+     * @param series          The series from the form.
+     * @param bindingResult   The validation result of the form.
+     * @param currentEmployee The logged-in employee.
+     * @param model           The model object to which attributes can be added.
+     * @return The view name of the recurring booking form, showing the outcome of every occurrence.
+     * @throws ResourceNotFoundException If the desk or the employee is not found.
+     */
+    @PostMapping(EMP_RECURRING)
+    public String empNewRecurringDeskBooking(@ModelAttribute("recurringDeskBooking") @Valid RecurringDeskBooking series, BindingResult bindingResult, CustomEmployeeDetails currentEmployee, Model model) throws ResourceNotFoundException {
+        if (bindingResult.hasErrors()) {
+            log.warn("Validation errors: {}", bindingResult.getAllErrors());
+            model.addAttribute("validationErrors", bindingResult.getAllErrors().stream()
+                    .map(error -> error.getDefaultMessage())
+                    .collect(Collectors.toList()));
+            return E_RECURRING_DESKBOOKING;
+        }
+        if (series.getDesk().getId() == null) {
+            model.addAttribute("errorMessage", "Desk ID is missing.");
+            return E_RECURRING_DESKBOOKING;
+        }
+
+        try {
+            List<BookingOccurrence> occurrences = this.deskBookingService.addRecurringDeskBooking(series, employeeService.getEmployeeReference(currentEmployee.getId()), currentEmployee.getRole());
+            model.addAttribute("occurrences", occurrences);
+            model.addAttribute("bookedCount", occurrences.stream().filter(BookingOccurrence::isBooked).count());
+        } catch (CustomIllegalArgumentException | DeskNotAvailableException e) {
+            model.addAttribute("errorMessage", e.getMessage());
+        }
+        return E_RECURRING_DESKBOOKING;
+    }
+
     @GetMapping(EMP_UPDATE)
-    public String updateEDeskBookingForm(@PathVariable Long id, Model model, Principal principal) throws ResourceNotFoundException {
+    public String updateEDeskBookingForm(@PathVariable Long id, Model model, CustomEmployeeDetails currentEmployee) throws ResourceNotFoundException {
         Optional<DeskBooking> booking = this.deskBookingService.getBookingById(id);
 
         if (booking.isEmpty()) {
@@ -612,9 +678,7 @@ public class DeskBookingController {
         }
 
         // Check if the logged-in user is authorized to update the booking
-        String user = principal.getName();
-        Employee loggedInEmployee = employeeService.getEmployeeByNick(user);
-        if (!booking.get().getEmployee().getId().equals(loggedInEmployee.getId())) {
+        if (!booking.get().getEmployee().getId().equals(currentEmployee.getId())) {
             // Not authorized
             return "redirect:" + EMP_View_All_P; // Redirect to the list of all bookings
         }
@@ -630,7 +694,7 @@ public class DeskBookingController {
     }
 
     @PostMapping(PathConstants.EMP_UPDATE_P)
-    public String updateEDeskBooking(@Valid DeskBooking booking, BindingResult bindingResult, Principal principal) throws ResourceNotFoundException, ExecutionException, InterruptedException, EmployeeNotFoundException, DeskNotAvailableException {
+    public String updateEDeskBooking(@Valid DeskBooking booking, BindingResult bindingResult, CustomEmployeeDetails currentEmployee) throws ResourceNotFoundException, ExecutionException, InterruptedException, EmployeeNotFoundException, DeskNotAvailableException {
         if (bindingResult.hasErrors()) {
             System.out.println("Errors: " + bindingResult.getAllErrors());
             return E_UPDATE_DESKBOOKING;
@@ -643,15 +707,9 @@ public class DeskBookingController {
         }
 
         Long employeeId = booking.getEmployee().getId();
-        Employee employee = employeeService.getEmployeeById(employeeId);
-        if (employee == null) {
-            throw new EmployeeNotFoundException("employee not found for id: " + employeeId);
-        }
 
         // Check if the logged-in user is authorized to update the booking
-        String user = principal.getName();
-        Employee loggedInEmployee = employeeService.getEmployeeByNick(user);
-        if (!employeeId.equals(loggedInEmployee.getId())) {
+        if (!currentEmployee.getId().equals(employeeId)) {
             // Not authorized
             return "redirect:" + EMP_View_All_P; // Redirect to the list of all bookings
         }
@@ -660,7 +718,7 @@ public class DeskBookingController {
         // If you need to format it, you can do so, but it's not necessary for saving to the database.
 
         booking.setDesk(desk);
-        booking.setEmployee(employee);
+        booking.setEmployee(employeeService.getEmployeeReference(employeeId));
 
         this.deskBookingService.updateBooking(booking);
         return "redirect:" + EMP_View_All_P; // Redirect to the list of all bookings
@@ -670,29 +728,26 @@ public class DeskBookingController {
      * Retrieves and displays the desk booking history for a specific employee.
      *
      * <p>
-     * This method fetches the employee details based on the authenticated user's nickname.
+     * This method checks the requested ID against the logged-in employee from the session.
      * It then retrieves the desk booking history for the specified employee ID.
      * The employee details and booking history are added to the model for rendering in the view.
      * </p>
      *
      * @param model The model object to which attributes are added for rendering in the view.
      * @param id The unique identifier of the employee whose booking history is to be retrieved.
-     * @param principal The authenticated user's principal object containing user details.
+     * @param currentEmployee The logged-in employee.
      * @return The name of the view that displays the desk booking history for the employee.
      * @throws ResourceNotFoundException If the specified employee or booking history cannot be located.
      */
     @GetMapping(EMP_VIEW_HISTORY)
-    public String getMyDeskBookingHistory(Model model, @PathVariable Long id, Principal principal) throws ResourceNotFoundException {
-        Employee employee = this.employeeService.getEmployeeByNick(principal.getName());
-
+    public String getMyDeskBookingHistory(Model model, @PathVariable Long id, CustomEmployeeDetails currentEmployee) throws ResourceNotFoundException {
         // Check if the logged-in employee's ID matches the ID in the URL
-        if (!employee.getId().equals(id)) {
+        if (!currentEmployee.getId().equals(id)) {
             model.addAttribute("errorMessage", "Unauthorized access.");
             return "redirect:"+EMP_View_All;
         }
 
         List<DeskBooking> myBookingHistory = this.deskBookingService.getBookingHistoryByEmployeeId(id);
-        model.addAttribute("employee", employee);
         model.addAttribute("myBookingHistory", myBookingHistory);
         if (!model.containsAttribute("errorMessage")) {
             model.addAttribute("errorMessage", null);
@@ -8,13 +8,15 @@ import com.itkolleg.bookingsystem.exceptions.ResourceNotFoundException;
 import com.itkolleg.bookingsystem.exceptions.ressourceExceptions.RessourceAlreadyExistsException;
 import com.itkolleg.bookingsystem.exceptions.ressourceExceptions.RessourceNotAvailableException;
 import com.itkolleg.bookingsystem.exceptions.ressourceExceptions.RessourceNotFoundException;
+import com.itkolleg.bookingsystem.repos.booking.BookingCursor;
+import com.itkolleg.bookingsystem.repos.booking.BookingSlice;
+import com.itkolleg.bookingsystem.service.booking.BookingExportWriter;
 import com.itkolleg.bookingsystem.service.employee.EmployeeService;
 import com.itkolleg.bookingsystem.service.ressource.RessourceService;
 import com.itkolleg.bookingsystem.service.ressourcebooking.RessourceBookingService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -22,6 +24,8 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 
@@ -40,6 +44,7 @@ public class RessourceBookingWebController {
     RessourceBookingService ressourceBookingService;
     RessourceService ressourceService;
     EmployeeService employeeService;
+    BookingExportWriter bookingExportWriter;
 
     /**
      * Konstruktor der Klasse RessourceBookingWebController. Der Konstruktor nimmt folgende Parameter entgegen:
@@ -47,49 +52,78 @@ public class RessourceBookingWebController {
      * @param ressourceBookingService vom Typ RessourceBookingService
      * @param ressourceService        vom Typ RessourceService
      * @param employeeService         vom Typ EmployeeService
+     * @param bookingExportWriter     vom Typ BookingExportWriter, fuer den Export
      */
-    public RessourceBookingWebController(RessourceBookingService ressourceBookingService, RessourceService ressourceService, EmployeeService employeeService) {
+    public RessourceBookingWebController(RessourceBookingService ressourceBookingService, RessourceService ressourceService, EmployeeService employeeService, BookingExportWriter bookingExportWriter) {
         this.ressourceBookingService = ressourceBookingService;
         this.ressourceService = ressourceService;
         this.employeeService = employeeService;
+        this.bookingExportWriter = bookingExportWriter;
     }
 
     /**
      * Diese Methode gibt eine Liste aller Ressourcen Buchungen für einen/eine angemeldeten/angemeldetet Mitarbeiter:inn aus.
      * Die Methode prüft, ob zur Laufzeit ein/eine angemeldeter/angemeldete Mitarbeiter:inn existiert. Wenn nicht, wird eine EmployeeNotFoundException geworfen.
-     * Scheitert die Prüfung nicht, wird eine Liste für den angemeldeten employee geliefert. Die Identifizierung läuft über den einzigartigen NickName.
+     * Scheitert die Prüfung nicht, wird eine Liste für den angemeldeten employee geliefert. Der/die Mitarbeiter:in kommt aus der Session, ohne Datenbankabfrage.
      * Diese Methode ist mit @GetMapping annotiert, da sie eine HTTP-Anfrage verarbeiten und zurückliefern muss.
      *
+     * @param currentEmployee angemeldete/angemeldeter Mitarbeiter:inn
      * @return ModelAndView
      * @throws EmployeeNotFoundException Mitarbeiter nicht gefunden
      */
     @GetMapping("/allBookingsEmployee")
-    public ModelAndView allBookingsEmployee() throws EmployeeNotFoundException {
-
-        //TODO: Hilfsmethode schreiben um Code-Duplikate zu vermeiden
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetails)) {
-            throw new EmployeeNotFoundException("employee not found");
-        }
-
-        String username = ((UserDetails) authentication.getPrincipal()).getUsername();
-        Employee employee = this.employeeService.getEmployeeByNick(username);
+    public ModelAndView allBookingsEmployee(CustomEmployeeDetails currentEmployee) throws EmployeeNotFoundException {
+        Employee employee = this.employeeService.getEmployeeReference(currentEmployee.getId());
 
         List<RessourceBooking> bookings = ressourceBookingService.getBookingsByEmployee(employee);
         return new ModelAndView("ressourceBooking/viewRessourceBookingsEmployee", "bookings", bookings);
     }
 
     /**
-     * Diese Methode liefert dem/der angemeldeten admin eine Liste aller Buchungen zurück.
+     * Diese Methode liefert dem/der angemeldeten admin eine Seite der Buchungen zurück, sortiert nach Datum und ID.
+     * Der Datumsfilter wird in der Datenbank angewendet, die nächste Seite setzt nach dem Cursor der vorherigen fort.
      * Diese Methode ist mit @GetMapping annotiert, da sie eine HTTP-Anfrage verarbeiten und zurückliefern muss.
      *
+     * @param from  Erstes angezeigtes Datum, standardmäßig heute
+     * @param to    Letztes angezeigtes Datum, optional
+     * @param after Cursor der vorherigen Seite, optional
+     * @param size  Anzahl der Buchungen pro Seite, optional
      * @return ModelAndView
      */
     @GetMapping("/allBookings")
-    public ModelAndView allBookings() {
+    public ModelAndView allBookings(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                    @RequestParam(required = false) String after,
+                                    @RequestParam(required = false) Integer size) {
+
+        LocalDate firstDate = from != null ? from : LocalDate.now();
+        int pageSize = BookingSlice.limitSize(size);
+        BookingSlice<RessourceBooking> slice = ressourceBookingService.getBookingSlice(firstDate, to, BookingCursor.parse(after), pageSize);
+        ModelAndView modelAndView = new ModelAndView("ressourceBooking/viewRessourceBookings", "bookings", slice.getContent());
+        modelAndView.addObject("slice", slice);
+        modelAndView.addObject("from", firstDate);
+        modelAndView.addObject("to", to);
+        modelAndView.addObject("size", pageSize);
+        modelAndView.addObject("paged", after != null && !after.isBlank());
+        return modelAndView;
+    }
 
-        List<RessourceBooking> bookings = ressourceBookingService.getAllBookings();
-        return new ModelAndView("ressourceBooking/viewRessourceBookings", "bookings", bookings);
+    /**
+     * Diese Methode exportiert die RessourceBookings eines Datumsbereichs für Auswertungen.
+     * Die Buchungen werden direkt aus der Datenbank in die Antwort gestreamt.
+     *
+     * @param from     Erstes exportiertes Datum, standardmäßig der Monatserste
+     * @param to       Letztes exportiertes Datum, standardmäßig der Monatsletzte von {@code from}
+     * @param format   {@code csv} (Standard) oder {@code ndjson}
+     * @param response Antwort, in die die Buchungen geschrieben werden
+     * @throws IOException Schreiben der Antwort fehlgeschlagen
+     */
+    @GetMapping("/export")
+    public void exportBookings(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                               @RequestParam(required = false) String format,
+                               HttpServletResponse response) throws IOException {
+        bookingExportWriter.export(response, "ressourcebookings", from, to, format, ressourceBookingService::exportBookings);
     }
 
     /**
@@ -99,6 +133,7 @@ public class RessourceBookingWebController {
      *
      * @param id    vom Typ Long
      * @param model vom Typ Model
+     * @param currentEmployee angemeldete/angemeldeter Mitarbeiter:inn
      * @return ModelAndView
      * @throws RessourceNotFoundException ressource nicht gefunden
      * @throws ExecutionException         Ausführung nicht funktioniert
@@ -106,15 +141,9 @@ public class RessourceBookingWebController {
      * @throws EmployeeNotFoundException  employee nicht gefunden
      */
     @GetMapping("/createBookingEmployee/{id}")
-    public ModelAndView createBookingEmployee(@PathVariable Long id, Model model) throws RessourceNotFoundException, ExecutionException, InterruptedException, EmployeeNotFoundException {
-
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetails)) {
-            throw new EmployeeNotFoundException("employee not found");
-        }
+    public ModelAndView createBookingEmployee(@PathVariable Long id, Model model, CustomEmployeeDetails currentEmployee) throws RessourceNotFoundException, ExecutionException, InterruptedException, EmployeeNotFoundException {
 
-        String username = ((UserDetails) authentication.getPrincipal()).getUsername();
-        Employee employee = this.employeeService.getEmployeeByNick(username);
+        Employee employee = this.employeeService.getEmployeeReference(currentEmployee.getId());
 
         RessourceBooking booking = new RessourceBooking();
 
@@ -158,6 +187,7 @@ public class RessourceBookingWebController {
      *
      * @param id    vom Typ Long
      * @param model vom Typ Model
+     * @param currentEmployee angemeldete/angemeldeter Mitarbeiter:inn
      * @return ModelAndView
      * @throws RessourceNotFoundException Ressoruce nicht gefunden
      * @throws ExecutionException         Auführungsfehler
@@ -165,15 +195,9 @@ public class RessourceBookingWebController {
      * @throws EmployeeNotFoundException  Emloyee nicht gefunden
      */
     @GetMapping("/createBooking/{id}")
-    public ModelAndView createBookingAdmin(@PathVariable Long id, Model model) throws RessourceNotFoundException, ExecutionException, InterruptedException, EmployeeNotFoundException {
-
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetails)) {
-            throw new EmployeeNotFoundException("employee not found");
-        }
+    public ModelAndView createBookingAdmin(@PathVariable Long id, Model model, CustomEmployeeDetails currentEmployee) throws RessourceNotFoundException, ExecutionException, InterruptedException, EmployeeNotFoundException {
 
-        String username = ((UserDetails) authentication.getPrincipal()).getUsername();
-        Employee employee = this.employeeService.getEmployeeByNick(username);
+        Employee employee = this.employeeService.getEmployeeReference(currentEmployee.getId());
 
         RessourceBooking booking = new RessourceBooking();
 
@@ -0,0 +1,112 @@
+package com.itkolleg.bookingsystem.controller.analytics;
+
+import com.itkolleg.bookingsystem.domains.analytics.OccupancyScope;
+import com.itkolleg.bookingsystem.service.analytics.OccupancyAnalyticsService;
+import com.itkolleg.bookingsystem.service.analytics.OccupancyGranularity;
+import com.itkolleg.bookingsystem.service.analytics.OccupancyReport;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.time.LocalDate;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Shows administrators how well desks, rooms, floors and ressource types are used.
+ * <ul>
+ *   <li>/web/analytics - The dashboard with utilisation, peak hours and no-show candidates</li>
+ *   <li>/web/analytics/data - The same report as JSON</li>
+ *   <li>/web/analytics/reconcile - Recomputes the rollups of the shown range</li>
+ * </ul>
+ * The range defaults to the current month.
+ */
+@Controller
+@RequestMapping("/web/analytics")
+public class OccupancyAnalyticsWebController {
+
+    private static final String VIEW = "analytics/dashboard";
+
+    private final OccupancyAnalyticsService occupancyAnalyticsService;
+
+    public OccupancyAnalyticsWebController(OccupancyAnalyticsService occupancyAnalyticsService) {
+        this.occupancyAnalyticsService = occupancyAnalyticsService;
+    }
+
+    /**
+     * Shows the dashboard.
+     *
+     * @param scope       what to report on, defaults to desks
+     * @param from        the first day of the range
+     * @param to          the last day of the range
+     * @param granularity the periods of the series, defaults to weeks
+     * @param model       the model to be used
+     * @return the view name of the dashboard
+     * @throws ExecutionException   if the rooms or ressources cannot be loaded
+     * @throws InterruptedException if loading the rooms or ressources is interrupted
+     */
+    @GetMapping
+    public String showDashboard(@RequestParam(defaultValue = "DESK") OccupancyScope scope,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                @RequestParam(defaultValue = "WEEK") OccupancyGranularity granularity,
+                                Model model) throws ExecutionException, InterruptedException {
+        LocalDate first = from != null ? from : LocalDate.now().withDayOfMonth(1);
+        LocalDate last = to != null ? to : first.withDayOfMonth(first.lengthOfMonth());
+        if (last.isBefore(first)) {
+            model.addAttribute("rangeError", "Das Ende des Zeitraums liegt vor dem Beginn.");
+            last = first;
+        }
+        OccupancyReport report = occupancyAnalyticsService.getReport(scope, first, last, granularity);
+        model.addAttribute("scopes", OccupancyScope.values());
+        model.addAttribute("granularities", OccupancyGranularity.values());
+        model.addAttribute("report", report);
+        model.addAttribute("peakBookedMinutes", report.getHours().stream().mapToLong(OccupancyReport.Row::bookedMinutes).max().orElse(0));
+        model.addAttribute("noShows", occupancyAnalyticsService.getNoShowCandidates(first, last));
+        return VIEW;
+    }
+
+    /**
+     * Returns the report as JSON, e.g. for charts or external reporting.
+     *
+     * @param scope       what to report on
+     * @param from        the first day of the range
+     * @param to          the last day of the range
+     * @param granularity the periods of the series, defaults to days
+     * @return the report
+     * @throws ExecutionException   if the rooms or ressources cannot be loaded
+     * @throws InterruptedException if loading the rooms or ressources is interrupted
+     */
+    @GetMapping(value = "/data", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<OccupancyReport> getReportData(@RequestParam OccupancyScope scope,
+                                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                         @RequestParam(defaultValue = "DAY") OccupancyGranularity granularity)
+            throws ExecutionException, InterruptedException {
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(occupancyAnalyticsService.getReport(scope, from, to, granularity));
+    }
+
+    /**
+     * Recomputes the rollups of the range from the bookings and shows the dashboard again.
+     *
+     * @return a redirect to the dashboard of the same range
+     */
+    @PostMapping("/reconcile")
+    public String reconcile(@RequestParam OccupancyScope scope,
+                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                            @RequestParam OccupancyGranularity granularity) {
+        if (!to.isBefore(from)) {
+            occupancyAnalyticsService.reconcile(from, to);
+        }
+        return "redirect:/web/analytics?scope=" + scope + "&from=" + from + "&to=" + to + "&granularity=" + granularity;
+    }
+}
@@ -0,0 +1,46 @@
+package com.itkolleg.bookingsystem.controller.availability;
+
+import com.itkolleg.bookingsystem.service.availability.AvailabilityFeed;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+
+/**
+ * Streams booking changes of one day to the floor plan, see {@link AvailabilityFeed}.
+ * <ul>
+ *   <li>/web/feed/availability - Server-Sent Events with the booking deltas of a day (accessible to all employees)</li>
+ * </ul>
+ */
+@Controller
+public class AvailabilityFeedController {
+
+    private final AvailabilityFeed availabilityFeed;
+
+    public AvailabilityFeedController(AvailabilityFeed availabilityFeed) {
+        this.availabilityFeed = availabilityFeed;
+    }
+
+    /**
+     * Opens the feed of a day.
+     *
+     * @param date  the day to watch, defaults to today
+     * @param floor the floor to watch; without it the rooms of all floors are included
+     * @return the event stream, or 503 if too many feeds are open
+     */
+    @GetMapping(value = "/web/feed/availability", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamAvailability(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                                         @RequestParam(required = false) String floor) {
+        SseEmitter emitter = availabilityFeed.subscribe(date != null ? date : LocalDate.now(), floor);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+}
@@ -0,0 +1,64 @@
+package com.itkolleg.bookingsystem.controller.bulkimport;
+
+import com.itkolleg.bookingsystem.service.bulkimport.BulkImportKind;
+import com.itkolleg.bookingsystem.service.bulkimport.BulkImportReport;
+import com.itkolleg.bookingsystem.service.bulkimport.BulkImportService;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+
+/**
+ * Lets administrators upload CSV files with desks, rooms, ressources or employees and shows the import report.
+ */
+@Controller
+@RequestMapping("/web/import")
+public class BulkImportWebController {
+
+    private static final String VIEW = "bulkimport/bulkImport";
+
+    private final BulkImportService bulkImportService;
+
+    public BulkImportWebController(BulkImportService bulkImportService) {
+        this.bulkImportService = bulkImportService;
+    }
+
+    /**
+     * Shows the upload form together with the expected columns of every kind.
+     *
+     * @param model the model to be used
+     * @return the view name of the import page
+     */
+    @GetMapping
+    public String showImportForm(Model model) {
+        model.addAttribute("kinds", BulkImportKind.values());
+        return VIEW;
+    }
+
+    /**
+     * Imports the uploaded file and shows the report on the same page.
+     *
+     * @param kind  what the file contains, e.g. {@code DESKS}
+     * @param file  the uploaded CSV file
+     * @param model the model to be used
+     * @return the view name of the import page
+     * @throws IOException if the upload cannot be read
+     */
+    @PostMapping
+    public String importFile(@RequestParam("kind") BulkImportKind kind, @RequestParam("file") MultipartFile file, Model model) throws IOException {
+        model.addAttribute("kinds", BulkImportKind.values());
+        model.addAttribute("selectedKind", kind);
+        if (file.isEmpty()) {
+            model.addAttribute("uploadError", "Bitte eine CSV-Datei auswählen.");
+            return VIEW;
+        }
+        BulkImportReport report = bulkImportService.importCsv(kind, file.getInputStream(), file.getOriginalFilename());
+        model.addAttribute("report", report);
+        return VIEW;
+    }
+}
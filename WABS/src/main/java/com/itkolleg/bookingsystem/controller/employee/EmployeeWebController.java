@@ -110,8 +110,11 @@ public class EmployeeWebController {
 
     @PostMapping("/admin/editemployee")
     public String editEmployee(@Valid @ModelAttribute("employee") Employee updatedEmployee, BindingResult bindingResult, Model model) throws EmployeeNotFoundException {
-        System.out.println("Validierung fehlgeschlagen: " + bindingResult.getAllErrors());
-        if (bindingResult.hasErrors()) {
+        // Ein leeres Passwortfeld behaelt das gespeicherte Passwort, siehe EmployeeService.updateEmployeeById
+        boolean keepPassword = updatedEmployee.getPassword() == null || updatedEmployee.getPassword().isBlank();
+        boolean invalid = bindingResult.hasGlobalErrors() || bindingResult.getFieldErrors().stream()
+                .anyMatch(error -> !(keepPassword && error.getField().equals("password")));
+        if (invalid) {
             System.out.println("Validierung fehlgeschlagen: " + bindingResult.getAllErrors());
             return "employee/editemployeeform";
         } else {
@@ -1,9 +1,11 @@
 package com.itkolleg.bookingsystem.controller.room;
 import com.itkolleg.bookingsystem.exceptions.roomExceptions.RoomNotFoundException;
+import com.itkolleg.bookingsystem.service.deskbooking.FloorPlanOccupancyService;
 import com.itkolleg.bookingsystem.service.room.RoomService;
 import com.itkolleg.bookingsystem.domains.Room;
 import com.itkolleg.bookingsystem.exceptions.roomExceptions.RoomDeletionNotPossibleException;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -11,7 +13,9 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.ModelAndView;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 
@@ -32,14 +36,17 @@ import java.util.concurrent.ExecutionException;
 public class RoomWebController {
 
     RoomService roomService;
+    FloorPlanOccupancyService floorPlanOccupancyService;
 
     /**
      * Constructs a new RoomWebController with the given RoomService.
      *
-     * @param roomService the RoomService to be used
+     * @param roomService               the RoomService to be used
+     * @param floorPlanOccupancyService provides the desk occupancy shown on the floor plan
      */
-    public RoomWebController(RoomService roomService) {
+    public RoomWebController(RoomService roomService, FloorPlanOccupancyService floorPlanOccupancyService) {
         this.roomService = roomService;
+        this.floorPlanOccupancyService = floorPlanOccupancyService;
     }
 
     /**
@@ -165,28 +172,36 @@ public class RoomWebController {
     /**
      * Handles the GET request for "/floors" endpoint.
      * Retrieves all rooms from the RoomService and returns a ModelAndView with the floors.
+     * The desk occupancy of the requested day (default: today) is embedded so the floor plan can be coloured without another request.
      *
+     * @param date the day whose desk occupancy is shown
      * @return a ModelAndView containing the "room/floors" view and the list of floors
      * @throws ExecutionException   if an execution exception occurs
      * @throws InterruptedException if the thread is interrupted
      */
     @GetMapping("/floors")
-    public ModelAndView allfloors() throws ExecutionException, InterruptedException {
+    public ModelAndView allfloors(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) throws ExecutionException, InterruptedException {
         List<Room> allFloors = roomService.getAllRooms();
-        return new ModelAndView("room/floors", "floors", allFloors);
+        ModelAndView modelAndView = new ModelAndView("room/floors", "floors", allFloors);
+        modelAndView.addObject("deskOccupancy", floorPlanOccupancyService.getOccupancyPayload(date != null ? date : LocalDate.now()));
+        return modelAndView;
     }
 
     /**
      * Handles the GET request for "/floorsEmployee" endpoint.
      * Retrieves all rooms from the RoomService and returns a ModelAndView with the floors for employees.
+     * The desk occupancy of the requested day (default: today) is embedded so the floor plan can be coloured without another request.
      *
+     * @param date the day whose desk occupancy is shown
      * @return a ModelAndView containing the "room/floorsEmployee" view and the list of floors for employees
      * @throws ExecutionException   if an execution exception occurs
      * @throws InterruptedException if the thread is interrupted
      */
     @GetMapping("/floorsEmployee")
-    public ModelAndView allfloorsemployee() throws ExecutionException, InterruptedException {
+    public ModelAndView allfloorsemployee(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) throws ExecutionException, InterruptedException {
         List<Room> allFloors = roomService.getAllRooms();
-        return new ModelAndView("room/floorsEmployee", "floors", allFloors);
+        ModelAndView modelAndView = new ModelAndView("room/floorsEmployee", "floors", allFloors);
+        modelAndView.addObject("deskOccupancy", floorPlanOccupancyService.getOccupancyPayload(date != null ? date : LocalDate.now()));
+        return modelAndView;
     }
 }
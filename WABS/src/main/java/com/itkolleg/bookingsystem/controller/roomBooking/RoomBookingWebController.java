@@ -6,19 +6,23 @@ import com.itkolleg.bookingsystem.exceptions.employeeExceptions.EmployeeNotFound
 import com.itkolleg.bookingsystem.exceptions.roomExceptions.RoomDeletionNotPossibleException;
 import com.itkolleg.bookingsystem.exceptions.roomExceptions.RoomNotAvailableException;
 import com.itkolleg.bookingsystem.exceptions.roomExceptions.RoomNotFoundException;
+import com.itkolleg.bookingsystem.repos.booking.BookingCursor;
+import com.itkolleg.bookingsystem.repos.booking.BookingSlice;
+import com.itkolleg.bookingsystem.service.booking.BookingExportWriter;
 import com.itkolleg.bookingsystem.service.employee.EmployeeService;
 import com.itkolleg.bookingsystem.service.room.RoomService;
 import com.itkolleg.bookingsystem.service.roombooking.RoomBookingService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.ModelAndView;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 
@@ -29,6 +33,7 @@ public class RoomBookingWebController {
     RoomBookingService roomBookingService;
     RoomService roomService;
     EmployeeService employeeService;
+    BookingExportWriter bookingExportWriter;
 
     /**
      * Constructor for RoomBookingWebController.
@@ -36,43 +41,72 @@ public class RoomBookingWebController {
      * @param roomBookingService The RoomBookingService to be used.
      * @param roomService The RoomService to be used.
      * @param employeeService The EmployeeService to be used.
+     * @param bookingExportWriter The BookingExportWriter to be used for the export.
      */
-    public RoomBookingWebController(RoomBookingService roomBookingService, RoomService roomService, EmployeeService employeeService) {
+    public RoomBookingWebController(RoomBookingService roomBookingService, RoomService roomService, EmployeeService employeeService, BookingExportWriter bookingExportWriter) {
         this.roomBookingService = roomBookingService;
         this.roomService = roomService;
         this.employeeService = employeeService;
+        this.bookingExportWriter = bookingExportWriter;
     }
 
     /**
      * Get mapping for retrieving all room bookings of an employee.
      *
+     * @param currentEmployee The logged-in employee.
      * @return ModelAndView object containing the view and the list of room bookings.
      * @throws EmployeeNotFoundException if the employee is not found.
      */
     @GetMapping("/allBookingsEmployee")
-    public ModelAndView allBookingsEmployee() throws EmployeeNotFoundException {
-        //TODO: Hilfsmethode schreiben um Code-Duplikate zu vermeiden
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetails)) {
-            throw new EmployeeNotFoundException("employee not found");
-        }
-
-        String username = ((UserDetails) authentication.getPrincipal()).getUsername();
-        Employee employee = this.employeeService.getEmployeeByNick(username);
+    public ModelAndView allBookingsEmployee(CustomEmployeeDetails currentEmployee) throws EmployeeNotFoundException {
+        Employee employee = this.employeeService.getEmployeeReference(currentEmployee.getId());
 
         List<RoomBooking> bookings = roomBookingService.getBookingsByEmployee(employee);
         return new ModelAndView("roomBooking/viewRoomBookingsEmployee", "bookings", bookings);
     }
 
     /**
-     * Get mapping for retrieving all room bookings.
+     * Get mapping for retrieving one page of the room bookings, ordered by date and id.
      *
-     * @return ModelAndView object containing the view and the list of room bookings.
+     * @param from  the first date to show, defaults to today
+     * @param to    the last date to show, optional
+     * @param after the cursor of the previous page, optional
+     * @param size  the number of bookings per page, optional
+     * @return ModelAndView object containing the view and the page of room bookings.
      */
     @GetMapping("/allBookings")
-    public ModelAndView allBookings(){
-        List<RoomBooking> bookings = roomBookingService.getAllBookings();
-        return new ModelAndView("roomBooking/viewRoomBookings", "bookings", bookings);
+    public ModelAndView allBookings(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                    @RequestParam(required = false) String after,
+                                    @RequestParam(required = false) Integer size){
+        LocalDate firstDate = from != null ? from : LocalDate.now();
+        int pageSize = BookingSlice.limitSize(size);
+        BookingSlice<RoomBooking> slice = roomBookingService.getBookingSlice(firstDate, to, BookingCursor.parse(after), pageSize);
+        ModelAndView modelAndView = new ModelAndView("roomBooking/viewRoomBookings", "bookings", slice.getContent());
+        modelAndView.addObject("slice", slice);
+        modelAndView.addObject("from", firstDate);
+        modelAndView.addObject("to", to);
+        modelAndView.addObject("size", pageSize);
+        modelAndView.addObject("paged", after != null && !after.isBlank());
+        return modelAndView;
+    }
+
+    /**
+     * Get mapping for exporting the room bookings of a date range for reporting.
+     * The bookings are streamed from the database straight into the response.
+     *
+     * @param from     the first date to export, defaults to the first day of the current month
+     * @param to       the last date to export, defaults to the last day of the month of {@code from}
+     * @param format   {@code csv} (default) or {@code ndjson}
+     * @param response the response the bookings are written to
+     * @throws IOException if writing the response fails
+     */
+    @GetMapping("/export")
+    public void exportBookings(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                               @RequestParam(required = false) String format,
+                               HttpServletResponse response) throws IOException {
+        bookingExportWriter.export(response, "roombookings", from, to, format, roomBookingService::exportBookings);
     }
 
     /**
@@ -80,6 +114,7 @@ public class RoomBookingWebController {
      *
      * @param id The ID of the room to be booked.
      * @param model The Model object for the view.
+     * @param currentEmployee The logged-in employee.
      * @return ModelAndView object containing the view and the new booking.
      * @throws RoomNotFoundException if the room is not found.
      * @throws ExecutionException if an execution error occurs.
@@ -87,14 +122,8 @@ public class RoomBookingWebController {
      * @throws EmployeeNotFoundException if the employee is not found.
      */
     @GetMapping("/createBookingEmployee/{id}")
-    public ModelAndView createBookingEmployee(@PathVariable Long id, Model model) throws RoomNotFoundException, ExecutionException, InterruptedException, EmployeeNotFoundException {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetails)) {
-            throw new EmployeeNotFoundException("employee not found");
-        }
-
-        String username = ((UserDetails) authentication.getPrincipal()).getUsername();
-        Employee employee = this.employeeService.getEmployeeByNick(username);
+    public ModelAndView createBookingEmployee(@PathVariable Long id, Model model, CustomEmployeeDetails currentEmployee) throws RoomNotFoundException, ExecutionException, InterruptedException, EmployeeNotFoundException {
+        Employee employee = this.employeeService.getEmployeeReference(currentEmployee.getId());
 
         RoomBooking booking = new RoomBooking();
         Room room = this.roomService.getRoomById(id);
@@ -129,6 +158,7 @@ public class RoomBookingWebController {
      *
      * @param id The ID of the room to be booked.
      * @param model The Model object for the view.
+     * @param currentEmployee The logged-in employee.
      * @return ModelAndView object containing the view and the new booking.
      * @throws RoomNotFoundException if the room is not found.
      * @throws ExecutionException if an execution error occurs.
@@ -136,14 +166,8 @@ public class RoomBookingWebController {
      * @throws EmployeeNotFoundException if the employee is not found.
      */
     @GetMapping("/createBooking/{id}")
-    public ModelAndView createBookingAdmin(@PathVariable Long id, Model model) throws RoomNotFoundException, ExecutionException, InterruptedException, EmployeeNotFoundException {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetails)) {
-            throw new EmployeeNotFoundException("employee not found");
-        }
-
-        String username = ((UserDetails) authentication.getPrincipal()).getUsername();
-        Employee employee = this.employeeService.getEmployeeByNick(username);
+    public ModelAndView createBookingAdmin(@PathVariable Long id, Model model, CustomEmployeeDetails currentEmployee) throws RoomNotFoundException, ExecutionException, InterruptedException, EmployeeNotFoundException {
+        Employee employee = this.employeeService.getEmployeeReference(currentEmployee.getId());
 
         RoomBooking booking = new RoomBooking();
         Room room = this.roomService.getRoomById(id);
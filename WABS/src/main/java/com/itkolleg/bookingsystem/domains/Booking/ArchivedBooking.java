@@ -0,0 +1,94 @@
+package com.itkolleg.bookingsystem.domains.booking;
+
+import com.itkolleg.bookingsystem.domains.Employee;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * A past booking that was moved out of the booking table by the archive job.
+ * <p>
+ * The archive is append-only. Rows keep the id of the original booking and refer to employee, desk, room, ressource
+ * and timeslot by id only, so that archived history does not hold foreign keys on the hot tables.
+ * The type is the discriminator of the original booking, e.g. {@code DeskBooking}.
+ */
+@Entity
+@Immutable
+@Table(name = "booking_archive", indexes = {
+        @Index(name = "idx_booking_archive_employee_type_date", columnList = "employee_id, type, date"),
+        @Index(name = "idx_booking_archive_date", columnList = "date")
+})
+@Getter
+@ToString
+@NoArgsConstructor
+public class ArchivedBooking {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String type;
+
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+
+    @Column(name = "desk_id")
+    private Long deskId;
+
+    @Column(name = "room_id")
+    private Long roomId;
+
+    @Column(name = "ressource_id")
+    private Long ressourceId;
+
+    @Column(name = "time_slot_id")
+    private Long timeSlotId;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    private LocalTime start;
+
+    private LocalTime endTime;
+
+    private LocalDateTime createdOn;
+
+    private LocalDateTime updatedOn;
+
+    private LocalDateTime archivedOn;
+
+    /**
+     * @param type The booking class.
+     * @return The value of {@link #getType()} for archived bookings of that class.
+     */
+    public static String typeOf(Class<? extends Booking> type) {
+        return type.getSimpleName();
+    }
+
+    /**
+     * Copies the archived values into a booking object, e.g. to show archived history with the booking views.
+     * The booked desk, room or ressource and the timeslot have to be set by the caller, see
+     * {@code ArchivedBookingRestorer}.
+     *
+     * @param booking  A new booking of the archived type.
+     * @param employee The employee of the booking.
+     * @param <T>      The booking type.
+     * @return The filled booking; it is not attached to the persistence context and must not be saved.
+     */
+    public <T extends Booking> T restoreInto(T booking, Employee employee) {
+        booking.setId(id);
+        booking.setEmployee(employee);
+        booking.setDate(date);
+        booking.setStart(start);
+        booking.setEndTime(endTime);
+        booking.setCreatedOn(createdOn);
+        booking.setUpdatedOn(updatedOn);
+        return booking;
+    }
+}
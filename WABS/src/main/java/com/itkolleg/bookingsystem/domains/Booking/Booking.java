@@ -1,6 +1,7 @@
 package com.itkolleg.bookingsystem.domains.booking;
 
 import com.itkolleg.bookingsystem.domains.Employee;
+import com.itkolleg.bookingsystem.domains.PooledSequenceGenerator;
 import com.itkolleg.bookingsystem.domains.Timeslot;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.AssertTrue;
@@ -12,6 +13,8 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -31,6 +34,10 @@ import java.time.LocalTime;
  * Note:
  * - The `@Slf4j` annotation provides logging capabilities.
  * - The `@EntityListeners(AuditingEntityListener.class)` annotation enables JPA's auditing features.
+ * - All booking types share one table. Its indexes cover the lookups by desk, room or ressource with date and start,
+ *   by employee and date, and by date alone.
+ * - The desk index is unique: a desk cannot have two bookings starting at the same time on the same day. Room and
+ *   ressource bookings leave desk_id empty and are not affected.
  * Important:
  * - Always ensure that the associated resources (like desks or rooms) are available for the specified time slot before creating a booking.
  * @author Sonja Lechner
@@ -38,6 +45,13 @@ import java.time.LocalTime;
  * @since 2023-08-24
  */
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_booking_desk_date_start", columnList = "desk_id, date, start", unique = true),
+        @Index(name = "idx_booking_room_date_start", columnList = "room_id, date, start"),
+        @Index(name = "idx_booking_ressource_date_start", columnList = "ressource_id, date, start"),
+        @Index(name = "idx_booking_employee_date", columnList = "employee_id, date"),
+        @Index(name = "idx_booking_date_start", columnList = "date, start")
+})
 @Getter
 @Setter
 @ToString (callSuper = true)
@@ -48,9 +62,11 @@ public abstract class Booking {
 
     /**
      * Unique identifier for each booking.
+     * It is taken from {@code booking_seq}, which hands out blocks of ids (see {@link PooledSequenceGenerator}).
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @GeneratedValue(generator = "booking_id")
+    @GenericGenerator(name = "booking_id", type = PooledSequenceGenerator.class, parameters = @Parameter(name = "sequence_name", value = "booking_seq"))
     private Long id;
 
     /**
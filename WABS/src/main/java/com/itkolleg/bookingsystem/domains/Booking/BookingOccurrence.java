@@ -0,0 +1,57 @@
+package com.itkolleg.bookingsystem.domains.booking;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDate;
+
+/**
+ * The outcome of one occurrence of a {@link RecurringDeskBooking}.
+ */
+@Getter
+@ToString
+public class BookingOccurrence {
+
+    public enum Status {
+        /**
+         * The occurrence was booked.
+         */
+        BOOKED,
+        /**
+         * The desk is taken at that time, or the employee already has a booking on that day.
+         */
+        CONFLICT,
+        /**
+         * Desks cannot be booked on that day (weekend or public holiday).
+         */
+        NOT_BOOKABLE
+    }
+
+    private final LocalDate date;
+    private final Status status;
+    private final DeskBooking booking;
+    private final String message;
+
+    private BookingOccurrence(LocalDate date, Status status, DeskBooking booking, String message) {
+        this.date = date;
+        this.status = status;
+        this.booking = booking;
+        this.message = message;
+    }
+
+    public static BookingOccurrence booked(DeskBooking booking) {
+        return new BookingOccurrence(booking.getDate(), Status.BOOKED, booking, null);
+    }
+
+    public static BookingOccurrence conflict(LocalDate date, String message) {
+        return new BookingOccurrence(date, Status.CONFLICT, null, message);
+    }
+
+    public static BookingOccurrence notBookable(LocalDate date, String message) {
+        return new BookingOccurrence(date, Status.NOT_BOOKABLE, null, message);
+    }
+
+    public boolean isBooked() {
+        return status == Status.BOOKED;
+    }
+}
@@ -7,7 +7,6 @@ import com.itkolleg.bookingsystem.domains.Timeslot;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
-import lombok.extern.slf4j.Slf4j;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -16,14 +15,13 @@ import java.util.Objects;
 /**
  * Represents a booking specifically for a desk.
  * This class extends the generic booking class to include a desk, providing more specific details about the booking.
- * It includes lifecycle hooks to log information during the persistence operations.
+ * Created, updated and cancelled bookings are logged by {@link com.itkolleg.bookingsystem.service.events.BookingEventLog}
+ * after the commit instead of in lifecycle hooks, so logging does not slow down the booking request.
 
  * Note:
- * - The `@Slf4j` annotation is used to enable logging capabilities.
  * - The `@ToString.Include` annotation ensures that the desk's details are included when the `toString()` method is called.
  * - The `equals` and `hashCode` methods are overridden to provide a custom implementation for comparing `DeskBooking` objects.
- * - Lifecycle hooks like `@PrePersist`, `@PostPersist`, `@PreUpdate`, and `@PostUpdate` are used to log information before and after
- *   certain JPA operations.
+ * - The `@PreUpdate` hook records when the booking was last updated.
 
  * Important:
  * - Ensure that the desk associated with the booking is available for the specified time slot before creating a booking.
@@ -39,7 +37,6 @@ import java.util.Objects;
 @ToString(callSuper = true)
 @AllArgsConstructor
 @NoArgsConstructor
-@Slf4j
 public class DeskBooking extends Booking {
 
     /**
@@ -63,25 +60,9 @@ public class DeskBooking extends Booking {
     public int hashCode() {
         return Objects.hash(desk);
     }
-    @PrePersist
-    public void onPrePersist() {
-        log.info("Attempting to create a desk booking for desk: {}", desk.getDeskNr());
-    }
-
-    @PostPersist
-    public void onPostPersist() {
-        log.info("Successfully created a desk booking with ID: {} for desk: {}", getId(), desk.getDeskNr());
-    }
-
     @PreUpdate
     protected void onPreUpdate() {
         updatedOn = LocalDateTime.now();
-        log.info("Attempting to update a desk booking with ID: {} for desk: {}", getId(), desk.getDeskNr());
-    }
-
-    @PostUpdate
-    public void onPostUpdate() {
-        log.info("Successfully updated a desk booking with ID: {} for desk: {}", getId(), desk.getDeskNr());
     }
 
 
@@ -98,6 +79,7 @@ public class DeskBooking extends Booking {
                 date,
                 start,
                 endTime);
+        this.desk = desk;
     }
 
     /**
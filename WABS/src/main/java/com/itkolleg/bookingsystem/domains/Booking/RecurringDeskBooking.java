@@ -0,0 +1,102 @@
+package com.itkolleg.bookingsystem.domains.booking;
+
+import com.itkolleg.bookingsystem.domains.Desk;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A series of desk bookings, e.g. "every Tuesday and Thursday from 8:00 to 12:00 for the next 12 weeks".
+ * <p>
+ * This is not an entity: the series is expanded into one {@link DeskBooking} per occurrence, and every occurrence is
+ * booked or rejected on its own (see {@link BookingOccurrence}).
+ */
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+public class RecurringDeskBooking {
+
+    /**
+     * The desk to book.
+     */
+    @NotNull(message = "desk must not be null")
+    private Desk desk;
+
+    /**
+     * The first day of the series.
+     */
+    @NotNull(message = "first date must not be null")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate firstDate;
+
+    /**
+     * The last day of the series, inclusive.
+     */
+    @NotNull(message = "last date must not be null")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate lastDate;
+
+    /**
+     * The weekdays on which the desk is booked.
+     */
+    @NotEmpty(message = "at least one weekday is required")
+    private Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+
+    /**
+     * The start time of every occurrence.
+     */
+    @NotNull(message = "start must not be null")
+    private LocalTime start;
+
+    /**
+     * The end time of every occurrence.
+     */
+    @NotNull(message = "end time must not be null")
+    private LocalTime endTime;
+
+    public RecurringDeskBooking(Desk desk, LocalDate firstDate, LocalDate lastDate, Set<DayOfWeek> days, LocalTime start, LocalTime endTime) {
+        this.desk = desk;
+        this.firstDate = firstDate;
+        this.lastDate = lastDate;
+        this.days = EnumSet.copyOf(days);
+        this.start = start;
+        this.endTime = endTime;
+    }
+
+    /**
+     * @return The dates of all occurrences in ascending order.
+     */
+    public List<LocalDate> getDates() {
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = firstDate; !date.isAfter(lastDate); date = date.plusDays(1)) {
+            if (days.contains(date.getDayOfWeek())) {
+                dates.add(date);
+            }
+        }
+        return dates;
+    }
+
+    @AssertTrue(message = "Start time must be before end time")
+    public boolean isValidTime() {
+        return start == null || endTime == null || start.isBefore(endTime);
+    }
+
+    @AssertTrue(message = "The first date must not be after the last date")
+    public boolean isValidPeriod() {
+        return firstDate == null || lastDate == null || !firstDate.isAfter(lastDate);
+    }
+}
@@ -9,6 +9,10 @@ import org.springframework.security.core.userdetails.User;
 import java.util.ArrayList;
 import java.util.Collection;
 
+/**
+ * The logged-in employee as kept in the security context of the session. Carries id and role, so controllers
+ * do not have to look up the employee by nick on every request.
+ */
 @Getter
 @Setter
 @ToString
@@ -16,14 +20,37 @@ public class CustomEmployeeDetails extends User {
 
     private Long id;
 
+    private Role role;
+
+    /**
+     * The generation of {@code EmployeePrincipalService} in which this principal was loaded.
+     */
+    private long generation;
+
     public CustomEmployeeDetails(String username, String password, Collection<? extends GrantedAuthority> authorities, Long id) {
         super(username, password, authorities);
         this.id = id;
     }
 
     public CustomEmployeeDetails(Employee employee) {
-        super(employee.getNick(), employee.getPassword(), new ArrayList<>());
+        super(employee.getNick(), employee.getPassword(), new ArrayList<>(employee.getAuthorities()));
         this.id = employee.getId();
+        this.role = employee.getRole();
+    }
+
+    public CustomEmployeeDetails(Employee employee, long generation) {
+        this(employee);
+        this.generation = generation;
+    }
+
+    /**
+     * Copies a principal that still holds its password.
+     */
+    public CustomEmployeeDetails(CustomEmployeeDetails other) {
+        super(other.getUsername(), other.getPassword(), other.getAuthorities());
+        this.id = other.getId();
+        this.role = other.getRole();
+        this.generation = other.getGeneration();
     }
 
     public Long getId() {
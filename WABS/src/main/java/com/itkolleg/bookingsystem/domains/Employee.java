@@ -1,14 +1,16 @@
 package com.itkolleg.bookingsystem.domains;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.*;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -18,6 +20,7 @@ import java.util.Collection;
 import java.util.List;
 
 @Entity
+@EntityListeners(EmployeePasswordListener.class)
 @NoArgsConstructor
 @Getter
 @Setter
@@ -27,7 +30,8 @@ public class Employee implements UserDetails {
 
     @Id
     //@Column(name = "id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "employee_id")
+    @GenericGenerator(name = "employee_id", type = PooledSequenceGenerator.class, parameters = @Parameter(name = "sequence_name", value = "employee_seq"))
     private Long id;
 
     //limit length of name
@@ -49,8 +53,10 @@ public class Employee implements UserDetails {
     private String email;
 
     //@Column(name="PASSWORD")
+    //wird als bcrypt-Hash gespeichert (siehe EmployeePasswordListener), bcrypt nutzt hoechstens 72 Zeichen
     @NotNull
-    @Size(min = 2, max = 50)
+    @Size(min = 2, max = 72)
+    @ToString.Exclude
     private String password;
 
     @NotNull
@@ -0,0 +1,41 @@
+package com.itkolleg.bookingsystem.domains;
+
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.regex.Pattern;
+
+/**
+ * Hasht das Passwort eines Mitarbeiters mit bcrypt, bevor er gespeichert wird.
+ * <p>
+ * Passwörter werden nur noch gehasht abgelegt, damit beim Login nicht bei jeder Anmeldung neu gehasht werden muss.
+ * Bereits gehashte Passwörter (z.B. unverändert zurückgeschickte Formulare) werden nicht erneut gehasht.
+ */
+public class EmployeePasswordListener {
+
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[abxy]?\\$\\d\\d\\$[./A-Za-z0-9]{53}$");
+    private static final BCryptPasswordEncoder ENCODER = new BCryptPasswordEncoder();
+
+    /**
+     * @param password Das gespeicherte oder eingegebene Passwort.
+     * @return true, wenn das Passwort bereits ein bcrypt-Hash ist.
+     */
+    public static boolean isEncoded(String password) {
+        return password != null && BCRYPT.matcher(password).matches();
+    }
+
+    /**
+     * @param password Das Passwort im Klartext oder als bcrypt-Hash.
+     * @return Der bcrypt-Hash des Passworts.
+     */
+    public static String encode(String password) {
+        return password == null || isEncoded(password) ? password : ENCODER.encode(password);
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void hashPassword(Employee employee) {
+        employee.setPassword(encode(employee.getPassword()));
+    }
+}
@@ -31,6 +31,7 @@ public final class PathConstants {
     public static final String ADMIN_UPDATE_P = "/admin/update";
     public static final String ADMIN_CANCEL = "/admin/cancel/{id}";
     public static final String ADMIN_CANCEL_P = "/admin/cancel";
+    public static final String ADMIN_EXPORT = "/admin/export";
 
     //DESKBOOKINGS - NORMAL & PRIVILEGED EMPLOYEE URL PATHS
     public static final String EMP_View_All= "/mydeskbookings";
@@ -44,6 +45,7 @@ public final class PathConstants {
     public static final String EMP_VIEW_HISTORY = "/deskbookinghistory/{id}";
     public static final String EMP_CANCEL = "/cancel/{id}";
     public static final String EMP_CANCEL_P = "/cancel";
+    public static final String EMP_RECURRING = "/recurring";
 
 
     //DESKS - ADMIN & OPERATOR URL PATHS
@@ -0,0 +1,46 @@
+package com.itkolleg.bookingsystem.domains;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Sequence-based id generator for the entities, using the pooled-lo optimizer.
+ * <p>
+ * One call to the sequence reserves a block of ids that are then handed out in memory, so inserts neither wait for
+ * the database to generate a key (as IDENTITY columns do) nor prevent Hibernate from batching them. The block size
+ * is read from {@code wabs.id.<entity>.allocation-size}, e.g. {@code wabs.id.booking.allocation-size}, and falls back
+ * to {@code wabs.id.allocation-size} and then to {@value #DEFAULT_ALLOCATION_SIZE}. The entity name is the JPA name of
+ * the root entity in lower case. See {@code IdGeneratorConfig} for how the settings reach Hibernate.
+ * <p>
+ * The sequence is created with the block size as increment, so changing the size of an existing database also
+ * needs an {@code ALTER SEQUENCE ... INCREMENT BY}.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    /**
+     * Prefix of the settings read by this generator.
+     */
+    public static final String SETTINGS_PREFIX = "wabs.id.";
+
+    static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        Map<String, Object> settings = serviceRegistry.getService(ConfigurationService.class).getSettings();
+        String entity = params.getProperty(JPA_ENTITY_NAME, "").toLowerCase(Locale.ROOT);
+        Object allocationSize = settings.getOrDefault(SETTINGS_PREFIX + entity + ".allocation-size",
+                settings.getOrDefault(SETTINGS_PREFIX + "allocation-size", DEFAULT_ALLOCATION_SIZE));
+
+        params.setProperty(INCREMENT_PARAM, allocationSize.toString());
+        params.putIfAbsent(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, params, serviceRegistry);
+    }
+}
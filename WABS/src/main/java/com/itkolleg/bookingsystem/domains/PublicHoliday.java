@@ -1,14 +1,18 @@
 package com.itkolleg.bookingsystem.domains;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.validation.constraints.FutureOrPresent;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import java.time.LocalDate;
 
 /**
@@ -19,6 +23,8 @@ import java.time.LocalDate;
  * @since 2023-07-17
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "public-holiday")
 @Getter
 @Setter
 @Slf4j
@@ -28,7 +34,8 @@ public class PublicHoliday {
      * The unique identifier of the public holidays.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "public_holiday_id")
+    @GenericGenerator(name = "public_holiday_id", type = PooledSequenceGenerator.class, parameters = @Parameter(name = "sequence_name", value = "public_holiday_seq"))
     private Long id;
 
     /**
@@ -1,14 +1,18 @@
 package com.itkolleg.bookingsystem.domains;
 
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 
 /**
@@ -20,13 +24,16 @@ import lombok.ToString;
  * @since 25.06.2023
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "ressource")
 @NoArgsConstructor
 @Getter
 @Setter
 @ToString
 public class Ressource {
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @GeneratedValue(generator = "ressource_id")
+    @GenericGenerator(name = "ressource_id", type = PooledSequenceGenerator.class, parameters = @Parameter(name = "sequence_name", value = "ressource_seq"))
     private Long id;
     private Ressourcetype ressourcetype;
     private String name;
@@ -4,6 +4,10 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -13,6 +17,8 @@ import org.slf4j.LoggerFactory;
  Represents a room in the booking system.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "room")
 @NoArgsConstructor
 @Getter
 @Setter
@@ -21,7 +27,8 @@ public class Room {
     private static final Logger logger = LoggerFactory.getLogger(Room.class);
 
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @GeneratedValue(generator = "room_id")
+    @GenericGenerator(name = "room_id", type = PooledSequenceGenerator.class, parameters = @Parameter(name = "sequence_name", value = "room_seq"))
     private Long id;
 
     private String floor;
@@ -3,6 +3,10 @@ package com.itkolleg.bookingsystem.domains;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import java.time.LocalTime;
 
@@ -33,6 +37,8 @@ import java.time.LocalTime;
  * @since 2023-05-24
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "timeslot")
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
@@ -45,7 +51,8 @@ public class Timeslot {
      * The unique identifier for the time slot.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @GeneratedValue(generator = "timeslot_id")
+    @GenericGenerator(name = "timeslot_id", type = PooledSequenceGenerator.class, parameters = @Parameter(name = "sequence_name", value = "timeslot_seq"))
     private Long id;
 
     /**
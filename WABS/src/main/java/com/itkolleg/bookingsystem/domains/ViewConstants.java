@@ -37,6 +37,7 @@ public final class ViewConstants {
     public static final String E_UPDATE_DESKBOOKING = "deskbookings/emp/updateDeskBooking";
     public static final String E_HISTORY_DESKBOOKING = "deskbookings/emp/myDeskBookingHistory";
     public static final String E_CANCEL_DESKBOOKING = "deskbookings/emp/cancelDeskBooking";
+    public static final String E_RECURRING_DESKBOOKING = "deskbookings/emp/addRecurringDeskBooking";
 
     //DESK VIEWS
     public static final String ALL_DESKS = "desks/allDesks";
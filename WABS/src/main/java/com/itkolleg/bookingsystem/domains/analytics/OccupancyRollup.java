@@ -0,0 +1,91 @@
+package com.itkolleg.bookingsystem.domains.analytics;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated occupancy of one desk, room, floor or ressource type in one hour of one day.
+ * <p>
+ * The rows are maintained incrementally whenever a booking is written (see
+ * {@code OccupancyRollupListener}) and rebuilt from the bookings and the booking archive every night, so the analytics
+ * never have to scan the booking table. Daily values are the sums over the hours of a day.
+ * </p>
+ * Booking changes are added to the rows with bulk statements. Only the reconciliation persists rows, after deleting
+ * the ones of its days; rows are never updated through the persistence context.
+ */
+@Entity
+@Immutable
+@IdClass(OccupancyRollup.Key.class)
+@Table(name = "occupancy_rollup", indexes = {
+        @Index(name = "idx_occupancy_rollup_scope_date", columnList = "scope, rollup_date")
+})
+@Getter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class OccupancyRollup {
+
+    @Id
+    @Column(name = "rollup_date")
+    private LocalDate date;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private OccupancyScope scope;
+
+    /**
+     * The desk or room id, the floor or the ressource type, depending on the {@link #scope}.
+     */
+    @Id
+    @Column(name = "scope_key", length = 64)
+    private String scopeKey;
+
+    /**
+     * The hour of the day, 0 to 23.
+     */
+    @Id
+    @Column(name = "hour_of_day")
+    private int hour;
+
+    /**
+     * Booked minutes within this hour, summed over all bookings of the scope key.
+     */
+    @Column(name = "booked_minutes", nullable = false)
+    private long bookedMinutes;
+
+    /**
+     * Number of bookings that start within this hour.
+     */
+    @Column(nullable = false)
+    private int bookings;
+
+    /**
+     * The primary key of a rollup row.
+     */
+    @Getter
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate date;
+        private OccupancyScope scope;
+        private String scopeKey;
+        private int hour;
+    }
+}
@@ -0,0 +1,27 @@
+package com.itkolleg.bookingsystem.domains.analytics;
+
+/**
+ * What the occupancy of a rollup row is aggregated by.
+ */
+public enum OccupancyScope {
+
+    /**
+     * One row per desk; the key is the id of the desk.
+     */
+    DESK,
+
+    /**
+     * One row per room; the key is the id of the room.
+     */
+    ROOM,
+
+    /**
+     * The rooms of one floor together; the key is the floor.
+     */
+    FLOOR,
+
+    /**
+     * The ressources of one type together; the key is the {@link com.itkolleg.bookingsystem.domains.Ressourcetype}.
+     */
+    RESSOURCETYPE
+}
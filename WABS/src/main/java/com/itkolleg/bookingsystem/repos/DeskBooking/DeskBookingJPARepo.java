@@ -1,18 +1,31 @@
 package com.itkolleg.bookingsystem.repos.deskbooking;
 
+import com.itkolleg.bookingsystem.domains.Desk;
 import com.itkolleg.bookingsystem.domains.booking.DeskBooking;
+import com.itkolleg.bookingsystem.repos.booking.BookingExportRow;
+import com.itkolleg.bookingsystem.repos.occupancy.OccupancyRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface DeskBookingJPARepo extends JpaRepository<DeskBooking, Long> {
+public interface DeskBookingJPARepo extends JpaRepository<DeskBooking, Long>, JpaSpecificationExecutor<DeskBooking> {
 
     Optional<DeskBooking> findBookingsById(Long bookingId);
 
@@ -20,12 +33,52 @@ public interface DeskBookingJPARepo extends JpaRepository<DeskBooking, Long> {
 
     List<DeskBooking> findBookingsByDate(LocalDate date);
 
+    List<DeskBooking> findBookingsByDateGreaterThanEqual(LocalDate date);
+
     List<DeskBooking> findBookingsByEmployeeId(Long employeeId);
 
     List<DeskBooking> findBookingsByEmployeeIdAndDate(Long employeeId, LocalDate date);
 
+    boolean existsByEmployeeIdAndDate(Long employeeId, LocalDate date);
+
+    boolean existsByEmployeeIdAndDateAndIdNot(Long employeeId, LocalDate date, Long id);
+
+    /**
+     * @return true if a booking of the desk on the date overlaps [start, end).
+     */
+    @Query("SELECT COUNT(b) > 0 FROM DeskBooking b WHERE b.desk.id = :deskId AND b.date = :date AND b.start < :end AND b.endTime > :start")
+    boolean existsOverlappingBooking(@Param("deskId") Long deskId, @Param("date") LocalDate date, @Param("start") LocalTime start, @Param("end") LocalTime end);
+
+    /**
+     * Same as {@link #existsOverlappingBooking}, disregarding the booking being updated.
+     */
+    @Query("SELECT COUNT(b) > 0 FROM DeskBooking b WHERE b.id <> :bookingId AND b.desk.id = :deskId AND b.date = :date AND b.start < :end AND b.endTime > :start")
+    boolean existsOverlappingBookingOtherThan(@Param("bookingId") Long bookingId, @Param("deskId") Long deskId, @Param("date") LocalDate date, @Param("start") LocalTime start, @Param("end") LocalTime end);
+
+    /**
+     * Set-based form of {@link #existsOverlappingBooking} for a series of dates.
+     *
+     * @return The dates on which a booking of the desk overlaps [start, end).
+     */
+    @Query("SELECT DISTINCT b.date FROM DeskBooking b WHERE b.desk.id = :deskId AND b.date IN :dates AND b.start < :end AND b.endTime > :start")
+    List<LocalDate> findOverlappingDates(@Param("deskId") Long deskId, @Param("dates") Collection<LocalDate> dates, @Param("start") LocalTime start, @Param("end") LocalTime end);
+
+    /**
+     * Set-based form of {@link #existsByEmployeeIdAndDate} for a series of dates.
+     *
+     * @return The dates on which the employee already has a desk booking.
+     */
+    @Query("SELECT DISTINCT b.date FROM DeskBooking b WHERE b.employee.id = :employeeId AND b.date IN :dates")
+    List<LocalDate> findBookedDates(@Param("employeeId") Long employeeId, @Param("dates") Collection<LocalDate> dates);
+
+    List<DeskBooking> findBookingsByEmployeeIdAndDateGreaterThanEqual(Long employeeId, LocalDate date);
+
+    List<DeskBooking> findBookingsByEmployeeIdAndDateBetweenOrderByDateAscStartAsc(Long employeeId, LocalDate from, LocalDate to);
+
     List<DeskBooking> findBookingsByDeskIdAndDate(Long deskId, LocalDate date);
 
+    List<DeskBooking> findBookingsByDeskIdAndDateGreaterThanEqual(Long deskId, LocalDate date);
+
     List<DeskBooking> findBookingsByEmployeeIdAndDeskId(Long employeeId, Long DeskId);
 
     List<DeskBooking> findByDateAndStartBetween(LocalDate date, LocalTime start, LocalTime end);
@@ -33,11 +86,53 @@ public interface DeskBookingJPARepo extends JpaRepository<DeskBooking, Long> {
     @Query("SELECT d FROM DeskBooking d WHERE d.employee.id = :employeeId AND d.date = :date AND d.desk.id = :deskId")
     List<DeskBooking> findBookingsByEmployeeIdAndDeskIdAndDate(@Param("employeeId") Long employeeId, @Param("deskId") Long deskId, @Param("date") LocalDate date);
 
-    @Query("SELECT d FROM DeskBooking d WHERE d.desk.id = :deskId AND d.date = :date AND d.start BETWEEN :start AND :end")
+    @Query("SELECT d FROM DeskBooking d WHERE d.desk.id = :deskId AND d.date = :date AND d.start < :end AND d.endTime > :start")
     List<DeskBooking> findBookingsByDeskIdDateAndTimeRange(@Param("deskId") Long deskId, @Param("date") LocalDate date, @Param("start") LocalTime start, @Param("end") LocalTime end);
 
-    @Query("SELECT d FROM DeskBooking d WHERE d.employee.id = :employeeId AND d.desk.id = :deskId AND d.date = :date AND d.start BETWEEN :start AND :end")
+    @Query("SELECT d FROM DeskBooking d WHERE d.employee.id = :employeeId AND d.desk.id = :deskId AND d.date = :date AND d.start < :end AND d.endTime > :start")
     List<DeskBooking> findBookingsByEmployeeDeskDateAndTimeRange(@Param("employeeId") Long employeeId, @Param("deskId") Long deskId, @Param("date") LocalDate date, @Param("start") LocalTime start, @Param("end") LocalTime end);
-}
-
 
+    /**
+     * Set-based availability lookup: returns every desk that has no booking on the given date
+     * whose interval overlaps [start, end). Runs as a single anti-join instead of one query per desk.
+     */
+    @Query("SELECT desk FROM Desk desk WHERE NOT EXISTS (SELECT b.id FROM DeskBooking b WHERE b.desk = desk AND b.date = :date AND b.start < :end AND b.endTime > :start) ORDER BY desk.id")
+    List<Desk> findAvailableDesks(@Param("date") LocalDate date, @Param("start") LocalTime start, @Param("end") LocalTime end);
+
+    /**
+     * Same as {@link #findAvailableDesks(LocalDate, LocalTime, LocalTime)}, restricted to a single desk.
+     */
+    @Query("SELECT desk FROM Desk desk WHERE desk.id = :deskId AND NOT EXISTS (SELECT b.id FROM DeskBooking b WHERE b.desk = desk AND b.date = :date AND b.start < :end AND b.endTime > :start)")
+    List<Desk> findAvailableDesk(@Param("deskId") Long deskId, @Param("date") LocalDate date, @Param("start") LocalTime start, @Param("end") LocalTime end);
+
+    /**
+     * Loads the occupied intervals of every desk on the given date for the occupancy index.
+     */
+    @Query("SELECT new com.itkolleg.bookingsystem.repos.occupancy.OccupancyRow(b.id, b.desk.id, b.start, b.endTime) FROM DeskBooking b WHERE b.date = :date")
+    List<OccupancyRow> findOccupancyByDate(@Param("date") LocalDate date);
+
+    /**
+     * Loads the bookings after the given (date, id) position in keyset order, up to the date {@code to} if given.
+     * Only the first {@code limit.getPageSize()} rows are read; no count query is issued.
+     */
+    @Query("SELECT b FROM DeskBooking b JOIN FETCH b.employee JOIN FETCH b.desk LEFT JOIN FETCH b.timeSlot"
+            + " WHERE (b.date > :afterDate OR (b.date = :afterDate AND b.id > :afterId)) AND (:to IS NULL OR b.date <= :to)"
+            + " ORDER BY b.date, b.id")
+    List<DeskBooking> findSliceAfter(@Param("afterDate") LocalDate afterDate, @Param("afterId") Long afterId, @Param("to") LocalDate to, Pageable limit);
+
+    /**
+     * Runs a search built from {@code BookingSpecifications}; employee, desk and timeslot are loaded in the same query.
+     */
+    @Override
+    @EntityGraph(attributePaths = {"employee", "desk", "timeSlot"})
+    List<DeskBooking> findAll(Specification<DeskBooking> spec, Sort sort);
+
+    /**
+     * Streams the bookings from {@code from} to {@code to} for the export, ordered by date, start and id.
+     * The rows are read in chunks of the fetch size; the stream has to be consumed and closed inside a transaction.
+     */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT new com.itkolleg.bookingsystem.repos.booking.BookingExportRow(b.id, b.date, b.start, b.endTime, b.employee.id, b.employee.nick, b.desk.id, b.desk.deskNr, b.createdOn)"
+            + " FROM DeskBooking b WHERE b.date BETWEEN :from AND :to ORDER BY b.date, b.start, b.id")
+    Stream<BookingExportRow> streamExportRows(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -1,6 +1,7 @@
 package com.itkolleg.bookingsystem.repos.deskbooking;
 
 import com.itkolleg.bookingsystem.domains.Timeslot;
+import com.itkolleg.bookingsystem.domains.booking.BookingOccurrence;
 import com.itkolleg.bookingsystem.domains.booking.DeskBooking;
 import com.itkolleg.bookingsystem.domains.Desk;
 import com.itkolleg.bookingsystem.domains.Employee;
@@ -8,19 +9,30 @@ import com.itkolleg.bookingsystem.exceptions.CustomIllegalArgumentException;
 import com.itkolleg.bookingsystem.exceptions.ResourceNotFoundException;
 import com.itkolleg.bookingsystem.exceptions.ResourceDeletionFailureException;
 import com.itkolleg.bookingsystem.exceptions.DeskNotAvailableException;
+import com.itkolleg.bookingsystem.repos.booking.BookingCursor;
+import com.itkolleg.bookingsystem.repos.booking.BookingExportRow;
+import com.itkolleg.bookingsystem.repos.booking.BookingSlice;
+import com.itkolleg.bookingsystem.repos.occupancy.OccupancyGrid;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 
 public interface DeskBookingRepo {
 
     DeskBooking addBooking(DeskBooking booking) throws DeskNotAvailableException, ResourceNotFoundException, CustomIllegalArgumentException;
 
+    List<BookingOccurrence> addBookings(List<DeskBooking> bookings) throws DeskNotAvailableException, ResourceNotFoundException;
+
     List<DeskBooking> getAllBookings() throws ResourceNotFoundException;
 
+    BookingSlice<DeskBooking> getBookingSlice(LocalDate from, LocalDate to, BookingCursor after, int size);
+
+    Stream<BookingExportRow> streamExportRows(LocalDate from, LocalDate to);
+
     List<DeskBooking> searchBookings(Optional<Employee> employee, Optional<Desk> desk, Optional<LocalDate> date, Optional<LocalTime> start, Optional<LocalTime> endTime, Optional<Timeslot> timeslot);
 
     List<DeskBooking> searchBookings(Long employeeId, Long deskId, LocalDate date) throws ResourceNotFoundException;
@@ -53,10 +65,18 @@ public interface DeskBookingRepo {
 
     List<DeskBooking> getBookingHistoryByEmployeeId(Long employeeId ) throws ResourceNotFoundException;
 
+    List<DeskBooking> getBookingHistoryByEmployeeId(Long employeeId, LocalDate from, LocalDate to);
+
     DeskBooking save(DeskBooking booking) throws ResourceNotFoundException, DeskNotAvailableException;
 
     List<Desk> getAvailableDesks(LocalDate date, LocalTime start, LocalTime end, Long specificDeskId);
 
+    boolean isDeskAvailable(Long deskId, LocalDate date, LocalTime start, LocalTime end, Long ignoredBookingId);
+
+    OccupancyGrid getOccupancyGrid(LocalDate date, LocalTime dayStart, LocalTime dayEnd, int slotMinutes);
+
+    OccupancyGrid getOccupancyGrid(LocalDate date, List<Long> deskIds, LocalTime dayStart, LocalTime dayEnd, int slotMinutes);
+
     boolean existsById(Long bookingId);
 
     List<DeskBooking> getBookingsByEmployeeNick(String nick);
@@ -1,26 +1,45 @@
 package com.itkolleg.bookingsystem.repos.deskbooking;
 
 import com.itkolleg.bookingsystem.domains.Timeslot;
+import com.itkolleg.bookingsystem.domains.booking.ArchivedBooking;
+import com.itkolleg.bookingsystem.domains.booking.BookingOccurrence;
 import com.itkolleg.bookingsystem.domains.booking.DeskBooking;
 import com.itkolleg.bookingsystem.domains.Desk;
 import com.itkolleg.bookingsystem.domains.Employee;
 import com.itkolleg.bookingsystem.exceptions.ResourceDeletionFailureException;
 import com.itkolleg.bookingsystem.exceptions.ResourceNotFoundException;
 import com.itkolleg.bookingsystem.exceptions.DeskNotAvailableException;
+import com.itkolleg.bookingsystem.repos.booking.ArchivedBookingRestorer;
+import com.itkolleg.bookingsystem.repos.booking.BookingArchiveJPARepo;
+import com.itkolleg.bookingsystem.repos.booking.BookingCursor;
+import com.itkolleg.bookingsystem.repos.booking.BookingExportRow;
+import com.itkolleg.bookingsystem.repos.booking.BookingSlice;
+import com.itkolleg.bookingsystem.repos.booking.BookingSpecifications;
 import com.itkolleg.bookingsystem.repos.desk.DeskJPARepo;
 import com.itkolleg.bookingsystem.repos.employee.EmployeeJPARepo;
+import com.itkolleg.bookingsystem.repos.occupancy.OccupancyGrid;
+import com.itkolleg.bookingsystem.repos.occupancy.OccupancyIndex;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 import java.util.stream.Stream;
 
 /**
@@ -39,23 +58,38 @@ public class DeskBookingRepo_JPAH2 implements DeskBookingRepo {
     private final DeskBookingJPARepo deskBookingJPARepo;
     private final DeskJPARepo deskJPARepo;
     private final EmployeeJPARepo employeeJPARepo;
+    private final BookingArchiveJPARepo bookingArchiveJPARepo;
+    private final ArchivedBookingRestorer archivedBookingRestorer;
+    private final OccupancyIndex occupancyIndex;
 
     /**
      * Constructor to initialize the JPA repositories.
      *
-     * @param deskBookingJPARepo The desk booking JPA repository.
-     * @param deskJPARepo        The desk JPA repository.
-     * @param employeeJPARepo    The employee JPA repository.
+     * @param deskBookingJPARepo    The desk booking JPA repository.
+     * @param deskJPARepo           The desk JPA repository.
+     * @param employeeJPARepo       The employee JPA repository.
+     * @param bookingArchiveJPARepo The booking archive JPA repository.
+     * @param archivedBookingRestorer Restores archived rows for the booking history.
      */
-    public DeskBookingRepo_JPAH2(DeskBookingJPARepo deskBookingJPARepo, DeskJPARepo deskJPARepo, EmployeeJPARepo employeeJPARepo) {
+    public DeskBookingRepo_JPAH2(DeskBookingJPARepo deskBookingJPARepo, DeskJPARepo deskJPARepo, EmployeeJPARepo employeeJPARepo, BookingArchiveJPARepo bookingArchiveJPARepo, ArchivedBookingRestorer archivedBookingRestorer) {
         this.deskBookingJPARepo = deskBookingJPARepo;
         this.deskJPARepo = deskJPARepo;
         this.employeeJPARepo = employeeJPARepo;
+        this.bookingArchiveJPARepo = bookingArchiveJPARepo;
+        this.archivedBookingRestorer = archivedBookingRestorer;
+        this.occupancyIndex = new OccupancyIndex(deskBookingJPARepo::findOccupancyByDate);
     }
 
 
     /**
      * Adds a desk booking to the repository.
+     * <p>
+     * The admission runs in one transaction that locks the desk row and then the employee row, re-checks the desk
+     * for overlapping bookings and the employee for another booking on the same day, and inserts the booking.
+     * Concurrent admissions of the same desk therefore see each other's bookings, also across application
+     * instances. The unique index on (desk, date, start) rejects an identical booking should anything else write
+     * to the table. The occupancy index is updated after the commit.
+     * </p>
      *
      * @param deskBooking The desk booking to add.
      * @return The added desk booking.
@@ -64,27 +98,133 @@ public class DeskBookingRepo_JPAH2 implements DeskBookingRepo {
      * @throws IllegalArgumentException If any of the required fields are null.
      */
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public DeskBooking addBooking(DeskBooking deskBooking) throws ResourceNotFoundException, DeskNotAvailableException{
         // The repo layer should not be concerned with business logic validations.
         // It should only handle database operations and related exceptions.
+        return admit(deskBooking);
+    }
+
+    /**
+     * Writes a new or changed desk booking under the locks of its desk and employee.
+     * <p>
+     * Locks the desk, then the employee, re-checks the desk for overlapping bookings and the employee for another
+     * booking on the same day, both disregarding the booking itself, and writes it. A unique index violation is
+     * reported like a detected overlap. The occupancy index is updated after the commit.
+     * </p>
+     *
+     * @param deskBooking The desk booking to write; its id is null for a new booking.
+     * @return The written desk booking.
+     */
+    private DeskBooking admit(DeskBooking deskBooking) throws ResourceNotFoundException, DeskNotAvailableException {
+        Long bookingId = deskBooking.getId();
+        Long deskId = deskBooking.getDesk().getId();
+        Long employeeId = deskBooking.getEmployee().getId();
+
+        // Lock the desk, then the employee, always in this order
+        Desk desk = lockDesk(deskId);
+        Employee employee = lockEmployee(employeeId);
+
+        DeskBooking saved;
+        try {
+            // Check the desk and the employee's day against the committed bookings
+            boolean deskTaken = bookingId == null
+                    ? deskBookingJPARepo.existsOverlappingBooking(deskId, deskBooking.getDate(), deskBooking.getStart(), deskBooking.getEndTime())
+                    : deskBookingJPARepo.existsOverlappingBookingOtherThan(bookingId, deskId, deskBooking.getDate(), deskBooking.getStart(), deskBooking.getEndTime());
+            if (deskTaken) {
+                throw new DeskNotAvailableException("Desk not available for booking period");
+            }
+            boolean dayTaken = bookingId == null
+                    ? deskBookingJPARepo.existsByEmployeeIdAndDate(employeeId, deskBooking.getDate())
+                    : deskBookingJPARepo.existsByEmployeeIdAndDateAndIdNot(employeeId, deskBooking.getDate(), bookingId);
+            if (dayTaken) {
+                throw new DeskNotAvailableException(employee.getFname() + " " + employee.getLname() + " already has a booking on this date!");
+            }
+
+            // Save the booking
+            deskBooking.setDesk(desk);
+            deskBooking.setEmployee(employee);
+            saved = this.deskBookingJPARepo.saveAndFlush(deskBooking);
+        } catch (DataIntegrityViolationException e) {
+            throw new DeskNotAvailableException("Desk not available for booking period");
+        }
+        indexAfterCommit(saved);
+        return saved;
+    }
+
+    /**
+     * Adds the occurrences of a recurring booking, i.e. bookings of one employee for one desk at the same times on
+     * several dates.
+     * <p>
+     * Like {@link #addBooking}, the desk and then the employee are locked first. The conflicts of the whole series
+     * are then found with two queries, one for the desk and one for the employee's days, and the free occurrences
+     * are inserted in JDBC batches (see {@code hibernate.jdbc.batch_size}). Occurrences that conflict are reported
+     * and skipped; they do not prevent the others from being booked.
+     * </p>
+     *
+     * @param deskBookings The occurrences, all for the same desk, employee, start and end time.
+     * @return The outcome of every occurrence, ordered by date.
+     * @throws DeskNotAvailableException If the desk is locked by another booking for too long.
+     * @throws ResourceNotFoundException If the desk or employee is not found.
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<BookingOccurrence> addBookings(List<DeskBooking> deskBookings) throws ResourceNotFoundException, DeskNotAvailableException {
+        if (deskBookings.isEmpty()) {
+            return Collections.emptyList();
+        }
+        DeskBooking series = deskBookings.get(0);
+        Desk desk = lockDesk(series.getDesk().getId());
+        Employee employee = lockEmployee(series.getEmployee().getId());
+
+        List<LocalDate> dates = deskBookings.stream().map(DeskBooking::getDate).toList();
+        Set<LocalDate> deskTaken = new HashSet<>(deskBookingJPARepo.findOverlappingDates(desk.getId(), dates, series.getStart(), series.getEndTime()));
+        Set<LocalDate> employeeBooked = new HashSet<>(deskBookingJPARepo.findBookedDates(employee.getId(), dates));
+
+        List<BookingOccurrence> occurrences = new ArrayList<>();
+        List<DeskBooking> free = new ArrayList<>();
+        for (DeskBooking deskBooking : deskBookings) {
+            if (deskTaken.contains(deskBooking.getDate())) {
+                occurrences.add(BookingOccurrence.conflict(deskBooking.getDate(), "Desk not available for booking period"));
+            } else if (employeeBooked.contains(deskBooking.getDate())) {
+                occurrences.add(BookingOccurrence.conflict(deskBooking.getDate(), employee.getFname() + " " + employee.getLname() + " already has a booking on this date!"));
+            } else {
+                deskBooking.setDesk(desk);
+                deskBooking.setEmployee(employee);
+                free.add(deskBooking);
+            }
+        }
 
-        // Check if the desk exists
-        Desk desk = deskJPARepo.findDeskById(deskBooking.getDesk().getId());
-        if (desk == null) {
-            throw new ResourceNotFoundException("Desk with ID " + deskBooking.getDesk().getId() + " was not found");
+        List<DeskBooking> saved;
+        try {
+            saved = deskBookingJPARepo.saveAll(free);
+            deskBookingJPARepo.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw new DeskNotAvailableException("Desk not available for booking period");
         }
+        for (DeskBooking deskBooking : saved) {
+            indexAfterCommit(deskBooking);
+            occurrences.add(BookingOccurrence.booked(deskBooking));
+        }
+        occurrences.sort(Comparator.comparing(BookingOccurrence::getDate));
+        return occurrences;
+    }
 
-        // Check if the employee already has a booking on this date
-        List<DeskBooking> existingBookings = deskBookingJPARepo.findBookingsByEmployeeIdAndDate(deskBooking.getEmployee().getId(), deskBooking.getDate());
-        if (!existingBookings.isEmpty()) {
-            throw new DeskNotAvailableException(deskBooking.getEmployee().getFname() + " " + deskBooking.getEmployee().getLname() + " already has a booking on this date!");
+    private Desk lockDesk(Long deskId) throws ResourceNotFoundException, DeskNotAvailableException {
+        try {
+            return deskJPARepo.findByIdForUpdate(deskId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Desk with ID " + deskId + " was not found"));
+        } catch (PessimisticLockingFailureException e) {
+            throw new DeskNotAvailableException("The desk is being booked by someone else, please try again.");
         }
+    }
 
-        // Save the booking
+    private Employee lockEmployee(Long employeeId) throws ResourceNotFoundException, DeskNotAvailableException {
         try {
-            return this.deskBookingJPARepo.save(deskBooking);
-        } catch (Exception e) {
-            throw new RuntimeException("Error saving the booking to the database", e);
+            return employeeJPARepo.findByIdForUpdate(employeeId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Employee with ID " + employeeId + " was not found"));
+        } catch (PessimisticLockingFailureException e) {
+            throw new DeskNotAvailableException("The desk is being booked by someone else, please try again.");
         }
     }
 
@@ -99,17 +239,43 @@ public class DeskBookingRepo_JPAH2 implements DeskBookingRepo {
      */
     @Override
     public List<DeskBooking> getAllBookings() throws ResourceNotFoundException {
-        // Fetch all bookings from the database
-        List<DeskBooking> bookings = deskBookingJPARepo.findAll();
+        // Past bookings are filtered out by the query
+        List<DeskBooking> bookings = deskBookingJPARepo.findBookingsByDateGreaterThanEqual(LocalDate.now());
 
-        //check if the list is empty
-        if (bookings.isEmpty()) {
+        //check if there are any bookings at all
+        if (bookings.isEmpty() && deskBookingJPARepo.count() == 0) {
             throw new ResourceNotFoundException("No desk bookings found.");
         }
-        // Filter out bookings that are in the past
-        return bookings.stream()
-                .filter(booking -> !booking.getDate().isBefore(LocalDate.now()))
-                .collect(Collectors.toList());
+        return bookings;
+    }
+
+    /**
+     * Retrieves one page of desk bookings in the date range, ordered by date and id.
+     *
+     * @param from  The first date of the range.
+     * @param to    The last date of the range, or null for no upper bound.
+     * @param after The cursor of the previous page, or null for the first page.
+     * @param size  The maximum number of bookings on the page.
+     * @return The page together with the cursor for the next page.
+     */
+    @Override
+    public BookingSlice<DeskBooking> getBookingSlice(LocalDate from, LocalDate to, BookingCursor after, int size) {
+        BookingCursor position = after != null ? after : BookingCursor.before(from);
+        List<DeskBooking> rows = deskBookingJPARepo.findSliceAfter(position.getDate(), position.getId(), to, PageRequest.of(0, size + 1));
+        return BookingSlice.of(rows, size);
+    }
+
+    /**
+     * Streams the bookings in the date range as export rows, ordered by date, start and id.
+     * The caller has to consume and close the stream inside a transaction.
+     *
+     * @param from The first date of the range.
+     * @param to   The last date of the range.
+     * @return The rows; only the rows of the current fetch are held in memory.
+     */
+    @Override
+    public Stream<BookingExportRow> streamExportRows(LocalDate from, LocalDate to) {
+        return deskBookingJPARepo.streamExportRows(from, to);
     }
 
 
@@ -119,47 +285,19 @@ public class DeskBookingRepo_JPAH2 implements DeskBookingRepo {
      * @param employee Optional employee criteria.
      * @param desk     Optional desk criteria.
      * @param date     Optional date criteria.
-     * @param start    Optional start time criteria.
-     * @param endTime  Optional end time criteria.
-     * @param timeslot Optional timeslot criteria.
-     * @return A list of desk bookings that match the provided criteria.
+     * @param start    Optional start of the time window; bookings ending after it match.
+     * @param endTime  Optional end of the time window; bookings starting before it match.
+     * @param timeslot Optional timeslot whose time window the bookings overlap.
+     * @return A list of desk bookings that match the provided criteria, ordered by date and start time.
      */
     @Override
     public List<DeskBooking> searchBookings(Optional<Employee> employee, Optional<Desk> desk, Optional<LocalDate> date, Optional<LocalTime> start, Optional<LocalTime> endTime, Optional<Timeslot> timeslot) {
-        // Retrieve all bookings from the repository
-        List<DeskBooking> allBookings = deskBookingJPARepo.findAll();
-
-        // Filter bookings based on provided criteria
-        Stream<DeskBooking> filteredBookings = allBookings.stream();
-
-        if (employee.isPresent()) {
-            filteredBookings = filteredBookings.filter(booking -> booking.getEmployee().equals(employee.get()));
-        }
-
+        // Only the present criteria are sent to the database
+        Specification<DeskBooking> specification = BookingSpecifications.search(employee, date, start, endTime, timeslot);
         if (desk.isPresent()) {
-            filteredBookings = filteredBookings.filter(booking -> booking.getDesk().equals(desk.get()));
+            specification = specification.and(BookingSpecifications.booked("desk", desk.get()));
         }
-
-        if (date.isPresent()) {
-            filteredBookings = filteredBookings.filter(booking -> booking.getDate().equals(date.get()));
-        }
-
-        if (start.isPresent()) {
-            filteredBookings = filteredBookings.filter(booking -> !booking.getStart().isBefore(start.get()));
-        }
-
-        if (endTime.isPresent()) {
-            filteredBookings = filteredBookings.filter(booking -> !booking.getEndTime().isAfter(endTime.get()));
-        }
-
-        // Assuming Timeslot has a start and end time
-        if (timeslot.isPresent()) {
-            filteredBookings = filteredBookings.filter(booking ->
-                    !booking.getStart().isBefore(timeslot.get().getStart()) &&
-                            !booking.getEndTime().isAfter(timeslot.get().getEnd()));
-        }
-
-        return filteredBookings.collect(Collectors.toList());
+        return deskBookingJPARepo.findAll(specification, BookingSpecifications.ORDER);
     }
 
 
@@ -238,13 +376,8 @@ public class DeskBookingRepo_JPAH2 implements DeskBookingRepo {
      * @throws ResourceNotFoundException If no bookings are found for the specified desk ID.
      */
     public List<DeskBooking> getBookingsByEmployee(Long employeeId) throws ResourceNotFoundException{
-        // Fetch all bookings from the database on the given date for the given employee
-        List<DeskBooking> bookings = deskBookingJPARepo.findBookingsByEmployeeId(employeeId);
-
-        // Filter out bookings that are in the past
-        List<DeskBooking> filteredBookings = bookings.stream()
-                .filter(booking -> !booking.getDate().isBefore(LocalDate.now()))
-                .collect(Collectors.toList());
+        // Fetch the bookings of the employee for today or future dates
+        List<DeskBooking> filteredBookings = deskBookingJPARepo.findBookingsByEmployeeIdAndDateGreaterThanEqual(employeeId, LocalDate.now());
 
         //check if the list is empty
         if (filteredBookings.isEmpty()) {
@@ -264,17 +397,12 @@ public class DeskBookingRepo_JPAH2 implements DeskBookingRepo {
      */
     @Override
     public List<DeskBooking> getBookingByDesk(Long deskId) throws ResourceNotFoundException {
-        // Fetch all bookings from the database for the desk provided
-        List<DeskBooking> bookings = deskBookingJPARepo.findBookingsByDeskId(deskId);
-
         if (deskId == null) {
             throw new IllegalArgumentException("Desk ID cannot be null");
         }
 
-        // Filter out bookings that are in the past
-        List<DeskBooking> filteredBookings = bookings.stream()
-                .filter(booking -> !booking.getDate().isBefore(LocalDate.now()))
-                .collect(Collectors.toList());
+        // Fetch the bookings of the desk for today or future dates
+        List<DeskBooking> filteredBookings = deskBookingJPARepo.findBookingsByDeskIdAndDateGreaterThanEqual(deskId, LocalDate.now());
 
         //check if the list is empty
         if (filteredBookings.isEmpty()) {
@@ -516,19 +644,25 @@ public class DeskBookingRepo_JPAH2 implements DeskBookingRepo {
 
     /**
      * Updates a desk booking in the repository.
+     * The booking is written like a new one (see {@link #addBooking}), so moving it to another desk, date or time is
+     * checked against the bookings committed in the meantime.
      *
      * @param updatedBooking The desk booking object containing updated details.
      * @return The updated desk booking after saving to the repository.
      * @throws IllegalArgumentException If the ID of the updated booking is null.
+     * @throws DeskNotAvailableException If the desk is not available for the updated booking period or if the employee already has another booking on that date.
+     * @throws ResourceNotFoundException If the desk or employee is not found.
      */
-    public DeskBooking updateBooking(DeskBooking updatedBooking) {
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public DeskBooking updateBooking(DeskBooking updatedBooking) throws ResourceNotFoundException, DeskNotAvailableException {
         // Check if the ID of the updated booking is provided
         if (updatedBooking.getId() == null) {
             throw new IllegalArgumentException("Id cannot be null when updating");
         }
 
-        // Save the updated booking to the repository and immediately flush changes
-        return deskBookingJPARepo.saveAndFlush(updatedBooking);
+        // Save the updated booking under the desk and employee locks and immediately flush changes
+        return admit(updatedBooking);
     }
 
     /**
@@ -545,6 +679,7 @@ public class DeskBookingRepo_JPAH2 implements DeskBookingRepo {
         if (bookingOptional.isPresent()) {
             // Delete the booking from the repository
             this.deskBookingJPARepo.deleteById(bookingId);
+            this.occupancyIndex.remove(bookingId);
         } else {
             // Throw an exception if the booking is not found
             throw new ResourceDeletionFailureException("The desk booking with the ID: " + bookingId + " was not found!");
@@ -552,21 +687,50 @@ public class DeskBookingRepo_JPAH2 implements DeskBookingRepo {
     }
 
     /**
-     * Retrieves the booking history for a specific employee.
+     * Retrieves the booking history for a specific employee, including the bookings that were moved to the archive.
      *
      * @param employeeId The unique identifier of the employee for which the booking history is to be retrieved.
-     * @return A list of desk bookings associated with the specified employee.
+     * @return A list of desk bookings associated with the specified employee, archived ones first.
      * @throws ResourceNotFoundException If no bookings are found for the specified employee.
      */
     @Override
     public List<DeskBooking> getBookingHistoryByEmployeeId(Long employeeId) throws ResourceNotFoundException {
-        return this.deskBookingJPARepo.findBookingsByEmployeeId(employeeId);
+        List<DeskBooking> history = restoreArchived(employeeId,
+                bookingArchiveJPARepo.findByEmployeeIdAndTypeOrderByDateAscStartAsc(employeeId, ArchivedBooking.typeOf(DeskBooking.class)));
+        history.addAll(this.deskBookingJPARepo.findBookingsByEmployeeId(employeeId));
+        return history;
+    }
+
+    /**
+     * Retrieves the desk bookings of an employee in a date range. Dates that are no longer in the booking table are
+     * read from the archive, so the range may reach back further than the archive horizon.
+     *
+     * @param employeeId The unique identifier of the employee.
+     * @param from       The first date of the range.
+     * @param to         The last date of the range.
+     * @return The desk bookings in the range, ordered by date and start time.
+     */
+    @Override
+    public List<DeskBooking> getBookingHistoryByEmployeeId(Long employeeId, LocalDate from, LocalDate to) {
+        List<DeskBooking> history = restoreArchived(employeeId,
+                bookingArchiveJPARepo.findByEmployeeIdAndTypeAndDateBetweenOrderByDateAscStartAsc(employeeId, ArchivedBooking.typeOf(DeskBooking.class), from, to));
+        history.addAll(this.deskBookingJPARepo.findBookingsByEmployeeIdAndDateBetweenOrderByDateAscStartAsc(employeeId, from, to));
+        return history;
+    }
+
+    /**
+     * Turns archived rows back into desk bookings for display, see {@link ArchivedBookingRestorer}.
+     */
+    private List<DeskBooking> restoreArchived(Long employeeId, List<ArchivedBooking> archived) {
+        return archivedBookingRestorer.restore(employeeId, archived, DeskBooking::new, ArchivedBooking::getDeskId,
+                deskJPARepo, Desk::getId, DeskBooking::setDesk);
     }
 
     /**
      * Retrieves available desks for a specific date and time range.
-     * This method checks the availability of each desk for the given date and time range
-     * and returns a list of desks that are not booked during that period.
+     * The availability is resolved in the database with a single anti-join, so the number of
+     * statements stays constant no matter how many desks exist. A desk counts as available if
+     * none of its bookings on that date overlaps the half-open interval [start, end).
      *
      * @param date The date to check for availability.
      * @param start The start time of the time range.
@@ -576,28 +740,10 @@ public class DeskBookingRepo_JPAH2 implements DeskBookingRepo {
      *         If specificDeskId is provided, the list will contain either the specific desk (if available) or be empty.
      */
     public List<Desk> getAvailableDesks(LocalDate date, LocalTime start, LocalTime end, Long specificDeskId) {
-        List<Desk> allDesks;
-
-        allDesks = new ArrayList<>(deskJPARepo.findAll());
-
-        List<Desk> availableDesks = new ArrayList<>();
-
-        try {
-            for (Desk desk : allDesks) {
-                Long deskId = desk.getId();
-                List<DeskBooking> overlappingBookings = deskBookingJPARepo.findBookingsByDeskIdDateAndTimeRange(deskId, date, start, end);
-
-                // Ensure overlappingBookings is not null
-                if (overlappingBookings == null || overlappingBookings.isEmpty()) {
-                    availableDesks.add(desk);
-                }
-            }
-        } catch (Exception e) {
-
-            e.printStackTrace();
+        if (specificDeskId != null) {
+            return deskBookingJPARepo.findAvailableDesk(specificDeskId, date, start, end);
         }
-
-        return availableDesks;
+        return deskBookingJPARepo.findAvailableDesks(date, start, end);
     }
 
      /**
@@ -606,12 +752,98 @@ public class DeskBookingRepo_JPAH2 implements DeskBookingRepo {
      * in the repository. If the booking already exists (based on its ID),
      * it will be updated; otherwise, a new booking will be created.
      *
+     * Like {@link #addBooking}, the booking is written under the desk and employee locks after a re-check.
+     *
      * @param booking The desk booking entity to be saved or updated.
      * @return The saved or updated desk booking entity.
+     * @throws DeskNotAvailableException If the desk is not available for the booking period or if the employee already has another booking on that date.
+     * @throws ResourceNotFoundException If the desk or employee is not found.
      */
-    public DeskBooking save(DeskBooking booking) {
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public DeskBooking save(DeskBooking booking) throws ResourceNotFoundException, DeskNotAvailableException {
         // Save or update the provided booking in the repository
-        return this.deskBookingJPARepo.save(booking);
+        return admit(booking);
+    }
+
+    /**
+     * Checks whether a desk is free on the given date for the half-open interval [start, end).
+     * The check is answered from the in-memory occupancy index; the day is loaded from the
+     * database only on its first access.
+     *
+     * @param deskId           The ID of the desk.
+     * @param date             The date of the booking.
+     * @param start            The start time of the booking.
+     * @param end              The end time of the booking.
+     * @param ignoredBookingId The ID of a booking to disregard (the booking being updated), may be null.
+     * @return True if no other booking of the desk overlaps the interval.
+     */
+    @Override
+    public boolean isDeskAvailable(Long deskId, LocalDate date, LocalTime start, LocalTime end, Long ignoredBookingId) {
+        return occupancyIndex.isFree(deskId, date, start, end, ignoredBookingId);
+    }
+
+    /**
+     * Builds the free/busy bitset grid of all desks for one day from the occupancy index.
+     * Costs one query for the desk ids, plus one for the day's bookings if the day is not indexed yet.
+     *
+     * @param date        The day of the grid.
+     * @param dayStart    The start of the first slot.
+     * @param dayEnd      The end of the last slot.
+     * @param slotMinutes The length of a slot in minutes.
+     * @return The occupancy grid of the day.
+     */
+    @Override
+    public OccupancyGrid getOccupancyGrid(LocalDate date, LocalTime dayStart, LocalTime dayEnd, int slotMinutes) {
+        return OccupancyGrid.build(date, deskJPARepo.findAllDeskIds(), occupancyIndex.intervalsByBookable(date), dayStart, dayEnd, slotMinutes);
+    }
+
+    /**
+     * Builds the free/busy bitset grid of the given desks for one day from the occupancy index, without reading the
+     * desk ids from the database.
+     *
+     * @param date        The day of the grid.
+     * @param deskIds     The desks of the grid.
+     * @param dayStart    The start of the first slot.
+     * @param dayEnd      The end of the last slot.
+     * @param slotMinutes The length of a slot in minutes.
+     * @return The occupancy grid of the desks.
+     */
+    @Override
+    public OccupancyGrid getOccupancyGrid(LocalDate date, List<Long> deskIds, LocalTime dayStart, LocalTime dayEnd, int slotMinutes) {
+        return OccupancyGrid.build(date, deskIds, occupancyIndex.intervalsByBookable(date), dayStart, dayEnd, slotMinutes);
+    }
+
+    /**
+     * Keeps the occupancy index in line with a booking that was just written.
+     *
+     * @param booking The persisted desk booking.
+     * @return The same booking, for chaining.
+     */
+    private DeskBooking index(DeskBooking booking) {
+        if (booking != null && booking.getDesk() != null) {
+            occupancyIndex.put(booking.getId(), booking.getDesk().getId(), booking.getDate(), booking.getStart(), booking.getEndTime());
+        }
+        return booking;
+    }
+
+    /**
+     * Indexes the booking once the surrounding transaction has committed, so that a rolled back booking never
+     * shows up in the occupancy index.
+     *
+     * @param booking The desk booking written in the current transaction.
+     */
+    private void indexAfterCommit(DeskBooking booking) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            index(booking);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                index(booking);
+            }
+        });
     }
 
 
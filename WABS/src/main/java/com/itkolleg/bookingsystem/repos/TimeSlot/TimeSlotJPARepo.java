@@ -1,10 +1,14 @@
 package com.itkolleg.bookingsystem.repos.timeslot;
 
 import com.itkolleg.bookingsystem.domains.Timeslot;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalTime;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -14,6 +18,15 @@ import java.util.Optional;
 @Repository
 public interface TimeslotJPARepo extends JpaRepository<Timeslot, Long> {
 
+    /**
+     * Retrieves all timeslots. The result is kept in the query cache until a timeslot is changed.
+     *
+     * @return A list of all timeslots.
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Timeslot> findAll();
+
     /**
      * Retrieves a timeslot by its start time.
      *
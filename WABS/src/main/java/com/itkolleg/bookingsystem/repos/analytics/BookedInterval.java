@@ -0,0 +1,73 @@
+package com.itkolleg.bookingsystem.repos.analytics;
+
+import com.itkolleg.bookingsystem.domains.Ressourcetype;
+import com.itkolleg.bookingsystem.domains.analytics.OccupancyScope;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The part of a booking the occupancy rollups are computed from: when it takes place and what it occupies.
+ * Exactly one of desk, room (with its floor) or ressource type is set.
+ *
+ * @param date          The day of the booking.
+ * @param start         The start time.
+ * @param end           The end time; midnight means the end of the day.
+ * @param deskId        The booked desk, or null.
+ * @param roomId        The booked room, or null.
+ * @param floor         The floor of the booked room, or null.
+ * @param ressourcetype The type of the booked ressource, or null.
+ */
+public record BookedInterval(LocalDate date, LocalTime start, LocalTime end, Long deskId, Long roomId, String floor,
+                             Ressourcetype ressourcetype) {
+
+    /**
+     * Key used for rooms or ressources whose floor or type is not set.
+     */
+    public static final String UNKNOWN = "?";
+
+    /**
+     * @return The rollup rows this interval counts towards, as pairs of scope and scope key.
+     */
+    List<ScopeKey> scopeKeys() {
+        List<ScopeKey> keys = new ArrayList<>(2);
+        if (deskId != null) {
+            keys.add(new ScopeKey(OccupancyScope.DESK, deskId.toString()));
+        }
+        if (roomId != null) {
+            keys.add(new ScopeKey(OccupancyScope.ROOM, roomId.toString()));
+            keys.add(new ScopeKey(OccupancyScope.FLOOR, floor != null ? floor : UNKNOWN));
+        }
+        if (ressourcetype != null) {
+            keys.add(new ScopeKey(OccupancyScope.RESSOURCETYPE, ressourcetype.name()));
+        }
+        return keys;
+    }
+
+    /**
+     * @return The start as minute of the day.
+     */
+    int startMinute() {
+        return start.getHour() * 60 + start.getMinute();
+    }
+
+    /**
+     * @return The end as minute of the day; a booking ending at midnight ends at minute 1440.
+     */
+    int endMinute() {
+        int minute = end.getHour() * 60 + end.getMinute();
+        return minute == 0 ? 24 * 60 : minute;
+    }
+
+    /**
+     * @return False for intervals that cannot be counted, e.g. without a time or ending before they start.
+     */
+    boolean isCountable() {
+        return date != null && start != null && end != null && startMinute() < endMinute();
+    }
+
+    record ScopeKey(OccupancyScope scope, String key) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.itkolleg.bookingsystem.repos.analytics;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Two bookings of the same employee that overlap in time at different places. The employee can only be at one of
+ * them, so at least one booking is likely to stay unused.
+ *
+ * @param date         The day of both bookings.
+ * @param employeeNick The employee.
+ * @param firstLabel   What the first booking occupies, e.g. {@code Arbeitsplatz A1}.
+ * @param firstStart   Start of the first booking.
+ * @param firstEnd     End of the first booking.
+ * @param secondLabel  What the second booking occupies, e.g. {@code Raum 3}.
+ * @param secondStart  Start of the second booking.
+ * @param secondEnd    End of the second booking.
+ */
+public record NoShowCandidate(LocalDate date, String employeeNick,
+                              String firstLabel, LocalTime firstStart, LocalTime firstEnd,
+                              String secondLabel, LocalTime secondStart, LocalTime secondEnd) {
+}
@@ -0,0 +1,68 @@
+package com.itkolleg.bookingsystem.repos.analytics;
+
+import com.itkolleg.bookingsystem.domains.analytics.OccupancyRollup;
+import com.itkolleg.bookingsystem.domains.analytics.OccupancyScope;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface OccupancyRollupJPARepo extends JpaRepository<OccupancyRollup, OccupancyRollup.Key> {
+
+    @Modifying
+    @Query("DELETE FROM OccupancyRollup r WHERE r.date BETWEEN :from AND :to")
+    int deleteBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT new com.itkolleg.bookingsystem.repos.analytics.OccupancyTotal(r.scopeKey, SUM(r.bookings), SUM(r.bookedMinutes))"
+            + " FROM OccupancyRollup r WHERE r.scope = :scope AND r.date BETWEEN :from AND :to GROUP BY r.scopeKey")
+    List<OccupancyTotal> sumByScopeKey(@Param("scope") OccupancyScope scope, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT new com.itkolleg.bookingsystem.repos.analytics.OccupancyTotal(r.date, SUM(r.bookings), SUM(r.bookedMinutes))"
+            + " FROM OccupancyRollup r WHERE r.scope = :scope AND r.date BETWEEN :from AND :to GROUP BY r.date ORDER BY r.date")
+    List<OccupancyTotal> sumByDay(@Param("scope") OccupancyScope scope, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT new com.itkolleg.bookingsystem.repos.analytics.OccupancyTotal(r.hour, SUM(r.bookings), SUM(r.bookedMinutes))"
+            + " FROM OccupancyRollup r WHERE r.scope = :scope AND r.date BETWEEN :from AND :to GROUP BY r.hour ORDER BY r.hour")
+    List<OccupancyTotal> sumByHour(@Param("scope") OccupancyScope scope, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT b.date, b.start, b.endTime, b.desk.id FROM DeskBooking b WHERE b.date BETWEEN :from AND :to")
+    List<Object[]> findDeskIntervals(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT b.date, b.start, b.endTime, r.id, r.floor FROM RoomBooking b JOIN b.room r WHERE b.date BETWEEN :from AND :to")
+    List<Object[]> findRoomIntervals(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT b.date, b.start, b.endTime, r.ressourcetype FROM RessourceBooking b JOIN b.ressource r WHERE b.date BETWEEN :from AND :to")
+    List<Object[]> findRessourceIntervals(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT a.date, a.start, a.endTime, a.deskId, a.roomId, r.floor, res.ressourcetype FROM ArchivedBooking a"
+            + " LEFT JOIN Room r ON r.id = a.roomId LEFT JOIN Ressource res ON res.id = a.ressourceId"
+            + " WHERE a.date BETWEEN :from AND :to")
+    List<Object[]> findArchivedIntervals(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Desk bookings overlapping a room booking of the same employee.
+     */
+    @Query("SELECT new com.itkolleg.bookingsystem.repos.analytics.NoShowCandidate(d.date, e.nick,"
+            + " CONCAT('Arbeitsplatz ', dk.deskNr), d.start, d.endTime, CONCAT('Raum ', CAST(rm.id AS String)), r.start, r.endTime)"
+            + " FROM DeskBooking d JOIN d.employee e JOIN d.desk dk, RoomBooking r JOIN r.room rm"
+            + " WHERE r.employee = e AND r.date = d.date AND d.start < r.endTime AND r.start < d.endTime"
+            + " AND d.date BETWEEN :from AND :to ORDER BY d.date, e.nick")
+    List<NoShowCandidate> findDeskRoomOverlaps(@Param("from") LocalDate from, @Param("to") LocalDate to, Pageable limit);
+
+    /**
+     * Room bookings overlapping another room booking of the same employee; every pair is returned once.
+     */
+    @Query("SELECT new com.itkolleg.bookingsystem.repos.analytics.NoShowCandidate(r1.date, e.nick,"
+            + " CONCAT('Raum ', CAST(rm1.id AS String)), r1.start, r1.endTime, CONCAT('Raum ', CAST(rm2.id AS String)), r2.start, r2.endTime)"
+            + " FROM RoomBooking r1 JOIN r1.employee e JOIN r1.room rm1, RoomBooking r2 JOIN r2.room rm2"
+            + " WHERE r2.employee = e AND r2.date = r1.date AND r1.id < r2.id AND rm1 <> rm2"
+            + " AND r1.start < r2.endTime AND r2.start < r1.endTime"
+            + " AND r1.date BETWEEN :from AND :to ORDER BY r1.date, e.nick")
+    List<NoShowCandidate> findRoomRoomOverlaps(@Param("from") LocalDate from, @Param("to") LocalDate to, Pageable limit);
+}
@@ -0,0 +1,38 @@
+package com.itkolleg.bookingsystem.repos.analytics;
+
+import com.itkolleg.bookingsystem.domains.analytics.OccupancyScope;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface OccupancyRollupRepo {
+
+    /**
+     * Adds the deltas to the stored rollup rows. Must be called within a transaction.
+     */
+    void applyDeltas(RollupDeltas deltas);
+
+    /**
+     * Replaces all rollup rows between the dates with the given ones. Must be called within a transaction.
+     *
+     * @param rollups The complete rollups of the range, e.g. computed from {@link #getBookedIntervals}.
+     */
+    void replaceRollups(LocalDate from, LocalDate to, RollupDeltas rollups);
+
+    /**
+     * @return The intervals of all bookings between the dates, including the archived ones.
+     */
+    List<BookedInterval> getBookedIntervals(LocalDate from, LocalDate to);
+
+    List<OccupancyTotal> getTotalsByScopeKey(OccupancyScope scope, LocalDate from, LocalDate to);
+
+    List<OccupancyTotal> getTotalsByDay(OccupancyScope scope, LocalDate from, LocalDate to);
+
+    List<OccupancyTotal> getTotalsByHour(OccupancyScope scope, LocalDate from, LocalDate to);
+
+    /**
+     * @param limit The maximum number of candidates of each kind.
+     * @return Overlapping bookings of the same employee at different places, by date.
+     */
+    List<NoShowCandidate> getNoShowCandidates(LocalDate from, LocalDate to, int limit);
+}
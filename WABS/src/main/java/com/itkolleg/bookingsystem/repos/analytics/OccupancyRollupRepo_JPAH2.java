@@ -0,0 +1,119 @@
+package com.itkolleg.bookingsystem.repos.analytics;
+
+import com.itkolleg.bookingsystem.domains.Ressourcetype;
+import com.itkolleg.bookingsystem.domains.analytics.OccupancyRollup;
+import com.itkolleg.bookingsystem.domains.analytics.OccupancyScope;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+@Component
+public class OccupancyRollupRepo_JPAH2 implements OccupancyRollupRepo {
+
+    /**
+     * Rows persisted between two flushes when rollups are rebuilt.
+     */
+    private static final int REBUILD_FLUSH_SIZE = 500;
+
+    /**
+     * Adds to the booked minutes and bookings of a rollup row, creating the row if it is missing. Concurrent
+     * transactions changing the same row do not overwrite each other.
+     */
+    private static final String ADD_TO_ROLLUP = "MERGE INTO occupancy_rollup t"
+            + " USING (VALUES (CAST(? AS DATE), CAST(? AS VARCHAR(20)), CAST(? AS VARCHAR(64)), CAST(? AS INTEGER), CAST(? AS BIGINT), CAST(? AS INTEGER)))"
+            + " AS s (rollup_date, scope, scope_key, hour_of_day, booked_minutes, bookings)"
+            + " ON t.rollup_date = s.rollup_date AND t.scope = s.scope AND t.scope_key = s.scope_key AND t.hour_of_day = s.hour_of_day"
+            + " WHEN MATCHED THEN UPDATE SET booked_minutes = t.booked_minutes + s.booked_minutes, bookings = t.bookings + s.bookings"
+            + " WHEN NOT MATCHED THEN INSERT (rollup_date, scope, scope_key, hour_of_day, booked_minutes, bookings)"
+            + " VALUES (s.rollup_date, s.scope, s.scope_key, s.hour_of_day, s.booked_minutes, s.bookings)";
+
+    private final OccupancyRollupJPARepo occupancyRollupJPARepo;
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public OccupancyRollupRepo_JPAH2(OccupancyRollupJPARepo occupancyRollupJPARepo, JdbcTemplate jdbcTemplate) {
+        this.occupancyRollupJPARepo = occupancyRollupJPARepo;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * All changed rows are sent as one JDBC batch; the template joins the JPA transaction.
+     */
+    @Override
+    public void applyDeltas(RollupDeltas deltas) {
+        List<Object[]> rows = new ArrayList<>();
+        deltas.forEach((key, bookedMinutes, bookings) -> rows.add(new Object[]{
+                key.getDate(), key.getScope().name(), key.getScopeKey(), key.getHour(), bookedMinutes, bookings}));
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADD_TO_ROLLUP, rows);
+        }
+    }
+
+    @Override
+    public void replaceRollups(LocalDate from, LocalDate to, RollupDeltas rollups) {
+        occupancyRollupJPARepo.deleteBetween(from, to);
+        int[] pending = {0};
+        rollups.forEach((key, bookedMinutes, bookings) -> {
+            entityManager.persist(new OccupancyRollup(key.getDate(), key.getScope(), key.getScopeKey(), key.getHour(), bookedMinutes, bookings));
+            if (++pending[0] == REBUILD_FLUSH_SIZE) {
+                entityManager.flush();
+                entityManager.clear();
+                pending[0] = 0;
+            }
+        });
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    public List<BookedInterval> getBookedIntervals(LocalDate from, LocalDate to) {
+        List<BookedInterval> intervals = new ArrayList<>();
+        for (Object[] row : occupancyRollupJPARepo.findDeskIntervals(from, to)) {
+            intervals.add(new BookedInterval((LocalDate) row[0], (LocalTime) row[1], (LocalTime) row[2], (Long) row[3], null, null, null));
+        }
+        for (Object[] row : occupancyRollupJPARepo.findRoomIntervals(from, to)) {
+            intervals.add(new BookedInterval((LocalDate) row[0], (LocalTime) row[1], (LocalTime) row[2], null, (Long) row[3], (String) row[4], null));
+        }
+        for (Object[] row : occupancyRollupJPARepo.findRessourceIntervals(from, to)) {
+            intervals.add(new BookedInterval((LocalDate) row[0], (LocalTime) row[1], (LocalTime) row[2], null, null, null, (Ressourcetype) row[3]));
+        }
+        for (Object[] row : occupancyRollupJPARepo.findArchivedIntervals(from, to)) {
+            intervals.add(new BookedInterval((LocalDate) row[0], (LocalTime) row[1], (LocalTime) row[2],
+                    (Long) row[3], (Long) row[4], (String) row[5], (Ressourcetype) row[6]));
+        }
+        return intervals;
+    }
+
+    @Override
+    public List<OccupancyTotal> getTotalsByScopeKey(OccupancyScope scope, LocalDate from, LocalDate to) {
+        return occupancyRollupJPARepo.sumByScopeKey(scope, from, to);
+    }
+
+    @Override
+    public List<OccupancyTotal> getTotalsByDay(OccupancyScope scope, LocalDate from, LocalDate to) {
+        return occupancyRollupJPARepo.sumByDay(scope, from, to);
+    }
+
+    @Override
+    public List<OccupancyTotal> getTotalsByHour(OccupancyScope scope, LocalDate from, LocalDate to) {
+        return occupancyRollupJPARepo.sumByHour(scope, from, to);
+    }
+
+    @Override
+    public List<NoShowCandidate> getNoShowCandidates(LocalDate from, LocalDate to, int limit) {
+        List<NoShowCandidate> candidates = new ArrayList<>(occupancyRollupJPARepo.findDeskRoomOverlaps(from, to, PageRequest.of(0, limit)));
+        candidates.addAll(occupancyRollupJPARepo.findRoomRoomOverlaps(from, to, PageRequest.of(0, limit)));
+        candidates.sort(Comparator.comparing(NoShowCandidate::date).thenComparing(NoShowCandidate::employeeNick));
+        return candidates;
+    }
+}
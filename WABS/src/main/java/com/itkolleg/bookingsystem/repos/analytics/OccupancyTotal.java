@@ -0,0 +1,11 @@
+package com.itkolleg.bookingsystem.repos.analytics;
+
+/**
+ * Booked minutes and bookings summed over rollup rows, grouped by scope key, day or hour.
+ *
+ * @param group         The scope key, the day ({@link java.time.LocalDate}) or the hour of the day ({@link Integer}).
+ * @param bookings      The number of bookings.
+ * @param bookedMinutes The booked minutes.
+ */
+public record OccupancyTotal(Object group, Long bookings, Long bookedMinutes) {
+}
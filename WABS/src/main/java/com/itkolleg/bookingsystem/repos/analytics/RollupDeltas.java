@@ -0,0 +1,66 @@
+package com.itkolleg.bookingsystem.repos.analytics;
+
+import com.itkolleg.bookingsystem.domains.analytics.OccupancyRollup;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Changes to the occupancy rollups, summed per rollup row.
+ * <p>
+ * A booking is split into the hours it covers: every hour gets the booked minutes within it, the hour the booking
+ * starts in also counts the booking itself. Adding a booking with sign +1 and removing it with -1 cancels out, so
+ * moving a booking within the same hours of the same day results in no change at all.
+ * </p>
+ * Not thread-safe; an instance belongs to one transaction or one rebuild.
+ */
+public final class RollupDeltas {
+
+    private final Map<OccupancyRollup.Key, long[]> deltas = new HashMap<>();
+
+    /**
+     * @param interval The booked interval; intervals that cannot be counted are ignored.
+     * @param sign     +1 for a booking that was added, -1 for one that was removed.
+     */
+    public void add(BookedInterval interval, int sign) {
+        if (interval == null || !interval.isCountable()) {
+            return;
+        }
+        int startMinute = interval.startMinute();
+        int endMinute = interval.endMinute();
+        for (BookedInterval.ScopeKey scopeKey : interval.scopeKeys()) {
+            for (int hour = startMinute / 60; hour * 60 < endMinute; hour++) {
+                int minutes = Math.min(endMinute, (hour + 1) * 60) - Math.max(startMinute, hour * 60);
+                long[] delta = deltas.computeIfAbsent(
+                        new OccupancyRollup.Key(interval.date(), scopeKey.scope(), scopeKey.key(), hour), key -> new long[2]);
+                delta[0] += (long) sign * minutes;
+                if (hour == startMinute / 60) {
+                    delta[1] += sign;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return True if applying the deltas would not change any rollup row.
+     */
+    public boolean isEmpty() {
+        return deltas.values().stream().allMatch(delta -> delta[0] == 0 && delta[1] == 0);
+    }
+
+    /**
+     * @param consumer Receives every rollup row that changes, with the change of its booked minutes and bookings.
+     */
+    public void forEach(DeltaConsumer consumer) {
+        deltas.forEach((key, delta) -> {
+            if (delta[0] != 0 || delta[1] != 0) {
+                consumer.accept(key, delta[0], (int) delta[1]);
+            }
+        });
+    }
+
+    @FunctionalInterface
+    public interface DeltaConsumer {
+        void accept(OccupancyRollup.Key key, long bookedMinutes, int bookings);
+    }
+}
@@ -0,0 +1,73 @@
+package com.itkolleg.bookingsystem.repos.booking;
+
+import com.itkolleg.bookingsystem.domains.Employee;
+import com.itkolleg.bookingsystem.domains.Timeslot;
+import com.itkolleg.bookingsystem.domains.booking.ArchivedBooking;
+import com.itkolleg.bookingsystem.domains.booking.Booking;
+import com.itkolleg.bookingsystem.repos.employee.EmployeeJPARepo;
+import com.itkolleg.bookingsystem.repos.timeslot.TimeslotJPARepo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Turns archived rows of one employee back into booking objects for display, shared by the desk, room and ressource
+ * booking repositories. The booked desks, rooms or ressources and the timeslots of all rows are loaded with one
+ * query each, so a long history costs the same number of statements as a short one.
+ */
+@Component
+public class ArchivedBookingRestorer {
+
+    private final EmployeeJPARepo employeeJPARepo;
+    private final TimeslotJPARepo timeslotJPARepo;
+
+    public ArchivedBookingRestorer(EmployeeJPARepo employeeJPARepo, TimeslotJPARepo timeslotJPARepo) {
+        this.employeeJPARepo = employeeJPARepo;
+        this.timeslotJPARepo = timeslotJPARepo;
+    }
+
+    /**
+     * @param employeeId  The employee of the archived rows.
+     * @param archived    The archived rows, all of the same booking type.
+     * @param newBooking  Creates an empty booking of that type, e.g. {@code DeskBooking::new}.
+     * @param bookableId  The id of the booked desk, room or ressource of a row, e.g. {@code ArchivedBooking::getDeskId}.
+     * @param bookables   The repository of the desks, rooms or ressources.
+     * @param idOf        The id of a desk, room or ressource.
+     * @param setBookable Sets the desk, room or ressource on the booking.
+     * @return The restored bookings in the order of the rows; they must not be saved.
+     */
+    public <T extends Booking, B> List<T> restore(Long employeeId, List<ArchivedBooking> archived, Supplier<T> newBooking,
+                                                  Function<ArchivedBooking, Long> bookableId, JpaRepository<B, Long> bookables,
+                                                  Function<B, Long> idOf, BiConsumer<T, B> setBookable) {
+        List<T> bookings = new ArrayList<>(archived.size());
+        if (archived.isEmpty()) {
+            return bookings;
+        }
+        Employee employee = employeeJPARepo.findById(employeeId).orElse(null);
+        Map<Long, B> bookablesById = bookables.findAllById(ids(archived, bookableId)).stream()
+                .collect(Collectors.toMap(idOf, Function.identity()));
+        Map<Long, Timeslot> timeslotsById = timeslotJPARepo.findAllById(ids(archived, ArchivedBooking::getTimeSlotId)).stream()
+                .collect(Collectors.toMap(Timeslot::getId, Function.identity()));
+
+        for (ArchivedBooking row : archived) {
+            T booking = row.restoreInto(newBooking.get(), employee);
+            setBookable.accept(booking, bookablesById.get(bookableId.apply(row)));
+            booking.setTimeSlot(timeslotsById.get(row.getTimeSlotId()));
+            bookings.add(booking);
+        }
+        return bookings;
+    }
+
+    private static Set<Long> ids(List<ArchivedBooking> archived, Function<ArchivedBooking, Long> id) {
+        return archived.stream().map(id).filter(Objects::nonNull).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,40 @@
+package com.itkolleg.bookingsystem.repos.booking;
+
+import com.itkolleg.bookingsystem.domains.booking.ArchivedBooking;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface BookingArchiveJPARepo extends JpaRepository<ArchivedBooking, Long> {
+
+    List<ArchivedBooking> findByEmployeeIdAndTypeAndDateBetweenOrderByDateAscStartAsc(Long employeeId, String type, LocalDate from, LocalDate to);
+
+    List<ArchivedBooking> findByEmployeeIdAndTypeOrderByDateAscStartAsc(Long employeeId, String type);
+
+    /**
+     * Ids of the hot bookings before the cutoff date, oldest first.
+     */
+    @Query("SELECT b.id FROM Booking b WHERE b.date < :cutoff ORDER BY b.date, b.id")
+    List<Long> findBookingIdsBefore(@Param("cutoff") LocalDate cutoff, Pageable limit);
+
+    /**
+     * Copies the given bookings into the archive in one statement.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "INSERT INTO booking_archive"
+            + " (id, type, employee_id, desk_id, room_id, ressource_id, time_slot_id, date, start, end_time, created_on, updated_on, archived_on)"
+            + " SELECT id, dtype, employee_id, desk_id, room_id, ressource_id, time_slot_id, date, start, end_time, created_on, updated_on, CURRENT_TIMESTAMP"
+            + " FROM booking WHERE id IN (:ids)")
+    int copyBookingsToArchive(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Booking b WHERE b.id IN :ids")
+    int deleteBookings(@Param("ids") List<Long> ids);
+}
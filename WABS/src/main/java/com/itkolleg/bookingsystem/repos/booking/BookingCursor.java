@@ -0,0 +1,75 @@
+package com.itkolleg.bookingsystem.repos.booking;
+
+import com.itkolleg.bookingsystem.domains.booking.Booking;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Position in a booking list that is ordered by date and id.
+ * The next page starts with the first booking after this position, so paging costs the same on the first and on the
+ * thousandth page and does not skip or repeat rows when bookings are added in between.
+ * <p>
+ * In URLs the cursor is written as {@code <date>_<id>}, e.g. {@code 2024-05-13_4711}.
+ */
+@Getter
+@EqualsAndHashCode
+public class BookingCursor {
+
+    private static final char SEPARATOR = '_';
+
+    private final LocalDate date;
+    private final long id;
+
+    public BookingCursor(LocalDate date, long id) {
+        this.date = date;
+        this.id = id;
+    }
+
+    /**
+     * The position before the first booking on the given date.
+     *
+     * @param date The first date of the list.
+     * @return A cursor that is followed by all bookings on or after the date.
+     */
+    public static BookingCursor before(LocalDate date) {
+        return new BookingCursor(date, 0L);
+    }
+
+    /**
+     * @param booking The last booking of a page.
+     * @return The cursor that continues after the booking.
+     */
+    public static BookingCursor after(Booking booking) {
+        return new BookingCursor(booking.getDate(), booking.getId());
+    }
+
+    /**
+     * Parses a cursor written by {@link #toString()}. A value that is not a cursor, e.g. a hand-edited or stale link,
+     * is treated like no cursor, so that the list starts again with its first page.
+     *
+     * @param value The cursor from the request, may be null, blank or invalid.
+     * @return The cursor, or null if no valid cursor was given.
+     */
+    public static BookingCursor parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        int separator = value.indexOf(SEPARATOR);
+        if (separator < 0) {
+            return null;
+        }
+        try {
+            return new BookingCursor(LocalDate.parse(value.substring(0, separator)), Long.parseLong(value.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return date.toString() + SEPARATOR + id;
+    }
+}
@@ -0,0 +1,57 @@
+package com.itkolleg.bookingsystem.repos.booking;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Flat projection of a booking for the reporting export.
+ * Rows are selected with a constructor expression, so exporting a long date range neither materializes booking
+ * entities with their employees and bookables nor fills the persistence context.
+ */
+@Getter
+@AllArgsConstructor
+public class BookingExportRow {
+
+    /**
+     * Names of the exported columns, in the order of the fields.
+     */
+    public static final String[] COLUMNS = {"id", "date", "start", "endTime", "employeeId", "employeeNick", "bookedId", "bookedLabel", "createdOn"};
+
+    /**
+     * The id of the booking.
+     */
+    private final Long id;
+
+    private final LocalDate date;
+
+    private final LocalTime start;
+
+    private final LocalTime endTime;
+
+    private final Long employeeId;
+
+    private final String employeeNick;
+
+    /**
+     * The id of the booked desk, room or ressource.
+     */
+    private final Long bookedId;
+
+    /**
+     * What the booked object is called: the desk number, the floor of the room or the name of the ressource.
+     */
+    private final String bookedLabel;
+
+    private final LocalDateTime createdOn;
+
+    /**
+     * @return The values in the order of {@link #COLUMNS}.
+     */
+    public Object[] values() {
+        return new Object[]{id, date, start, endTime, employeeId, employeeNick, bookedId, bookedLabel, createdOn};
+    }
+}
@@ -0,0 +1,61 @@
+package com.itkolleg.bookingsystem.repos.booking;
+
+import com.itkolleg.bookingsystem.domains.booking.Booking;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One page of a booking list in keyset order (date, id), together with the cursor for the following page.
+ *
+ * @param <T> The booking type.
+ */
+@Getter
+public class BookingSlice<T extends Booking> {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 200;
+
+    private final List<T> content;
+    private final BookingCursor next;
+
+    private BookingSlice(List<T> content, BookingCursor next) {
+        this.content = content;
+        this.next = next;
+    }
+
+    /**
+     * Builds a page from a query that fetched up to {@code size + 1} rows; the extra row only signals that another
+     * page follows.
+     *
+     * @param rows The rows in keyset order.
+     * @param size The page size.
+     * @param <T>  The booking type.
+     * @return The page with at most {@code size} bookings.
+     */
+    public static <T extends Booking> BookingSlice<T> of(List<T> rows, int size) {
+        if (rows.size() <= size) {
+            return new BookingSlice<>(List.copyOf(rows), null);
+        }
+        List<T> content = List.copyOf(rows.subList(0, size));
+        return new BookingSlice<>(content, BookingCursor.after(content.get(size - 1)));
+    }
+
+    /**
+     * @param requested The page size from the request, may be null.
+     * @return The requested size limited to {@code 1..MAX_SIZE}, or {@link #DEFAULT_SIZE} if none was requested.
+     */
+    public static int limitSize(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_SIZE;
+        }
+        return Math.max(1, Math.min(requested, MAX_SIZE));
+    }
+
+    /**
+     * @return True if there is a page after this one.
+     */
+    public boolean hasNext() {
+        return next != null;
+    }
+}
@@ -0,0 +1,112 @@
+package com.itkolleg.bookingsystem.repos.booking;
+
+import com.itkolleg.bookingsystem.domains.Employee;
+import com.itkolleg.bookingsystem.domains.Timeslot;
+import com.itkolleg.bookingsystem.domains.booking.Booking;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Building blocks for booking searches that are evaluated by the database.
+ * Only the criteria that are present end up in the WHERE clause, so a search reads the matching rows through the
+ * booking indexes instead of the whole table.
+ * <p>
+ * Time criteria use overlap semantics: a booking matches the window [start, end) if it starts before the end and ends
+ * after the start. A missing bound leaves that side of the window open.
+ */
+public final class BookingSpecifications {
+
+    /**
+     * Order of search results: by date, then start time, then id.
+     */
+    public static final Sort ORDER = Sort.by("date", "start", "id");
+
+    private BookingSpecifications() {
+    }
+
+    /**
+     * Combines the common booking criteria. Criteria that are empty are left out of the query.
+     *
+     * @param employee The employee who made the booking.
+     * @param date     The date of the booking.
+     * @param start    The start of the time window.
+     * @param endTime  The end of the time window.
+     * @param timeslot A timeslot whose time window the booking has to overlap.
+     * @param <T>      The booking type.
+     * @return The combined specification; it matches all bookings if no criteria are present.
+     */
+    public static <T extends Booking> Specification<T> search(Optional<Employee> employee, Optional<LocalDate> date,
+                                                              Optional<LocalTime> start, Optional<LocalTime> endTime,
+                                                              Optional<Timeslot> timeslot) {
+        Specification<T> specification = Specification.where(null);
+        if (employee.isPresent()) {
+            specification = specification.and(bookedBy(employee.get()));
+        }
+        if (date.isPresent()) {
+            specification = specification.and(onDate(date.get()));
+        }
+        if (start.isPresent() || endTime.isPresent()) {
+            specification = specification.and(overlaps(start.orElse(null), endTime.orElse(null)));
+        }
+        if (timeslot.isPresent()) {
+            specification = specification.and(overlaps(timeslot.get().getStart(), timeslot.get().getEnd()));
+        }
+        return specification;
+    }
+
+    /**
+     * @param employee The employee who made the booking.
+     * @param <T>      The booking type.
+     * @return Bookings of the employee.
+     */
+    public static <T extends Booking> Specification<T> bookedBy(Employee employee) {
+        return (root, query, builder) -> builder.equal(root.get("employee"), employee);
+    }
+
+    /**
+     * Matches the booked desk, room or ressource.
+     *
+     * @param attribute The attribute of the booking type that references the booked object, e.g. {@code "desk"}.
+     * @param booked    The booked object.
+     * @param <T>       The booking type.
+     * @return Bookings of the object.
+     */
+    public static <T extends Booking> Specification<T> booked(String attribute, Object booked) {
+        return (root, query, builder) -> builder.equal(root.get(attribute), booked);
+    }
+
+    /**
+     * @param date The date of the booking.
+     * @param <T>  The booking type.
+     * @return Bookings on the date.
+     */
+    public static <T extends Booking> Specification<T> onDate(LocalDate date) {
+        return (root, query, builder) -> builder.equal(root.get("date"), date);
+    }
+
+    /**
+     * @param start The start of the window, or null if the window is open towards the past.
+     * @param end   The end of the window, or null if the window is open towards the future.
+     * @param <T>   The booking type.
+     * @return Bookings whose time overlaps the window [start, end).
+     */
+    public static <T extends Booking> Specification<T> overlaps(LocalTime start, LocalTime end) {
+        return (root, query, builder) -> {
+            List<Predicate> predicates = new ArrayList<>(2);
+            if (end != null) {
+                predicates.add(builder.lessThan(root.get("start"), end));
+            }
+            if (start != null) {
+                predicates.add(builder.greaterThan(root.get("endTime"), start));
+            }
+            return builder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
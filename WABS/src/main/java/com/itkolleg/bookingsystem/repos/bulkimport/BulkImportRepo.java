@@ -0,0 +1,28 @@
+package com.itkolleg.bookingsystem.repos.bulkimport;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes imported desks, rooms, ressources and employees in batches.
+ */
+public interface BulkImportRepo {
+
+    /**
+     * Persists the entities, flushes them as JDBC batches and detaches them again, so the persistence context does not
+     * grow with the size of the import. Must be called within a transaction.
+     *
+     * @param entities New entities without ids.
+     */
+    void persistBatch(List<?> entities);
+
+    /**
+     * @return The numbers of all stored desks.
+     */
+    Set<String> getAllDeskNrs();
+
+    /**
+     * @return The nicks of all stored employees.
+     */
+    Set<String> getAllNicks();
+}
@@ -0,0 +1,44 @@
+package com.itkolleg.bookingsystem.repos.bulkimport;
+
+import com.itkolleg.bookingsystem.repos.desk.DeskJPARepo;
+import com.itkolleg.bookingsystem.repos.employee.EmployeeJPARepo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Component
+public class BulkImportRepo_JPAH2 implements BulkImportRepo {
+
+    private final DeskJPARepo deskJPARepo;
+    private final EmployeeJPARepo employeeJPARepo;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public BulkImportRepo_JPAH2(DeskJPARepo deskJPARepo, EmployeeJPARepo employeeJPARepo) {
+        this.deskJPARepo = deskJPARepo;
+        this.employeeJPARepo = employeeJPARepo;
+    }
+
+    @Override
+    public void persistBatch(List<?> entities) {
+        entities.forEach(entityManager::persist);
+        entityManager.flush();
+        // With open-in-view a web import shares one persistence context across all of its batches
+        entityManager.clear();
+    }
+
+    @Override
+    public Set<String> getAllDeskNrs() {
+        return new HashSet<>(deskJPARepo.findAllDeskNrs());
+    }
+
+    @Override
+    public Set<String> getAllNicks() {
+        return new HashSet<>(employeeJPARepo.findAllNicks());
+    }
+}
@@ -1,12 +1,22 @@
 package com.itkolleg.bookingsystem.repos.desk;
 
 import com.itkolleg.bookingsystem.domains.Desk;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 /**
  * This interface represents the repository for desks in the booking system.
  * @author Sonja Lechner
@@ -17,17 +27,52 @@ import org.springframework.stereotype.Repository;
 public interface DeskJPARepo extends JpaRepository<Desk, Long> {
 
     /**
-     *
+     * Retrieves a page of desks. Their ports are initialized in batches when first accessed.
      * @param pageable The pageable object
      * @return A page of desks
      */
     @Query("select a from Desk a")
     Page<Desk> findAllDesksByPage(Pageable pageable);
 
+    /**
+     * Retrieves all desks together with their ports in a single query.
+     * The result is kept in the query cache until a desk is changed.
+     * @return all desks
+     */
+    @Override
+    @EntityGraph(attributePaths = "ports")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Desk> findAll();
+
     /**
      * Retrieves a desk by its ID.
      * @param id id of the desk to be found
      * @return desk with the given id
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Desk findDeskById(Long id);
+
+    /**
+     * Retrieves the ids of all desks without loading the entities.
+     * @return ids of all desks, ascending
+     */
+    @Query("select d.id from Desk d order by d.id")
+    List<Long> findAllDeskIds();
+
+    /**
+     * Retrieves the numbers of all desks without loading the entities.
+     * @return desk numbers of all desks
+     */
+    @Query("select d.deskNr from Desk d")
+    List<String> findAllDeskNrs();
+
+    /**
+     * Retrieves a desk and locks its row until the end of the transaction, so that bookings of the same desk are
+     * admitted one after the other.
+     * @param id id of the desk
+     * @return the locked desk
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select d from Desk d where d.id = :id")
+    Optional<Desk> findByIdForUpdate(@Param("id") Long id);
 }
\ No newline at end of file
@@ -31,5 +31,11 @@ public interface EmployeeDBAccess {
 
     Employee updateEmployee(Employee employee) throws EmployeeNotFoundException;
 
+    /**
+     * @return A lazy reference to the employee with the given id; the employee is only loaded when one of its
+     * other fields is read.
+     */
+    Employee getEmployeeReference(Long id);
+
 
 }
\ No newline at end of file
@@ -102,5 +102,10 @@ public class EmployeeDBAccess_JPAH2 implements EmployeeDBAccess {
         return this.employeeJPARepo.save(updatedEmployee);
     }
 
+    @Override
+    public Employee getEmployeeReference(Long id) {
+        return this.employeeJPARepo.getReferenceById(id);
+    }
+
 
 }
\ No newline at end of file
@@ -1,13 +1,17 @@
 package com.itkolleg.bookingsystem.repos.employee;
 
 import com.itkolleg.bookingsystem.domains.Employee;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface EmployeeJPARepo extends JpaRepository<Employee, Long> {
@@ -21,6 +25,19 @@ public interface EmployeeJPARepo extends JpaRepository<Employee, Long> {
     @Query("select a from Employee a")
     Page<Employee> findAllEmployeesByPage(Pageable pageable);
 
+    /**
+     * Loads the employee and locks its row until the end of the transaction, e.g. to enforce one desk booking per day.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from Employee e where e.id = :id")
+    Optional<Employee> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Loads only the nicks, e.g. to reject duplicates in a bulk import without loading every employee.
+     */
+    @Query("select e.nick from Employee e")
+    List<String> findAllNicks();
+
 /*
     List<employee>findEmployeesByNameContainsIgnoreCase(String name);
     employee findByNameIgnoreCase(String name);
@@ -2,10 +2,17 @@ package com.itkolleg.bookingsystem.repos.holiday;
 
 
 import com.itkolleg.bookingsystem.domains.PublicHoliday;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.time.LocalDate;
+import java.util.List;
 
 public interface HolidayJPARepo extends JpaRepository<PublicHoliday, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     PublicHoliday findByDate(LocalDate date);
+
+    List<PublicHoliday> findByDateBetween(LocalDate from, LocalDate to);
 }
@@ -17,4 +17,6 @@ public interface HolidayRepo {
 
     PublicHoliday findByDate(LocalDate date);
 
+    List<PublicHoliday> getHolidaysBetween(LocalDate from, LocalDate to);
+
 }
@@ -47,4 +47,9 @@ public class HolidayRepo_JPAH2 implements HolidayRepo {
     public PublicHoliday findByDate(LocalDate date) {
         return this.holidayJPARepo.findByDate(date);
     }
+
+    @Override
+    public List<PublicHoliday> getHolidaysBetween(LocalDate from, LocalDate to) {
+        return this.holidayJPARepo.findByDateBetween(from, to);
+    }
 }
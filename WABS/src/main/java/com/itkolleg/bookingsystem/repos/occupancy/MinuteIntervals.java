@@ -0,0 +1,86 @@
+package com.itkolleg.bookingsystem.repos.occupancy;
+
+import java.util.Arrays;
+
+/**
+ * Sorted list of the booked intervals of one bookable on one day.
+ * Every interval is packed into a single int ({@code startMinute << 16 | endMinute}),
+ * so sorting the packed values sorts by start minute. The booking ids are kept in a
+ * parallel array to allow removing or ignoring a specific booking.
+ * Not thread-safe, access is guarded by {@link OccupancyIndex}.
+ */
+final class MinuteIntervals {
+
+    private int[] intervals = new int[2];
+    private long[] bookingIds = new long[2];
+    private int size;
+
+    static int pack(int startMinute, int endMinute) {
+        return startMinute << 16 | endMinute;
+    }
+
+    static int startOf(int packed) {
+        return packed >>> 16;
+    }
+
+    static int endOf(int packed) {
+        return packed & 0xFFFF;
+    }
+
+    void add(long bookingId, int startMinute, int endMinute) {
+        int packed = pack(startMinute, endMinute);
+        int pos = Arrays.binarySearch(intervals, 0, size, packed);
+        if (pos < 0) {
+            pos = -pos - 1;
+        }
+        if (size == intervals.length) {
+            intervals = Arrays.copyOf(intervals, size * 2);
+            bookingIds = Arrays.copyOf(bookingIds, size * 2);
+        }
+        System.arraycopy(intervals, pos, intervals, pos + 1, size - pos);
+        System.arraycopy(bookingIds, pos, bookingIds, pos + 1, size - pos);
+        intervals[pos] = packed;
+        bookingIds[pos] = bookingId;
+        size++;
+    }
+
+    boolean remove(long bookingId) {
+        for (int i = 0; i < size; i++) {
+            if (bookingIds[i] == bookingId) {
+                System.arraycopy(intervals, i + 1, intervals, i, size - i - 1);
+                System.arraycopy(bookingIds, i + 1, bookingIds, i, size - i - 1);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether any stored interval overlaps the half-open range [startMinute, endMinute).
+     * Only intervals starting before {@code endMinute} can overlap, so the scan is limited to
+     * the prefix found by a binary search.
+     *
+     * @param ignoredBookingId booking to skip (the booking being updated), or a negative value
+     */
+    boolean overlaps(int startMinute, int endMinute, long ignoredBookingId) {
+        int limit = Arrays.binarySearch(intervals, 0, size, pack(endMinute, 0));
+        if (limit < 0) {
+            limit = -limit - 1;
+        }
+        for (int i = limit - 1; i >= 0; i--) {
+            if (endOf(intervals[i]) > startMinute && bookingIds[i] != ignoredBookingId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int intervalAt(int index) {
+        return intervals[index];
+    }
+}
@@ -0,0 +1,235 @@
+package com.itkolleg.bookingsystem.repos.occupancy;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Free/busy bitset grid of all desks for one day, used by the floor-plan view.
+ * <p>
+ * The day between {@code dayStart} and {@code dayEnd} is cut into slots of {@code slotMinutes};
+ * every desk gets one {@code long[]} in which bit {@code n} is set if slot {@code n} is booked.
+ * Range queries build a mask for the requested slot range once and then test every desk with a
+ * word-wise AND, so answering "which desks are free from X to Y" costs a few machine words per desk.
+ * </p>
+ * The grid is an immutable snapshot; build a new one after bookings change.
+ */
+public class OccupancyGrid {
+
+    private final LocalDate date;
+    private final LocalTime dayStart;
+    private final int slotMinutes;
+    private final int slots;
+    private final long[] deskIds;
+    private final long[][] busy;
+
+    private OccupancyGrid(LocalDate date, LocalTime dayStart, int slotMinutes, int slots, long[] deskIds, long[][] busy) {
+        this.date = date;
+        this.dayStart = dayStart;
+        this.slotMinutes = slotMinutes;
+        this.slots = slots;
+        this.deskIds = deskIds;
+        this.busy = busy;
+    }
+
+    /**
+     * Builds the grid from the packed minute intervals of the {@link OccupancyIndex}.
+     *
+     * @param date        The day of the grid.
+     * @param deskIds     The ids of all desks that should appear on the floor plan.
+     * @param intervals   Packed booking intervals per desk, see {@link OccupancyIndex#intervalsByBookable}.
+     * @param dayStart    Start of the first slot.
+     * @param dayEnd      End of the last slot.
+     * @param slotMinutes Length of one slot in minutes.
+     * @return The grid.
+     */
+    public static OccupancyGrid build(LocalDate date, List<Long> deskIds, Map<Long, int[]> intervals,
+                                      LocalTime dayStart, LocalTime dayEnd, int slotMinutes) {
+        if (slotMinutes <= 0 || !dayStart.isBefore(dayEnd)) {
+            throw new IllegalArgumentException("slotMinutes must be positive and dayStart must be before dayEnd");
+        }
+        int firstMinute = toMinute(dayStart);
+        int slots = (toMinute(dayEnd) - firstMinute + slotMinutes - 1) / slotMinutes;
+        int words = (slots + 63) >>> 6;
+
+        long[] ids = deskIds.stream().mapToLong(Long::longValue).sorted().toArray();
+        long[][] busy = new long[ids.length][];
+        for (int i = 0; i < ids.length; i++) {
+            long[] row = new long[words];
+            int[] booked = intervals.get(ids[i]);
+            if (booked != null) {
+                for (int packed : booked) {
+                    int from = Math.max(0, (OccupancyIndex.startMinuteOf(packed) - firstMinute) / slotMinutes);
+                    int to = Math.min(slots, ceilDiv(OccupancyIndex.endMinuteOf(packed) - firstMinute, slotMinutes));
+                    setRange(row, from, to);
+                }
+            }
+            busy[i] = row;
+        }
+        return new OccupancyGrid(date, dayStart, slotMinutes, slots, ids, busy);
+    }
+
+    /**
+     * Returns the slot that contains the given time of day, clamped to [0, slots].
+     */
+    public int slotOf(LocalTime time) {
+        return clamp(Math.floorDiv(toMinute(time) - toMinute(dayStart), slotMinutes));
+    }
+
+    /**
+     * Returns the desks that are free for the whole period [start, end); partially covered slots count as needed.
+     */
+    public List<Long> freeDesks(LocalTime start, LocalTime end) {
+        return freeDesks(slotOf(start), clamp(ceilDiv(toMinute(end) - toMinute(dayStart), slotMinutes)));
+    }
+
+    /**
+     * Checks whether a desk is free for the slot range [fromSlot, toSlot).
+     * Desks that are not part of the grid are reported as not free.
+     */
+    public boolean isFree(long deskId, int fromSlot, int toSlot) {
+        int i = Arrays.binarySearch(deskIds, deskId);
+        return i >= 0 && isFree(busy[i], mask(fromSlot, toSlot));
+    }
+
+    /**
+     * Returns the ids of all desks that are free for the whole slot range [fromSlot, toSlot).
+     */
+    public List<Long> freeDesks(int fromSlot, int toSlot) {
+        long[] mask = mask(fromSlot, toSlot);
+        List<Long> free = new ArrayList<>();
+        for (int i = 0; i < deskIds.length; i++) {
+            if (isFree(busy[i], mask)) {
+                free.add(deskIds[i]);
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Returns the slots in which at least one desk is booked (OR over all rows).
+     */
+    public long[] anyBusy() {
+        long[] union = new long[(slots + 63) >>> 6];
+        for (long[] row : busy) {
+            for (int w = 0; w < union.length; w++) {
+                union[w] |= row[w];
+            }
+        }
+        return union;
+    }
+
+    /**
+     * Serializes the grid into the compact JSON object read by {@code FloorScaling.js}:
+     * <pre>{"date":"2023-09-12","start":"08:00","slotMinutes":15,"slots":36,"desks":{"1":"f0000000c",...}}</pre>
+     * Every desk is a hex string in which character {@code k} holds the slots {@code 4k..4k+3}
+     * (lowest bit = earliest slot), so the script can test slot {@code n} with
+     * {@code parseInt(hex[n >> 2], 16) >> (n & 3) & 1}.
+     */
+    public String toPayload() {
+        int nibbles = (slots + 3) >>> 2;
+        StringBuilder json = new StringBuilder(32 + deskIds.length * (nibbles + 12));
+        json.append("{\"date\":\"").append(date)
+                .append("\",\"start\":\"").append(dayStart)
+                .append("\",\"slotMinutes\":").append(slotMinutes)
+                .append(",\"slots\":").append(slots)
+                .append(",\"desks\":{");
+        for (int i = 0; i < deskIds.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('"').append(deskIds[i]).append("\":\"");
+            appendHex(json, busy[i], nibbles);
+            json.append('"');
+        }
+        return json.append("}}").toString();
+    }
+
+    /**
+     * Returns the row of one desk in the hex format of {@link #toPayload()}, so a client can replace a single desk.
+     *
+     * @param deskId The desk.
+     * @return The hex string, or null if the desk is not part of the grid.
+     */
+    public String toHex(long deskId) {
+        int i = Arrays.binarySearch(deskIds, deskId);
+        if (i < 0) {
+            return null;
+        }
+        int nibbles = (slots + 3) >>> 2;
+        StringBuilder hex = new StringBuilder(nibbles);
+        appendHex(hex, busy[i], nibbles);
+        return hex.toString();
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public int getSlotMinutes() {
+        return slotMinutes;
+    }
+
+    public int getSlots() {
+        return slots;
+    }
+
+    private int clamp(int slot) {
+        return Math.max(0, Math.min(slots, slot));
+    }
+
+    private long[] mask(int fromSlot, int toSlot) {
+        long[] mask = new long[(slots + 63) >>> 6];
+        setRange(mask, Math.max(0, fromSlot), Math.min(slots, toSlot));
+        return mask;
+    }
+
+    private static void appendHex(StringBuilder out, long[] row, int nibbles) {
+        for (int k = 0; k < nibbles; k++) {
+            int bit = k << 2;
+            out.append(Character.forDigit((int) (row[bit >>> 6] >>> (bit & 63)) & 0xF, 16));
+        }
+    }
+
+    private static boolean isFree(long[] row, long[] mask) {
+        for (int w = 0; w < mask.length; w++) {
+            if ((row[w] & mask[w]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sets the bits [from, to) in the given bitset.
+     */
+    private static void setRange(long[] bits, int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (firstWord == lastWord) {
+            bits[firstWord] |= firstMask & lastMask;
+            return;
+        }
+        bits[firstWord] |= firstMask;
+        for (int w = firstWord + 1; w < lastWord; w++) {
+            bits[w] = -1L;
+        }
+        bits[lastWord] |= lastMask;
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return Math.floorDiv(value + divisor - 1, divisor);
+    }
+
+    private static int toMinute(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+}
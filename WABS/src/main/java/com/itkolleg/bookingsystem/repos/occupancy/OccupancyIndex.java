@@ -0,0 +1,240 @@
+package com.itkolleg.bookingsystem.repos.occupancy;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * In-memory occupancy index keyed by (bookable id, date).
+ * <p>
+ * A day is loaded lazily with one projection query the first time it is asked for and is kept
+ * current afterwards through {@link #put} and {@link #remove}, which the repositories call on every
+ * add, update and delete. Overlap checks therefore never hit the database once a day is loaded.
+ * </p>
+ * Two intervals overlap if {@code start < otherEnd && end > otherStart}, i.e. bookings that merely
+ * touch (one ends at 12:30, the next starts at 12:30) do not conflict. An end of 00:00 is midnight at the end of
+ * the day; intervals that do not end after they start are never free and are not indexed.
+ */
+public class OccupancyIndex {
+
+    /**
+     * Upper bound of loaded days; when reached, the days furthest from today are dropped until a quarter of the
+     * bound is free again.
+     */
+    static final int MAX_LOADED_DAYS = 366;
+
+    private final Function<LocalDate, List<OccupancyRow>> loader;
+    private final ConcurrentHashMap<LocalDate, Day> days = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, LocalDate> bookingDays = new ConcurrentHashMap<>();
+
+    /**
+     * @param loader Loads the occupancy of all bookables of this type for the given date.
+     */
+    public OccupancyIndex(Function<LocalDate, List<OccupancyRow>> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Checks whether the bookable is free on the date for the half-open interval [start, end).
+     *
+     * @param bookableId       The id of the desk, room or ressource.
+     * @param date             The date to check.
+     * @param start            The start time.
+     * @param end              The end time.
+     * @param ignoredBookingId A booking to ignore (e.g. the one being updated), may be null.
+     * @return True if the interval is not empty and no other booking overlaps it.
+     */
+    public boolean isFree(Long bookableId, LocalDate date, LocalTime start, LocalTime end, Long ignoredBookingId) {
+        if (bookableId == null || date == null || start == null || end == null) {
+            throw new IllegalArgumentException("bookable, date, start and end must not be null");
+        }
+        int startMinute = toMinute(start);
+        int endMinute = toEndMinute(end);
+        if (startMinute >= endMinute) {
+            return false;
+        }
+        return !day(date).overlaps(bookableId, startMinute, endMinute, ignoredBookingId == null ? -1L : ignoredBookingId);
+    }
+
+    /**
+     * Inserts or moves a booking. If the booking was indexed before, its old interval is removed first.
+     * Days that are not loaded yet are left alone, they will pick the booking up when loaded. A booking that does
+     * not end after it starts is only removed.
+     */
+    public void put(Long bookingId, Long bookableId, LocalDate date, LocalTime start, LocalTime end) {
+        if (bookingId == null || bookableId == null || date == null || start == null || end == null) {
+            return;
+        }
+        remove(bookingId);
+        int startMinute = toMinute(start);
+        int endMinute = toEndMinute(end);
+        if (startMinute >= endMinute) {
+            return;
+        }
+        days.computeIfPresent(date, (d, day) -> {
+            day.add(bookingId, bookableId, startMinute, endMinute);
+            bookingDays.put(bookingId, d);
+            return day;
+        });
+    }
+
+    /**
+     * Removes a booking from the index, if present.
+     */
+    public void remove(Long bookingId) {
+        if (bookingId == null) {
+            return;
+        }
+        LocalDate date = bookingDays.remove(bookingId);
+        if (date != null) {
+            days.computeIfPresent(date, (d, day) -> {
+                day.remove(bookingId);
+                return day;
+            });
+        }
+    }
+
+    /**
+     * Drops everything; days are reloaded on the next access.
+     */
+    public void clear() {
+        days.clear();
+        bookingDays.clear();
+    }
+
+    /**
+     * Returns the booked intervals of one bookable on a day as packed minutes
+     * ({@code startMinute << 16 | endMinute}), sorted by start.
+     */
+    public int[] intervals(Long bookableId, LocalDate date) {
+        return day(date).intervals(bookableId);
+    }
+
+    /**
+     * Returns the packed intervals of every bookable that has at least one booking on the date.
+     */
+    public Map<Long, int[]> intervalsByBookable(LocalDate date) {
+        return day(date).snapshot();
+    }
+
+    public static int startMinuteOf(int packed) {
+        return MinuteIntervals.startOf(packed);
+    }
+
+    public static int endMinuteOf(int packed) {
+        return MinuteIntervals.endOf(packed);
+    }
+
+    private Day day(LocalDate date) {
+        Day day = days.get(date);
+        if (day != null) {
+            return day;
+        }
+        if (days.size() >= MAX_LOADED_DAYS) {
+            evictDistantDays();
+        }
+        return days.computeIfAbsent(date, this::load);
+    }
+
+    private Day load(LocalDate date) {
+        Day day = new Day();
+        for (OccupancyRow row : loader.apply(date)) {
+            if (row.getBookableId() == null || row.getStart() == null || row.getEnd() == null
+                    || toMinute(row.getStart()) >= toEndMinute(row.getEnd())) {
+                continue;
+            }
+            day.add(row.getBookingId(), row.getBookableId(), toMinute(row.getStart()), toEndMinute(row.getEnd()));
+            bookingDays.put(row.getBookingId(), date);
+        }
+        return day;
+    }
+
+    private synchronized void evictDistantDays() {
+        if (days.size() < MAX_LOADED_DAYS) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        List<LocalDate> distantFirst = new ArrayList<>(days.keySet());
+        distantFirst.sort(Comparator.comparingLong((LocalDate date) -> Math.abs(ChronoUnit.DAYS.between(today, date))).reversed());
+        Set<LocalDate> evicted = new HashSet<>(distantFirst.subList(0, Math.min(distantFirst.size(), MAX_LOADED_DAYS / 4)));
+        days.keySet().removeAll(evicted);
+        bookingDays.values().removeIf(evicted::contains);
+    }
+
+    /**
+     * @return The number of days currently held.
+     */
+    int loadedDays() {
+        return days.size();
+    }
+
+    private static int toMinute(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    /**
+     * Like {@link #toMinute(LocalTime)}, but 00:00 is the end of the day (minute 1440).
+     */
+    private static int toEndMinute(LocalTime time) {
+        int minute = toMinute(time);
+        return minute == 0 ? 24 * 60 : minute;
+    }
+
+    /**
+     * All intervals of one date, grouped by bookable.
+     */
+    private static final class Day {
+
+        private final Map<Long, MinuteIntervals> byBookable = new HashMap<>();
+        private final Map<Long, Long> bookableByBooking = new HashMap<>();
+
+        synchronized void add(long bookingId, long bookableId, int startMinute, int endMinute) {
+            byBookable.computeIfAbsent(bookableId, id -> new MinuteIntervals()).add(bookingId, startMinute, endMinute);
+            bookableByBooking.put(bookingId, bookableId);
+        }
+
+        synchronized void remove(long bookingId) {
+            Long bookableId = bookableByBooking.remove(bookingId);
+            if (bookableId != null) {
+                MinuteIntervals intervals = byBookable.get(bookableId);
+                intervals.remove(bookingId);
+                if (intervals.size() == 0) {
+                    byBookable.remove(bookableId);
+                }
+            }
+        }
+
+        synchronized boolean overlaps(long bookableId, int startMinute, int endMinute, long ignoredBookingId) {
+            MinuteIntervals intervals = byBookable.get(bookableId);
+            return intervals != null && intervals.overlaps(startMinute, endMinute, ignoredBookingId);
+        }
+
+        synchronized int[] intervals(long bookableId) {
+            MinuteIntervals intervals = byBookable.get(bookableId);
+            return intervals == null ? new int[0] : copy(intervals);
+        }
+
+        synchronized Map<Long, int[]> snapshot() {
+            Map<Long, int[]> snapshot = new HashMap<>(byBookable.size() * 2);
+            byBookable.forEach((id, intervals) -> snapshot.put(id, copy(intervals)));
+            return snapshot;
+        }
+
+        private static int[] copy(MinuteIntervals intervals) {
+            int[] copy = new int[intervals.size()];
+            for (int i = 0; i < copy.length; i++) {
+                copy[i] = intervals.intervalAt(i);
+            }
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.itkolleg.bookingsystem.repos.occupancy;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalTime;
+
+/**
+ * Lightweight projection of a booking used to fill the {@link OccupancyIndex}.
+ * Only the fields needed for overlap checks are selected, so loading a whole day
+ * does not materialize employees, timeslots or bookables.
+ */
+@Getter
+@AllArgsConstructor
+public class OccupancyRow {
+
+    /**
+     * The id of the booking.
+     */
+    private final Long bookingId;
+
+    /**
+     * The id of the booked desk, room or ressource.
+     */
+    private final Long bookableId;
+
+    /**
+     * The start time of the booking.
+     */
+    private final LocalTime start;
+
+    /**
+     * The end time of the booking.
+     */
+    private final LocalTime end;
+}
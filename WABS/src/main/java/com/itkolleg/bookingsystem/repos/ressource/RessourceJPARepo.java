@@ -1,12 +1,16 @@
 package com.itkolleg.bookingsystem.repos.ressource;
 
 import com.itkolleg.bookingsystem.domains.Ressource;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 public interface RessourceJPARepo extends JpaRepository<Ressource, Long> {
 
     //Hier kommen spezifische Methoden rein, die nicht bereits von JpaRepository abgedeckt werden
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Ressource findRessourceById(Long id);
 
 }
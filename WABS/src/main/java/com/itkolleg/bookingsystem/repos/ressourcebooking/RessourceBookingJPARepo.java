@@ -3,16 +3,29 @@ package com.itkolleg.bookingsystem.repos.ressourcebooking;
 import com.itkolleg.bookingsystem.domains.booking.RessourceBooking;
 import com.itkolleg.bookingsystem.domains.Employee;
 import com.itkolleg.bookingsystem.domains.Ressource;
+import com.itkolleg.bookingsystem.repos.booking.BookingExportRow;
+import com.itkolleg.bookingsystem.repos.occupancy.OccupancyRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 
 @Repository
-public interface RessourceBookingJPARepo extends JpaRepository<RessourceBooking, Long> {
+public interface RessourceBookingJPARepo extends JpaRepository<RessourceBooking, Long>, JpaSpecificationExecutor<RessourceBooking> {
 
 
     List<RessourceBooking> getBookingsByRessource(Ressource ressource);
@@ -39,5 +52,33 @@ public interface RessourceBookingJPARepo extends JpaRepository<RessourceBooking,
 
     List<RessourceBooking> getBookingsByEmployeeIdAndDateAndRessourceId(Long employeeId, LocalDate date, Long ressourceId);
 
-
+    @Query("SELECT b FROM RessourceBooking b WHERE b.ressource = :ressource AND b.date = :date AND b.start < :endTime AND b.endTime > :start")
+    List<RessourceBooking> getOverlappingBookings(@Param("ressource") Ressource ressource, @Param("date") LocalDate date, @Param("start") LocalTime start, @Param("endTime") LocalTime endTime);
+
+    @Query("SELECT new com.itkolleg.bookingsystem.repos.occupancy.OccupancyRow(b.id, b.ressource.id, b.start, b.endTime) FROM RessourceBooking b WHERE b.date = :date")
+    List<OccupancyRow> findOccupancyByDate(@Param("date") LocalDate date);
+
+    /**
+     * Lädt die Buchungen nach der Position (Datum, ID) in Keyset-Reihenfolge, bei Angabe von {@code to} bis zu diesem Datum.
+     */
+    @Query("SELECT b FROM RessourceBooking b JOIN FETCH b.employee JOIN FETCH b.ressource LEFT JOIN FETCH b.timeSlot"
+            + " WHERE (b.date > :afterDate OR (b.date = :afterDate AND b.id > :afterId)) AND (:to IS NULL OR b.date <= :to)"
+            + " ORDER BY b.date, b.id")
+    List<RessourceBooking> findSliceAfter(@Param("afterDate") LocalDate afterDate, @Param("afterId") Long afterId, @Param("to") LocalDate to, Pageable limit);
+
+    /**
+     * Führt eine Suche aus {@code BookingSpecifications} aus; Mitarbeiter:in, Ressource und Timeslot werden in derselben Abfrage geladen.
+     */
+    @Override
+    @EntityGraph(attributePaths = {"employee", "ressource", "timeSlot"})
+    List<RessourceBooking> findAll(Specification<RessourceBooking> spec, Sort sort);
+
+    /**
+     * Streamt die Buchungen von {@code from} bis {@code to} für den Export, sortiert nach Datum, Beginn und ID.
+     * Die Zeilen werden in Blöcken der Fetch-Size gelesen; der Stream muss innerhalb einer Transaktion gelesen und geschlossen werden.
+     */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT new com.itkolleg.bookingsystem.repos.booking.BookingExportRow(b.id, b.date, b.start, b.endTime, b.employee.id, b.employee.nick, b.ressource.id, b.ressource.name, b.createdOn)"
+            + " FROM RessourceBooking b WHERE b.date BETWEEN :from AND :to ORDER BY b.date, b.start, b.id")
+    Stream<BookingExportRow> streamExportRows(@Param("from") LocalDate from, @Param("to") LocalDate to);
 }
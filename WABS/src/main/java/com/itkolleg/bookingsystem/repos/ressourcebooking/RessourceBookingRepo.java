@@ -3,14 +3,19 @@ package com.itkolleg.bookingsystem.repos.ressourcebooking;
 import com.itkolleg.bookingsystem.domains.booking.RessourceBooking;
 import com.itkolleg.bookingsystem.domains.Employee;
 import com.itkolleg.bookingsystem.domains.Ressource;
+import com.itkolleg.bookingsystem.domains.Timeslot;
 import com.itkolleg.bookingsystem.exceptions.ResourceDeletionFailureException;
 import com.itkolleg.bookingsystem.exceptions.ResourceNotFoundException;
 import com.itkolleg.bookingsystem.exceptions.ressourceExceptions.RessourceNotAvailableException;
+import com.itkolleg.bookingsystem.repos.booking.BookingCursor;
+import com.itkolleg.bookingsystem.repos.booking.BookingExportRow;
+import com.itkolleg.bookingsystem.repos.booking.BookingSlice;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 
 public interface RessourceBookingRepo {
@@ -18,10 +23,18 @@ public interface RessourceBookingRepo {
 
     List<RessourceBooking> getAllBookings();
 
+    BookingSlice<RessourceBooking> getBookingSlice(LocalDate from, LocalDate to, BookingCursor after, int size);
+
+    Stream<BookingExportRow> streamExportRows(LocalDate from, LocalDate to);
+
+    List<RessourceBooking> searchBookings(Optional<Employee> employee, Optional<Ressource> ressource, Optional<LocalDate> date, Optional<LocalTime> start, Optional<LocalTime> endTime, Optional<Timeslot> timeslot);
+
     Optional<RessourceBooking> getBookingByBookingId(Long id);
 
     List<RessourceBooking> getBookingsByEmployeeId(Long employeeId);
 
+    List<RessourceBooking> getBookingHistoryByEmployeeId(Long employeeId);
+
     List<RessourceBooking> getBookingsByRessource(Ressource ressource);
 
     List<RessourceBooking> getBookingsByRessourceId(Long id);
@@ -44,6 +57,8 @@ public interface RessourceBookingRepo {
 
     boolean isRessourceAvailable(Ressource ressource, LocalDate date, LocalTime start, LocalTime end);
 
+    boolean isRessourceAvailable(Ressource ressource, LocalDate date, LocalTime start, LocalTime end, Long ignoredBookingId);
+
     List<RessourceBooking> getBookingsByRessourceAndDateAndBookingTimeBetween(Ressource ressource, LocalDate date, LocalTime startDateTime, LocalTime endDateTime);
 
     List<RessourceBooking> getBookingByDateAndByStartBetween(LocalDate date, LocalTime startOfDay, LocalTime endOfDay);
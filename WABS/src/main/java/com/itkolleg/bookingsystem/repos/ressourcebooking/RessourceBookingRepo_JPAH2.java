@@ -1,17 +1,28 @@
 package com.itkolleg.bookingsystem.repos.ressourcebooking;
 
+import com.itkolleg.bookingsystem.domains.booking.ArchivedBooking;
 import com.itkolleg.bookingsystem.domains.booking.RessourceBooking;
 import com.itkolleg.bookingsystem.domains.Employee;
 import com.itkolleg.bookingsystem.domains.Ressource;
+import com.itkolleg.bookingsystem.domains.Timeslot;
 import com.itkolleg.bookingsystem.exceptions.ResourceDeletionFailureException;
 import com.itkolleg.bookingsystem.exceptions.ResourceNotFoundException;
 import com.itkolleg.bookingsystem.exceptions.employeeExceptions.EmployeeNotFoundException;
 import com.itkolleg.bookingsystem.exceptions.ressourceExceptions.RessourceNotAvailableException;
+import com.itkolleg.bookingsystem.repos.booking.ArchivedBookingRestorer;
+import com.itkolleg.bookingsystem.repos.booking.BookingArchiveJPARepo;
+import com.itkolleg.bookingsystem.repos.booking.BookingCursor;
+import com.itkolleg.bookingsystem.repos.booking.BookingExportRow;
+import com.itkolleg.bookingsystem.repos.booking.BookingSlice;
+import com.itkolleg.bookingsystem.repos.booking.BookingSpecifications;
 import com.itkolleg.bookingsystem.repos.employee.EmployeeJPARepo;
+import com.itkolleg.bookingsystem.repos.occupancy.OccupancyIndex;
 import com.itkolleg.bookingsystem.repos.ressource.RessourceJPARepo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
@@ -20,6 +31,7 @@ import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Die gegebene Klasse ist eine Implementierung des Interfaces "RessourceBookingRepo". Sie stellt Methoden zum Hinzufügen, Abrufen, Aktualisieren und Löschen von Ressourcenbuchungen (Resource booking) bereit.
@@ -36,6 +48,9 @@ public class RessourceBookingRepo_JPAH2 implements RessourceBookingRepo {
     private final RessourceBookingJPARepo ressourceBookingJPARepo;
     private final RessourceJPARepo ressourceJPARepo;
     private final EmployeeJPARepo employeeJPARepo;
+    private final BookingArchiveJPARepo bookingArchiveJPARepo;
+    private final ArchivedBookingRestorer archivedBookingRestorer;
+    private final OccupancyIndex occupancyIndex;
 
     /**
      * Konstruktor der Klasse RessourceBookingRepo_JPAH2 und benötigt folgende Parameter:
@@ -43,11 +58,16 @@ public class RessourceBookingRepo_JPAH2 implements RessourceBookingRepo {
      * @param ressourceBookingJPARepo vom Typ RessourecBookingRepo_JPAH2
      * @param ressourceJPARepo        vom Typ RessourceJPARepo
      * @param employeeJPARepo         vom Typ EmployeeJPARepo
+     * @param bookingArchiveJPARepo   vom Typ BookingArchiveJPARepo
+     * @param archivedBookingRestorer vom Typ ArchivedBookingRestorer
      */
-    public RessourceBookingRepo_JPAH2(RessourceBookingJPARepo ressourceBookingJPARepo, RessourceJPARepo ressourceJPARepo, EmployeeJPARepo employeeJPARepo) {
+    public RessourceBookingRepo_JPAH2(RessourceBookingJPARepo ressourceBookingJPARepo, RessourceJPARepo ressourceJPARepo, EmployeeJPARepo employeeJPARepo, BookingArchiveJPARepo bookingArchiveJPARepo, ArchivedBookingRestorer archivedBookingRestorer) {
         this.ressourceBookingJPARepo = ressourceBookingJPARepo;
         this.ressourceJPARepo = ressourceJPARepo;
         this.employeeJPARepo = employeeJPARepo;
+        this.bookingArchiveJPARepo = bookingArchiveJPARepo;
+        this.archivedBookingRestorer = archivedBookingRestorer;
+        this.occupancyIndex = new OccupancyIndex(ressourceBookingJPARepo::findOccupancyByDate);
     }
 
     /**
@@ -69,6 +89,9 @@ public class RessourceBookingRepo_JPAH2 implements RessourceBookingRepo {
         // Load the associated ressource entity from the database
         Long ressourceid = ressourceBooking.getRessource().getId();
         Ressource ressource = this.ressourceJPARepo.findRessourceById(ressourceid);
+        if (ressource == null) {
+            throw new ResourceNotFoundException("Ressource with ID " + ressourceid + " was not found");
+        }
 
         // Check if the ressource is available for the booking period
         if (!isRessourceAvailable(ressource, ressourceBooking.getDate(), ressourceBooking.getStart(), ressourceBooking.getEndTime())) {
@@ -89,7 +112,7 @@ public class RessourceBookingRepo_JPAH2 implements RessourceBookingRepo {
 
         // Save the booking
         try {
-            return this.ressourceBookingJPARepo.save(booking);
+            return index(this.ressourceBookingJPARepo.save(booking));
         } catch (Exception e) {
             throw new RuntimeException("Error saving the booking to the database", e);
         }
@@ -105,6 +128,55 @@ public class RessourceBookingRepo_JPAH2 implements RessourceBookingRepo {
         return this.ressourceBookingJPARepo.findAll();
     }
 
+    /**
+     * Diese Methode liefert eine Seite der Buchungen im Datumsbereich, sortiert nach Datum und ID.
+     *
+     * @param from  Erstes Datum des Bereichs
+     * @param to    Letztes Datum des Bereichs oder null für offen
+     * @param after Cursor der vorherigen Seite oder null für die erste Seite
+     * @param size  Maximale Anzahl an Buchungen pro Seite
+     * @return Seite mit dem Cursor für die nächste Seite
+     */
+    @Override
+    public BookingSlice<RessourceBooking> getBookingSlice(LocalDate from, LocalDate to, BookingCursor after, int size) {
+        BookingCursor position = after != null ? after : BookingCursor.before(from);
+        List<RessourceBooking> rows = this.ressourceBookingJPARepo.findSliceAfter(position.getDate(), position.getId(), to, PageRequest.of(0, size + 1));
+        return BookingSlice.of(rows, size);
+    }
+
+    /**
+     * Diese Methode streamt die Buchungen im Datumsbereich als Exportzeilen, sortiert nach Datum, Beginn und ID.
+     * Der Stream muss innerhalb einer Transaktion gelesen und geschlossen werden.
+     *
+     * @param from Erstes Datum des Bereichs
+     * @param to   Letztes Datum des Bereichs
+     * @return Zeilen; im Speicher liegen nur die Zeilen des aktuellen Fetch
+     */
+    @Override
+    public Stream<BookingExportRow> streamExportRows(LocalDate from, LocalDate to) {
+        return this.ressourceBookingJPARepo.streamExportRows(from, to);
+    }
+
+    /**
+     * Diese Methode sucht Buchungen anhand der angegebenen Kriterien. Nur vorhandene Kriterien werden an die Datenbank geschickt.
+     *
+     * @param employee  Mitarbeiter:in, die/der gebucht hat
+     * @param ressource gebuchte Ressource
+     * @param date      Datum der Buchung
+     * @param start     Beginn des Zeitfensters; Buchungen, die danach enden, werden gefunden
+     * @param endTime   Ende des Zeitfensters; Buchungen, die davor beginnen, werden gefunden
+     * @param timeslot  Timeslot, dessen Zeitfenster die Buchungen überschneiden
+     * @return Liste von ressourcebooking, sortiert nach Datum und Startzeit
+     */
+    @Override
+    public List<RessourceBooking> searchBookings(Optional<Employee> employee, Optional<Ressource> ressource, Optional<LocalDate> date, Optional<LocalTime> start, Optional<LocalTime> endTime, Optional<Timeslot> timeslot) {
+        Specification<RessourceBooking> specification = BookingSpecifications.search(employee, date, start, endTime, timeslot);
+        if (ressource.isPresent()) {
+            specification = specification.and(BookingSpecifications.booked("ressource", ressource.get()));
+        }
+        return this.ressourceBookingJPARepo.findAll(specification, BookingSpecifications.ORDER);
+    }
+
     /**
      * Die Methode getBookingsByBookingId sucht nach einer Ressourcenbuchung anhand einer angegebenen Buchungs-ID.
      * Sie akzeptiert eine Buchungs-ID vom Typ Long als Parameter und gibt ein Optional-Objekt vom Typ ressourcebooking zurück.
@@ -129,6 +201,21 @@ public class RessourceBookingRepo_JPAH2 implements RessourceBookingRepo {
         return this.ressourceBookingJPARepo.getBookingsByEmployeeId(employeeId);
     }
 
+    /**
+     * Diese Methode liefert alle Buchungen eines Mitarbeiters, inklusive der bereits archivierten Buchungen.
+     *
+     * @param employeeId Die ID des Mitarbeiters
+     * @return Zuerst die archivierten, danach die aktuellen Buchungen
+     */
+    @Override
+    public List<RessourceBooking> getBookingHistoryByEmployeeId(Long employeeId) {
+        List<ArchivedBooking> archived = this.bookingArchiveJPARepo.findByEmployeeIdAndTypeOrderByDateAscStartAsc(employeeId, ArchivedBooking.typeOf(RessourceBooking.class));
+        List<RessourceBooking> history = this.archivedBookingRestorer.restore(employeeId, archived, RessourceBooking::new,
+                ArchivedBooking::getRessourceId, this.ressourceJPARepo, Ressource::getId, RessourceBooking::setRessource);
+        history.addAll(this.ressourceBookingJPARepo.getBookingsByEmployeeId(employeeId));
+        return history;
+    }
+
     /**
      * Die Methode getBookingsByRessource sucht nach Ressourcenbuchungen basierend auf einer angegebenen ressource. Sie akzeptiert ein ressource-Objekt als Parameter und gibt eine Liste von Ressourcenbuchungen zurück.
      *
@@ -270,7 +357,7 @@ public class RessourceBookingRepo_JPAH2 implements RessourceBookingRepo {
         if (updatedBooking.getId() == null) {
             throw new IllegalArgumentException("Id cannot be null when updating");
         }
-        return this.ressourceBookingJPARepo.saveAndFlush(updatedBooking);
+        return index(this.ressourceBookingJPARepo.saveAndFlush(updatedBooking));
     }
 
     /**
@@ -284,6 +371,7 @@ public class RessourceBookingRepo_JPAH2 implements RessourceBookingRepo {
         Optional<RessourceBooking> bookingOptional = this.ressourceBookingJPARepo.findById(id);
         if (bookingOptional.isPresent()) {
             this.ressourceBookingJPARepo.deleteById(id);
+            this.occupancyIndex.remove(id);
         } else {
             throw new ResourceDeletionFailureException("The ressource booking with the ID: " + id + " was not found!");
         }
@@ -317,12 +405,27 @@ public class RessourceBookingRepo_JPAH2 implements RessourceBookingRepo {
      * @param date      Das Datum, für das die Verfügbarkeit überprüft werden soll.
      * @param start     Die Startzeit des zu überprüfenden Zeitraums.
      * @param end       Die Endzeit des zu überprüfenden Zeitraums.
-     * @return
+     * @return True, wenn keine andere Buchung den Zeitraum überschneidet.
      */
     @Override
     public boolean isRessourceAvailable(Ressource ressource, LocalDate date, LocalTime start, LocalTime end) {
-        List<RessourceBooking> overlappingBookings = this.ressourceBookingJPARepo.getBookingsByRessourceAndDateAndStartBetween(ressource, date, start, end);
-        return overlappingBookings.isEmpty();
+        return isRessourceAvailable(ressource, date, start, end, null);
+    }
+
+    /**
+     * Prüft die Verfügbarkeit einer Ressource und ignoriert dabei eine bestimmte Buchung (z.B. die gerade bearbeitete).
+     * Die Prüfung läuft über den In-Memory-Belegungsindex; die Datenbank wird nur beim ersten Zugriff auf einen Tag abgefragt.
+     *
+     * @param ressource        Die ressource, deren Verfügbarkeit überprüft werden soll.
+     * @param date             Das Datum, für das die Verfügbarkeit überprüft werden soll.
+     * @param start            Die Startzeit des zu überprüfenden Zeitraums.
+     * @param end              Die Endzeit des zu überprüfenden Zeitraums.
+     * @param ignoredBookingId Die ID der zu ignorierenden Buchung, darf null sein.
+     * @return True, wenn keine andere Buchung den Zeitraum überschneidet.
+     */
+    @Override
+    public boolean isRessourceAvailable(Ressource ressource, LocalDate date, LocalTime start, LocalTime end, Long ignoredBookingId) {
+        return this.occupancyIndex.isFree(ressource.getId(), date, start, end, ignoredBookingId);
     }
 
     /**
@@ -336,7 +439,7 @@ public class RessourceBookingRepo_JPAH2 implements RessourceBookingRepo {
      */
     @Override
     public List<RessourceBooking> getBookingsByRessourceAndDateAndBookingTimeBetween(Ressource ressource, LocalDate date, LocalTime start, LocalTime endTime) {
-        return this.ressourceBookingJPARepo.getBookingsByRessourceAndDateAndStartBetween(ressource, date, start, endTime);
+        return this.ressourceBookingJPARepo.getOverlappingBookings(ressource, date, start, endTime);
     }
 
     /**
@@ -360,6 +463,19 @@ public class RessourceBookingRepo_JPAH2 implements RessourceBookingRepo {
      */
     @Override
     public RessourceBooking save(RessourceBooking booking) {
-        return this.ressourceBookingJPARepo.save(booking);
+        return index(this.ressourceBookingJPARepo.save(booking));
+    }
+
+    /**
+     * Hält den Belegungsindex nach einem Schreibzugriff aktuell.
+     *
+     * @param booking Die gespeicherte ressource-Buchung.
+     * @return Dieselbe Buchung.
+     */
+    private RessourceBooking index(RessourceBooking booking) {
+        if (booking != null && booking.getRessource() != null) {
+            this.occupancyIndex.put(booking.getId(), booking.getRessource().getId(), booking.getDate(), booking.getStart(), booking.getEndTime());
+        }
+        return booking;
     }
 }
\ No newline at end of file
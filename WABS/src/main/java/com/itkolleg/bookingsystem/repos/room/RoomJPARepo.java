@@ -1,8 +1,19 @@
 package com.itkolleg.bookingsystem.repos.room;
 
 import com.itkolleg.bookingsystem.domains.Room;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
 
 public interface RoomJPARepo extends JpaRepository<Room, Long> {
+
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Room> findAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Room findRoomById(Long id);
 }
@@ -3,15 +3,28 @@ package com.itkolleg.bookingsystem.repos.roombooking;
 import com.itkolleg.bookingsystem.domains.booking.RoomBooking;
 import com.itkolleg.bookingsystem.domains.Employee;
 import com.itkolleg.bookingsystem.domains.Room;
+import com.itkolleg.bookingsystem.repos.booking.BookingExportRow;
+import com.itkolleg.bookingsystem.repos.occupancy.OccupancyRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface RoomBookingJPARepo extends JpaRepository<RoomBooking, Long> {
+public interface RoomBookingJPARepo extends JpaRepository<RoomBooking, Long>, JpaSpecificationExecutor<RoomBooking> {
     List<RoomBooking> getBookingsByRoom(Room room);
 
     List<RoomBooking> getBookingsByRoomId(Long roomId);
@@ -36,4 +49,33 @@ public interface RoomBookingJPARepo extends JpaRepository<RoomBooking, Long> {
 
     List<RoomBooking> getBookingsByEmployeeIdAndDateAndRoomId(Long employeeId, LocalDate date, Long roomId);
 
+    @Query("SELECT b FROM RoomBooking b WHERE b.room = :room AND b.date = :date AND b.start < :endTime AND b.endTime > :start")
+    List<RoomBooking> getOverlappingBookings(@Param("room") Room room, @Param("date") LocalDate date, @Param("start") LocalTime start, @Param("endTime") LocalTime endTime);
+
+    @Query("SELECT new com.itkolleg.bookingsystem.repos.occupancy.OccupancyRow(b.id, b.room.id, b.start, b.endTime) FROM RoomBooking b WHERE b.date = :date")
+    List<OccupancyRow> findOccupancyByDate(@Param("date") LocalDate date);
+
+    /**
+     * Loads the bookings after the given (date, id) position in keyset order, up to the date {@code to} if given.
+     */
+    @Query("SELECT b FROM RoomBooking b JOIN FETCH b.employee JOIN FETCH b.room LEFT JOIN FETCH b.timeSlot"
+            + " WHERE (b.date > :afterDate OR (b.date = :afterDate AND b.id > :afterId)) AND (:to IS NULL OR b.date <= :to)"
+            + " ORDER BY b.date, b.id")
+    List<RoomBooking> findSliceAfter(@Param("afterDate") LocalDate afterDate, @Param("afterId") Long afterId, @Param("to") LocalDate to, Pageable limit);
+
+    /**
+     * Runs a search built from {@code BookingSpecifications}; employee, room and timeslot are loaded in the same query.
+     */
+    @Override
+    @EntityGraph(attributePaths = {"employee", "room", "timeSlot"})
+    List<RoomBooking> findAll(Specification<RoomBooking> spec, Sort sort);
+
+    /**
+     * Streams the bookings from {@code from} to {@code to} for the export, ordered by date, start and id.
+     * The rows are read in chunks of the fetch size; the stream has to be consumed and closed inside a transaction.
+     */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT new com.itkolleg.bookingsystem.repos.booking.BookingExportRow(b.id, b.date, b.start, b.endTime, b.employee.id, b.employee.nick, b.room.id, b.room.floor, b.createdOn)"
+            + " FROM RoomBooking b WHERE b.date BETWEEN :from AND :to ORDER BY b.date, b.start, b.id")
+    Stream<BookingExportRow> streamExportRows(@Param("from") LocalDate from, @Param("to") LocalDate to);
 }
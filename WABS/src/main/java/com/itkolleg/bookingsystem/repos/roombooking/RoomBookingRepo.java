@@ -3,14 +3,19 @@ package com.itkolleg.bookingsystem.repos.roombooking;
 import com.itkolleg.bookingsystem.domains.booking.RoomBooking;
 import com.itkolleg.bookingsystem.domains.Employee;
 import com.itkolleg.bookingsystem.domains.Room;
+import com.itkolleg.bookingsystem.domains.Timeslot;
 import com.itkolleg.bookingsystem.exceptions.roomExceptions.RoomDeletionNotPossibleException;
 import com.itkolleg.bookingsystem.exceptions.roomExceptions.RoomNotAvailableException;
 import com.itkolleg.bookingsystem.exceptions.roomExceptions.RoomNotFoundException;
+import com.itkolleg.bookingsystem.repos.booking.BookingCursor;
+import com.itkolleg.bookingsystem.repos.booking.BookingExportRow;
+import com.itkolleg.bookingsystem.repos.booking.BookingSlice;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface RoomBookingRepo {
     RoomBooking addBooking(RoomBooking booking) throws RoomNotAvailableException, RoomNotFoundException;
@@ -20,6 +25,12 @@ public interface RoomBookingRepo {
 
     List<RoomBooking> getAllBookings();
 
+    BookingSlice<RoomBooking> getBookingSlice(LocalDate from, LocalDate to, BookingCursor after, int size);
+
+    Stream<BookingExportRow> streamExportRows(LocalDate from, LocalDate to);
+
+    List<RoomBooking> searchBookings(Optional<Employee> employee, Optional<Room> room, Optional<LocalDate> date, Optional<LocalTime> start, Optional<LocalTime> endTime, Optional<Timeslot> timeslot);
+
     Optional<RoomBooking> getBookingByBookingId(Long id);
 
     List<RoomBooking> getBookingsByRoom(Room room);
@@ -32,6 +43,8 @@ public interface RoomBookingRepo {
 
     List<RoomBooking> getBookingsByEmployeeId(Long employeeId);
 
+    List<RoomBooking> getBookingHistoryByEmployeeId(Long employeeId);
+
     List<RoomBooking> getBookingsByRoomAndDate(Room room, LocalDate date);
 
     List<RoomBooking> getBookingsByRoomAndDateAndBookingTimeBetween(Room room, LocalDate date, LocalTime start, LocalTime endTime);
@@ -46,6 +59,8 @@ public interface RoomBookingRepo {
 
     boolean isRoomAvailable(Room room, LocalDate date, LocalTime start, LocalTime endTime);
 
+    boolean isRoomAvailable(Room room, LocalDate date, LocalTime start, LocalTime endTime, Long ignoredBookingId);
+
 
     List<RoomBooking> getBookingsByEmployeeAndDate(Employee employee, LocalDate date);
 
@@ -1,17 +1,28 @@
 package com.itkolleg.bookingsystem.repos.roombooking;
 
+import com.itkolleg.bookingsystem.domains.booking.ArchivedBooking;
 import com.itkolleg.bookingsystem.domains.booking.RoomBooking;
 import com.itkolleg.bookingsystem.domains.Employee;
 import com.itkolleg.bookingsystem.domains.Room;
+import com.itkolleg.bookingsystem.domains.Timeslot;
 import com.itkolleg.bookingsystem.exceptions.employeeExceptions.EmployeeNotFoundException;
 import com.itkolleg.bookingsystem.exceptions.roomExceptions.RoomDeletionNotPossibleException;
 import com.itkolleg.bookingsystem.exceptions.roomExceptions.RoomNotAvailableException;
 import com.itkolleg.bookingsystem.exceptions.roomExceptions.RoomNotFoundException;
+import com.itkolleg.bookingsystem.repos.booking.ArchivedBookingRestorer;
+import com.itkolleg.bookingsystem.repos.booking.BookingArchiveJPARepo;
+import com.itkolleg.bookingsystem.repos.booking.BookingCursor;
+import com.itkolleg.bookingsystem.repos.booking.BookingExportRow;
+import com.itkolleg.bookingsystem.repos.booking.BookingSlice;
+import com.itkolleg.bookingsystem.repos.booking.BookingSpecifications;
 import com.itkolleg.bookingsystem.repos.employee.EmployeeJPARepo;
+import com.itkolleg.bookingsystem.repos.occupancy.OccupancyIndex;
 import com.itkolleg.bookingsystem.repos.room.RoomJPARepo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
@@ -20,6 +31,7 @@ import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 
 
@@ -33,20 +45,28 @@ public class RoomBookingRepo_JPAH2 implements RoomBookingRepo {
     private final RoomBookingJPARepo roomBookingJPARepo;
     private final RoomJPARepo roomJPARepo;
     private final EmployeeJPARepo employeeJPARepo;
+    private final BookingArchiveJPARepo bookingArchiveJPARepo;
+    private final ArchivedBookingRestorer archivedBookingRestorer;
+    private final OccupancyIndex occupancyIndex;
 
 
 
     /**
      * Constructs a RoomBookingRepo_JPAH2 with the specified repositories.
      *
-     * @param roomBookingJPARepo The repository for room bookings.
-     * @param roomJPARepo        The repository for rooms.
-     * @param employeeJPARepo    The repository for employees.
+     * @param roomBookingJPARepo    The repository for room bookings.
+     * @param roomJPARepo           The repository for rooms.
+     * @param employeeJPARepo       The repository for employees.
+     * @param bookingArchiveJPARepo The repository for archived bookings.
+     * @param archivedBookingRestorer Restores archived rows for the booking history.
      */
-    public RoomBookingRepo_JPAH2(RoomBookingJPARepo roomBookingJPARepo, RoomJPARepo roomJPARepo, EmployeeJPARepo employeeJPARepo) {
+    public RoomBookingRepo_JPAH2(RoomBookingJPARepo roomBookingJPARepo, RoomJPARepo roomJPARepo, EmployeeJPARepo employeeJPARepo, BookingArchiveJPARepo bookingArchiveJPARepo, ArchivedBookingRestorer archivedBookingRestorer) {
         this.roomBookingJPARepo = roomBookingJPARepo;
         this.roomJPARepo = roomJPARepo;
         this.employeeJPARepo = employeeJPARepo;
+        this.bookingArchiveJPARepo = bookingArchiveJPARepo;
+        this.archivedBookingRestorer = archivedBookingRestorer;
+        this.occupancyIndex = new OccupancyIndex(roomBookingJPARepo::findOccupancyByDate);
     }
 
     /**
@@ -66,6 +86,9 @@ public class RoomBookingRepo_JPAH2 implements RoomBookingRepo {
 
         Long roomId = booking.getRoom().getId();
         Room room = this.roomJPARepo.findRoomById(roomId);
+        if (room == null) {
+            throw new RoomNotFoundException("room with id " + roomId + " was not found!");
+        }
 
         if (!isRoomAvailable(room, booking.getDate(), booking.getStart(), booking.getEndTime())) {
             throw new RoomNotAvailableException("room not available for booking period!");
@@ -80,7 +103,7 @@ public class RoomBookingRepo_JPAH2 implements RoomBookingRepo {
         roomBooking.setUpdatedOn(LocalDateTime.now());
 
         try {
-            return this.roomBookingJPARepo.save(roomBooking);
+            return index(this.roomBookingJPARepo.save(roomBooking));
         } catch (Exception e) {
             throw new RuntimeException("Error saving the booking to the database", e);
         }
@@ -109,6 +132,55 @@ public class RoomBookingRepo_JPAH2 implements RoomBookingRepo {
         return this.roomBookingJPARepo.findAll();
     }
 
+    /**
+     * Retrieves one page of room bookings in the date range, ordered by date and id.
+     *
+     * @param from  The first date of the range.
+     * @param to    The last date of the range, or null for no upper bound.
+     * @param after The cursor of the previous page, or null for the first page.
+     * @param size  The maximum number of bookings on the page.
+     * @return The page together with the cursor for the next page.
+     */
+    @Override
+    public BookingSlice<RoomBooking> getBookingSlice(LocalDate from, LocalDate to, BookingCursor after, int size) {
+        BookingCursor position = after != null ? after : BookingCursor.before(from);
+        List<RoomBooking> rows = this.roomBookingJPARepo.findSliceAfter(position.getDate(), position.getId(), to, PageRequest.of(0, size + 1));
+        return BookingSlice.of(rows, size);
+    }
+
+    /**
+     * Streams the bookings in the date range as export rows, ordered by date, start and id.
+     * The caller has to consume and close the stream inside a transaction.
+     *
+     * @param from The first date of the range.
+     * @param to   The last date of the range.
+     * @return The rows; only the rows of the current fetch are held in memory.
+     */
+    @Override
+    public Stream<BookingExportRow> streamExportRows(LocalDate from, LocalDate to) {
+        return this.roomBookingJPARepo.streamExportRows(from, to);
+    }
+
+    /**
+     * Searches room bookings by the given criteria. Only the present criteria are sent to the database.
+     *
+     * @param employee the employee who made the booking
+     * @param room     the booked room
+     * @param date     the date of the booking
+     * @param start    the start of the time window; bookings ending after it match
+     * @param endTime  the end of the time window; bookings starting before it match
+     * @param timeslot a timeslot whose time window the bookings overlap
+     * @return the matching room bookings, ordered by date and start time
+     */
+    @Override
+    public List<RoomBooking> searchBookings(Optional<Employee> employee, Optional<Room> room, Optional<LocalDate> date, Optional<LocalTime> start, Optional<LocalTime> endTime, Optional<Timeslot> timeslot) {
+        Specification<RoomBooking> specification = BookingSpecifications.search(employee, date, start, endTime, timeslot);
+        if (room.isPresent()) {
+            specification = specification.and(BookingSpecifications.booked("room", room.get()));
+        }
+        return this.roomBookingJPARepo.findAll(specification, BookingSpecifications.ORDER);
+    }
+
     /**
      * Retrieves a room booking by its ID.
      *
@@ -173,6 +245,21 @@ public class RoomBookingRepo_JPAH2 implements RoomBookingRepo {
         return this.roomBookingJPARepo.getBookingsByEmployeeId(employeeId);
     }
 
+    /**
+     * Retrieves all room bookings of an employee, including the bookings that were moved to the archive.
+     *
+     * @param employeeId The ID of the employee.
+     * @return The archived room bookings followed by the current ones.
+     */
+    @Override
+    public List<RoomBooking> getBookingHistoryByEmployeeId(Long employeeId) {
+        List<ArchivedBooking> archived = this.bookingArchiveJPARepo.findByEmployeeIdAndTypeOrderByDateAscStartAsc(employeeId, ArchivedBooking.typeOf(RoomBooking.class));
+        List<RoomBooking> history = this.archivedBookingRestorer.restore(employeeId, archived, RoomBooking::new,
+                ArchivedBooking::getRoomId, this.roomJPARepo, Room::getId, RoomBooking::setRoom);
+        history.addAll(this.roomBookingJPARepo.getBookingsByEmployeeId(employeeId));
+        return history;
+    }
+
     /**
      * Retrieves all room bookings for a specific room and date.
      *
@@ -196,7 +283,7 @@ public class RoomBookingRepo_JPAH2 implements RoomBookingRepo {
      */
     @Override
     public List<RoomBooking> getBookingsByRoomAndDateAndBookingTimeBetween(Room room, LocalDate date, LocalTime start, LocalTime endTime) {
-        return this.roomBookingJPARepo.getBookingsByRoomAndDateAndStartBetween(room, date, start, endTime);
+        return this.roomBookingJPARepo.getOverlappingBookings(room, date, start, endTime);
     }
     /**
      * Updates a room booking by its ID.
@@ -251,7 +338,7 @@ public class RoomBookingRepo_JPAH2 implements RoomBookingRepo {
         if (updatedBooking.getId() == null) {
             throw new IllegalArgumentException("ID cannot be null when updating");
         }
-        return this.roomBookingJPARepo.saveAndFlush(updatedBooking);
+        return index(this.roomBookingJPARepo.saveAndFlush(updatedBooking));
     }
 
     /**
@@ -265,6 +352,7 @@ public class RoomBookingRepo_JPAH2 implements RoomBookingRepo {
         Optional<RoomBooking> bookingOptional = this.roomBookingJPARepo.findById(id);
         if (bookingOptional.isPresent()) {
             this.roomBookingJPARepo.deleteById(id);
+            this.occupancyIndex.remove(id);
         } else {
             throw new RoomDeletionNotPossibleException("The room booking with ID:" + id + "was not found!");
         }
@@ -303,8 +391,24 @@ public class RoomBookingRepo_JPAH2 implements RoomBookingRepo {
      */
     @Override
     public boolean isRoomAvailable(Room room, LocalDate date, LocalTime start, LocalTime endTime) {
-        List<RoomBooking> overlappingBookings = this.roomBookingJPARepo.getBookingsByRoomAndDateAndStartBetween(room, date, start, endTime);
-        return overlappingBookings.isEmpty();
+        return isRoomAvailable(room, date, start, endTime, null);
+    }
+
+    /**
+     * Checks if a room is available for a specific date and booking time, disregarding one booking.
+     * The check is answered from the in-memory occupancy index and does not query the database
+     * once the day has been loaded.
+     *
+     * @param room             The room to check availability.
+     * @param date             The date to check availability.
+     * @param start            The start time of the booking.
+     * @param endTime          The end time of the booking.
+     * @param ignoredBookingId The ID of the booking being updated, may be null.
+     * @return True if no other booking overlaps the requested period, false otherwise.
+     */
+    @Override
+    public boolean isRoomAvailable(Room room, LocalDate date, LocalTime start, LocalTime endTime, Long ignoredBookingId) {
+        return this.occupancyIndex.isFree(room.getId(), date, start, endTime, ignoredBookingId);
     }
 
 
@@ -354,6 +458,19 @@ public class RoomBookingRepo_JPAH2 implements RoomBookingRepo {
      */
     @Override
     public RoomBooking save(RoomBooking booking) {
-        return this.roomBookingJPARepo.save(booking);
+        return index(this.roomBookingJPARepo.save(booking));
+    }
+
+    /**
+     * Keeps the occupancy index in line with a booking that was just written.
+     *
+     * @param booking The persisted room booking.
+     * @return The same booking.
+     */
+    private RoomBooking index(RoomBooking booking) {
+        if (booking != null && booking.getRoom() != null) {
+            this.occupancyIndex.put(booking.getId(), booking.getRoom().getId(), booking.getDate(), booking.getStart(), booking.getEndTime());
+        }
+        return booking;
     }
 }
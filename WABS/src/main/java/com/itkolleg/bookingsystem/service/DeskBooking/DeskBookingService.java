@@ -1,12 +1,22 @@
 package com.itkolleg.bookingsystem.service.deskbooking;
 
+import com.itkolleg.bookingsystem.domains.booking.BookingOccurrence;
 import com.itkolleg.bookingsystem.domains.booking.DeskBooking;
+import com.itkolleg.bookingsystem.domains.booking.RecurringDeskBooking;
 import com.itkolleg.bookingsystem.domains.Desk;
+import com.itkolleg.bookingsystem.domains.Employee;
+import com.itkolleg.bookingsystem.domains.Role;
+import com.itkolleg.bookingsystem.domains.Timeslot;
 import com.itkolleg.bookingsystem.exceptions.CustomIllegalArgumentException;
 import com.itkolleg.bookingsystem.exceptions.ResourceDeletionFailureException;
 import com.itkolleg.bookingsystem.exceptions.ResourceNotFoundException;
 import com.itkolleg.bookingsystem.exceptions.DeskNotAvailableException;
+import com.itkolleg.bookingsystem.repos.booking.BookingCursor;
+import com.itkolleg.bookingsystem.repos.booking.BookingSlice;
+import com.itkolleg.bookingsystem.service.booking.BookingExportFormat;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
@@ -17,12 +27,24 @@ public interface DeskBookingService {
 
     DeskBooking addDeskBooking(DeskBooking deskBooking) throws DeskNotAvailableException, ResourceNotFoundException, CustomIllegalArgumentException;
 
+    DeskBooking addDeskBooking(DeskBooking deskBooking, Role role) throws DeskNotAvailableException, ResourceNotFoundException, CustomIllegalArgumentException;
+
+    List<BookingOccurrence> addRecurringDeskBooking(RecurringDeskBooking series, Employee employee) throws CustomIllegalArgumentException, DeskNotAvailableException, ResourceNotFoundException;
+
+    List<BookingOccurrence> addRecurringDeskBooking(RecurringDeskBooking series, Employee employee, Role role) throws CustomIllegalArgumentException, DeskNotAvailableException, ResourceNotFoundException;
+
     List<DeskBooking> getAllBookings() throws ResourceNotFoundException;
 
+    BookingSlice<DeskBooking> getBookingSlice(LocalDate from, LocalDate to, BookingCursor after, int size);
+
+    long exportBookings(LocalDate from, LocalDate to, BookingExportFormat format, OutputStream out) throws IOException;
+
     List<DeskBooking> searchBookings(Long employee, LocalDate date) throws ResourceNotFoundException;
 
     List<DeskBooking> searchBookings(Long employeeId, Long deskId, LocalDate date) throws ResourceNotFoundException;
 
+    List<DeskBooking> searchBookings(Optional<Employee> employee, Optional<Desk> desk, Optional<LocalDate> date, Optional<LocalTime> start, Optional<LocalTime> endTime, Optional<Timeslot> timeslot);
+
     List<DeskBooking> getBookingsByEmployeeId(Long employeeId) throws ResourceNotFoundException;
 
     List<DeskBooking> getBookingByDesk(Long desk) throws ResourceNotFoundException;
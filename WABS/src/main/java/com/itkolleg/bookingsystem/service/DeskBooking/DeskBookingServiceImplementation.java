@@ -1,25 +1,45 @@
 package com.itkolleg.bookingsystem.service.deskbooking;
 
+import com.itkolleg.bookingsystem.domains.booking.BookingOccurrence;
 import com.itkolleg.bookingsystem.domains.booking.DeskBooking;
+import com.itkolleg.bookingsystem.domains.booking.RecurringDeskBooking;
 import com.itkolleg.bookingsystem.domains.Desk;
+import com.itkolleg.bookingsystem.domains.Employee;
+import com.itkolleg.bookingsystem.domains.PublicHoliday;
 import com.itkolleg.bookingsystem.domains.Role;
+import com.itkolleg.bookingsystem.domains.Timeslot;
 import com.itkolleg.bookingsystem.exceptions.CustomIllegalArgumentException;
 import com.itkolleg.bookingsystem.exceptions.DeskNotAvailableException;
 import com.itkolleg.bookingsystem.exceptions.ResourceDeletionFailureException;
 import com.itkolleg.bookingsystem.exceptions.ResourceNotFoundException;
+import com.itkolleg.bookingsystem.repos.booking.BookingCursor;
+import com.itkolleg.bookingsystem.repos.booking.BookingExportRow;
+import com.itkolleg.bookingsystem.repos.booking.BookingSlice;
 import com.itkolleg.bookingsystem.repos.deskbooking.DeskBookingRepo;
 import com.itkolleg.bookingsystem.repos.holiday.HolidayRepo;
+import com.itkolleg.bookingsystem.service.booking.BookingExportFormat;
+import com.itkolleg.bookingsystem.service.booking.BookingExportWriter;
+import com.itkolleg.bookingsystem.service.events.BookingEvent;
+import com.itkolleg.bookingsystem.service.events.BookingEventDispatcher;
+import com.itkolleg.bookingsystem.service.events.BookingSnapshot;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service implementation for handling desk booking operations.
@@ -32,16 +52,33 @@ import java.util.stream.Collectors;
 @Slf4j
 public class DeskBookingServiceImplementation implements DeskBookingService {
 
+    /**
+     * Number of admission lock stripes; more stripes mean fewer unrelated bookings waiting for each other.
+     */
+    private static final int ADMISSION_STRIPES = 256;
+
     private final DeskBookingRepo deskBookingRepo;
     private final HolidayRepo holidayRepo;
+    private final BookingExportWriter bookingExportWriter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DeskAdmissionLocks admissionLocks = new DeskAdmissionLocks(ADMISSION_STRIPES);
 
-    public DeskBookingServiceImplementation(DeskBookingRepo deskBookingRepo, HolidayRepo holidayRepo) {
+    public DeskBookingServiceImplementation(DeskBookingRepo deskBookingRepo, HolidayRepo holidayRepo, BookingExportWriter bookingExportWriter,
+                                            ApplicationEventPublisher eventPublisher) {
         this.deskBookingRepo = deskBookingRepo;
         this.holidayRepo = holidayRepo;
+        this.bookingExportWriter = bookingExportWriter;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
      * Creates a new desk booking.
+     * <p>
+     * Requests for the same desk or by the same employee on the same day are admitted one at a time (see
+     * {@link DeskAdmissionLocks}): the first one is checked against the occupancy index and written, the others then
+     * see it and are rejected without touching the database. The repository re-checks inside a transaction that
+     * locks the desk, which keeps admission exclusive across several application instances.
+     * </p>
      *
      * @param booking The desk booking to be created.
      * @return The added desk booking.
@@ -51,15 +88,98 @@ public class DeskBookingServiceImplementation implements DeskBookingService {
      */
     @Override
     public DeskBooking addDeskBooking(DeskBooking booking) throws DeskNotAvailableException, ResourceNotFoundException, CustomIllegalArgumentException {
-//
-        Role role = booking.getEmployee().getRole();
+        return addDeskBooking(booking, booking.getEmployee().getRole());
+    }
 
-        checkDeskAvailability(booking);
-        checkBookingDate(booking.getDate());
-        checkRoleBasedBooking(booking.getDate(), role);
-        checkHolidayBooking(booking.getDate());
+    /**
+     * Creates a new desk booking for an employee whose role is already known, e.g. from the logged-in principal, so
+     * that the employee of the booking can stay an uninitialized reference until the repository locks it.
+     *
+     * @param booking The desk booking to be created.
+     * @param role    The role of the employee of the booking.
+     * @return The added desk booking.
+     * @see #addDeskBooking(DeskBooking)
+     */
+    @Override
+    public DeskBooking addDeskBooking(DeskBooking booking, Role role) throws DeskNotAvailableException, ResourceNotFoundException, CustomIllegalArgumentException {
+        try (DeskAdmissionLocks.Admission ignored = admissionLocks.lock(booking.getDesk().getId(), booking.getEmployee().getId(), booking.getDate())) {
+            checkDeskAvailability(booking);
+            checkBookingDate(booking.getDate());
+            checkRoleBasedBooking(booking.getDate(), role);
+            checkHolidayBooking(booking.getDate());
+
+            DeskBooking added = this.deskBookingRepo.addBooking(booking);
+            publish(BookingEvent.created(added));
+            return added;
+        }
+    }
 
-        return this.deskBookingRepo.addBooking(booking);
+    /**
+     * Books a desk for every occurrence of a series, e.g. every Tuesday and Thursday morning for the next 12 weeks.
+     * <p>
+     * The series as a whole has to start today or later and may not reach further ahead than the role allows. Weekends
+     * and public holidays without bookings are reported as not bookable, read with a single query for the whole
+     * period. The remaining occurrences are checked for conflicts and inserted together by the repository, see
+     * {@link DeskBookingRepo#addBookings(List)}.
+     * </p>
+     *
+     * @param series   The series to book.
+     * @param employee The employee who books.
+     * @return The outcome of every occurrence, ordered by date.
+     * @throws CustomIllegalArgumentException If the series starts in the past, has no occurrences or reaches too far ahead.
+     * @throws DeskNotAvailableException      If the desk is locked by another booking for too long.
+     * @throws ResourceNotFoundException      If the desk or employee is not found.
+     */
+    @Override
+    public List<BookingOccurrence> addRecurringDeskBooking(RecurringDeskBooking series, Employee employee) throws CustomIllegalArgumentException, DeskNotAvailableException, ResourceNotFoundException {
+        return addRecurringDeskBooking(series, employee, employee.getRole());
+    }
+
+    /**
+     * Books a desk for every occurrence of a series for an employee whose role is already known, e.g. from the
+     * logged-in principal.
+     *
+     * @param series   The series to book.
+     * @param employee The employee who books, may be an uninitialized reference.
+     * @param role     The role of the employee.
+     * @return The outcome of every occurrence, ordered by date.
+     * @see #addRecurringDeskBooking(RecurringDeskBooking, Employee)
+     */
+    @Override
+    public List<BookingOccurrence> addRecurringDeskBooking(RecurringDeskBooking series, Employee employee, Role role) throws CustomIllegalArgumentException, DeskNotAvailableException, ResourceNotFoundException {
+        List<LocalDate> dates = series.getDates();
+        if (dates.isEmpty()) {
+            throw new CustomIllegalArgumentException("The series has no occurrences", "addRecurringDeskBooking");
+        }
+        if (series.getFirstDate().isBefore(LocalDate.now())) {
+            throw new CustomIllegalArgumentException("Cannot create booking for a past date", "addRecurringDeskBooking");
+        }
+        checkRoleBasedBooking(series.getLastDate(), role);
+
+        Set<LocalDate> closedHolidays = holidayRepo.getHolidaysBetween(series.getFirstDate(), series.getLastDate()).stream()
+                .filter(holiday -> !holiday.isBookingAllowed())
+                .map(PublicHoliday::getDate)
+                .collect(Collectors.toSet());
+
+        List<BookingOccurrence> occurrences = new ArrayList<>();
+        List<DeskBooking> bookable = new ArrayList<>();
+        for (LocalDate date : dates) {
+            if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                occurrences.add(BookingOccurrence.notBookable(date, "Cannot create booking for a weekend"));
+            } else if (closedHolidays.contains(date)) {
+                occurrences.add(BookingOccurrence.notBookable(date, "No work-area bookings are allowed on this public holiday!"));
+            } else {
+                bookable.add(new DeskBooking(employee, series.getDesk(), date, series.getStart(), series.getEndTime()));
+            }
+        }
+
+        List<BookingOccurrence> booked = deskBookingRepo.addBookings(bookable);
+        booked.stream().filter(BookingOccurrence::isBooked).forEach(occurrence -> publish(BookingEvent.created(occurrence.getBooking())));
+        occurrences.addAll(booked);
+        occurrences.sort(Comparator.comparing(BookingOccurrence::getDate));
+        log.info("Recurring booking of desk {}: {} of {} occurrences booked", series.getDesk().getId(),
+                occurrences.stream().filter(BookingOccurrence::isBooked).count(), occurrences.size());
+        return occurrences;
     }
 
     /**
@@ -74,6 +194,40 @@ public class DeskBookingServiceImplementation implements DeskBookingService {
         return deskBookingRepo.getAllBookings();
     }
 
+    /**
+     * Retrieves one page of desk bookings in the date range, ordered by date and id.
+     *
+     * @param from  The first date of the range.
+     * @param to    The last date of the range, or null for no upper bound.
+     * @param after The cursor of the previous page, or null for the first page.
+     * @param size  The maximum number of bookings on the page.
+     * @return The page together with the cursor for the next page.
+     */
+    @Override
+    public BookingSlice<DeskBooking> getBookingSlice(LocalDate from, LocalDate to, BookingCursor after, int size) {
+        return deskBookingRepo.getBookingSlice(from, to, after, size);
+    }
+
+    /**
+     * Writes the desk bookings in the date range to the output stream, ordered by date, start and id.
+     * The rows are streamed from the database inside one read-only transaction, so the memory used does not grow with
+     * the size of the range.
+     *
+     * @param from   The first date of the range.
+     * @param to     The last date of the range.
+     * @param format The output format.
+     * @param out    The target, e.g. the body of the HTTP response.
+     * @return The number of exported bookings.
+     * @throws IOException If writing fails.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportBookings(LocalDate from, LocalDate to, BookingExportFormat format, OutputStream out) throws IOException {
+        try (Stream<BookingExportRow> rows = deskBookingRepo.streamExportRows(from, to)) {
+            return bookingExportWriter.write(rows, format, out);
+        }
+    }
+
 
     /**
      * Searches for desk bookings based on employee and date criteria.
@@ -139,6 +293,22 @@ public class DeskBookingServiceImplementation implements DeskBookingService {
         return new ArrayList<>();
     }
 
+    /**
+     * Searches desk bookings by the given criteria; empty criteria are ignored.
+     *
+     * @param employee The employee who made the booking.
+     * @param desk     The booked desk.
+     * @param date     The date of the booking.
+     * @param start    The start of the time window.
+     * @param endTime  The end of the time window.
+     * @param timeslot A timeslot whose time window the bookings overlap.
+     * @return The matching desk bookings.
+     */
+    @Override
+    public List<DeskBooking> searchBookings(Optional<Employee> employee, Optional<Desk> desk, Optional<LocalDate> date, Optional<LocalTime> start, Optional<LocalTime> endTime, Optional<Timeslot> timeslot) {
+        return deskBookingRepo.searchBookings(employee, desk, date, start, endTime, timeslot);
+    }
+
     /**
      * Retrieves a desk booking by its ID.
      *
@@ -284,9 +454,14 @@ public class DeskBookingServiceImplementation implements DeskBookingService {
             throw new DeskNotAvailableException("Desk is not available for the specified date and time period.");
         }
 
-        // Set the ID for the updated booking and save it
+        // Set the ID for the updated booking and save it, admitted like a new booking
+        BookingSnapshot previous = BookingSnapshot.of(existingBooking.get());
         updatedBooking.setId(bookingId);
-        return deskBookingRepo.updateBooking(updatedBooking);
+        try (DeskAdmissionLocks.Admission ignored = admissionLocks.lock(desk.getId(), updatedBooking.getEmployee().getId(), date)) {
+            DeskBooking updated = deskBookingRepo.updateBooking(updatedBooking);
+            publish(BookingEvent.updated(previous, updated));
+            return updated;
+        }
     }
 
 
@@ -304,24 +479,26 @@ public class DeskBookingServiceImplementation implements DeskBookingService {
         DeskBooking existingBooking = deskBookingRepo.getBookingByBookingId(booking.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found for ID: " + booking.getId()));
 
-        // Check if the desk is available for the updated booking period
-        List<DeskBooking> conflictingBookings = deskBookingRepo.getBookingsByDeskAndDateAndBookingTimeRange(booking.getId(), booking.getDate(), booking.getStart(), booking.getEndTime());
-        conflictingBookings.removeIf(b -> b.getId().equals(existingBooking.getId())); // Remove the existing booking from the list
-
-        if (!conflictingBookings.isEmpty()) {
-            throw new DeskNotAvailableException("Desk is not available for the specified booking period.");
+        try (DeskAdmissionLocks.Admission ignored = admissionLocks.lock(booking.getDesk().getId(), booking.getEmployee().getId(), booking.getDate())) {
+            // Check if the desk is available for the updated booking period, disregarding the booking itself
+            if (!deskBookingRepo.isDeskAvailable(booking.getDesk().getId(), booking.getDate(), booking.getStart(), booking.getEndTime(), existingBooking.getId())) {
+                throw new DeskNotAvailableException("Desk is not available for the specified booking period.");
+            }
+
+            // Update the existing booking details
+            BookingSnapshot previous = BookingSnapshot.of(existingBooking);
+            existingBooking.setEmployee(booking.getEmployee());
+            existingBooking.setDesk(booking.getDesk());
+            existingBooking.setDate(booking.getDate());
+            existingBooking.setStart(booking.getStart());
+            existingBooking.setEndTime(booking.getEndTime());
+            existingBooking.setCreatedOn(LocalDateTime.now());
+
+            // Save the updated booking, admitted like a new booking
+            DeskBooking updated = deskBookingRepo.updateBooking(existingBooking);
+            publish(BookingEvent.updated(previous, updated));
+            return updated;
         }
-
-        // Update the existing booking details
-        existingBooking.setEmployee(booking.getEmployee());
-        existingBooking.setDesk(booking.getDesk());
-        existingBooking.setDate(booking.getDate());
-        existingBooking.setStart(booking.getStart());
-        existingBooking.setEndTime(booking.getEndTime());
-        existingBooking.setCreatedOn(LocalDateTime.now());
-
-        // Save the updated booking
-        return deskBookingRepo.updateBooking(existingBooking);
     }
 
 
@@ -335,18 +512,19 @@ public class DeskBookingServiceImplementation implements DeskBookingService {
     @Override
     public void deleteBookingById(Long bookingId) throws ResourceDeletionFailureException, ResourceNotFoundException {
         // Check if the booking exists
-        if (!deskBookingRepo.existsById(bookingId)) {
-            throw new ResourceNotFoundException("Booking not found for ID: " + bookingId);
-        }
+        DeskBooking booking = deskBookingRepo.getBookingByBookingId(bookingId)
+                .orElseThrow(() -> new ResourceNotFoundException("Booking not found for ID: " + bookingId));
         try {
             deskBookingRepo.deleteBookingById(bookingId);
         } catch (Exception e) {
             throw new ResourceDeletionFailureException("Failed to delete booking with ID: " + bookingId, e);
         }
+        publish(BookingEvent.cancelled(booking));
     }
 
     /**
      * Retrieves the booking history for a specific employee from the last two weeks.
+     * Bookings that were already moved to the archive are included.
      *
      * @param employeeId The ID of the employee.
      * @return A list of desk bookings from the last two weeks associated with the given employee ID.
@@ -354,11 +532,8 @@ public class DeskBookingServiceImplementation implements DeskBookingService {
      */
     @Override
     public List<DeskBooking> getBookingHistoryByEmployeeId(Long employeeId) throws ResourceNotFoundException {
-        LocalDate twoWeeksAgo = LocalDate.now().minusWeeks(2);
-        List<DeskBooking> bookings = deskBookingRepo.getBookingsByEmployee(employeeId)
-                .stream()
-                .filter(booking -> booking.getDate().isBefore(LocalDate.now()) && booking.getDate().isAfter(twoWeeksAgo))
-                .collect(Collectors.toList());
+        LocalDate today = LocalDate.now();
+        List<DeskBooking> bookings = deskBookingRepo.getBookingHistoryByEmployeeId(employeeId, today.minusWeeks(2).plusDays(1), today.minusDays(1));
 
         if (bookings.isEmpty()) {
             throw new ResourceNotFoundException("No bookings found for employee ID: " + employeeId + " in the last two weeks.");
@@ -398,13 +573,14 @@ public class DeskBookingServiceImplementation implements DeskBookingService {
      */
     @Override
     public DeskBooking save(DeskBooking booking) throws ResourceNotFoundException, DeskNotAvailableException {
-        // Check if the desk is available for the booking period
-        List<DeskBooking> existingBookings = deskBookingRepo.getBookingsByDeskAndDateAndBookingTimeRange(booking.getDesk().getId(), booking.getDate(), booking.getStart(), booking.getEndTime());
-        if (!existingBookings.isEmpty()) {
-            throw new DeskNotAvailableException("The desk is already booked for the specified period.");
-        }
+        try (DeskAdmissionLocks.Admission ignored = admissionLocks.lock(booking.getDesk().getId(), booking.getEmployee().getId(), booking.getDate())) {
+            // Check if the desk is available for the booking period
+            if (!deskBookingRepo.isDeskAvailable(booking.getDesk().getId(), booking.getDate(), booking.getStart(), booking.getEndTime(), booking.getId())) {
+                throw new DeskNotAvailableException("The desk is already booked for the specified period.");
+            }
 
-        return deskBookingRepo.save(booking);
+            return deskBookingRepo.save(booking);
+        }
     }
 
 
@@ -424,9 +600,18 @@ public class DeskBookingServiceImplementation implements DeskBookingService {
         return deskBookingRepo.getAvailableDesks(date, start, end, deskId);
     }
 
+    /**
+     * Announces a created, updated or cancelled desk booking. The {@link BookingEventDispatcher} hands it to the
+     * listeners on its own threads once the surrounding transaction has committed.
+     */
+    private void publish(BookingEvent event) {
+        if (event != null) {
+            eventPublisher.publishEvent(event);
+        }
+    }
+
     private void checkDeskAvailability(DeskBooking booking) throws DeskNotAvailableException, ResourceNotFoundException {
-        List<DeskBooking> bookings = deskBookingRepo.getBookingsByDeskAndDateAndBookingTimeRange(booking.getId(), booking.getDate(), booking.getStart(), booking.getEndTime());
-        if (!bookings.isEmpty()) {
+        if (!deskBookingRepo.isDeskAvailable(booking.getDesk().getId(), booking.getDate(), booking.getStart(), booking.getEndTime(), booking.getId())) {
             throw new DeskNotAvailableException("Desk not available for booking period");
         }
     }
@@ -0,0 +1,66 @@
+package com.itkolleg.bookingsystem.service.deskbooking;
+
+import com.itkolleg.bookingsystem.repos.deskbooking.DeskBookingRepo;
+import com.itkolleg.bookingsystem.repos.occupancy.OccupancyGrid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Provides the desk occupancy grid rendered on the floor plan.
+ * The granularity and the covered part of the day are configurable through
+ * {@code wabs.floorplan.slot-minutes}, {@code wabs.floorplan.day-start} and {@code wabs.floorplan.day-end}.
+ */
+@Service
+public class FloorPlanOccupancyService {
+
+    private final DeskBookingRepo deskBookingRepo;
+    private final int slotMinutes;
+    private final LocalTime dayStart;
+    private final LocalTime dayEnd;
+
+    public FloorPlanOccupancyService(DeskBookingRepo deskBookingRepo,
+                                     @Value("${wabs.floorplan.slot-minutes:15}") int slotMinutes,
+                                     @Value("${wabs.floorplan.day-start:08:00}") String dayStart,
+                                     @Value("${wabs.floorplan.day-end:17:00}") String dayEnd) {
+        this.deskBookingRepo = deskBookingRepo;
+        this.slotMinutes = slotMinutes;
+        this.dayStart = LocalTime.parse(dayStart);
+        this.dayEnd = LocalTime.parse(dayEnd);
+    }
+
+    /**
+     * Returns the occupancy grid of all desks for the given day.
+     *
+     * @param date The day to show.
+     * @return The occupancy grid.
+     */
+    public OccupancyGrid getOccupancyGrid(LocalDate date) {
+        return deskBookingRepo.getOccupancyGrid(date, dayStart, dayEnd, slotMinutes);
+    }
+
+    /**
+     * Returns the compact payload the floor-plan script colours the desks from.
+     *
+     * @param date The day to show.
+     * @return The grid serialized as JSON.
+     */
+    public String getOccupancyPayload(LocalDate date) {
+        return getOccupancyGrid(date).toPayload();
+    }
+
+    /**
+     * Returns the current row of one desk in the format of {@link #getOccupancyPayload(LocalDate)}, sent with live
+     * updates so the floor plan can replace the desk without reloading.
+     *
+     * @param date   The day.
+     * @param deskId The desk.
+     * @return The hex row of the desk.
+     */
+    public String getDeskSlots(LocalDate date, long deskId) {
+        return deskBookingRepo.getOccupancyGrid(date, List.of(deskId), dayStart, dayEnd, slotMinutes).toHex(deskId);
+    }
+}
@@ -2,6 +2,7 @@ package com.itkolleg.bookingsystem.service.timeslot;
 
 import com.itkolleg.bookingsystem.domains.Timeslot;
 import com.itkolleg.bookingsystem.repos.timeslot.TimeslotRepo;
+import com.itkolleg.bookingsystem.service.referencedata.ReferenceDataCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -19,14 +20,17 @@ public class TimeslotServiceImplementation implements TimeslotService {
 
     private static final Logger logger = LoggerFactory.getLogger(TimeslotServiceImplementation.class);
     private final TimeslotRepo timeslotRepo;
+    private final ReferenceDataCache referenceDataCache;
 
     /**
      * Constructs a TimeslotServiceImplementation instance.
      *
-     * @param timeslotRepo Repository for accessing timeslot data.
+     * @param timeslotRepo       Repository for accessing timeslot data.
+     * @param referenceDataCache Cache of the timeslots shown in the booking forms, invalidated on every change.
      */
-    public TimeslotServiceImplementation(TimeslotRepo timeslotRepo) {
+    public TimeslotServiceImplementation(TimeslotRepo timeslotRepo, ReferenceDataCache referenceDataCache) {
         this.timeslotRepo = timeslotRepo;
+        this.referenceDataCache = referenceDataCache;
     }
 
     /**
@@ -37,7 +41,9 @@ public class TimeslotServiceImplementation implements TimeslotService {
      */
     @Override
     public Timeslot addTimeslot(Timeslot timeslot) {
-        return this.timeslotRepo.addTimeslot(timeslot);
+        Timeslot added = this.timeslotRepo.addTimeslot(timeslot);
+        this.referenceDataCache.invalidateTimeslots();
+        return added;
     }
 
     /**
@@ -104,7 +110,9 @@ public class TimeslotServiceImplementation implements TimeslotService {
      */
     @Override
     public Optional<Timeslot> updateTimeslot(Timeslot timeslot) {
-        return this.timeslotRepo.updateTimeslot(timeslot);
+        Optional<Timeslot> updated = this.timeslotRepo.updateTimeslot(timeslot);
+        this.referenceDataCache.invalidateTimeslots();
+        return updated;
     }
 
     /**
@@ -115,6 +123,7 @@ public class TimeslotServiceImplementation implements TimeslotService {
     @Override
     public void deleteTimeslotById(Long id) {
         this.timeslotRepo.deleteTimeslotById(id);
+        this.referenceDataCache.invalidateTimeslots();
     }
 
     /**
@@ -129,6 +138,7 @@ public class TimeslotServiceImplementation implements TimeslotService {
             Timeslot toDelete = this.timeslotRepo.getTimeslotByName(name)
                     .orElseThrow(() -> new IllegalArgumentException("No timeslot found with the given name: " + name));
             this.timeslotRepo.delete(toDelete);
+            this.referenceDataCache.invalidateTimeslots();
         } catch (IllegalArgumentException e) {
             logger.error("timeslot with name '{}' not found", name, e);
         }
@@ -0,0 +1,357 @@
+package com.itkolleg.bookingsystem.service.analytics;
+
+import com.itkolleg.bookingsystem.domains.Desk;
+import com.itkolleg.bookingsystem.domains.PublicHoliday;
+import com.itkolleg.bookingsystem.domains.Ressource;
+import com.itkolleg.bookingsystem.domains.Ressourcetype;
+import com.itkolleg.bookingsystem.domains.Room;
+import com.itkolleg.bookingsystem.domains.analytics.OccupancyScope;
+import com.itkolleg.bookingsystem.repos.analytics.BookedInterval;
+import com.itkolleg.bookingsystem.repos.analytics.NoShowCandidate;
+import com.itkolleg.bookingsystem.repos.analytics.OccupancyRollupRepo;
+import com.itkolleg.bookingsystem.repos.analytics.OccupancyTotal;
+import com.itkolleg.bookingsystem.repos.analytics.RollupDeltas;
+import com.itkolleg.bookingsystem.repos.holiday.HolidayRepo;
+import com.itkolleg.bookingsystem.repos.ressource.DBAccessRessource;
+import com.itkolleg.bookingsystem.repos.room.DBAccessRoom;
+import com.itkolleg.bookingsystem.service.referencedata.ReferenceDataCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Computes the utilisation of desks, rooms, floors and ressource types from pre-aggregated occupancy rollups.
+ * <p>
+ * The rollups hold the booked minutes and bookings per day, hour and desk, room, floor or ressource type. They are
+ * kept up to date incrementally by the {@link OccupancyRollupListener} whenever a booking is created, moved or
+ * deleted, so reports never have to scan the booking tables. Changes that bypass Hibernate (bulk statements, changes
+ * made directly in the database) are repaired by the reconciliation on {@code wabs.analytics.reconcile-cron}
+ * (default: every night at 03:15), which recomputes the rollups of the last {@code wabs.analytics.reconcile-past-days}
+ * and the next {@code wabs.analytics.reconcile-future-days} days from the bookings and the booking archive.
+ * </p>
+ * <p>
+ * A reconciliation chunk reads the bookings and replaces the rollups in one transaction. A booking committed between
+ * the read and the replacement would be missing from both, so chunks and the transactions that change bookings
+ * exclude each other in this instance: a chunk waits until the running booking transactions have committed and
+ * applied their changes, and booking transactions wait for the running chunk before they are written.
+ * </p>
+ * The bookable time per day is {@code wabs.analytics.day-start} to {@code wabs.analytics.day-end} on working days.
+ */
+@Slf4j
+@Service
+public class OccupancyAnalyticsService {
+
+    /**
+     * Days recomputed in one transaction by the reconciliation.
+     */
+    private static final int RECONCILE_CHUNK_DAYS = 31;
+
+    private static final int NO_SHOW_LIMIT = 200;
+
+    private final OccupancyRollupRepo occupancyRollupRepo;
+    private final ReferenceDataCache referenceDataCache;
+    private final DBAccessRoom dbAccessRoom;
+    private final DBAccessRessource dbAccessRessource;
+    private final HolidayRepo holidayRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransactionTemplate;
+    private final LocalTime dayStart;
+    private final LocalTime dayEnd;
+    private final int reconcilePastDays;
+    private final int reconcileFutureDays;
+
+    /**
+     * Held shared by booking transactions until their rollup changes are applied, and exclusively by a
+     * reconciliation chunk.
+     */
+    private final ReentrantReadWriteLock reconcileLock = new ReentrantReadWriteLock();
+
+    public OccupancyAnalyticsService(OccupancyRollupRepo occupancyRollupRepo,
+                                     ReferenceDataCache referenceDataCache,
+                                     DBAccessRoom dbAccessRoom,
+                                     DBAccessRessource dbAccessRessource,
+                                     HolidayRepo holidayRepo,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${wabs.analytics.day-start:08:00}") String dayStart,
+                                     @Value("${wabs.analytics.day-end:17:00}") String dayEnd,
+                                     @Value("${wabs.analytics.reconcile-past-days:35}") int reconcilePastDays,
+                                     @Value("${wabs.analytics.reconcile-future-days:365}") int reconcileFutureDays) {
+        this.occupancyRollupRepo = occupancyRollupRepo;
+        this.referenceDataCache = referenceDataCache;
+        this.dbAccessRoom = dbAccessRoom;
+        this.dbAccessRessource = dbAccessRessource;
+        this.holidayRepo = holidayRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.dayStart = LocalTime.parse(dayStart);
+        this.dayEnd = LocalTime.parse(dayEnd);
+        this.reconcilePastDays = reconcilePastDays;
+        this.reconcileFutureDays = reconcileFutureDays;
+    }
+
+    /**
+     * Adds the changes of a committed transaction to the rollups, in a transaction of its own. A failure is only
+     * logged: the booking has been committed already and the next reconciliation repairs the rollups.
+     *
+     * @param deltas The changes of the committed transaction.
+     */
+    public void applyDeltas(RollupDeltas deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        holdReconciliation();
+        try {
+            newTransactionTemplate.executeWithoutResult(status -> occupancyRollupRepo.applyDeltas(deltas));
+        } catch (RuntimeException e) {
+            log.warn("Could not update the occupancy rollups, they are repaired by the next reconciliation", e);
+        } finally {
+            releaseReconciliation();
+        }
+    }
+
+    /**
+     * Keeps reconciliation chunks from starting until {@link #releaseReconciliation()} is called on the same thread,
+     * waiting for a running chunk first. Called when a transaction changes its first booking.
+     * <p>
+     * A booking transaction does not queue behind a chunk that is only waiting: it may hold row locks another booking
+     * transaction needs to finish, and the chunk waits for that one.
+     * </p>
+     */
+    void holdReconciliation() {
+        Lock lock = reconcileLock.readLock();
+        if (!lock.tryLock()) {
+            lock.lock();
+        }
+    }
+
+    /**
+     * Lets reconciliation chunks run again, see {@link #holdReconciliation()}.
+     */
+    void releaseReconciliation() {
+        reconcileLock.readLock().unlock();
+    }
+
+    /**
+     * Recomputes the rollups around today.
+     */
+    @Scheduled(cron = "${wabs.analytics.reconcile-cron:0 15 3 * * *}")
+    public void reconcileRecentRollups() {
+        LocalDate today = LocalDate.now();
+        reconcile(today.minusDays(reconcilePastDays), today.plusDays(reconcileFutureDays));
+    }
+
+    /**
+     * Recomputes the rollups between the dates from the bookings and the booking archive, replacing the stored ones.
+     *
+     * @param from The first day to recompute.
+     * @param to   The last day to recompute.
+     * @return The number of bookings counted.
+     */
+    public int reconcile(LocalDate from, LocalDate to) {
+        long started = System.nanoTime();
+        int counted = 0;
+        for (LocalDate chunkStart = from; !chunkStart.isAfter(to); chunkStart = chunkStart.plusDays(RECONCILE_CHUNK_DAYS)) {
+            LocalDate chunkFrom = chunkStart;
+            LocalDate chunkTo = chunkStart.plusDays(RECONCILE_CHUNK_DAYS - 1).isAfter(to) ? to : chunkStart.plusDays(RECONCILE_CHUNK_DAYS - 1);
+            reconcileLock.writeLock().lock();
+            try {
+                counted += transactionTemplate.execute(status -> reconcileChunk(chunkFrom, chunkTo));
+            } finally {
+                reconcileLock.writeLock().unlock();
+            }
+        }
+        log.info("Reconciled occupancy rollups from {} to {} with {} bookings in {} ms",
+                from, to, counted, (System.nanoTime() - started) / 1_000_000);
+        return counted;
+    }
+
+    private int reconcileChunk(LocalDate from, LocalDate to) {
+        List<BookedInterval> intervals = occupancyRollupRepo.getBookedIntervals(from, to);
+        RollupDeltas rollups = new RollupDeltas();
+        for (BookedInterval interval : intervals) {
+            rollups.add(interval, 1);
+        }
+        occupancyRollupRepo.replaceRollups(from, to, rollups);
+        return intervals.size();
+    }
+
+    /**
+     * Computes the utilisation report of a scope.
+     *
+     * @param scope       What to report on: desks, rooms, floors or ressource types.
+     * @param from        The first day of the range.
+     * @param to          The last day of the range.
+     * @param granularity The periods of the series.
+     * @return The report.
+     * @throws ExecutionException   If the rooms or ressources cannot be loaded.
+     * @throws InterruptedException If loading the rooms or ressources is interrupted.
+     */
+    @Transactional(readOnly = true)
+    public OccupancyReport getReport(OccupancyScope scope, LocalDate from, LocalDate to, OccupancyGranularity granularity)
+            throws ExecutionException, InterruptedException {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("The end of the range must not be before its start");
+        }
+        Set<LocalDate> workdays = getWorkdays(from, to);
+        long openMinutes = Duration.between(dayStart, dayEnd).toMinutes();
+
+        Map<String, Unit> units = getUnits(scope);
+        List<OccupancyTotal> byKey = occupancyRollupRepo.getTotalsByScopeKey(scope, from, to);
+        for (OccupancyTotal total : byKey) {
+            units.putIfAbsent((String) total.group(), new Unit(unknownLabel(scope, (String) total.group()), 1));
+        }
+        int totalUnits = units.values().stream().mapToInt(Unit::count).sum();
+
+        Map<String, OccupancyTotal> totalsByKey = new LinkedHashMap<>();
+        byKey.forEach(total -> totalsByKey.put((String) total.group(), total));
+        List<OccupancyReport.Row> rows = new ArrayList<>();
+        long bookings = 0;
+        long bookedMinutes = 0;
+        for (Map.Entry<String, Unit> unit : units.entrySet()) {
+            OccupancyTotal total = totalsByKey.get(unit.getKey());
+            rows.add(row(unit.getKey(), unit.getValue().label(), total, (long) unit.getValue().count() * workdays.size() * openMinutes));
+            if (total != null) {
+                bookings += total.bookings();
+                bookedMinutes += total.bookedMinutes();
+            }
+        }
+
+        Map<LocalDate, long[]> byPeriod = new TreeMap<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            long[] period = byPeriod.computeIfAbsent(granularity.bucketStart(day), start -> new long[3]);
+            if (workdays.contains(day)) {
+                period[2] += (long) totalUnits * openMinutes;
+            }
+        }
+        for (OccupancyTotal total : occupancyRollupRepo.getTotalsByDay(scope, from, to)) {
+            long[] period = byPeriod.get(granularity.bucketStart((LocalDate) total.group()));
+            period[0] += total.bookings();
+            period[1] += total.bookedMinutes();
+        }
+        List<OccupancyReport.Row> periods = new ArrayList<>();
+        byPeriod.forEach((start, period) -> periods.add(new OccupancyReport.Row(
+                start.toString(), granularity.label(start), period[0], period[1], utilisation(period[1], period[2]))));
+
+        Map<Integer, OccupancyTotal> byHour = new TreeMap<>();
+        for (int hour = dayStart.getHour(); hour * 60 < dayEnd.getHour() * 60 + dayEnd.getMinute(); hour++) {
+            byHour.put(hour, null);
+        }
+        occupancyRollupRepo.getTotalsByHour(scope, from, to).forEach(total -> byHour.put((Integer) total.group(), total));
+        List<OccupancyReport.Row> hours = new ArrayList<>();
+        byHour.forEach((hour, total) -> hours.add(row(hour.toString(), String.format("%02d:00", hour), total,
+                (long) totalUnits * workdays.size() * 60)));
+
+        OccupancyReport.Row summary = new OccupancyReport.Row("total", "Gesamt", bookings, bookedMinutes,
+                utilisation(bookedMinutes, (long) totalUnits * workdays.size() * openMinutes));
+        return new OccupancyReport(scope, from, to, granularity, workdays.size(), rows, periods, hours, summary);
+    }
+
+    /**
+     * @return Overlapping bookings of the same employee at different places between the dates, by date.
+     */
+    @Transactional(readOnly = true)
+    public List<NoShowCandidate> getNoShowCandidates(LocalDate from, LocalDate to) {
+        return occupancyRollupRepo.getNoShowCandidates(from, to, NO_SHOW_LIMIT);
+    }
+
+    /**
+     * @return The days between the dates that are neither weekend days nor public holidays.
+     */
+    private Set<LocalDate> getWorkdays(LocalDate from, LocalDate to) {
+        Set<LocalDate> holidays = new HashSet<>();
+        for (PublicHoliday holiday : holidayRepo.getHolidaysBetween(from, to)) {
+            holidays.add(holiday.getDate());
+        }
+        Set<LocalDate> workdays = new HashSet<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            if (day.getDayOfWeek() != DayOfWeek.SATURDAY && day.getDayOfWeek() != DayOfWeek.SUNDAY && !holidays.contains(day)) {
+                workdays.add(day);
+            }
+        }
+        return workdays;
+    }
+
+    /**
+     * @return The bookable units of every scope key, e.g. the rooms of every floor.
+     */
+    private Map<String, Unit> getUnits(OccupancyScope scope) throws ExecutionException, InterruptedException {
+        Map<String, Unit> units = new LinkedHashMap<>();
+        switch (scope) {
+            case DESK -> {
+                for (Desk desk : referenceDataCache.getDesks()) {
+                    units.put(desk.getId().toString(), new Unit("Arbeitsplatz " + desk.getDeskNr(), 1));
+                }
+            }
+            case ROOM -> {
+                for (Room room : dbAccessRoom.getAllRooms()) {
+                    units.put(room.getId().toString(), new Unit("Raum " + room.getId()
+                            + (room.getFloor() != null ? " (Stock " + room.getFloor() + ")" : ""), 1));
+                }
+            }
+            case FLOOR -> {
+                for (Room room : dbAccessRoom.getAllRooms()) {
+                    String floor = room.getFloor() != null ? room.getFloor() : BookedInterval.UNKNOWN;
+                    units.merge(floor, new Unit(unknownLabel(scope, floor), 1), (a, b) -> new Unit(a.label(), a.count() + 1));
+                }
+            }
+            case RESSOURCETYPE -> {
+                for (Ressourcetype type : Ressourcetype.values()) {
+                    units.put(type.name(), new Unit(type.name(), 0));
+                }
+                for (Ressource ressource : dbAccessRessource.getAllRessource()) {
+                    if (ressource.getRessourcetype() != null) {
+                        units.computeIfPresent(ressource.getRessourcetype().name(), (key, unit) -> new Unit(unit.label(), unit.count() + 1));
+                    }
+                }
+            }
+        }
+        return units;
+    }
+
+    private static String unknownLabel(OccupancyScope scope, String key) {
+        return switch (scope) {
+            case DESK -> "Arbeitsplatz #" + key;
+            case ROOM -> "Raum " + key;
+            case FLOOR -> BookedInterval.UNKNOWN.equals(key) ? "Stock unbekannt" : "Stock " + key;
+            case RESSOURCETYPE -> key;
+        };
+    }
+
+    private static OccupancyReport.Row row(String key, String label, OccupancyTotal total, long bookableMinutes) {
+        long bookings = total != null ? total.bookings() : 0;
+        long bookedMinutes = total != null ? total.bookedMinutes() : 0;
+        return new OccupancyReport.Row(key, label, bookings, bookedMinutes, utilisation(bookedMinutes, bookableMinutes));
+    }
+
+    private static double utilisation(long bookedMinutes, long bookableMinutes) {
+        return bookableMinutes > 0 ? (double) bookedMinutes / bookableMinutes : 0;
+    }
+
+    /**
+     * @param label What the scope key is shown as.
+     * @param count How many desks, rooms or ressources can be booked under the scope key.
+     */
+    private record Unit(String label, int count) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.itkolleg.bookingsystem.service.analytics;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * The periods the occupancy series of the analytics dashboard is grouped into.
+ */
+public enum OccupancyGranularity {
+
+    DAY {
+        @Override
+        public LocalDate bucketStart(LocalDate date) {
+            return date;
+        }
+
+        @Override
+        public String label(LocalDate bucketStart) {
+            return bucketStart.format(DAY_FORMAT);
+        }
+    },
+    /**
+     * ISO weeks starting on Monday.
+     */
+    WEEK {
+        @Override
+        public LocalDate bucketStart(LocalDate date) {
+            return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+
+        @Override
+        public String label(LocalDate bucketStart) {
+            return String.format("KW %02d/%d", bucketStart.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR), bucketStart.get(IsoFields.WEEK_BASED_YEAR));
+        }
+    },
+    MONTH {
+        @Override
+        public LocalDate bucketStart(LocalDate date) {
+            return date.withDayOfMonth(1);
+        }
+
+        @Override
+        public String label(LocalDate bucketStart) {
+            return bucketStart.format(MONTH_FORMAT);
+        }
+    };
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("MM/yyyy");
+
+    /**
+     * @return The first day of the period the date belongs to.
+     */
+    public abstract LocalDate bucketStart(LocalDate date);
+
+    /**
+     * @param bucketStart The first day of a period, as returned by {@link #bucketStart(LocalDate)}.
+     * @return The label shown for the period.
+     */
+    public abstract String label(LocalDate bucketStart);
+}
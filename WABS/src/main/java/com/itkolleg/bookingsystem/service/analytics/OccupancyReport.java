@@ -0,0 +1,64 @@
+package com.itkolleg.bookingsystem.service.analytics;
+
+import com.itkolleg.bookingsystem.domains.analytics.OccupancyScope;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Utilisation of desks, rooms, floors or ressource types over a date range, computed from the occupancy rollups.
+ * <p>
+ * The utilisation is the share of the bookable time that was booked: the booked minutes divided by the number of
+ * bookable units times the working days of the range times the opening hours.
+ * </p>
+ */
+@Getter
+@AllArgsConstructor
+public class OccupancyReport {
+
+    private final OccupancyScope scope;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final OccupancyGranularity granularity;
+
+    /**
+     * Working days in the range: Monday to Friday without public holidays.
+     */
+    private final int workdays;
+
+    /**
+     * One row per desk, room, floor or ressource type, including the ones that were never booked.
+     */
+    private final List<Row> rows;
+
+    /**
+     * One row per period of the granularity.
+     */
+    private final List<Row> periods;
+
+    /**
+     * One row per hour of the day, the peak hour histogram.
+     */
+    private final List<Row> hours;
+
+    private final Row total;
+
+    /**
+     * @param key           The scope key, the first day of the period or the hour.
+     * @param label         What the row is shown as.
+     * @param bookings      The number of bookings.
+     * @param bookedMinutes The booked minutes.
+     * @param utilisation   The booked share of the bookable time, between 0 and 1 unless bookings exceed the opening hours.
+     */
+    public record Row(String key, String label, long bookings, long bookedMinutes, double utilisation) {
+
+        /**
+         * @return The utilisation in percent, rounded to whole numbers.
+         */
+        public long getPercent() {
+            return Math.round(utilisation * 100);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.itkolleg.bookingsystem.service.analytics;
+
+import com.itkolleg.bookingsystem.domains.booking.Booking;
+import com.itkolleg.bookingsystem.domains.booking.DeskBooking;
+import com.itkolleg.bookingsystem.domains.booking.RessourceBooking;
+import com.itkolleg.bookingsystem.domains.booking.RoomBooking;
+import com.itkolleg.bookingsystem.domains.Desk;
+import com.itkolleg.bookingsystem.domains.Ressource;
+import com.itkolleg.bookingsystem.domains.Room;
+import com.itkolleg.bookingsystem.repos.analytics.BookedInterval;
+import com.itkolleg.bookingsystem.repos.analytics.RollupDeltas;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Keeps the occupancy rollups up to date while bookings are created, moved or deleted.
+ * <p>
+ * Every written booking adds its interval to the rollup changes of the current transaction; an update removes the
+ * previous interval and adds the new one. The changes are applied once the transaction has committed, so rolled back
+ * bookings never show up in the rollups and every transaction touches each rollup row only once. From its first
+ * booking change until the changes are applied, a transaction keeps the reconciliation from running, see
+ * {@link OccupancyAnalyticsService#holdReconciliation()}.
+ * </p>
+ */
+@Slf4j
+@Component
+public class OccupancyRollupListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final OccupancyAnalyticsService occupancyAnalyticsService;
+
+    public OccupancyRollupListener(EntityManagerFactory entityManagerFactory, OccupancyAnalyticsService occupancyAnalyticsService) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.occupancyAnalyticsService = occupancyAnalyticsService;
+    }
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Booking booking) {
+            record(interval(booking), null);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Booking booking)) {
+            return;
+        }
+        if (event.getOldState() == null) {
+            log.debug("No previous state of booking {}, the rollups are repaired by the next reconciliation", booking.getId());
+            record(interval(booking), null);
+            return;
+        }
+        BookedInterval previous = interval(event.getPersister(), event.getOldState());
+        BookedInterval current = interval(booking);
+        if (!Objects.equals(previous, current)) {
+            record(current, previous);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Booking) {
+            record(null, interval(event.getPersister(), event.getDeletedState()));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * Adds the changes to the rollup changes of the current transaction, or applies them right away outside of one.
+     */
+    private void record(BookedInterval added, BookedInterval removed) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            RollupDeltas deltas = new RollupDeltas();
+            deltas.add(added, 1);
+            deltas.add(removed, -1);
+            occupancyAnalyticsService.applyDeltas(deltas);
+            return;
+        }
+        RollupDeltas deltas = (RollupDeltas) TransactionSynchronizationManager.getResource(this);
+        if (deltas == null) {
+            RollupDeltas transactionDeltas = new RollupDeltas();
+            occupancyAnalyticsService.holdReconciliation();
+            TransactionSynchronizationManager.bindResource(this, transactionDeltas);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    occupancyAnalyticsService.applyDeltas(transactionDeltas);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(OccupancyRollupListener.this);
+                    occupancyAnalyticsService.releaseReconciliation();
+                }
+            });
+            deltas = transactionDeltas;
+        }
+        deltas.add(added, 1);
+        deltas.add(removed, -1);
+    }
+
+    private static BookedInterval interval(Booking booking) {
+        return interval(booking.getDate(), booking.getStart(), booking.getEndTime(), booking);
+    }
+
+    /**
+     * @return The interval of a booking as stored before an update or delete.
+     */
+    private static BookedInterval interval(EntityPersister persister, Object[] state) {
+        List<String> names = Arrays.asList(persister.getPropertyNames());
+        Object target = null;
+        for (String property : List.of("desk", "room", "ressource")) {
+            int index = names.indexOf(property);
+            if (index >= 0 && state[index] != null) {
+                target = state[index];
+            }
+        }
+        return interval((LocalDate) state[names.indexOf("date")], (LocalTime) state[names.indexOf("start")],
+                (LocalTime) state[names.indexOf("endTime")], target);
+    }
+
+    /**
+     * @param target The booking itself, or what it occupies: a desk, room or ressource.
+     */
+    private static BookedInterval interval(LocalDate date, LocalTime start, LocalTime end, Object target) {
+        if (target instanceof DeskBooking deskBooking) {
+            target = deskBooking.getDesk();
+        } else if (target instanceof RoomBooking roomBooking) {
+            target = roomBooking.getRoom();
+        } else if (target instanceof RessourceBooking ressourceBooking) {
+            target = ressourceBooking.getRessource();
+        }
+        if (target instanceof Desk desk) {
+            return new BookedInterval(date, start, end, desk.getId(), null, null, null);
+        }
+        if (target instanceof Room room) {
+            return new BookedInterval(date, start, end, null, room.getId(), room.getFloor(), null);
+        }
+        if (target instanceof Ressource ressource) {
+            return new BookedInterval(date, start, end, null, null, null, ressource.getRessourcetype());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,86 @@
+package com.itkolleg.bookingsystem.service.archive;
+
+import com.itkolleg.bookingsystem.repos.booking.BookingArchiveJPARepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Moves past bookings from the booking table into the booking archive, so that the hot table only holds the recent
+ * past and the future.
+ * <p>
+ * The job runs on {@code wabs.archive.cron} (default: every night at 02:30) and archives every booking older than
+ * {@code wabs.archive.horizon-days} days (default: 30). Bookings are copied and deleted in chunks of
+ * {@code wabs.archive.chunk-size} rows, each chunk in its own transaction, so a large backlog neither locks the
+ * booking table for long nor has to fit into one transaction.
+ */
+@Slf4j
+@Service
+public class BookingArchiveService {
+
+    private final BookingArchiveJPARepo bookingArchiveJPARepo;
+    private final TransactionTemplate transactionTemplate;
+    private final int horizonDays;
+    private final int chunkSize;
+
+    public BookingArchiveService(BookingArchiveJPARepo bookingArchiveJPARepo,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${wabs.archive.horizon-days:30}") int horizonDays,
+                                 @Value("${wabs.archive.chunk-size:500}") int chunkSize) {
+        this.bookingArchiveJPARepo = bookingArchiveJPARepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.horizonDays = horizonDays;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @return The first date that is kept in the booking table; older bookings are archived.
+     */
+    public LocalDate getArchiveCutoff() {
+        return LocalDate.now().minusDays(horizonDays);
+    }
+
+    /**
+     * Archives all bookings before the configured horizon.
+     */
+    @Scheduled(cron = "${wabs.archive.cron:0 30 2 * * *}")
+    public void archiveExpiredBookings() {
+        archiveBookingsBefore(getArchiveCutoff());
+    }
+
+    /**
+     * Moves all bookings dated before the cutoff into the archive.
+     *
+     * @param cutoff The first date that stays in the booking table.
+     * @return The number of archived bookings.
+     */
+    public int archiveBookingsBefore(LocalDate cutoff) {
+        long started = System.nanoTime();
+        int archived = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> archiveChunk(cutoff));
+            archived += moved;
+        } while (moved == chunkSize);
+        if (archived > 0) {
+            log.info("Archived {} bookings before {} in {} ms", archived, cutoff, (System.nanoTime() - started) / 1_000_000);
+        }
+        return archived;
+    }
+
+    private int archiveChunk(LocalDate cutoff) {
+        List<Long> ids = bookingArchiveJPARepo.findBookingIdsBefore(cutoff, PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        bookingArchiveJPARepo.copyBookingsToArchive(ids);
+        return bookingArchiveJPARepo.deleteBookings(ids);
+    }
+}
@@ -0,0 +1,84 @@
+package com.itkolleg.bookingsystem.service.availability;
+
+import com.itkolleg.bookingsystem.service.events.BookingEvent;
+import com.itkolleg.bookingsystem.service.events.BookingSnapshot;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * A desk, room or ressource that became booked or free again for a period of a day.
+ * <p>
+ * Derived by the {@link AvailabilityFeed} from the {@link BookingEvent}s: a created booking books its period, a
+ * cancelled one releases it and an updated one releases the old period and books the new one. The feed pushes the
+ * deltas to the clients watching that day.
+ * </p>
+ *
+ * @param change     Whether the period was booked or released.
+ * @param kind       What was booked.
+ * @param bookingId  The booking.
+ * @param bookableId The id of the desk, room or ressource.
+ * @param floor      The floor of a room, null for desks and ressources.
+ * @param date       The day of the booking.
+ * @param start      The start of the period.
+ * @param end        The end of the period.
+ */
+public record AvailabilityDelta(Change change, BookingSnapshot.Kind kind, Long bookingId, Long bookableId, String floor,
+                                LocalDate date, LocalTime start, LocalTime end) {
+
+    public enum Change {
+        BOOKED, RELEASED
+    }
+
+    /**
+     * @return The deltas of a booking event, in the order they happened.
+     */
+    public static List<AvailabilityDelta> of(BookingEvent event) {
+        return switch (event.type()) {
+            case CREATED -> List.of(of(Change.BOOKED, event.booking()));
+            case CANCELLED -> List.of(of(Change.RELEASED, event.booking()));
+            case UPDATED -> event.previous() != null
+                    ? List.of(of(Change.RELEASED, event.previous()), of(Change.BOOKED, event.booking()))
+                    : List.of(of(Change.BOOKED, event.booking()));
+        };
+    }
+
+    private static AvailabilityDelta of(Change change, BookingSnapshot booking) {
+        return new AvailabilityDelta(change, booking.kind(), booking.bookingId(), booking.bookableId(), booking.floor(),
+                booking.date(), booking.start(), booking.end());
+    }
+
+    /**
+     * @param floor The floor a client watches, or null for all floors.
+     * @return True if the delta concerns the floor; deltas without a floor concern every floor.
+     */
+    public boolean isOnFloor(String floor) {
+        return floor == null || this.floor == null || floor.equals(this.floor);
+    }
+
+    /**
+     * Serializes the delta into the object read by {@code FloorScaling.js}:
+     * <pre>{"change":"BOOKED","kind":"DESK","bookingId":7,"id":3,"date":"2023-09-12","start":"09:00","end":"12:00","slots":"f000"}</pre>
+     *
+     * @param slots The current free/busy row of the desk on that day (see {@link
+     *              com.itkolleg.bookingsystem.repos.occupancy.OccupancyGrid#toPayload()}), or null.
+     */
+    public String toJson(String slots) {
+        StringBuilder json = new StringBuilder(160);
+        json.append("{\"change\":\"").append(change)
+                .append("\",\"kind\":\"").append(kind)
+                .append("\",\"bookingId\":").append(bookingId)
+                .append(",\"id\":").append(bookableId);
+        if (floor != null) {
+            json.append(",\"floor\":\"").append(floor.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        }
+        json.append(",\"date\":\"").append(date)
+                .append("\",\"start\":\"").append(start)
+                .append("\",\"end\":\"").append(end).append('"');
+        if (slots != null) {
+            json.append(",\"slots\":\"").append(slots).append('"');
+        }
+        return json.append('}').toString();
+    }
+}
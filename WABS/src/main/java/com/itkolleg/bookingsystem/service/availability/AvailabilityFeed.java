@@ -0,0 +1,222 @@
+package com.itkolleg.bookingsystem.service.availability;
+
+import com.itkolleg.bookingsystem.service.deskbooking.FloorPlanOccupancyService;
+import com.itkolleg.bookingsystem.service.events.BookingEvent;
+import com.itkolleg.bookingsystem.service.events.BookingEventListener;
+import com.itkolleg.bookingsystem.service.events.BookingSnapshot;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes booking deltas to the clients watching a day, e.g. the floor plan, as Server-Sent Events.
+ * <p>
+ * Clients subscribe for one day and optionally one floor and receive a {@code booking} event for every
+ * {@link AvailabilityDelta} of that day once the booking is committed, so they can patch their view instead of
+ * reloading it. Desk deltas carry the new free/busy row of the desk. A comment is sent every
+ * {@code wabs.feed.heartbeat-ms} to keep proxies from closing idle connections and to drop clients that went away.
+ * </p>
+ * <p>
+ * The threads of the {@link com.itkolleg.bookingsystem.service.events.BookingEventDispatcher} only queue the events
+ * of every client; the blocking writes to the sockets happen on the {@code wabs.feed.send-threads} threads of the
+ * feed, one client at a time. A client that does not keep up with its {@code wabs.feed.subscriber-queue} queued
+ * events is disconnected and reconnects with a fresh view, so a stalled socket never holds up the event lanes or
+ * the other clients' queues. It does hold one sender until its write fails or the connection times out.
+ * </p>
+ * At most {@code wabs.feed.max-subscribers} clients are connected at a time; connections are closed after
+ * {@code wabs.feed.timeout-minutes} and reopened by the browser.
+ */
+@Slf4j
+@Component
+public class AvailabilityFeed implements BookingEventListener {
+
+    private static final long RECONNECT_MILLIS = 5000;
+
+    private final FloorPlanOccupancyService floorPlanOccupancyService;
+    private final Map<LocalDate, List<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final int subscriberQueue;
+    private final ExecutorService sender;
+
+    public AvailabilityFeed(FloorPlanOccupancyService floorPlanOccupancyService,
+                            @Value("${wabs.feed.max-subscribers:1000}") int maxSubscribers,
+                            @Value("${wabs.feed.timeout-minutes:30}") int timeoutMinutes,
+                            @Value("${wabs.feed.send-threads:4}") int sendThreads,
+                            @Value("${wabs.feed.subscriber-queue:64}") int subscriberQueue) {
+        this.floorPlanOccupancyService = floorPlanOccupancyService;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = Duration.ofMinutes(timeoutMinutes).toMillis();
+        this.subscriberQueue = subscriberQueue;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("availability-feed-");
+        threadFactory.setDaemon(true);
+        this.sender = Executors.newFixedThreadPool(sendThreads, threadFactory);
+    }
+
+    /**
+     * Opens a feed for one day.
+     *
+     * @param date  The day to watch.
+     * @param floor The floor to watch, or null for all floors.
+     * @return The emitter to return from the controller, or null if too many clients are connected.
+     */
+    public SseEmitter subscribe(LocalDate date, String floor) {
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            return null;
+        }
+        SseEmitter emitter = newEmitter(timeoutMillis);
+        Subscription subscription = new Subscription(emitter, date, floor, new ArrayBlockingQueue<>(subscriberQueue), new AtomicBoolean());
+        subscriptions.compute(date, (day, ofDay) -> {
+            List<Subscription> list = ofDay != null ? ofDay : new CopyOnWriteArrayList<>();
+            list.add(subscription);
+            return list;
+        });
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(() -> unsubscribe(subscription));
+        emitter.onError(error -> unsubscribe(subscription));
+        // commits the response right away and tells the browser how fast to reconnect after a timeout
+        send(subscription, SseEmitter.event().reconnectTime(RECONNECT_MILLIS).comment(""));
+        return emitter;
+    }
+
+    /**
+     * Creates the emitter of a new client.
+     */
+    SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    /**
+     * Sends the deltas of a committed booking change to every client watching their day and floor.
+     */
+    @Override
+    public void onBookingEvent(BookingEvent event) {
+        if (subscribers.get() == 0) {
+            return;
+        }
+        AvailabilityDelta.of(event).forEach(this::push);
+    }
+
+    @Scheduled(fixedDelayString = "${wabs.feed.heartbeat-ms:25000}")
+    public void sendHeartbeat() {
+        subscriptions.values().forEach(ofDay -> ofDay.forEach(subscription -> enqueue(subscription, SseEmitter.event().comment(""))));
+    }
+
+    /**
+     * @return The number of connected clients.
+     */
+    public int getSubscriberCount() {
+        return subscribers.get();
+    }
+
+    private void push(AvailabilityDelta delta) {
+        List<Subscription> ofDay = subscriptions.get(delta.date());
+        if (ofDay == null || ofDay.isEmpty()) {
+            return;
+        }
+        String slots = delta.kind() == BookingSnapshot.Kind.DESK
+                ? floorPlanOccupancyService.getDeskSlots(delta.date(), delta.bookableId())
+                : null;
+        String json = delta.toJson(slots);
+        for (Subscription subscription : ofDay) {
+            if (delta.isOnFloor(subscription.floor())) {
+                enqueue(subscription, SseEmitter.event().name("booking").data(json));
+            }
+        }
+    }
+
+    /**
+     * Queues an event for a client and makes sure a sender drains its queue. A client whose queue is full is
+     * disconnected.
+     */
+    private void enqueue(Subscription subscription, SseEmitter.SseEventBuilder event) {
+        if (!subscription.pending().offer(event)) {
+            log.debug("Closing availability feed of a client that does not keep up");
+            unsubscribe(subscription);
+            subscription.emitter().complete();
+            return;
+        }
+        if (subscription.sending().compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(subscription));
+            } catch (RejectedExecutionException e) {
+                // shutting down
+                subscription.sending().set(false);
+            }
+        }
+    }
+
+    /**
+     * Sends the queued events of a client in order. Only one sender drains a client at a time.
+     */
+    private void drain(Subscription subscription) {
+        do {
+            SseEmitter.SseEventBuilder event;
+            while ((event = subscription.pending().poll()) != null) {
+                if (!send(subscription, event)) {
+                    subscription.pending().clear();
+                    return;
+                }
+            }
+            subscription.sending().set(false);
+        } while (!subscription.pending().isEmpty() && subscription.sending().compareAndSet(false, true));
+    }
+
+    private boolean send(Subscription subscription, SseEmitter.SseEventBuilder event) {
+        try {
+            subscription.emitter().send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Closing availability feed: {}", e.getMessage());
+            unsubscribe(subscription);
+            subscription.emitter().completeWithError(e);
+            return false;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        sender.shutdown();
+        if (!sender.awaitTermination(5, TimeUnit.SECONDS)) {
+            sender.shutdownNow();
+        }
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        subscriptions.computeIfPresent(subscription.date(), (day, ofDay) -> {
+            if (ofDay.remove(subscription)) {
+                subscribers.decrementAndGet();
+            }
+            return ofDay.isEmpty() ? null : ofDay;
+        });
+    }
+
+    /**
+     * A connected client with the events waiting to be sent to it; {@code sending} is set while a sender drains them.
+     */
+    private record Subscription(SseEmitter emitter, LocalDate date, String floor,
+                                BlockingQueue<SseEmitter.SseEventBuilder> pending, AtomicBoolean sending) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.itkolleg.bookingsystem.service.booking;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * The formats in which bookings can be exported.
+ */
+public enum BookingExportFormat {
+
+    /**
+     * Comma-separated values with a header line.
+     */
+    CSV("text/csv", "csv"),
+
+    /**
+     * One JSON object per line (newline-delimited JSON).
+     */
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    BookingExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * @param prefix What is exported, e.g. {@code deskbookings}.
+     * @param from   The first exported date.
+     * @param to     The last exported date.
+     * @return The file name offered for download, e.g. {@code deskbookings_2024-05-01_2024-05-31.csv}.
+     */
+    public String fileName(String prefix, LocalDate from, LocalDate to) {
+        return prefix + "_" + from + "_" + to + "." + fileExtension;
+    }
+
+    /**
+     * @param value The format from the request, e.g. {@code csv}; may be null.
+     * @return The format, {@link #CSV} if none was given.
+     * @throws IllegalArgumentException If the format is not supported.
+     */
+    public static BookingExportFormat parse(String value) {
+        if (value == null || value.isBlank()) {
+            return CSV;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported export format: " + value, e);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.itkolleg.bookingsystem.service.booking;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.itkolleg.bookingsystem.repos.booking.BookingExportRow;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes export rows to an output stream as they are read from the database.
+ * Every row is written and dropped before the next one is fetched, so the memory used does not depend on the number
+ * of exported bookings. The output stream is flushed but not closed.
+ */
+@Slf4j
+@Component
+public class BookingExportWriter {
+
+    private static final String FORMULA_PREFIXES = "=+-@";
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter rowWriter;
+
+    /**
+     * @param objectMapper The application's mapper, which writes dates and times as ISO strings.
+     */
+    public BookingExportWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        // Flushing after every row would send every line in its own chunk
+        this.rowWriter = objectMapper.writerFor(BookingExportRow.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Answers an export request of the admin pages with a download of the bookings of a date range.
+     *
+     * @param response The response the bookings are written to.
+     * @param prefix   What is exported, e.g. {@code deskbookings}; used for the file name and the log.
+     * @param from     The first date to export, defaults to the first day of the current month.
+     * @param to       The last date to export, defaults to the last day of the month of {@code from}.
+     * @param format   The format from the request, see {@link BookingExportFormat#parse(String)}.
+     * @param export   Streams the rows of the range into the response, e.g. {@code deskBookingService::exportBookings}.
+     * @return The number of exported bookings.
+     * @throws IOException If writing the response fails.
+     */
+    public long export(HttpServletResponse response, String prefix, LocalDate from, LocalDate to, String format,
+                       Export export) throws IOException {
+        LocalDate firstDate = from != null ? from : LocalDate.now().withDayOfMonth(1);
+        LocalDate lastDate = to != null ? to : firstDate.with(TemporalAdjusters.lastDayOfMonth());
+        BookingExportFormat exportFormat = BookingExportFormat.parse(format);
+
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(exportFormat.fileName(prefix, firstDate, lastDate)).build().toString());
+        long count = export.write(firstDate, lastDate, exportFormat, response.getOutputStream());
+        log.info("Exported {} {} from {} to {} as {}", count, prefix, firstDate, lastDate, exportFormat);
+        return count;
+    }
+
+    /**
+     * @param rows   The rows to write; the stream is not closed.
+     * @param format The output format.
+     * @param out    The target, e.g. the body of the HTTP response.
+     * @return The number of rows written.
+     * @throws IOException If writing fails, e.g. because the client went away.
+     */
+    public long write(Stream<BookingExportRow> rows, BookingExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long count = format == BookingExportFormat.NDJSON ? writeNdjson(rows.iterator(), writer) : writeCsv(rows.iterator(), writer);
+        writer.flush();
+        return count;
+    }
+
+    private long writeCsv(Iterator<BookingExportRow> rows, Writer writer) throws IOException {
+        writer.write(String.join(",", BookingExportRow.COLUMNS));
+        writer.write("\r\n");
+        long count = 0;
+        while (rows.hasNext()) {
+            Object[] values = rows.next().values();
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeCsvValue(values[i], writer);
+            }
+            writer.write("\r\n");
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Writes one CSV field; fields containing a separator, quote or line break are quoted (RFC 4180). Text starting
+     * with {@code =}, {@code +}, {@code -} or {@code @} is prefixed with {@code '}, so that spreadsheets such as Excel
+     * show it instead of evaluating it as a formula.
+     */
+    private void writeCsvValue(Object value, Writer writer) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (value instanceof CharSequence && !text.isEmpty() && FORMULA_PREFIXES.indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private long writeNdjson(Iterator<BookingExportRow> rows, Writer writer) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(writer)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.setRootValueSeparator(null);
+            while (rows.hasNext()) {
+                rowWriter.writeValue(generator, rows.next());
+                generator.writeRaw('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * The export of one kind of booking, see {@link #export}.
+     */
+    @FunctionalInterface
+    public interface Export {
+        long write(LocalDate from, LocalDate to, BookingExportFormat format, OutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,91 @@
+package com.itkolleg.bookingsystem.service.bulkimport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * What a bulk import file contains, together with the columns its header line must or may name.
+ * Columns are matched by name, ignoring case and order; unknown columns are ignored.
+ */
+public enum BulkImportKind {
+
+    /**
+     * Desks; {@code ports} lists the ports separated by {@code |} or {@code ,}.
+     */
+    DESKS(List.of("deskNr", "nrOfMonitors", "ports"), List.of()),
+
+    ROOMS(List.of("floor"), List.of("info")),
+
+    RESSOURCES(List.of("ressourcetype", "name"), List.of("description", "info", "serialnumber")),
+
+    /**
+     * Employees; {@code role} is e.g. {@code ADMIN} or {@code ROLE_ADMIN}, passwords are given in plain text or as
+     * bcrypt hash.
+     */
+    EMPLOYEES(List.of("fname", "lname", "nick", "email", "password", "role"), List.of());
+
+    private final List<String> requiredColumns;
+    private final List<String> optionalColumns;
+
+    BulkImportKind(List<String> requiredColumns, List<String> optionalColumns) {
+        this.requiredColumns = requiredColumns;
+        this.optionalColumns = optionalColumns;
+    }
+
+    public List<String> getRequiredColumns() {
+        return requiredColumns;
+    }
+
+    public List<String> getOptionalColumns() {
+        return optionalColumns;
+    }
+
+    /**
+     * @return All known columns, the required ones first.
+     */
+    public List<String> getColumns() {
+        List<String> columns = new ArrayList<>(requiredColumns);
+        columns.addAll(optionalColumns);
+        return columns;
+    }
+
+    /**
+     * @param header The fields of the header line.
+     * @return For every column of {@link #getColumns()} its index in a record, or -1 if an optional column is missing.
+     * @throws IllegalArgumentException If a required column is missing.
+     */
+    int[] resolveColumns(List<String> header) {
+        List<String> columns = getColumns();
+        int[] indexes = new int[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            indexes[i] = indexOfIgnoreCase(header, columns.get(i));
+            if (indexes[i] < 0 && i < requiredColumns.size()) {
+                throw new IllegalArgumentException("Missing column '" + columns.get(i) + "', expected " + requiredColumns);
+            }
+        }
+        return indexes;
+    }
+
+    private static int indexOfIgnoreCase(List<String> header, String column) {
+        for (int i = 0; i < header.size(); i++) {
+            if (header.get(i).trim().equalsIgnoreCase(column)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param value The kind from the request or the command line, e.g. {@code desks}.
+     * @return The kind.
+     * @throws IllegalArgumentException If the kind is unknown.
+     */
+    public static BulkImportKind parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Unknown import kind: " + value, e);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.itkolleg.bookingsystem.service.bulkimport;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of one bulk import: how many rows were read, imported and rejected, why each rejected row failed, and how
+ * fast the import was.
+ * At most {@code maxErrors} row errors are kept, so a file full of broken rows cannot exhaust the memory.
+ */
+@Getter
+public class BulkImportReport {
+
+    private final BulkImportKind kind;
+
+    /**
+     * Where the rows came from, e.g. the name of the uploaded file.
+     */
+    private final String source;
+
+    private final int maxErrors;
+    private final List<RowError> errors = new ArrayList<>();
+
+    /**
+     * True if more rows failed than {@link #getErrors()} lists.
+     */
+    private boolean errorsTruncated;
+
+    /**
+     * Data rows read from the file, without the header line.
+     */
+    private long rowsRead;
+    private long imported;
+    private long failed;
+
+    /**
+     * Number of transactions the rows were written in, not counting rows that were retried one by one.
+     */
+    private int batches;
+    private long durationMillis;
+
+    BulkImportReport(BulkImportKind kind, String source, int maxErrors) {
+        this.kind = kind;
+        this.source = source;
+        this.maxErrors = maxErrors;
+    }
+
+    public List<RowError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * @return Imported rows per second.
+     */
+    public long getRowsPerSecond() {
+        return durationMillis == 0 ? imported * 1000 : imported * 1000 / durationMillis;
+    }
+
+    void rowRead() {
+        rowsRead++;
+    }
+
+    void imported(int rows) {
+        imported += rows;
+    }
+
+    void batchWritten() {
+        batches++;
+    }
+
+    /**
+     * Records a row that was not imported.
+     *
+     * @param line    The line the row starts in; 1 is the header line.
+     * @param message Why the row was rejected.
+     */
+    void rowFailed(int line, String message) {
+        failed++;
+        fileError(line, message);
+    }
+
+    /**
+     * Records a problem that is not tied to a single data row, e.g. a missing column.
+     */
+    void fileError(int line, String message) {
+        if (errors.size() < maxErrors) {
+            errors.add(new RowError(line, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+
+    void finish(long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * @return True if every row was imported and the file could be read completely.
+     */
+    public boolean isSuccessful() {
+        return failed == 0 && errors.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return kind + " from " + source + ": " + imported + " of " + rowsRead + " rows imported, " + failed + " failed, "
+                + batches + " batches in " + durationMillis + " ms (" + getRowsPerSecond() + " rows/s)";
+    }
+
+    /**
+     * @param line    The line the rejected row starts in.
+     * @param message Why it was rejected.
+     */
+    public record RowError(int line, String message) {
+    }
+}
@@ -0,0 +1,61 @@
+package com.itkolleg.bookingsystem.service.bulkimport;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Imports CSV files given on the command line at startup, e.g.
+ * {@code java -jar wabs.jar --import=desks:desks.csv --import=employees:staff.csv --import-exit}.
+ * <p>
+ * Every {@code --import=<kind>:<file>} is imported in the given order. With {@code --import-exit} the application
+ * stops afterwards and exits with 1 if a row was rejected, so the import can run as a one-off job against a
+ * persistent database.
+ */
+@Slf4j
+@Component
+public class BulkImportRunner implements ApplicationRunner {
+
+    static final String IMPORT_OPTION = "import";
+    static final String EXIT_OPTION = "import-exit";
+
+    private final BulkImportService bulkImportService;
+    private final ConfigurableApplicationContext applicationContext;
+
+    public BulkImportRunner(BulkImportService bulkImportService, ConfigurableApplicationContext applicationContext) {
+        this.bulkImportService = bulkImportService;
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        List<String> imports = args.getOptionValues(IMPORT_OPTION);
+        if (imports == null) {
+            return;
+        }
+        boolean successful = true;
+        for (String value : imports) {
+            int colon = value.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Expected --" + IMPORT_OPTION + "=<kind>:<file>, got " + value);
+            }
+            BulkImportKind kind = BulkImportKind.parse(value.substring(0, colon));
+            Path file = Path.of(value.substring(colon + 1));
+            BulkImportReport report = bulkImportService.importCsv(kind, Files.newInputStream(file), file.toString());
+            report.getErrors().forEach(error -> log.warn("{} line {}: {}", file, error.line(), error.message()));
+            successful &= report.isSuccessful();
+        }
+        if (args.containsOption(EXIT_OPTION)) {
+            int exitCode = successful ? 0 : 1;
+            System.exit(SpringApplication.exit(applicationContext, () -> exitCode));
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.itkolleg.bookingsystem.service.bulkimport;
+
+import com.itkolleg.bookingsystem.domains.Desk;
+import com.itkolleg.bookingsystem.domains.Employee;
+import com.itkolleg.bookingsystem.domains.EmployeePasswordListener;
+import com.itkolleg.bookingsystem.domains.Port;
+import com.itkolleg.bookingsystem.domains.Ressource;
+import com.itkolleg.bookingsystem.domains.Ressourcetype;
+import com.itkolleg.bookingsystem.domains.Role;
+import com.itkolleg.bookingsystem.domains.Room;
+import com.itkolleg.bookingsystem.repos.bulkimport.BulkImportRepo;
+import com.itkolleg.bookingsystem.service.referencedata.ReferenceDataCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Imports desks (with their ports), rooms, ressources and employees from CSV files.
+ * <p>
+ * The file is read record by record. Every row is checked against the limits declared on its entity;
+ * desk numbers and nicks must not exist yet, neither in the database nor earlier in the file. Valid rows are written
+ * in batches of {@code wabs.import.batch-size} rows (default: 500), each batch in its own transaction, so the JDBC
+ * batching of Hibernate applies and a failing row does not undo the rows before it. If a batch fails, its rows are
+ * written again one by one and only the broken ones are reported.
+ * </p>
+ * Plain-text passwords of employees are hashed in parallel before a batch is written.
+ */
+@Slf4j
+@Service
+public class BulkImportService {
+
+    /**
+     * Row errors kept per report.
+     */
+    static final int MAX_ERRORS = 500;
+
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+$");
+
+    private final BulkImportRepo bulkImportRepo;
+    private final ReferenceDataCache referenceDataCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public BulkImportService(BulkImportRepo bulkImportRepo,
+                             ReferenceDataCache referenceDataCache,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${wabs.import.batch-size:500}") int batchSize) {
+        this.bulkImportRepo = bulkImportRepo;
+        this.referenceDataCache = referenceDataCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imports all valid rows of a UTF-8 encoded CSV file whose first line names the columns.
+     *
+     * @param kind   What the file contains.
+     * @param in     The file; it is closed afterwards.
+     * @param source Where the file came from, for the report and the log.
+     * @return What was imported and which rows were rejected.
+     */
+    public BulkImportReport importCsv(BulkImportKind kind, InputStream in, String source) {
+        BulkImportReport report = new BulkImportReport(kind, source, MAX_ERRORS);
+        long started = System.nanoTime();
+        try (CsvRecordReader reader = new CsvRecordReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            importRecords(kind, reader, report);
+        } catch (IOException e) {
+            report.fileError(0, "Reading the file failed: " + e.getMessage());
+        } finally {
+            report.finish((System.nanoTime() - started) / 1_000_000);
+            if (report.getImported() > 0) {
+                invalidateReferenceData(kind);
+            }
+        }
+        log.info("Imported {}", report);
+        return report;
+    }
+
+    private void importRecords(BulkImportKind kind, CsvRecordReader reader, BulkImportReport report) throws IOException {
+        List<String> header = reader.next();
+        if (header == null) {
+            report.fileError(1, "The file is empty");
+            return;
+        }
+        int[] columns;
+        try {
+            columns = kind.resolveColumns(header);
+        } catch (IllegalArgumentException e) {
+            report.fileError(1, e.getMessage());
+            return;
+        }
+        Set<String> keys = existingKeys(kind);
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+        while (true) {
+            List<String> fields;
+            try {
+                fields = reader.next();
+            } catch (IllegalArgumentException e) {
+                report.rowRead();
+                report.rowFailed(reader.getLine(), e.getMessage());
+                break;
+            }
+            if (fields == null) {
+                break;
+            }
+            report.rowRead();
+            try {
+                Object entity = toEntity(kind, columns, fields);
+                validate(entity);
+                claimKey(entity, keys);
+                batch.add(new PendingRow(reader.getLine(), fields, entity));
+            } catch (IllegalArgumentException e) {
+                report.rowFailed(reader.getLine(), e.getMessage());
+            }
+            if (batch.size() == batchSize) {
+                writeBatch(kind, columns, batch, report);
+            }
+        }
+        writeBatch(kind, columns, batch, report);
+    }
+
+    private void writeBatch(BulkImportKind kind, int[] columns, List<PendingRow> batch, BulkImportReport report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Object> entities = batch.stream().map(PendingRow::entity).toList();
+        hashPasswords(entities);
+        try {
+            transactionTemplate.executeWithoutResult(status -> bulkImportRepo.persistBatch(entities));
+            report.imported(entities.size());
+            report.batchWritten();
+        } catch (RuntimeException e) {
+            log.warn("Batch of {} {} failed, retrying row by row: {}", batch.size(), kind,
+                    NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            for (PendingRow row : batch) {
+                // The entities of the failed batch already got ids, so the row is mapped again
+                List<Object> single = List.of(toEntity(kind, columns, row.fields()));
+                hashPasswords(single);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> bulkImportRepo.persistBatch(single));
+                    report.imported(1);
+                } catch (RuntimeException rowFailure) {
+                    report.rowFailed(row.line(), NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage());
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    /**
+     * bcrypt is deliberately slow, so the passwords of a batch are hashed on all cores instead of one by one in the
+     * persist listener.
+     */
+    private void hashPasswords(List<Object> entities) {
+        entities.parallelStream()
+                .filter(Employee.class::isInstance)
+                .map(Employee.class::cast)
+                .forEach(employee -> employee.setPassword(EmployeePasswordListener.encode(employee.getPassword())));
+    }
+
+    private Object toEntity(BulkImportKind kind, int[] columns, List<String> fields) {
+        String[] values = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            values[i] = columns[i] < 0 || columns[i] >= fields.size() ? null : emptyToNull(fields.get(columns[i]));
+            if (values[i] == null && i < kind.getRequiredColumns().size()) {
+                throw new IllegalArgumentException("Column '" + kind.getColumns().get(i) + "' is empty");
+            }
+        }
+        return switch (kind) {
+            case DESKS -> toDesk(values);
+            case ROOMS -> toRoom(values);
+            case RESSOURCES -> new Ressource(null, parseRessourcetype(values[0]), values[1], values[2], values[3], values[4]);
+            case EMPLOYEES -> new Employee(values[0], values[1], values[2], values[3], values[4], parseRole(values[5]));
+        };
+    }
+
+    private Desk toDesk(String[] values) {
+        Desk desk = new Desk();
+        desk.setDeskNr(values[0]);
+        try {
+            desk.setNrOfMonitors(Integer.parseInt(values[1]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("nrOfMonitors is not a number: " + values[1]);
+        }
+        desk.setPorts(Arrays.stream(values[2].split("[|,]"))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .map(Port::new)
+                .collect(Collectors.toCollection(ArrayList::new)));
+        return desk;
+    }
+
+    private Room toRoom(String[] values) {
+        Room room = new Room();
+        room.setFloor(values[0]);
+        room.setInfo(values[1]);
+        return room;
+    }
+
+    private Ressourcetype parseRessourcetype(String value) {
+        try {
+            return Ressourcetype.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown ressourcetype '" + value + "', expected one of " + Arrays.toString(Ressourcetype.values()));
+        }
+    }
+
+    private Role parseRole(String value) {
+        String role = value.toUpperCase(Locale.ROOT);
+        try {
+            return Role.valueOf(role.startsWith("ROLE_") ? role : "ROLE_" + role);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown role '" + value + "', expected one of " + Arrays.toString(Role.values()));
+        }
+    }
+
+    /**
+     * Checks the limits declared on the entities. Only the validation API is on the classpath, without a provider that
+     * could evaluate the annotations, so they are checked here before a row is accepted.
+     *
+     * @throws IllegalArgumentException With all violated limits, e.g. {@code nick: size must be between 2 and 10}.
+     */
+    private void validate(Object entity) {
+        List<String> violations = new ArrayList<>();
+        if (entity instanceof Desk desk) {
+            checkSize(violations, "deskNr", desk.getDeskNr(), 1, 10);
+            if (desk.getNrOfMonitors() < 0 || desk.getNrOfMonitors() > 10) {
+                violations.add("nrOfMonitors: must be between 0 and 10");
+            }
+            if (desk.getPorts().isEmpty()) {
+                violations.add("ports: at least one port is required");
+            }
+            desk.getPorts().forEach(port -> checkSize(violations, "ports", port.getName(), 2, 255));
+        } else if (entity instanceof Employee employee) {
+            checkSize(violations, "fname", employee.getFname(), 2, 50);
+            checkSize(violations, "lname", employee.getLname(), 2, 50);
+            checkSize(violations, "nick", employee.getNick(), 2, 10);
+            checkSize(violations, "password", employee.getPassword(), 2, 72);
+            if (!EMAIL.matcher(employee.getEmail()).matches()) {
+                violations.add("email: must be a well-formed email address");
+            }
+        }
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", violations));
+        }
+    }
+
+    private static void checkSize(List<String> violations, String column, String value, int min, int max) {
+        if (value.length() < min || value.length() > max) {
+            violations.add(column + ": size must be between " + min + " and " + max + " ('" + value + "')");
+        }
+    }
+
+    private Set<String> existingKeys(BulkImportKind kind) {
+        return switch (kind) {
+            case DESKS -> bulkImportRepo.getAllDeskNrs();
+            case EMPLOYEES -> bulkImportRepo.getAllNicks();
+            default -> Set.of();
+        };
+    }
+
+    /**
+     * Rejects a desk number or nick that already exists, and reserves it for the rest of the file otherwise.
+     */
+    private void claimKey(Object entity, Set<String> keys) {
+        if (entity instanceof Desk desk && !keys.add(desk.getDeskNr())) {
+            throw new IllegalArgumentException("Desk '" + desk.getDeskNr() + "' already exists");
+        }
+        if (entity instanceof Employee employee && !keys.add(employee.getNick())) {
+            throw new IllegalArgumentException("Nick '" + employee.getNick() + "' already exists");
+        }
+    }
+
+    private void invalidateReferenceData(BulkImportKind kind) {
+        if (kind == BulkImportKind.DESKS) {
+            referenceDataCache.invalidateDesks();
+        } else if (kind == BulkImportKind.EMPLOYEES) {
+            referenceDataCache.invalidateEmployees();
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    /**
+     * A validated row waiting for its batch to be written.
+     */
+    private record PendingRow(int line, List<String> fields, Object entity) {
+    }
+}
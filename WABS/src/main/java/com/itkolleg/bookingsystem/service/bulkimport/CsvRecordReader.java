@@ -0,0 +1,139 @@
+package com.itkolleg.bookingsystem.service.bulkimport;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads CSV records one at a time (RFC 4180), so an import never holds more than the current record in memory.
+ * <p>
+ * The separator is {@code ;} if the first line contains more semicolons than commas (as written by a German Excel),
+ * otherwise {@code ,}. Quoted fields may contain separators, doubled quotes and line breaks. Blank lines and a leading
+ * byte order mark are skipped.
+ */
+final class CsvRecordReader implements Closeable {
+
+    private static final int NONE = -2;
+    private static final int MAX_HEADER_LENGTH = 64 * 1024;
+
+    private final BufferedReader reader;
+    private final char separator;
+    private int pushedBack = NONE;
+    private int line = 1;
+    private int recordLine;
+
+    CsvRecordReader(Reader in) throws IOException {
+        this.reader = new BufferedReader(in);
+        reader.mark(1);
+        if (reader.read() != '\uFEFF') {
+            reader.reset();
+        }
+        reader.mark(MAX_HEADER_LENGTH);
+        String header = reader.readLine();
+        reader.reset();
+        this.separator = header != null && count(header, ';') > count(header, ',') ? ';' : ',';
+    }
+
+    /**
+     * @return The fields of the next record, or null at the end of the input.
+     * @throws IllegalArgumentException If the input ends inside a quoted field.
+     */
+    List<String> next() throws IOException {
+        while (true) {
+            recordLine = line;
+            List<String> fields = readRecord();
+            if (fields == null) {
+                return null;
+            }
+            if (fields.size() > 1 || !fields.get(0).isBlank()) {
+                return fields;
+            }
+        }
+    }
+
+    /**
+     * @return The line the last record returned by {@link #next()} started in.
+     */
+    int getLine() {
+        return recordLine;
+    }
+
+    private List<String> readRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                if (quoted) {
+                    throw new IllegalArgumentException("Quoted field is not closed before the end of the file");
+                }
+                if (fields.isEmpty() && field.length() == 0) {
+                    return null;
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            if (quoted) {
+                if (c != '"') {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                } else {
+                    int following = read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        pushedBack = following;
+                    }
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == separator) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r') {
+                    int following = read();
+                    if (following != '\n') {
+                        pushedBack = following;
+                    }
+                }
+                line++;
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != NONE) {
+            int c = pushedBack;
+            pushedBack = NONE;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private static int count(String text, char c) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == c) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -5,6 +5,7 @@ import com.itkolleg.bookingsystem.domains.Port;
 import com.itkolleg.bookingsystem.exceptions.ResourceDeletionFailureException;
 import com.itkolleg.bookingsystem.exceptions.ResourceNotFoundException;
 import com.itkolleg.bookingsystem.repos.desk.DeskRepo;
+import com.itkolleg.bookingsystem.service.referencedata.ReferenceDataCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -24,9 +25,11 @@ import java.util.List;
 public class DeskServiceImplementation implements DeskService {
     //Dependency Injection
     private final DeskRepo deskRepo;
+    private final ReferenceDataCache referenceDataCache;
 
-    public DeskServiceImplementation(DeskRepo deskRepo) {
+    public DeskServiceImplementation(DeskRepo deskRepo, ReferenceDataCache referenceDataCache) {
         this.deskRepo = deskRepo;
+        this.referenceDataCache = referenceDataCache;
     }
 
     /**
@@ -37,7 +40,9 @@ public class DeskServiceImplementation implements DeskService {
      */
     @Override
     public Desk addDesk(Desk desk) {
-        return this.deskRepo.addDesk(desk);
+        Desk added = this.deskRepo.addDesk(desk);
+        this.referenceDataCache.invalidateDesks();
+        return added;
     }
 
     /**
@@ -87,6 +92,7 @@ public class DeskServiceImplementation implements DeskService {
     @Override
     public Desk updateDeskById(Long id, Desk desk) throws ResourceNotFoundException {
          this.deskRepo.updateDeskById(id, desk);
+         this.referenceDataCache.invalidateDesks();
          return this.deskRepo.getDeskById(id);
     }
 
@@ -98,7 +104,9 @@ public class DeskServiceImplementation implements DeskService {
      * @throws ResourceNotFoundException If the desk with the specified ID is not found.
      */
     public Desk updateDesk(Desk desk) throws ResourceNotFoundException {
-        return this.deskRepo.updateDesk(desk);
+        Desk updated = this.deskRepo.updateDesk(desk);
+        this.referenceDataCache.invalidateDesks();
+        return updated;
     }
 
     /**
@@ -110,6 +118,7 @@ public class DeskServiceImplementation implements DeskService {
     @Override
     public void deleteDeskById(Long id) throws ResourceDeletionFailureException {
         this.deskRepo.deleteDeskById(id);
+        this.referenceDataCache.invalidateDesks();
     }
 
     /**
@@ -120,7 +129,9 @@ public class DeskServiceImplementation implements DeskService {
      */
     @Override
     public Desk createPort(Long deskId, Port newPort) {
-        return this.deskRepo.createPort(deskId, newPort);
+        Desk updated = this.deskRepo.createPort(deskId, newPort);
+        this.referenceDataCache.invalidateDesks();
+        return updated;
     }
 
     /**
@@ -132,7 +143,9 @@ public class DeskServiceImplementation implements DeskService {
      */
     @Override
     public Desk updatePort(Long deskId, String portName, Port updatedPort) {
-        return this.deskRepo.updatePort(deskId, portName, updatedPort);
+        Desk updated = this.deskRepo.updatePort(deskId, portName, updatedPort);
+        this.referenceDataCache.invalidateDesks();
+        return updated;
     }
 
     /**
@@ -143,7 +156,9 @@ public class DeskServiceImplementation implements DeskService {
      */
     @Override
     public Desk deletePort(Long deskId, String portName) {
-        return this.deskRepo.deletePort(deskId, portName);
+        Desk updated = this.deskRepo.deletePort(deskId, portName);
+        this.referenceDataCache.invalidateDesks();
+        return updated;
     }
 
     /**
@@ -0,0 +1,78 @@
+package com.itkolleg.bookingsystem.service.employee;
+
+import com.itkolleg.bookingsystem.domains.CustomEmployeeDetails;
+import com.itkolleg.bookingsystem.domains.Employee;
+import com.itkolleg.bookingsystem.exceptions.employeeExceptions.EmployeeNotFoundException;
+import com.itkolleg.bookingsystem.repos.employee.EmployeeDBAccess;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds the {@link CustomEmployeeDetails} kept in the session and tells whether one of them is outdated.
+ * <p>
+ * Every principal remembers the generation in which it was loaded. When an employee is changed,
+ * {@link #employeeChanged(Long)} starts a new generation and records it for that employee; principals of the
+ * employee loaded before are then no longer current and have to be reloaded once. Principals of all other
+ * employees stay valid, so resolving the logged-in employee does not touch the database.
+ */
+@Service
+public class EmployeePrincipalService {
+
+    private final EmployeeDBAccess employeeDBAccess;
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<Long, Long> changedInGeneration = new ConcurrentHashMap<>();
+
+    public EmployeePrincipalService(EmployeeDBAccess employeeDBAccess) {
+        this.employeeDBAccess = employeeDBAccess;
+    }
+
+    /**
+     * @param nick The nick of the employee.
+     * @return The principal of the employee, or null if there is no employee with that nick.
+     */
+    public CustomEmployeeDetails loadPrincipal(String nick) {
+        long loadedIn = generation.get();
+        Employee employee = employeeDBAccess.getEmployeeByNick(nick);
+        return employee == null ? null : new CustomEmployeeDetails(employee, loadedIn);
+    }
+
+    /**
+     * Loads the principal again, e.g. after {@link #isCurrent(CustomEmployeeDetails)} returned false.
+     *
+     * @param id The id of the employee.
+     * @return The current principal of the employee.
+     * @throws EmployeeNotFoundException If the employee was deleted in the meantime.
+     */
+    public CustomEmployeeDetails reloadPrincipal(Long id) throws EmployeeNotFoundException {
+        long loadedIn = generation.get();
+        try {
+            return new CustomEmployeeDetails(employeeDBAccess.getEmployeeById(id), loadedIn);
+        } catch (EmployeeNotFoundException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new EmployeeNotFoundException("employee not found: " + id);
+        }
+    }
+
+    /**
+     * @return false if the employee was changed after the principal was loaded.
+     */
+    public boolean isCurrent(CustomEmployeeDetails principal) {
+        Long changed = changedInGeneration.get(principal.getId());
+        return changed == null || changed <= principal.getGeneration();
+    }
+
+    /**
+     * Marks all principals of the employee that were loaded so far as outdated.
+     *
+     * @param id The id of the changed or deleted employee.
+     */
+    public void employeeChanged(Long id) {
+        if (id != null) {
+            changedInGeneration.put(id, generation.incrementAndGet());
+        }
+    }
+}
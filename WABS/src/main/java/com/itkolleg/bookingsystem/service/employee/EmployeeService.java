@@ -36,4 +36,10 @@ public interface EmployeeService extends UserDetailsService {
 
     UserDetails loadEmployeeByUsername(String username);
 
+    /**
+     * @param id The id of the employee, e.g. from the logged-in {@link com.itkolleg.bookingsystem.domains.CustomEmployeeDetails}.
+     * @return A lazy reference to the employee, e.g. to set it on a new booking without loading it.
+     */
+    Employee getEmployeeReference(Long id);
+
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import com.itkolleg.bookingsystem.exceptions.employeeExceptions.EmployeeAlreadyE
 import com.itkolleg.bookingsystem.exceptions.employeeExceptions.EmployeeDeletionNotPossibleException;
 import com.itkolleg.bookingsystem.exceptions.employeeExceptions.EmployeeNotFoundException;
 import com.itkolleg.bookingsystem.repos.employee.EmployeeDBAccess;
+import com.itkolleg.bookingsystem.service.referencedata.ReferenceDataCache;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.User;
@@ -21,9 +22,15 @@ import java.util.concurrent.ExecutionException;
 public class EmployeeServiceImplementation implements EmployeeService {
 
     private final EmployeeDBAccess employeeDBAccess;
+    private final ReferenceDataCache referenceDataCache;
+    private final EmployeeUserCache employeeUserCache;
+    private final EmployeePrincipalService employeePrincipalService;
 
-    public EmployeeServiceImplementation(EmployeeDBAccess employeeDBAccess) {
+    public EmployeeServiceImplementation(EmployeeDBAccess employeeDBAccess, ReferenceDataCache referenceDataCache, EmployeeUserCache employeeUserCache, EmployeePrincipalService employeePrincipalService) {
         this.employeeDBAccess = employeeDBAccess;
+        this.referenceDataCache = referenceDataCache;
+        this.employeeUserCache = employeeUserCache;
+        this.employeePrincipalService = employeePrincipalService;
     }
 
 
@@ -43,7 +50,9 @@ public class EmployeeServiceImplementation implements EmployeeService {
             throw new EmployeeAlreadyExistsException("employee with nick already exists");
         }
 
-        return this.employeeDBAccess.saveEmployee(employee);
+        Employee saved = this.employeeDBAccess.saveEmployee(employee);
+        this.referenceDataCache.invalidateEmployees();
+        return saved;
     }
 
     @Override
@@ -67,20 +76,32 @@ public class EmployeeServiceImplementation implements EmployeeService {
         if (employeeFromDb == null) {
             throw new EmployeeNotFoundException("The employee with the ID: " + employeeDBAccess.getEmployeeById(employee.getId()) + " was not found!");
         }
+        String previousNick = employeeFromDb.getNick();
         employeeFromDb.setFname(employee.getFname());
         employeeFromDb.setLname(employee.getLname());
         employeeFromDb.setNick(employee.getNick());
-        employeeFromDb.setPassword(employee.getPassword());
+        // the edit form does not show the stored hash, an empty password keeps it
+        if (employee.getPassword() != null && !employee.getPassword().isBlank()) {
+            employeeFromDb.setPassword(employee.getPassword());
+        }
         employeeFromDb.setEmail(employee.getEmail());
         employeeFromDb.setRole(employee.getRole());
 
-        return this.employeeDBAccess.saveEmployee(employeeFromDb);
+        Employee saved = this.employeeDBAccess.saveEmployee(employeeFromDb);
+        this.referenceDataCache.invalidateEmployees();
+        this.employeeUserCache.removeUserFromCache(previousNick);
+        this.employeeUserCache.removeUserFromCache(saved.getNick());
+        this.employeePrincipalService.employeeChanged(saved.getId());
+        return saved;
 
     }
 
     @Override
     public void deleteEmployeeById(Long id) throws EmployeeDeletionNotPossibleException {
         this.employeeDBAccess.deleteEmployeeById(id);
+        this.referenceDataCache.invalidateEmployees();
+        this.employeeUserCache.invalidateAll();
+        this.employeePrincipalService.employeeChanged(id);
     }
 
     @Override
@@ -118,6 +139,11 @@ public class EmployeeServiceImplementation implements EmployeeService {
         return new CustomEmployeeDetails(employee);
     }
 
+    @Override
+    public Employee getEmployeeReference(Long id) {
+        return this.employeeDBAccess.getEmployeeReference(id);
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         Employee employee = this.employeeDBAccess.getEmployeeByNick(username);
@@ -0,0 +1,69 @@
+package com.itkolleg.bookingsystem.service.employee;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.itkolleg.bookingsystem.domains.CustomEmployeeDetails;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Begrenzter Cache für die beim Login geladenen Benutzer, damit nicht jede Anmeldung den Mitarbeiter aus der
+ * Datenbank lädt.
+ * <p>
+ * Einträge verfallen nach {@code wabs.security.user-cache.ttl-seconds} Sekunden (Standard: 300), der Cache hält
+ * höchstens {@code wabs.security.user-cache.max-size} Benutzer (Standard: 10000). Der EmployeeService entfernt
+ * Einträge, sobald ein Mitarbeiter geändert oder gelöscht wird.
+ * <p>
+ * Spring Security löscht nach der Anmeldung das Passwort im zurückgegebenen Benutzer, deshalb werden beim Ablegen
+ * und Auslesen immer Kopien erzeugt.
+ */
+@Component
+public class EmployeeUserCache implements UserCache {
+
+    private final Cache<String, UserDetails> users;
+
+    public EmployeeUserCache(@Value("${wabs.security.user-cache.max-size:10000}") long maxSize,
+                             @Value("${wabs.security.user-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        UserDetails user = users.getIfPresent(username);
+        return user == null ? null : copyOf(user);
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        users.put(user.getUsername(), copyOf(user));
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        if (username != null) {
+            users.invalidate(username);
+        }
+    }
+
+    /**
+     * Leert den Cache, z.B. wenn ein Mitarbeiter gelöscht wurde und sein Nick nicht mehr bekannt ist.
+     */
+    public void invalidateAll() {
+        users.invalidateAll();
+    }
+
+    private static UserDetails copyOf(UserDetails user) {
+        if (user instanceof CustomEmployeeDetails employee) {
+            return new CustomEmployeeDetails(employee);
+        }
+        return User.withUserDetails(user).build();
+    }
+}
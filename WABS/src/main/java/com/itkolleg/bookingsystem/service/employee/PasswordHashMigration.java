@@ -0,0 +1,45 @@
+package com.itkolleg.bookingsystem.service.employee;
+
+import com.itkolleg.bookingsystem.domains.Employee;
+import com.itkolleg.bookingsystem.domains.EmployeePasswordListener;
+import com.itkolleg.bookingsystem.repos.employee.EmployeeDBAccess;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Migration beim Start: Hasht alle Passwörter, die noch im Klartext gespeichert sind.
+ * <p>
+ * Neue und geänderte Mitarbeiter werden vom EmployeePasswordListener gehasht; diese Migration übernimmt die
+ * Bestandsdaten aus der Zeit davor. Bereits gehashte Passwörter bleiben unverändert, die Migration kann also bei
+ * jedem Start laufen.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class PasswordHashMigration implements ApplicationRunner {
+
+    private final EmployeeDBAccess employeeDBAccess;
+
+    public PasswordHashMigration(EmployeeDBAccess employeeDBAccess) {
+        this.employeeDBAccess = employeeDBAccess;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        int migrated = 0;
+        for (Employee employee : employeeDBAccess.getAllEmployees()) {
+            if (employee.getPassword() != null && !EmployeePasswordListener.isEncoded(employee.getPassword())) {
+                employee.setPassword(EmployeePasswordListener.encode(employee.getPassword()));
+                employeeDBAccess.updateEmployee(employee);
+                migrated++;
+            }
+        }
+        if (migrated > 0) {
+            log.info("Hashed the stored passwords of {} employees", migrated);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.itkolleg.bookingsystem.service.events;
+
+import com.itkolleg.bookingsystem.domains.booking.Booking;
+
+/**
+ * A desk, room or ressource booking that was created, updated or cancelled.
+ * <p>
+ * Published by the booking services through the {@link org.springframework.context.ApplicationEventPublisher}; the
+ * {@link BookingEventDispatcher} hands it to every {@link BookingEventListener} once the booking has been committed.
+ * </p>
+ *
+ * @param type     What happened to the booking.
+ * @param booking  The booking after the change; for cancelled bookings the booking as it was.
+ * @param previous The booking before an update, null for created and cancelled bookings.
+ */
+public record BookingEvent(Type type, BookingSnapshot booking, BookingSnapshot previous) {
+
+    public enum Type {
+        CREATED, UPDATED, CANCELLED
+    }
+
+    /**
+     * @return The event of a created booking, or null for bookings without a desk, room or ressource.
+     */
+    public static BookingEvent created(Booking booking) {
+        BookingSnapshot snapshot = BookingSnapshot.of(booking);
+        return snapshot != null ? new BookingEvent(Type.CREATED, snapshot, null) : null;
+    }
+
+    /**
+     * @param previous The snapshot taken before the booking was changed.
+     * @param booking  The updated booking.
+     * @return The event of an updated booking, or null for bookings without a desk, room or ressource.
+     */
+    public static BookingEvent updated(BookingSnapshot previous, Booking booking) {
+        BookingSnapshot snapshot = BookingSnapshot.of(booking);
+        return snapshot != null ? new BookingEvent(Type.UPDATED, snapshot, previous) : null;
+    }
+
+    /**
+     * @return The event of a cancelled booking, or null for bookings without a desk, room or ressource.
+     */
+    public static BookingEvent cancelled(Booking booking) {
+        BookingSnapshot snapshot = BookingSnapshot.of(booking);
+        return snapshot != null ? new BookingEvent(Type.CANCELLED, snapshot, null) : null;
+    }
+
+    /**
+     * @return What was booked.
+     */
+    public BookingSnapshot.Kind kind() {
+        return booking.kind();
+    }
+}
@@ -0,0 +1,123 @@
+package com.itkolleg.bookingsystem.service.events;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands committed {@link BookingEvent}s to the {@link BookingEventListener}s without holding up the booking request.
+ * <p>
+ * Events are queued on one of {@code wabs.events.lanes} single-threaded lanes, chosen by the booking id, so events of
+ * the same booking are delivered in order while different bookings are handled in parallel. Every lane queues at most
+ * {@code wabs.events.queue-capacity / lanes} events. When a lane is full the publishing thread waits up to
+ * {@code wabs.events.max-wait-ms} for room and then drops the event; dropped events are counted and logged. With the
+ * default wait of 0 a slow listener can cost events, but never booking latency.
+ * </p>
+ */
+@Slf4j
+@Component
+public class BookingEventDispatcher {
+
+    private final List<BookingEventListener> listeners;
+    private final ThreadPoolExecutor[] lanes;
+    private final long maxWaitMillis;
+    private final AtomicLong dropped = new AtomicLong();
+
+    public BookingEventDispatcher(List<BookingEventListener> listeners,
+                                  @Value("${wabs.events.lanes:2}") int lanes,
+                                  @Value("${wabs.events.queue-capacity:2000}") int queueCapacity,
+                                  @Value("${wabs.events.max-wait-ms:0}") long maxWaitMillis) {
+        if (lanes < 1 || queueCapacity < lanes) {
+            throw new IllegalArgumentException("wabs.events.lanes must be positive and at most wabs.events.queue-capacity");
+        }
+        this.listeners = List.copyOf(listeners);
+        this.maxWaitMillis = maxWaitMillis;
+        this.lanes = new ThreadPoolExecutor[lanes];
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("booking-events-");
+        threadFactory.setDaemon(true);
+        RejectedExecutionHandler whenFull = this::waitForRoom;
+        for (int i = 0; i < lanes; i++) {
+            this.lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity / lanes), threadFactory, whenFull);
+            // the worker has to exist before the queue fills up, see waitForRoom
+            this.lanes[i].prestartAllCoreThreads();
+        }
+    }
+
+    /**
+     * Queues an event for the listeners. Called right after the surrounding transaction has committed, or right away
+     * if the booking was written outside of one.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void dispatch(BookingEvent event) {
+        long bookingId = event.booking().bookingId() != null ? event.booking().bookingId() : 0;
+        lanes[Math.floorMod(Long.hashCode(bookingId), lanes.length)].execute(() -> deliver(event));
+    }
+
+    /**
+     * @return The number of events waiting for delivery.
+     */
+    public int getQueuedCount() {
+        int queued = 0;
+        for (ThreadPoolExecutor lane : lanes) {
+            queued += lane.getQueue().size();
+        }
+        return queued;
+    }
+
+    /**
+     * @return The number of events dropped since the start because their lane was full.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            if (!lane.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("{} booking events were not delivered before shutdown", lane.shutdownNow().size());
+            }
+        }
+    }
+
+    private void deliver(BookingEvent event) {
+        for (BookingEventListener listener : listeners) {
+            try {
+                listener.onBookingEvent(event);
+            } catch (RuntimeException e) {
+                log.warn("{} failed on {} of booking {}", listener.getClass().getSimpleName(), event.type(), event.booking().bookingId(), e);
+            }
+        }
+    }
+
+    /**
+     * Lets the publishing thread wait for room in a full lane. The worker of each lane is started up front, so putting
+     * the task into the queue directly is enough to have it run.
+     */
+    private void waitForRoom(Runnable task, ThreadPoolExecutor lane) {
+        boolean queued = false;
+        try {
+            queued = !lane.isShutdown() && maxWaitMillis > 0 && lane.getQueue().offer(task, maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queued) {
+            long total = dropped.incrementAndGet();
+            log.warn("Booking event queue is full, dropped an event ({} dropped so far)", total);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.itkolleg.bookingsystem.service.events;
+
+/**
+ * Reacts to created, updated and cancelled bookings, e.g. to notify employees, refresh views or write statistics.
+ * <p>
+ * Every bean implementing this interface is called by the {@link BookingEventDispatcher} on one of its worker threads
+ * after the booking has been committed, never inside the request that changed the booking. Events of the same booking
+ * arrive in the order they were published. Listeners should not block for long, since they hold up the events queued
+ * behind them; exceptions are logged and do not reach other listeners.
+ * </p>
+ */
+public interface BookingEventListener {
+
+    /**
+     * @param event The committed change of a booking.
+     */
+    void onBookingEvent(BookingEvent event);
+}
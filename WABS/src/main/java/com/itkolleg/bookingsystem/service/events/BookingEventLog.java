@@ -0,0 +1,33 @@
+package com.itkolleg.bookingsystem.service.events;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs every created, updated and cancelled booking.
+ * <p>
+ * Replaces the logging in the JPA lifecycle callbacks of {@link com.itkolleg.bookingsystem.domains.booking.DeskBooking},
+ * which ran inside the request, and covers rooms and ressources as well.
+ * </p>
+ */
+@Slf4j
+@Component
+public class BookingEventLog implements BookingEventListener {
+
+    @Override
+    public void onBookingEvent(BookingEvent event) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        BookingSnapshot booking = event.booking();
+        if (event.previous() != null) {
+            BookingSnapshot previous = event.previous();
+            log.info("{} booking {} {}: {} {} on {} {}-{} (was {} {} on {} {}-{})", booking.kind(), booking.bookingId(), event.type(),
+                    booking.kind(), booking.bookableId(), booking.date(), booking.start(), booking.end(),
+                    previous.kind(), previous.bookableId(), previous.date(), previous.start(), previous.end());
+        } else {
+            log.info("{} booking {} {}: {} {} on {} {}-{}", booking.kind(), booking.bookingId(), event.type(),
+                    booking.kind(), booking.bookableId(), booking.date(), booking.start(), booking.end());
+        }
+    }
+}
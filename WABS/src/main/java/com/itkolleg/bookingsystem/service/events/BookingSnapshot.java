@@ -0,0 +1,53 @@
+package com.itkolleg.bookingsystem.service.events;
+
+import com.itkolleg.bookingsystem.domains.booking.Booking;
+import com.itkolleg.bookingsystem.domains.booking.DeskBooking;
+import com.itkolleg.bookingsystem.domains.booking.RessourceBooking;
+import com.itkolleg.bookingsystem.domains.booking.RoomBooking;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * The state of a booking at the time a {@link BookingEvent} was published.
+ * <p>
+ * Listeners run on other threads after the request has finished, so they get these immutable values instead of the
+ * entity, which may have been changed or detached by then.
+ * </p>
+ *
+ * @param kind       What was booked.
+ * @param bookingId  The booking.
+ * @param bookableId The id of the desk, room or ressource.
+ * @param floor      The floor of a room, null for desks and ressources.
+ * @param employeeId The employee the booking belongs to, or null.
+ * @param date       The day of the booking.
+ * @param start      The start of the booking.
+ * @param end        The end of the booking.
+ */
+public record BookingSnapshot(Kind kind, Long bookingId, Long bookableId, String floor, Long employeeId,
+                              LocalDate date, LocalTime start, LocalTime end) {
+
+    public enum Kind {
+        DESK, ROOM, RESSOURCE
+    }
+
+    /**
+     * @return The current state of the booking, or null for bookings without a desk, room or ressource.
+     */
+    public static BookingSnapshot of(Booking booking) {
+        Long employeeId = booking.getEmployee() != null ? booking.getEmployee().getId() : null;
+        if (booking instanceof DeskBooking deskBooking && deskBooking.getDesk() != null) {
+            return new BookingSnapshot(Kind.DESK, booking.getId(), deskBooking.getDesk().getId(), null, employeeId,
+                    booking.getDate(), booking.getStart(), booking.getEndTime());
+        }
+        if (booking instanceof RoomBooking roomBooking && roomBooking.getRoom() != null) {
+            return new BookingSnapshot(Kind.ROOM, booking.getId(), roomBooking.getRoom().getId(), roomBooking.getRoom().getFloor(), employeeId,
+                    booking.getDate(), booking.getStart(), booking.getEndTime());
+        }
+        if (booking instanceof RessourceBooking ressourceBooking && ressourceBooking.getRessource() != null) {
+            return new BookingSnapshot(Kind.RESSOURCE, booking.getId(), ressourceBooking.getRessource().getId(), null, employeeId,
+                    booking.getDate(), booking.getStart(), booking.getEndTime());
+        }
+        return null;
+    }
+}
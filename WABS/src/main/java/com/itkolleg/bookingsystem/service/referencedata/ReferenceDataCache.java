@@ -0,0 +1,167 @@
+package com.itkolleg.bookingsystem.service.referencedata;
+
+import com.itkolleg.bookingsystem.domains.Desk;
+import com.itkolleg.bookingsystem.domains.Employee;
+import com.itkolleg.bookingsystem.domains.Timeslot;
+import com.itkolleg.bookingsystem.exceptions.DatabaseOperationException;
+import com.itkolleg.bookingsystem.repos.desk.DeskRepo;
+import com.itkolleg.bookingsystem.repos.employee.EmployeeDBAccess;
+import com.itkolleg.bookingsystem.repos.timeslot.TimeslotRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Application-wide cache for the reference data shown in the booking forms: employees, desks and timeslots.
+ * <p>
+ * Every list is loaded lazily and kept until the corresponding write path (desk, employee or timeslot
+ * service) calls one of the {@code invalidate...} methods. Each invalidation starts a new generation;
+ * a load that was started before the invalidation is never published, so a concurrent reader cannot
+ * put stale data back into the cache. Derived data such as the distinct start and end times of the
+ * timeslots is computed once per generation.
+ * </p>
+ * The returned lists are unmodifiable and shared between requests.
+ */
+@Slf4j
+@Component
+public class ReferenceDataCache {
+
+    private final CachedValue<List<Employee>> employees;
+    private final CachedValue<List<Desk>> desks;
+    private final CachedValue<TimeslotData> timeslots;
+
+    public ReferenceDataCache(EmployeeDBAccess employeeDBAccess, DeskRepo deskRepo, TimeslotRepo timeslotRepo) {
+        this.employees = new CachedValue<>("employees", () -> {
+            try {
+                return List.copyOf(employeeDBAccess.getAllEmployees());
+            } catch (ExecutionException | InterruptedException e) {
+                throw new DatabaseOperationException("Could not load employees: " + e.getMessage());
+            }
+        });
+        this.desks = new CachedValue<>("desks", () -> List.copyOf(deskRepo.getAllDesks()));
+        this.timeslots = new CachedValue<>("timeslots", () -> new TimeslotData(timeslotRepo.getAllTimeslots()));
+    }
+
+    /**
+     * @return All employees of the current generation.
+     */
+    public List<Employee> getEmployees() {
+        return employees.get();
+    }
+
+    /**
+     * @return All desks of the current generation.
+     */
+    public List<Desk> getDesks() {
+        return desks.get();
+    }
+
+    /**
+     * @return All timeslots of the current generation.
+     */
+    public List<Timeslot> getTimeslots() {
+        return timeslots.get().all;
+    }
+
+    /**
+     * @return The distinct start times of all timeslots, formatted for the booking forms.
+     */
+    public List<String> getStartTimes() {
+        return timeslots.get().startTimes;
+    }
+
+    /**
+     * @return The distinct end times of all timeslots, formatted for the booking forms.
+     */
+    public List<String> getEndTimes() {
+        return timeslots.get().endTimes;
+    }
+
+    /**
+     * Must be called after employees were added, changed or deleted.
+     */
+    public void invalidateEmployees() {
+        employees.invalidate();
+    }
+
+    /**
+     * Must be called after desks or their ports were added, changed or deleted.
+     */
+    public void invalidateDesks() {
+        desks.invalidate();
+    }
+
+    /**
+     * Must be called after timeslots were added, changed or deleted.
+     */
+    public void invalidateTimeslots() {
+        timeslots.invalidate();
+    }
+
+    /**
+     * Drops all cached reference data.
+     */
+    public void invalidateAll() {
+        invalidateEmployees();
+        invalidateDesks();
+        invalidateTimeslots();
+    }
+
+    /**
+     * The timeslots together with the values derived from them.
+     */
+    private static final class TimeslotData {
+        private final List<Timeslot> all;
+        private final List<String> startTimes;
+        private final List<String> endTimes;
+
+        private TimeslotData(List<Timeslot> timeslots) {
+            this.all = List.copyOf(timeslots);
+            this.startTimes = all.stream().map(Timeslot::getStartTimeAsString).distinct().toList();
+            this.endTimes = all.stream().map(Timeslot::getEndTimeAsString).distinct().toList();
+        }
+    }
+
+    /**
+     * A lazily loaded value that is tagged with the generation it was loaded in.
+     */
+    private static final class CachedValue<T> {
+        private final String name;
+        private final Supplier<T> loader;
+        private final AtomicLong generation = new AtomicLong();
+        private volatile Entry<T> entry;
+
+        private CachedValue(String name, Supplier<T> loader) {
+            this.name = name;
+            this.loader = loader;
+        }
+
+        T get() {
+            long current = generation.get();
+            Entry<T> cached = entry;
+            if (cached != null && cached.generation == current) {
+                return cached.value;
+            }
+            T value = loader.get();
+            synchronized (this) {
+                if (generation.get() == current) {
+                    entry = new Entry<>(current, value);
+                    log.debug("Loaded reference data '{}' for generation {}", name, current);
+                }
+            }
+            return value;
+        }
+
+        void invalidate() {
+            generation.incrementAndGet();
+            entry = null;
+        }
+    }
+
+    private record Entry<T>(long generation, T value) {
+    }
+}
@@ -3,15 +3,22 @@ package com.itkolleg.bookingsystem.service.ressourcebooking;
 import com.itkolleg.bookingsystem.domains.booking.RessourceBooking;
 import com.itkolleg.bookingsystem.domains.Employee;
 import com.itkolleg.bookingsystem.domains.Ressource;
+import com.itkolleg.bookingsystem.domains.Timeslot;
 import com.itkolleg.bookingsystem.exceptions.ResourceDeletionFailureException;
 import com.itkolleg.bookingsystem.exceptions.ResourceNotFoundException;
 import com.itkolleg.bookingsystem.exceptions.ressourceExceptions.RessourceNotAvailableException;
+import com.itkolleg.bookingsystem.repos.booking.BookingCursor;
+import com.itkolleg.bookingsystem.repos.booking.BookingSlice;
+import com.itkolleg.bookingsystem.service.booking.BookingExportFormat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 
 public interface RessourceBookingService {
@@ -22,6 +29,12 @@ public interface RessourceBookingService {
 
     List<RessourceBooking> getAllBookings();
 
+    BookingSlice<RessourceBooking> getBookingSlice(LocalDate from, LocalDate to, BookingCursor after, int size);
+
+    long exportBookings(LocalDate from, LocalDate to, BookingExportFormat format, OutputStream out) throws IOException;
+
+    List<RessourceBooking> searchBookings(Optional<Employee> employee, Optional<Ressource> ressource, Optional<LocalDate> date, Optional<LocalTime> start, Optional<LocalTime> endTime, Optional<Timeslot> timeslot);
+
 
     List<RessourceBooking> getBookingsByEmployeeId(Long employeeId);
 
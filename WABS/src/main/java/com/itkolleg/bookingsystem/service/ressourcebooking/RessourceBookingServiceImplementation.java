@@ -4,14 +4,27 @@ package com.itkolleg.bookingsystem.service.ressourcebooking;
 import com.itkolleg.bookingsystem.domains.booking.RessourceBooking;
 import com.itkolleg.bookingsystem.domains.Employee;
 import com.itkolleg.bookingsystem.domains.Ressource;
+import com.itkolleg.bookingsystem.domains.Timeslot;
 import com.itkolleg.bookingsystem.exceptions.ResourceDeletionFailureException;
 import com.itkolleg.bookingsystem.exceptions.ResourceNotFoundException;
 import com.itkolleg.bookingsystem.exceptions.ressourceExceptions.RessourceNotAvailableException;
+import com.itkolleg.bookingsystem.repos.booking.BookingCursor;
+import com.itkolleg.bookingsystem.repos.booking.BookingExportRow;
+import com.itkolleg.bookingsystem.repos.booking.BookingSlice;
 import com.itkolleg.bookingsystem.repos.ressource.DBAccessRessource;
 import com.itkolleg.bookingsystem.repos.ressourcebooking.RessourceBookingRepo;
+import com.itkolleg.bookingsystem.service.booking.BookingExportFormat;
+import com.itkolleg.bookingsystem.service.booking.BookingExportWriter;
+import com.itkolleg.bookingsystem.service.events.BookingEvent;
+import com.itkolleg.bookingsystem.service.events.BookingEventDispatcher;
+import com.itkolleg.bookingsystem.service.events.BookingSnapshot;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -19,6 +32,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Die Klasse RessourceBookingServiceImplementation implementiert das RessourceBookingService-interface und stellt somit die konkrete Implementierung der Service-Methoden für ressource-Buchungen bereit.
@@ -32,16 +46,23 @@ public class RessourceBookingServiceImplementation implements RessourceBookingSe
 
     private final RessourceBookingRepo ressourceBookingRepo;
     private final DBAccessRessource ressourceRepo;
+    private final BookingExportWriter bookingExportWriter;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Konstruktor der Klasse ReesourceBookingRepo. Benötigt foglende Parameter:
      *
      * @param ressourceBookingRepo vom Typ RessourceBookingRepo
      * @param ressourceRepo        vom Typ RessourceRepo
+     * @param bookingExportWriter  vom Typ BookingExportWriter
+     * @param eventPublisher       vom Typ ApplicationEventPublisher
      */
-    public RessourceBookingServiceImplementation(RessourceBookingRepo ressourceBookingRepo, DBAccessRessource ressourceRepo) {
+    public RessourceBookingServiceImplementation(RessourceBookingRepo ressourceBookingRepo, DBAccessRessource ressourceRepo, BookingExportWriter bookingExportWriter,
+                                                 ApplicationEventPublisher eventPublisher) {
         this.ressourceBookingRepo = ressourceBookingRepo;
         this.ressourceRepo = ressourceRepo;
+        this.bookingExportWriter = bookingExportWriter;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -56,19 +77,20 @@ public class RessourceBookingServiceImplementation implements RessourceBookingSe
     @Override
     public RessourceBooking addRessourceBooking(RessourceBooking booking) throws RessourceNotAvailableException, ResourceNotFoundException {
 
-        List<RessourceBooking> bookings = this.ressourceBookingRepo.getBookingsByRessourceAndDateAndBookingTimeBetween(booking.getRessource(), booking.getDate(), booking.getStart(), booking.getEndTime());
         LocalDate currentDate = LocalDate.now();
         System.out.println("booking date: " + booking.getDate());
         System.out.println("Current date: " + LocalDate.now());
         //Check if ressource is available for the date and time chosen
-        if (!bookings.isEmpty()) {
+        if (!this.ressourceBookingRepo.isRessourceAvailable(booking.getRessource(), booking.getDate(), booking.getStart(), booking.getEndTime())) {
             throw new RessourceNotAvailableException("ressource not available for booking period");
         }
         // Check if booking is for a past date
         if (booking.getDate().isBefore(currentDate)) {
             throw new IllegalArgumentException("Cannot create booking for a past date");
         }
-        return this.ressourceBookingRepo.addBooking(booking);
+        RessourceBooking added = this.ressourceBookingRepo.addBooking(booking);
+        publish(BookingEvent.created(added));
+        return added;
     }
 
     /**
@@ -81,6 +103,56 @@ public class RessourceBookingServiceImplementation implements RessourceBookingSe
         return this.ressourceBookingRepo.getAllBookings();
     }
 
+    /**
+     * Gibt eine Seite der RessourceBookings im Datumsbereich zurück, sortiert nach Datum und ID.
+     *
+     * @param from  Erstes Datum des Bereichs.
+     * @param to    Letztes Datum des Bereichs oder null für offen.
+     * @param after Cursor der vorherigen Seite oder null für die erste Seite.
+     * @param size  Maximale Anzahl an Buchungen pro Seite.
+     * @return Die Seite mit dem Cursor für die nächste Seite.
+     */
+    @Override
+    public BookingSlice<RessourceBooking> getBookingSlice(LocalDate from, LocalDate to, BookingCursor after, int size) {
+        return this.ressourceBookingRepo.getBookingSlice(from, to, after, size);
+    }
+
+    /**
+     * Schreibt die RessourceBookings im Datumsbereich in den Ausgabestrom, sortiert nach Datum, Beginn und ID.
+     * Die Zeilen werden innerhalb einer lesenden Transaktion aus der Datenbank gestreamt, der Speicherbedarf wächst
+     * also nicht mit dem Zeitraum.
+     *
+     * @param from   Erstes Datum des Bereichs.
+     * @param to     Letztes Datum des Bereichs.
+     * @param format Ausgabeformat.
+     * @param out    Ziel, z.B. der Body der HTTP-Antwort.
+     * @return Die Anzahl der exportierten Buchungen.
+     * @throws IOException Wenn das Schreiben fehlschlägt.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportBookings(LocalDate from, LocalDate to, BookingExportFormat format, OutputStream out) throws IOException {
+        try (Stream<BookingExportRow> rows = this.ressourceBookingRepo.streamExportRows(from, to)) {
+            return this.bookingExportWriter.write(rows, format, out);
+        }
+    }
+
+    /**
+     * Sucht RessourceBookings anhand der angegebenen Kriterien; leere Kriterien werden ignoriert.
+     *
+     * @param employee  Mitarbeiter:in, die/der gebucht hat.
+     * @param ressource Die gebuchte Ressource.
+     * @param date      Das Datum der Buchung.
+     * @param start     Beginn des Zeitfensters.
+     * @param endTime   Ende des Zeitfensters.
+     * @param timeslot  Timeslot, dessen Zeitfenster die Buchungen überschneiden.
+     * @return Eine Liste der passenden RessourceBookings.
+     */
+    @Override
+    public List<RessourceBooking> searchBookings(Optional<Employee> employee, Optional<Ressource> ressource, Optional<LocalDate> date, Optional<LocalTime> start, Optional<LocalTime> endTime, Optional<Timeslot> timeslot) {
+        return this.ressourceBookingRepo.searchBookings(employee, ressource, date, start, endTime, timeslot);
+    }
+
     /**
      * Gibt eine Liste von RessourceBookings zurück, die mit der angegebenen Mitarbeiter-ID verknüpft sind.
      *
@@ -159,14 +231,16 @@ public class RessourceBookingServiceImplementation implements RessourceBookingSe
             throw new ResourceNotFoundException("booking not found for id: " + bookingId);
         }
 
-        Ressource ressource = booking.get().getRessource();
-        LocalDate date = booking.get().getDate();
-        LocalTime start = booking.get().getStart();
-        LocalTime endTime = booking.get().getEndTime();
-        if (isRessourceAvailable(ressource, date, start, endTime)) {
-            updatedBooking.setId(bookingId);
+        // Check the new period, disregarding the booking that is being moved
+        Ressource ressource = updatedBooking.getRessource() != null ? updatedBooking.getRessource() : booking.get().getRessource();
+        if (!this.ressourceBookingRepo.isRessourceAvailable(ressource, updatedBooking.getDate(), updatedBooking.getStart(), updatedBooking.getEndTime(), bookingId)) {
+            throw new RessourceNotAvailableException("ressource not available for booking period");
         }
-        return this.ressourceBookingRepo.updateBooking(updatedBooking);
+        BookingSnapshot previous = BookingSnapshot.of(booking.get());
+        updatedBooking.setId(bookingId);
+        RessourceBooking updated = this.ressourceBookingRepo.updateBooking(updatedBooking);
+        publish(BookingEvent.updated(previous, updated));
+        return updated;
     }
 
     /**
@@ -184,18 +258,19 @@ public class RessourceBookingServiceImplementation implements RessourceBookingSe
             RessourceBooking existingBooking = this.ressourceBookingRepo.getBookingByBookingId(booking.getId())
                     .orElseThrow(() -> new ResourceNotFoundException("booking not found for id: " + booking.getId()));
             // Check if the ressource is available for the updated booking period
-            List<RessourceBooking> bookings = ressourceBookingRepo.getBookingsByRessourceAndDateAndBookingTimeBetween(booking.getRessource(), booking.getDate(), booking.getStart(), booking.getEndTime());
-            bookings.remove(existingBooking);
-            if (!bookings.isEmpty()) {
+            if (!ressourceBookingRepo.isRessourceAvailable(booking.getRessource(), booking.getDate(), booking.getStart(), booking.getEndTime(), existingBooking.getId())) {
                 throw new RessourceNotAvailableException("ressource not available for booking period");
             }
+            BookingSnapshot previous = BookingSnapshot.of(existingBooking);
             existingBooking.setEmployee(booking.getEmployee());
             existingBooking.setRessource(booking.getRessource());
             existingBooking.setDate(booking.getDate());
             existingBooking.setStart(booking.getStart());
             existingBooking.setEndTime(booking.getEndTime());
             existingBooking.setCreatedOn(LocalDateTime.now());
-            return this.ressourceBookingRepo.updateBooking(existingBooking);
+            RessourceBooking updated = this.ressourceBookingRepo.updateBooking(existingBooking);
+            publish(BookingEvent.updated(previous, updated));
+            return updated;
         } catch (DataAccessException e) {
             throw new ResourceNotFoundException("Database access error occurred for id: " + booking.getId(), e);
         }
@@ -230,6 +305,7 @@ public class RessourceBookingServiceImplementation implements RessourceBookingSe
             throw new ResourceDeletionFailureException("booking not Found!");
         }
         ressourceBookingRepo.deleteBookingById(bookingId);
+        publish(BookingEvent.cancelled(booking.get()));
     }
 
     /**
@@ -245,7 +321,7 @@ public class RessourceBookingServiceImplementation implements RessourceBookingSe
     @Override
     public List<Ressource> getAvailableRessources(LocalDate date, LocalTime start, LocalTime endTime) throws ExecutionException, InterruptedException {
         return this.ressourceRepo.getAllRessource().stream()
-                .filter(ressource -> ressourceBookingRepo.getBookingsByRessourceAndDateAndBookingTimeBetween(ressource, date, start, endTime).isEmpty())
+                .filter(ressource -> ressourceBookingRepo.isRessourceAvailable(ressource, date, start, endTime))
                 .collect(Collectors.toList());
     }
 
@@ -260,8 +336,7 @@ public class RessourceBookingServiceImplementation implements RessourceBookingSe
      */
     @Override
     public boolean isRessourceAvailable(Ressource ressource, LocalDate date, LocalTime startDateTime, LocalTime endDateTime) {
-        List<RessourceBooking> bookings = this.ressourceBookingRepo.getBookingsByRessourceAndDateAndBookingTimeBetween(ressource, date, startDateTime, endDateTime);
-        return bookings.isEmpty();
+        return this.ressourceBookingRepo.isRessourceAvailable(ressource, date, startDateTime, endDateTime);
     }
 
     /**
@@ -278,13 +353,14 @@ public class RessourceBookingServiceImplementation implements RessourceBookingSe
 
     /**
      * Gibt eine Liste von RessourceBookings zurück, die mit dem angegebenen Mitarbeiter verknüpft sind.
+     * Bereits archivierte Buchungen sind enthalten.
      *
      * @param employeeId Die ID des Mitarbeiters.
      * @return Eine Liste von RessourceBookings, die mit dem angegebenen Mitarbeiter verknüpft sind.
      */
     @Override
     public List<RessourceBooking> getMyBookingHistory(Long employeeId) {
-        return this.ressourceBookingRepo.getBookingsByEmployeeId(employeeId);
+        return this.ressourceBookingRepo.getBookingHistoryByEmployeeId(employeeId);
     }
 
     /**
@@ -297,4 +373,14 @@ public class RessourceBookingServiceImplementation implements RessourceBookingSe
     public RessourceBooking save(RessourceBooking booking) {
         return this.ressourceBookingRepo.save(booking);
     }
-}
\ No newline at end of file
+
+    /**
+     * Meldet eine angelegte, geänderte oder stornierte Ressourcenbuchung. Der {@link BookingEventDispatcher} gibt sie
+     * nach dem Commit der umgebenden Transaktion in eigenen Threads an die Listener weiter.
+     */
+    private void publish(BookingEvent event) {
+        if (event != null) {
+            eventPublisher.publishEvent(event);
+        }
+    }
+}
@@ -3,15 +3,22 @@ package com.itkolleg.bookingsystem.service.roombooking;
 import com.itkolleg.bookingsystem.domains.booking.RoomBooking;
 import com.itkolleg.bookingsystem.domains.Employee;
 import com.itkolleg.bookingsystem.domains.Room;
+import com.itkolleg.bookingsystem.domains.Timeslot;
 import com.itkolleg.bookingsystem.exceptions.roomExceptions.RoomDeletionNotPossibleException;
 import com.itkolleg.bookingsystem.exceptions.roomExceptions.RoomNotAvailableException;
 import com.itkolleg.bookingsystem.exceptions.roomExceptions.RoomNotFoundException;
+import com.itkolleg.bookingsystem.repos.booking.BookingCursor;
+import com.itkolleg.bookingsystem.repos.booking.BookingSlice;
+import com.itkolleg.bookingsystem.service.booking.BookingExportFormat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 
 public interface RoomBookingService {
@@ -22,6 +29,12 @@ public interface RoomBookingService {
 
     List<RoomBooking> getAllBookings();
 
+    BookingSlice<RoomBooking> getBookingSlice(LocalDate from, LocalDate to, BookingCursor after, int size);
+
+    long exportBookings(LocalDate from, LocalDate to, BookingExportFormat format, OutputStream out) throws IOException;
+
+    List<RoomBooking> searchBookings(Optional<Employee> employee, Optional<Room> room, Optional<LocalDate> date, Optional<LocalTime> start, Optional<LocalTime> endTime, Optional<Timeslot> timeslot);
+
     List<RoomBooking> getBookingsByEmployeeId(Long employeeId);
 
     List<RoomBooking> getBookingsByEmployee(Employee employee);
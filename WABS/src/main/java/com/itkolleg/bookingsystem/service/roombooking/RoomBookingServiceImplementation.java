@@ -3,17 +3,30 @@ package com.itkolleg.bookingsystem.service.roombooking;
 import com.itkolleg.bookingsystem.domains.booking.RoomBooking;
 import com.itkolleg.bookingsystem.domains.Employee;
 import com.itkolleg.bookingsystem.domains.Room;
+import com.itkolleg.bookingsystem.domains.Timeslot;
 import com.itkolleg.bookingsystem.exceptions.roomExceptions.RoomDeletionNotPossibleException;
 import com.itkolleg.bookingsystem.exceptions.roomExceptions.RoomNotAvailableException;
 import com.itkolleg.bookingsystem.exceptions.roomExceptions.RoomNotFoundException;
+import com.itkolleg.bookingsystem.repos.booking.BookingCursor;
+import com.itkolleg.bookingsystem.repos.booking.BookingExportRow;
+import com.itkolleg.bookingsystem.repos.booking.BookingSlice;
 import com.itkolleg.bookingsystem.repos.employee.EmployeeDBAccess;
 import com.itkolleg.bookingsystem.repos.room.DBAccessRoom;
 import com.itkolleg.bookingsystem.repos.roombooking.RoomBookingRepo;
+import com.itkolleg.bookingsystem.service.booking.BookingExportFormat;
+import com.itkolleg.bookingsystem.service.booking.BookingExportWriter;
+import com.itkolleg.bookingsystem.service.events.BookingEvent;
+import com.itkolleg.bookingsystem.service.events.BookingEventDispatcher;
+import com.itkolleg.bookingsystem.service.events.BookingSnapshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -21,6 +34,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * The RoomBookingServiceImplementation class is responsible for implementing the RoomBookingService interface
@@ -33,6 +47,8 @@ public class RoomBookingServiceImplementation implements RoomBookingService {
     private final RoomBookingRepo roomBookingRepo;
     private final DBAccessRoom dbAccessRoom;
     private final EmployeeDBAccess employeeDBAccess;
+    private final BookingExportWriter bookingExportWriter;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     /**
@@ -41,11 +57,16 @@ public class RoomBookingServiceImplementation implements RoomBookingService {
      * @param roomBookingRepo   the repository for room bookings
      * @param dbAccessRoom      the database access for rooms
      * @param employeeDBAccess  the database access for employees
+     * @param bookingExportWriter the writer for the booking export
+     * @param eventPublisher    the publisher of booking events
      */
-    public RoomBookingServiceImplementation(RoomBookingRepo roomBookingRepo, DBAccessRoom dbAccessRoom, EmployeeDBAccess employeeDBAccess) {
+    public RoomBookingServiceImplementation(RoomBookingRepo roomBookingRepo, DBAccessRoom dbAccessRoom, EmployeeDBAccess employeeDBAccess, BookingExportWriter bookingExportWriter,
+                                            ApplicationEventPublisher eventPublisher) {
         this.roomBookingRepo = roomBookingRepo;
         this.dbAccessRoom = dbAccessRoom;
         this.employeeDBAccess = employeeDBAccess;
+        this.bookingExportWriter = bookingExportWriter;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -58,19 +79,20 @@ public class RoomBookingServiceImplementation implements RoomBookingService {
      */
     @Override
     public RoomBooking addRoomBooking(RoomBooking roomBooking) throws RoomNotAvailableException, RoomNotFoundException {
-        List<RoomBooking> bookings = this.roomBookingRepo.getBookingsByRoomAndDateAndBookingTimeBetween(roomBooking.getRoom(), roomBooking.getDate(), roomBooking.getStart(), roomBooking.getEndTime());
         LocalDate currentDate = LocalDate.now();
         System.out.println("booking date: " + roomBooking.getDate());
         System.out.println("Current date: " + LocalDate.now());
 
-        if (!bookings.isEmpty()) {
+        if (!this.roomBookingRepo.isRoomAvailable(roomBooking.getRoom(), roomBooking.getDate(), roomBooking.getStart(), roomBooking.getEndTime())) {
             throw new RoomNotAvailableException("room not available for booking period");
         }
 
         if (roomBooking.getDate().isBefore(currentDate)) {
             throw new IllegalArgumentException("Cannot create booking a past date");
         }
-        return this.roomBookingRepo.addBooking(roomBooking);
+        RoomBooking added = this.roomBookingRepo.addBooking(roomBooking);
+        publish(BookingEvent.created(added));
+        return added;
     }
     /**
      * Retrieves all room bookings.
@@ -81,6 +103,54 @@ public class RoomBookingServiceImplementation implements RoomBookingService {
     public List<RoomBooking> getAllBookings() {
         return this.roomBookingRepo.getAllBookings();
     }
+    /**
+     * Retrieves one page of room bookings in the date range, ordered by date and id.
+     *
+     * @param from  the first date of the range
+     * @param to    the last date of the range, or null for no upper bound
+     * @param after the cursor of the previous page, or null for the first page
+     * @param size  the maximum number of bookings on the page
+     * @return the page together with the cursor for the next page
+     */
+    @Override
+    public BookingSlice<RoomBooking> getBookingSlice(LocalDate from, LocalDate to, BookingCursor after, int size) {
+        return this.roomBookingRepo.getBookingSlice(from, to, after, size);
+    }
+
+    /**
+     * Writes the room bookings in the date range to the output stream, ordered by date, start and id.
+     * The rows are streamed from the database inside one read-only transaction, so the memory used does not grow with
+     * the size of the range.
+     *
+     * @param from   the first date of the range
+     * @param to     the last date of the range
+     * @param format the output format
+     * @param out    the target, e.g. the body of the HTTP response
+     * @return the number of exported bookings
+     * @throws IOException if writing fails
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportBookings(LocalDate from, LocalDate to, BookingExportFormat format, OutputStream out) throws IOException {
+        try (Stream<BookingExportRow> rows = this.roomBookingRepo.streamExportRows(from, to)) {
+            return this.bookingExportWriter.write(rows, format, out);
+        }
+    }
+    /**
+     * Searches room bookings by the given criteria; empty criteria are ignored.
+     *
+     * @param employee the employee who made the booking
+     * @param room     the booked room
+     * @param date     the date of the booking
+     * @param start    the start of the time window
+     * @param endTime  the end of the time window
+     * @param timeslot a timeslot whose time window the bookings overlap
+     * @return the matching room bookings
+     */
+    @Override
+    public List<RoomBooking> searchBookings(Optional<Employee> employee, Optional<Room> room, Optional<LocalDate> date, Optional<LocalTime> start, Optional<LocalTime> endTime, Optional<Timeslot> timeslot) {
+        return this.roomBookingRepo.searchBookings(employee, room, date, start, endTime, timeslot);
+    }
     /**
      * Retrieves room bookings by employee ID.
      *
@@ -160,15 +230,17 @@ public class RoomBookingServiceImplementation implements RoomBookingService {
         if (booking.isEmpty()) {
             throw new RoomNotFoundException("booking not found for id: " + bookingId);
         }
-        Room room = booking.get().getRoom();
-        LocalDate date = booking.get().getDate();
-        LocalTime start = booking.get().getStart();
-        LocalTime endTime = booking.get().getEndTime();
-        if (isRoomAvailable(room, date, start, endTime)) {
-            updatedBooking.setId(bookingId);
+        // Check the new period, disregarding the booking that is being moved
+        Room room = updatedBooking.getRoom() != null ? updatedBooking.getRoom() : booking.get().getRoom();
+        if (!this.roomBookingRepo.isRoomAvailable(room, updatedBooking.getDate(), updatedBooking.getStart(), updatedBooking.getEndTime(), bookingId)) {
+            throw new RoomNotAvailableException("room not available for booking period!");
         }
+        BookingSnapshot previous = BookingSnapshot.of(booking.get());
+        updatedBooking.setId(bookingId);
 
-        return this.roomBookingRepo.updateBooking(updatedBooking);
+        RoomBooking updated = this.roomBookingRepo.updateBooking(updatedBooking);
+        publish(BookingEvent.updated(previous, updated));
+        return updated;
 
 
     }
@@ -187,18 +259,19 @@ public class RoomBookingServiceImplementation implements RoomBookingService {
             RoomBooking existingBooking = this.roomBookingRepo.getBookingByBookingId(booking.getId())
                     .orElseThrow(() -> new RoomNotFoundException("booking not found for id: " + booking.getId()));
 
-            List<RoomBooking> bookings = roomBookingRepo.getBookingsByRoomAndDateAndBookingTimeBetween(booking.getRoom(), booking.getDate(), booking.getStart(), booking.getEndTime());
-            bookings.remove(existingBooking);
-            if (!bookings.isEmpty()) {
+            if (!roomBookingRepo.isRoomAvailable(booking.getRoom(), booking.getDate(), booking.getStart(), booking.getEndTime(), existingBooking.getId())) {
                 throw new RoomNotAvailableException("room not available for booking period!");
             }
+            BookingSnapshot previous = BookingSnapshot.of(existingBooking);
             existingBooking.setEmployee(booking.getEmployee());
             existingBooking.setRoom(booking.getRoom());
             existingBooking.setDate(booking.getDate());
             existingBooking.setStart(booking.getStart());
             existingBooking.setEndTime(booking.getEndTime());
             existingBooking.setCreatedOn(LocalDateTime.now());
-            return this.roomBookingRepo.updateBooking(existingBooking);
+            RoomBooking updated = this.roomBookingRepo.updateBooking(existingBooking);
+            publish(BookingEvent.updated(previous, updated));
+            return updated;
         } catch (DataAccessException e) {
             throw new RoomNotFoundException("booking not found for id: " + booking.getId());
         }
@@ -230,6 +303,7 @@ public class RoomBookingServiceImplementation implements RoomBookingService {
             throw new RoomDeletionNotPossibleException("room not found!");
         }
         roomBookingRepo.deleteBookingById(BookingId);
+        publish(BookingEvent.cancelled(booking.get()));
     }
 
     /**
@@ -245,7 +319,7 @@ public class RoomBookingServiceImplementation implements RoomBookingService {
     @Override
     public List<Room> getAvailableRooms(LocalDate date, LocalTime start, LocalTime endTime) throws ExecutionException, InterruptedException {
         return this.dbAccessRoom.getAllRooms().stream()
-                .filter(room -> roomBookingRepo.getBookingsByRoomAndDateAndBookingTimeBetween(room, date, start, endTime).isEmpty()).collect(Collectors.toList());
+                .filter(room -> roomBookingRepo.isRoomAvailable(room, date, start, endTime)).collect(Collectors.toList());
     }
     /**
      * Checks if a room is available for booking at a specific date and time range.
@@ -258,8 +332,7 @@ public class RoomBookingServiceImplementation implements RoomBookingService {
      */
     @Override
     public boolean isRoomAvailable(Room room, LocalDate date, LocalTime startDateTime, LocalTime endtime) {
-        List<RoomBooking> bookings = this.roomBookingRepo.getBookingsByRoomAndDateAndBookingTimeBetween(room, date, startDateTime, endtime);
-        return bookings.isEmpty();
+        return this.roomBookingRepo.isRoomAvailable(room, date, startDateTime, endtime);
     }
 
     /**
@@ -273,13 +346,29 @@ public class RoomBookingServiceImplementation implements RoomBookingService {
         this.roomBookingRepo.deleteBookingById(id);
     }
 
+    /**
+     * Retrieves all room bookings of an employee, including archived ones.
+     *
+     * @param employeeId the ID of the employee
+     * @return the archived and current room bookings of the employee
+     */
     @Override
     public List<RoomBooking> getMyBookingHistory(Long employeeId) {
-        return this.roomBookingRepo.getBookingsByEmployeeId(employeeId);
+        return this.roomBookingRepo.getBookingHistoryByEmployeeId(employeeId);
     }
 
     @Override
     public RoomBooking save(RoomBooking roomBooking) {
         return this.roomBookingRepo.save(roomBooking);
     }
+
+    /**
+     * Announces a created, updated or cancelled room booking. The {@link BookingEventDispatcher} hands it to the
+     * listeners on its own threads once the surrounding transaction has committed.
+     */
+    private void publish(BookingEvent event) {
+        if (event != null) {
+            eventPublisher.publishEvent(event);
+        }
+    }
 }
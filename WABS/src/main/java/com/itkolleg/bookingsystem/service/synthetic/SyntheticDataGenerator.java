@@ -0,0 +1,438 @@
+package com.itkolleg.bookingsystem.service.synthetic;
+
+import com.itkolleg.bookingsystem.domains.EmployeePasswordListener;
+import com.itkolleg.bookingsystem.domains.Ressourcetype;
+import com.itkolleg.bookingsystem.domains.Role;
+import com.itkolleg.bookingsystem.service.analytics.OccupancyAnalyticsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates a dataset of configurable size for load and scale tests: floors with rooms and desks, ressources of every
+ * {@link Ressourcetype}, employees of every {@link Role} and the bookings of {@code wabs.synthetic.months} months
+ * up to {@code wabs.synthetic.future-weeks} weeks ahead.
+ * <p>
+ * The rows are written with batched JDBC inserts of {@code wabs.synthetic.batch-size} rows, the ids are taken from
+ * the sequences of the entities, so the application continues with the next free id afterwards. The data depends
+ * only on the settings, the seed and the reference date (default: today), the same settings yield the same data.
+ * The inserts bypass the listeners that keep the occupancy rollups up to date, so the rollups of the whole generated
+ * range are recomputed afterwards with {@link OccupancyAnalyticsService#reconcile(LocalDate, LocalDate)}.
+ * </p>
+ * <p>
+ * The generator is meant for an empty database before the application takes requests and must not run alongside
+ * traffic: days already held by the occupancy indexes and the caches do not see the inserted rows, and bookings made
+ * meanwhile are not checked against the generated ones.
+ * </p>
+ * Bookings follow a working week:
+ * <ul>
+ *   <li>Desks are booked less on Mondays and Fridays, and less the further a day lies ahead. A booked desk is taken
+ *   for the whole day (08:00-17:00), the morning (08:00-12:00) or the afternoon (13:00-17:00); a morning desk is often
+ *   taken by someone else in the afternoon.</li>
+ *   <li>Rooms are booked for meetings of one or two hours between 08:00 and 17:00.</li>
+ *   <li>Ressources are lent for a day or half a day.</li>
+ *   <li>No employee gets more than one desk a day. Weekends and public holidays without bookings stay empty.</li>
+ * </ul>
+ * Employees log in as {@code admin1}, {@code operator1}, {@code pemployee1}, {@code nemployee1} and so on, see
+ * {@link #nick(Role, int)}, with the password {@code wabs.synthetic.password}.
+ */
+@Slf4j
+@Service
+public class SyntheticDataGenerator {
+
+    /**
+     * The email domain of generated employees, also used to recognise an already generated database.
+     */
+    public static final String EMAIL_DOMAIN = "synthetic.wabs";
+
+    static final LocalTime DAY_START = LocalTime.of(8, 0);
+    static final LocalTime LUNCH_START = LocalTime.of(12, 0);
+    static final LocalTime LUNCH_END = LocalTime.of(13, 0);
+    static final LocalTime DAY_END = LocalTime.of(17, 0);
+
+    private static final String BOOKING_INSERT = "insert into booking"
+            + " (id, dtype, employee_id, desk_id, room_id, ressource_id, date, start, end_time, created_on)"
+            + " values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * Relative desk and room demand from Monday to Friday.
+     */
+    private static final double[] WEEKDAY_DEMAND = {0.85, 1.0, 1.0, 0.95, 0.6};
+
+    /**
+     * Demand on the last generated day relative to today; the days in between are interpolated.
+     */
+    private static final double HORIZON_DEMAND = 0.2;
+
+    /**
+     * Port equipment of the desks: 40 % HDMI and USB-C, 20 % each of the others.
+     */
+    private static final List<List<String>> PORT_MIXES = List.of(
+            List.of("HDMI", "USB-C"),
+            List.of("HDMI", "USB-C"),
+            List.of("HDMI"),
+            List.of("USB-C", "DisplayPort", "Ethernet"),
+            List.of("HDMI", "USB-C", "Ethernet"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OccupancyAnalyticsService occupancyAnalyticsService;
+    private final long seed;
+    private final String referenceDate;
+    private final int floors;
+    private final int desksPerFloor;
+    private final int roomsPerFloor;
+    private final int ressourcesPerType;
+    private final Map<Role, Integer> employeesPerRole = new EnumMap<>(Role.class);
+    private final String password;
+    private final int months;
+    private final int futureWeeks;
+    private final double deskOccupancy;
+    private final double roomOccupancy;
+    private final double ressourceOccupancy;
+    private final int batchSize;
+
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate,
+                                  OccupancyAnalyticsService occupancyAnalyticsService,
+                                  @Value("${wabs.synthetic.seed:42}") long seed,
+                                  @Value("${wabs.synthetic.reference-date:}") String referenceDate,
+                                  @Value("${wabs.synthetic.floors:5}") int floors,
+                                  @Value("${wabs.synthetic.desks-per-floor:200}") int desksPerFloor,
+                                  @Value("${wabs.synthetic.rooms-per-floor:10}") int roomsPerFloor,
+                                  @Value("${wabs.synthetic.ressources-per-type:10}") int ressourcesPerType,
+                                  @Value("${wabs.synthetic.employees.admin:5}") int admins,
+                                  @Value("${wabs.synthetic.employees.operator:20}") int operators,
+                                  @Value("${wabs.synthetic.employees.p-employee:2000}") int pEmployees,
+                                  @Value("${wabs.synthetic.employees.n-employee:3000}") int nEmployees,
+                                  @Value("${wabs.synthetic.password:password}") String password,
+                                  @Value("${wabs.synthetic.months:12}") int months,
+                                  @Value("${wabs.synthetic.future-weeks:12}") int futureWeeks,
+                                  @Value("${wabs.synthetic.desk-occupancy:0.7}") double deskOccupancy,
+                                  @Value("${wabs.synthetic.room-occupancy:0.5}") double roomOccupancy,
+                                  @Value("${wabs.synthetic.ressource-occupancy:0.3}") double ressourceOccupancy,
+                                  @Value("${wabs.synthetic.batch-size:5000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.occupancyAnalyticsService = occupancyAnalyticsService;
+        this.seed = seed;
+        this.referenceDate = referenceDate;
+        this.floors = floors;
+        this.desksPerFloor = desksPerFloor;
+        this.roomsPerFloor = roomsPerFloor;
+        this.ressourcesPerType = ressourcesPerType;
+        this.employeesPerRole.put(Role.ROLE_ADMIN, admins);
+        this.employeesPerRole.put(Role.ROLE_OPERATOR, operators);
+        this.employeesPerRole.put(Role.ROLE_P_EMPLOYEE, pEmployees);
+        this.employeesPerRole.put(Role.ROLE_N_EMPLOYEE, nEmployees);
+        this.password = password;
+        this.months = months;
+        this.futureWeeks = futureWeeks;
+        this.deskOccupancy = deskOccupancy;
+        this.roomOccupancy = roomOccupancy;
+        this.ressourceOccupancy = ressourceOccupancy;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return The login of the n-th generated employee of a role, counted from 1, e.g. {@code pemployee17}.
+     */
+    public static String nick(Role role, int n) {
+        return role.name().substring("ROLE_".length()).replace("_", "").toLowerCase() + n;
+    }
+
+    /**
+     * @return The day the generated bookings are laid out around: {@code wabs.synthetic.reference-date} or today.
+     */
+    public LocalDate getReferenceDate() {
+        return referenceDate.isBlank() ? LocalDate.now() : LocalDate.parse(referenceDate);
+    }
+
+    /**
+     * @return The last day that gets bookings.
+     */
+    public LocalDate getLastBookedDate() {
+        return getReferenceDate().plusWeeks(futureWeeks);
+    }
+
+    /**
+     * Writes the dataset, unless the database already holds generated employees, and recomputes the occupancy
+     * rollups of the generated days, so the analytics show the generated bookings right away.
+     *
+     * @return What was written.
+     */
+    public SyntheticDataReport generate() {
+        Integer generated = jdbcTemplate.queryForObject("select count(*) from employee where email like ?", Integer.class, "%@" + EMAIL_DOMAIN);
+        if (generated != null && generated > 0) {
+            log.info("The database already holds {} generated employees, no synthetic data written", generated);
+            return SyntheticDataReport.skippedRun();
+        }
+        long started = System.nanoTime();
+        Random random = new Random(seed);
+        long[] employeeIds = insertEmployees();
+        long[] deskIds = insertDesks(random);
+        long[] roomIds = insertRooms();
+        long[] ressourceIds = insertRessources();
+
+        Set<LocalDate> closedHolidays = new HashSet<>(jdbcTemplate.queryForList(
+                "select date from public_holiday where is_booking_allowed = false", LocalDate.class));
+        LocalDate today = getReferenceDate();
+        LocalDate first = today.minusMonths(months);
+        LocalDate last = getLastBookedDate();
+        long futureDays = Math.max(1, ChronoUnit.DAYS.between(today, last));
+        BookingWriter bookings = new BookingWriter();
+        for (LocalDate date = first; !date.isAfter(last); date = date.plusDays(1)) {
+            DayOfWeek dayOfWeek = date.getDayOfWeek();
+            if (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY || closedHolidays.contains(date)) {
+                continue;
+            }
+            double demand = WEEKDAY_DEMAND[dayOfWeek.getValue() - 1];
+            if (date.isAfter(today)) {
+                demand *= 1 - (1 - HORIZON_DEMAND) * ChronoUnit.DAYS.between(today, date) / futureDays;
+            }
+            Day day = new Day(date, employeeIds, random);
+            bookDesks(day, deskIds, deskOccupancy * demand, bookings);
+            bookRooms(day, roomIds, roomOccupancy * demand, bookings);
+            bookRessources(day, ressourceIds, ressourceOccupancy, bookings);
+        }
+        bookings.flush();
+        occupancyAnalyticsService.reconcile(first, last);
+
+        SyntheticDataReport report = new SyntheticDataReport(false, employeeIds.length, deskIds.length, roomIds.length,
+                ressourceIds.length, bookings.desks, bookings.rooms, bookings.ressources, (System.nanoTime() - started) / 1_000_000);
+        log.info("Generated {} employees, {} desks, {} rooms, {} ressources and {} bookings ({} desk, {} room, {} ressource) in {} ms",
+                report.employees(), report.desks(), report.rooms(), report.ressources(), report.bookings(),
+                report.deskBookings(), report.roomBookings(), report.ressourceBookings(), report.millis());
+        return report;
+    }
+
+    private void bookDesks(Day day, long[] deskIds, double probability, BookingWriter bookings) {
+        for (long deskId : deskIds) {
+            if (day.random.nextDouble() >= probability) {
+                continue;
+            }
+            double shape = day.random.nextDouble();
+            if (shape < 0.6) {
+                bookings.add("DeskBooking", day.nextEmployee(), deskId, null, null, day, DAY_START, DAY_END);
+            } else if (shape < 0.8) {
+                bookings.add("DeskBooking", day.nextEmployee(), deskId, null, null, day, DAY_START, LUNCH_START);
+                if (day.random.nextDouble() < probability) {
+                    bookings.add("DeskBooking", day.nextEmployee(), deskId, null, null, day, LUNCH_END, DAY_END);
+                }
+            } else {
+                bookings.add("DeskBooking", day.nextEmployee(), deskId, null, null, day, LUNCH_END, DAY_END);
+            }
+        }
+    }
+
+    private void bookRooms(Day day, long[] roomIds, double probability, BookingWriter bookings) {
+        for (long roomId : roomIds) {
+            LocalTime start = DAY_START;
+            while (start.isBefore(DAY_END)) {
+                if (day.random.nextDouble() >= probability) {
+                    start = start.plusHours(1);
+                    continue;
+                }
+                LocalTime end = start.plusHours(day.random.nextDouble() < 0.6 ? 1 : 2);
+                if (end.isAfter(DAY_END)) {
+                    end = DAY_END;
+                }
+                bookings.add("RoomBooking", day.randomEmployee(), null, roomId, null, day, start, end);
+                start = end;
+            }
+        }
+    }
+
+    private void bookRessources(Day day, long[] ressourceIds, double probability, BookingWriter bookings) {
+        for (long ressourceId : ressourceIds) {
+            if (day.random.nextDouble() >= probability) {
+                continue;
+            }
+            int shape = day.random.nextInt(3);
+            if (shape == 0) {
+                bookings.add("RessourceBooking", day.randomEmployee(), null, null, ressourceId, day, DAY_START, DAY_END);
+            } else if (shape == 1) {
+                bookings.add("RessourceBooking", day.randomEmployee(), null, null, ressourceId, day, DAY_START, LUNCH_START);
+            } else {
+                bookings.add("RessourceBooking", day.randomEmployee(), null, null, ressourceId, day, LUNCH_END, DAY_END);
+            }
+        }
+    }
+
+    private long[] insertEmployees() {
+        String encodedPassword = EmployeePasswordListener.encode(password);
+        List<Object[]> rows = new ArrayList<>();
+        for (Role role : employeesPerRole.keySet()) {
+            for (int n = 1; n <= employeesPerRole.get(role); n++) {
+                String nick = nick(role, n);
+                rows.add(new Object[]{null, "Synthetic", nick, nick, nick + "@" + EMAIL_DOMAIN, encodedPassword, role.ordinal()});
+            }
+        }
+        return insert("employee_seq", "insert into employee (id, fname, lname, nick, email, password, role) values (?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    private long[] insertDesks(Random random) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int floor = 1; floor <= floors; floor++) {
+            for (int desk = 1; desk <= desksPerFloor; desk++) {
+                rows.add(new Object[]{null, "F" + floor + "-" + desk, 1 + random.nextInt(3)});
+            }
+        }
+        long[] ids = insert("desk_seq", "insert into desk (id, desk_nr, nr_of_monitors) values (?, ?, ?)", rows);
+        List<Object[]> ports = new ArrayList<>();
+        for (long id : ids) {
+            for (String port : PORT_MIXES.get(random.nextInt(PORT_MIXES.size()))) {
+                ports.add(new Object[]{id, port});
+            }
+        }
+        batchUpdate("insert into desk_ports (desk_id, name) values (?, ?)", ports);
+        return ids;
+    }
+
+    private long[] insertRooms() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int floor = 1; floor <= floors; floor++) {
+            for (int room = 1; room <= roomsPerFloor; room++) {
+                rows.add(new Object[]{null, String.valueOf(floor), "Meeting room " + floor + "." + room});
+            }
+        }
+        return insert("room_seq", "insert into room (id, floor, info) values (?, ?, ?)", rows);
+    }
+
+    private long[] insertRessources() {
+        List<Object[]> rows = new ArrayList<>();
+        for (Ressourcetype type : Ressourcetype.values()) {
+            for (int n = 1; n <= ressourcesPerType; n++) {
+                String name = type.name().charAt(0) + type.name().substring(1).toLowerCase() + " " + n;
+                rows.add(new Object[]{null, type.ordinal(), name, name, "", "SN-" + type.name() + "-" + n});
+            }
+        }
+        return insert("ressource_seq", "insert into ressource (id, ressourcetype, name, description, info, serialnumber) values (?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    /**
+     * Assigns ids from the sequence to the first column of the rows and inserts them.
+     *
+     * @return The assigned ids in the order of the rows.
+     */
+    private long[] insert(String sequence, String sql, List<Object[]> rows) {
+        long firstId = reserveIds(sequence, rows.size());
+        long[] ids = new long[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            ids[i] = firstId + i;
+            rows.get(i)[0] = ids[i];
+        }
+        batchUpdate(sql, rows);
+        return ids;
+    }
+
+    private void batchUpdate(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(rows.size(), from + batchSize)));
+        }
+    }
+
+    /**
+     * Takes {@code count} consecutive ids from a sequence with a single step of at least {@code count}, so that the
+     * pooled-lo generators of the entities continue after the generated rows.
+     * <p>
+     * While the step is raised, every value drawn from the sequence, by Hibernate or here, owns a block at least as
+     * large as its caller needs, so an insert that draws a block at the same time cannot get ids of the reserved range.
+     * </p>
+     *
+     * @return The first reserved id.
+     */
+    private long reserveIds(String sequence, int count) {
+        Long increment = jdbcTemplate.queryForObject("select increment from information_schema.sequences where sequence_name = upper(?)",
+                Long.class, sequence);
+        jdbcTemplate.execute("alter sequence " + sequence + " increment by " + Math.max(count, increment));
+        try {
+            return jdbcTemplate.queryForObject("select next value for " + sequence, Long.class);
+        } finally {
+            jdbcTemplate.execute("alter sequence " + sequence + " increment by " + increment);
+        }
+    }
+
+    /**
+     * The employees of one day: desks go to the employees in a rotation starting at a random one, so nobody gets two
+     * desks on the same day as long as there are more employees than desk bookings.
+     */
+    private static final class Day {
+        private final Date date;
+        private final LocalDate localDate;
+        private final long[] employeeIds;
+        private final Random random;
+        private int nextEmployee;
+
+        private Day(LocalDate date, long[] employeeIds, Random random) {
+            this.date = Date.valueOf(date);
+            this.localDate = date;
+            this.employeeIds = employeeIds;
+            this.random = random;
+            this.nextEmployee = random.nextInt(employeeIds.length);
+        }
+
+        private long nextEmployee() {
+            return employeeIds[nextEmployee++ % employeeIds.length];
+        }
+
+        private long randomEmployee() {
+            return employeeIds[random.nextInt(employeeIds.length)];
+        }
+
+        /**
+         * @return When the booking was made: up to two weeks before the day, during office hours.
+         */
+        private Timestamp createdOn() {
+            LocalDateTime createdOn = localDate.minusDays(random.nextInt(14)).atTime(7, 0).plusMinutes(random.nextInt(600));
+            return Timestamp.valueOf(createdOn);
+        }
+    }
+
+    /**
+     * Collects booking rows and writes them once a batch is full, with ids reserved per batch.
+     */
+    private final class BookingWriter {
+        private final List<Object[]> rows = new ArrayList<>(batchSize);
+        private long desks;
+        private long rooms;
+        private long ressources;
+
+        private void add(String type, long employeeId, Long deskId, Long roomId, Long ressourceId, Day day,
+                         LocalTime start, LocalTime end) {
+            rows.add(new Object[]{null, type, employeeId, deskId, roomId, ressourceId, day.date,
+                    Time.valueOf(start), Time.valueOf(end), day.createdOn()});
+            if (deskId != null) {
+                desks++;
+            } else if (roomId != null) {
+                rooms++;
+            } else {
+                ressources++;
+            }
+            if (rows.size() == batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (!rows.isEmpty()) {
+                insert("booking_seq", BOOKING_INSERT, rows);
+                rows.clear();
+            }
+        }
+    }
+}
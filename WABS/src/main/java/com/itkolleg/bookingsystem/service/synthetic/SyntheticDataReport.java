@@ -0,0 +1,18 @@
+package com.itkolleg.bookingsystem.service.synthetic;
+
+/**
+ * What one run of the {@link SyntheticDataGenerator} wrote and how long it took.
+ *
+ * @param skipped True if the database already held generated data and nothing was written.
+ */
+public record SyntheticDataReport(boolean skipped, int employees, int desks, int rooms, int ressources,
+                                  long deskBookings, long roomBookings, long ressourceBookings, long millis) {
+
+    static SyntheticDataReport skippedRun() {
+        return new SyntheticDataReport(true, 0, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    public long bookings() {
+        return deskBookings + roomBookings + ressourceBookings;
+    }
+}
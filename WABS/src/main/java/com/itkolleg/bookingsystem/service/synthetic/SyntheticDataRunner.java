@@ -0,0 +1,33 @@
+package com.itkolleg.bookingsystem.service.synthetic;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the database with the {@link SyntheticDataGenerator} at startup instead of the demo data of {@code WABS}.
+ * Enabled with the profile {@code synthetic} or on the command line, e.g.
+ * {@code java -jar wabs.jar --wabs.synthetic.enabled=true --wabs.synthetic.desks-per-floor=2000 --wabs.synthetic.months=24}.
+ * <p>
+ * Runs before the other runners, so that the occupancy index of the repositories loads the generated bookings with
+ * the first day it is asked for.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "wabs.synthetic.enabled", havingValue = "true")
+public class SyntheticDataRunner implements ApplicationRunner {
+
+    private final SyntheticDataGenerator syntheticDataGenerator;
+
+    public SyntheticDataRunner(SyntheticDataGenerator syntheticDataGenerator) {
+        this.syntheticDataGenerator = syntheticDataGenerator;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        syntheticDataGenerator.generate();
+    }
+}
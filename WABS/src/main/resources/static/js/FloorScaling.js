@@ -24,4 +24,96 @@ function scaleImageMap() {
     }
 
 
-}
\ No newline at end of file
+}
+
+/**
+ * Colours the desk areas of the image map from the occupancy payload embedded in the page
+ * (see OccupancyGrid#toPayload): green = free, orange = partly booked, red = fully booked
+ * within the slot range [fromSlot, toSlot). Without a range the whole day is used.
+ */
+function colourDeskOccupancy(occupancy, fromSlot, toSlot) {
+    if (!occupancy) {
+        return;
+    }
+    var image = document.getElementById('image');
+    var map = document.querySelector('map[name="image-map"]');
+    var areas = map.getElementsByTagName('area');
+    var from = fromSlot === undefined ? 0 : fromSlot;
+    var to = toSlot === undefined ? occupancy.slots : toSlot;
+
+    var canvas = document.getElementById('occupancy-overlay');
+    if (!canvas) {
+        canvas = document.createElement('canvas');
+        canvas.id = 'occupancy-overlay';
+        canvas.style.position = 'absolute';
+        canvas.style.pointerEvents = 'none';
+        image.parentElement.style.position = 'relative';
+        image.parentElement.appendChild(canvas);
+    }
+    canvas.style.left = image.offsetLeft + 'px';
+    canvas.style.top = image.offsetTop + 'px';
+    canvas.width = image.clientWidth;
+    canvas.height = image.clientHeight;
+
+    var context = canvas.getContext('2d');
+    context.clearRect(0, 0, canvas.width, canvas.height);
+
+    for (var i = 0; i < areas.length; i++) {
+        var match = /\/web\/desks\/view\/(\d+)/.exec(areas[i].getAttribute('href'));
+        if (!match || !(match[1] in occupancy.desks)) {
+            continue;
+        }
+        var busy = countBusySlots(occupancy.desks[match[1]], from, to);
+        if (busy === 0) {
+            context.fillStyle = 'rgba(40, 167, 69, 0.45)';
+        } else if (busy < to - from) {
+            context.fillStyle = 'rgba(255, 153, 0, 0.45)';
+        } else {
+            context.fillStyle = 'rgba(220, 53, 69, 0.45)';
+        }
+        fillArea(context, areas[i]);
+    }
+}
+
+function countBusySlots(hex, from, to) {
+    var busy = 0;
+    for (var slot = from; slot < to; slot++) {
+        busy += (parseInt(hex.charAt(slot >> 2), 16) >> (slot & 3)) & 1;
+    }
+    return busy;
+}
+
+function fillArea(context, area) {
+    var coords = area.getAttribute('coords').split(',').map(Number);
+    context.beginPath();
+    if (area.getAttribute('shape') === 'rect') {
+        context.rect(coords[0], coords[1], coords[2] - coords[0], coords[3] - coords[1]);
+    } else {
+        context.moveTo(coords[0], coords[1]);
+        for (var j = 2; j < coords.length; j += 2) {
+            context.lineTo(coords[j], coords[j + 1]);
+        }
+        context.closePath();
+    }
+    context.fill();
+}
+
+/**
+ * Keeps the occupancy payload up to date from the live feed of its day (see AvailabilityFeed): every desk booking
+ * or cancellation replaces the row of that desk, then onChange is called to colour the floor plan again.
+ * The browser reconnects on its own after the server closes the feed.
+ */
+function subscribeDeskOccupancy(feedUrl, occupancy, onChange) {
+    if (!occupancy || !window.EventSource) {
+        return null;
+    }
+    var source = new EventSource(feedUrl + '?date=' + encodeURIComponent(occupancy.date));
+    source.addEventListener('booking', function (event) {
+        var delta = JSON.parse(event.data);
+        if (delta.kind === 'DESK' && delta.slots !== undefined && String(delta.id) in occupancy.desks) {
+            occupancy.desks[delta.id] = delta.slots;
+            onChange();
+        }
+    });
+    return source;
+}
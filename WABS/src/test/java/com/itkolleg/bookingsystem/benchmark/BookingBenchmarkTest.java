@@ -0,0 +1,64 @@
+package com.itkolleg.bookingsystem.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs the JMH {@link BookingBenchmarks} and writes the results as JSON to {@code target/jmh-result.json}. Run with
+ * {@code mvn test -Pbenchmark}. The runs can be narrowed and the volumes reduced with system properties, e.g.
+ * {@code -Dwabs.benchmark.include=getAvailable -Dwabs.synthetic.months=6 -Dwabs.benchmark.iterations=2}.
+ */
+@Slf4j
+@Tag("benchmark")
+class BookingBenchmarkTest {
+
+    private static final String RESULT_FILE = "target/jmh-result.json";
+
+    @Test
+    void bookingBenchmarks() throws Exception {
+        Options options = new OptionsBuilder()
+                .include(BookingBenchmarks.class.getName() + "\\..*" + System.getProperty("wabs.benchmark.include", ""))
+                .forks(Integer.getInteger("wabs.benchmark.forks", 1))
+                .threads(Integer.getInteger("wabs.benchmark.threads", 1))
+                .warmupIterations(Integer.getInteger("wabs.benchmark.warmup-iterations", 3))
+                .warmupTime(TimeValue.seconds(Integer.getInteger("wabs.benchmark.iteration-seconds", 5)))
+                .measurementIterations(Integer.getInteger("wabs.benchmark.iterations", 5))
+                .measurementTime(TimeValue.seconds(Integer.getInteger("wabs.benchmark.iteration-seconds", 5)))
+                .jvmArgsAppend(forkedJvmArgs())
+                .resultFormat(ResultFormatType.JSON)
+                .result(RESULT_FILE)
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        log.info("{} benchmark results written to {}", results.size(), RESULT_FILE);
+        assertFalse(results.isEmpty());
+    }
+
+    /**
+     * The forked JVMs get 3 GB of heap for the in-memory database (overridable with {@code wabs.benchmark.heap}) and
+     * every {@code wabs.benchmark.*} and {@code wabs.synthetic.*} system property, so that the generated data has the
+     * requested volumes.
+     */
+    private static String[] forkedJvmArgs() {
+        List<String> args = new ArrayList<>();
+        args.add("-Xmx" + System.getProperty("wabs.benchmark.heap", "3g"));
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith("wabs.benchmark.") || name.startsWith("wabs.synthetic."))
+                .forEach(name -> args.add("-D" + name + "=" + System.getProperty(name)));
+        return args.toArray(String[]::new);
+    }
+}
@@ -0,0 +1,219 @@
+package com.itkolleg.bookingsystem.benchmark;
+
+import com.itkolleg.bookingsystem.WABS;
+import com.itkolleg.bookingsystem.domains.Desk;
+import com.itkolleg.bookingsystem.domains.Employee;
+import com.itkolleg.bookingsystem.domains.Ressource;
+import com.itkolleg.bookingsystem.domains.Role;
+import com.itkolleg.bookingsystem.domains.Room;
+import com.itkolleg.bookingsystem.domains.booking.DeskBooking;
+import com.itkolleg.bookingsystem.exceptions.DeskNotAvailableException;
+import com.itkolleg.bookingsystem.repos.desk.DeskRepo;
+import com.itkolleg.bookingsystem.repos.employee.EmployeeDBAccess;
+import com.itkolleg.bookingsystem.repos.holiday.HolidayRepo;
+import com.itkolleg.bookingsystem.service.deskbooking.DeskBookingService;
+import com.itkolleg.bookingsystem.service.ressourcebooking.RessourceBookingService;
+import com.itkolleg.bookingsystem.service.roombooking.RoomBookingService;
+import com.itkolleg.bookingsystem.service.synthetic.SyntheticDataGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the hot paths of the booking services against an embedded H2 filled by the
+ * {@link SyntheticDataGenerator} (profiles {@code synthetic} and {@code benchmark}, about 2M bookings):
+ * desk admission, the availability of desks, rooms and ressources, the booking search of an employee and the login.
+ * Run with {@code mvn test -Pbenchmark}, see {@link BookingBenchmarkTest}.
+ * <p>
+ * The application is started once per fork. Every thread
+ * walks through its own share of desks, days and employees, so that threads do not book the same desk.
+ * </p>
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class BookingBenchmarks {
+
+    private static final LocalTime AVAILABILITY_START = LocalTime.of(9, 0);
+    private static final LocalTime AVAILABILITY_END = LocalTime.of(11, 0);
+    private static final LocalTime ADMISSION_START = LocalTime.of(17, 0);
+    private static final LocalTime ADMISSION_END = LocalTime.of(18, 0);
+    private static final int BOOKING_EMPLOYEES = 100;
+
+    ConfigurableApplicationContext context;
+    DeskBookingService deskBookingService;
+    RoomBookingService roomBookingService;
+    RessourceBookingService ressourceBookingService;
+    AuthenticationManager authenticationManager;
+
+    String password;
+
+    List<Desk> desks;
+    List<Employee> bookingEmployees;
+    List<LocalDate> bookableDays;
+    long[] employeeIds;
+    List<String> nicks;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(WABS.class)
+                .profiles("synthetic", "benchmark")
+                .run("--spring.datasource.url=jdbc:h2:mem:jmh-benchmark", "--server.port=0");
+        deskBookingService = context.getBean(DeskBookingService.class);
+        roomBookingService = context.getBean(RoomBookingService.class);
+        ressourceBookingService = context.getBean(RessourceBookingService.class);
+        authenticationManager = context.getBean(AuthenticationManager.class);
+        password = context.getEnvironment().getProperty("wabs.synthetic.password");
+
+        desks = context.getBean(DeskRepo.class).getAllDesks();
+        EmployeeDBAccess employeeDBAccess = context.getBean(EmployeeDBAccess.class);
+        bookingEmployees = new ArrayList<>();
+        for (int n = 1; n <= BOOKING_EMPLOYEES; n++) {
+            Employee employee = employeeDBAccess.getEmployeeByNick(SyntheticDataGenerator.nick(Role.ROLE_P_EMPLOYEE, n));
+            if (employee == null) {
+                break;
+            }
+            bookingEmployees.add(employee);
+        }
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        employeeIds = jdbcTemplate.queryForList("select id from employee order by id", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+        nicks = jdbcTemplate.queryForList("select nick from employee order by id", String.class);
+
+        // privileged employees may book 12 weeks ahead
+        HolidayRepo holidayRepo = context.getBean(HolidayRepo.class);
+        bookableDays = LocalDate.now().plusDays(1).datesUntil(LocalDate.now().plusWeeks(12).plusDays(1))
+                .filter(day -> day.getDayOfWeek() != DayOfWeek.SATURDAY && day.getDayOfWeek() != DayOfWeek.SUNDAY)
+                .filter(holidayRepo::isBookingAllowedOnHoliday)
+                .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    /**
+     * Books the hour after the generated bookings (17:00-18:00) at the next desk and day of the thread. The bookings of an iteration are cancelled
+     * after it, see {@link Admission#cancel}.
+     */
+    @Benchmark
+    public DeskBooking addDeskBooking(Admission admission) throws Exception {
+        try {
+            DeskBooking booking = deskBookingService.addDeskBooking(admission.next(this));
+            admission.booked.add(booking.getId());
+            return booking;
+        } catch (DeskNotAvailableException e) {
+            // only after the thread went once through all of its desks and days within one iteration
+            return null;
+        }
+    }
+
+    @Benchmark
+    public List<Desk> getAvailableDesks(Cursor cursor) throws Exception {
+        return deskBookingService.getAvailableDesks(cursor.nextDay(this), AVAILABILITY_START, AVAILABILITY_END, null);
+    }
+
+    @Benchmark
+    public List<Room> getAvailableRooms(Cursor cursor) throws Exception {
+        return roomBookingService.getAvailableRooms(cursor.nextDay(this), AVAILABILITY_START, AVAILABILITY_END);
+    }
+
+    @Benchmark
+    public List<Ressource> getAvailableRessources(Cursor cursor) throws Exception {
+        return ressourceBookingService.getAvailableRessources(cursor.nextDay(this), AVAILABILITY_START, AVAILABILITY_END);
+    }
+
+    /**
+     * The desk bookings of one employee, about 320 with the default volumes.
+     */
+    @Benchmark
+    public List<DeskBooking> searchBookings(Cursor cursor) throws Exception {
+        return deskBookingService.searchBookings(cursor.nextEmployeeId(this), null, null);
+    }
+
+    @Benchmark
+    public Authentication login(Cursor cursor) {
+        return authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(cursor.nextNick(this), password));
+    }
+
+    /**
+     * Rotates the days, employees and logins of a thread.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        @Setup(Level.Trial)
+        public void start(ThreadParams threadParams) {
+            next = threadParams.getThreadIndex() * 7_919;
+        }
+
+        LocalDate nextDay(BookingBenchmarks benchmarks) {
+            return benchmarks.bookableDays.get(Math.floorMod(next++, benchmarks.bookableDays.size()));
+        }
+
+        long nextEmployeeId(BookingBenchmarks benchmarks) {
+            return benchmarks.employeeIds[Math.floorMod(next++, benchmarks.employeeIds.length)];
+        }
+
+        String nextNick(BookingBenchmarks benchmarks) {
+            return benchmarks.nicks.get(Math.floorMod(next++, benchmarks.nicks.size()));
+        }
+    }
+
+    /**
+     * Walks through the desks of a thread (every n-th desk for n threads) day by day.
+     */
+    @State(Scope.Thread)
+    public static class Admission {
+        final List<Long> booked = new ArrayList<>();
+        int threadIndex;
+        int threadCount;
+        int next;
+
+        @Setup(Level.Trial)
+        public void start(ThreadParams threadParams) {
+            threadIndex = threadParams.getThreadIndex();
+            threadCount = threadParams.getThreadCount();
+        }
+
+        DeskBooking next(BookingBenchmarks benchmarks) {
+            int desksOfThread = Math.max(1, (benchmarks.desks.size() - threadIndex + threadCount - 1) / threadCount);
+            int slot = next++;
+            Desk desk = benchmarks.desks.get(threadIndex + (slot % desksOfThread) * threadCount);
+            LocalDate day = benchmarks.bookableDays.get((slot / desksOfThread) % benchmarks.bookableDays.size());
+            Employee employee = benchmarks.bookingEmployees.get(slot % benchmarks.bookingEmployees.size());
+            return new DeskBooking(employee, desk, day, ADMISSION_START, ADMISSION_END);
+        }
+
+        @TearDown(Level.Iteration)
+        public void cancel(BookingBenchmarks benchmarks) throws Exception {
+            for (Long bookingId : booked) {
+                benchmarks.deskBookingService.deleteBookingById(bookingId);
+            }
+            booked.clear();
+            next = 0;
+        }
+    }
+}
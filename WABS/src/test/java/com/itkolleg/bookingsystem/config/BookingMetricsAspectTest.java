@@ -0,0 +1,99 @@
+package com.itkolleg.bookingsystem.config;
+
+import com.itkolleg.bookingsystem.domains.Desk;
+import com.itkolleg.bookingsystem.domains.Employee;
+import com.itkolleg.bookingsystem.domains.EmployeePasswordListener;
+import com.itkolleg.bookingsystem.domains.Port;
+import com.itkolleg.bookingsystem.domains.Role;
+import com.itkolleg.bookingsystem.domains.booking.DeskBooking;
+import com.itkolleg.bookingsystem.exceptions.DeskNotAvailableException;
+import com.itkolleg.bookingsystem.repos.desk.DeskJPARepo;
+import com.itkolleg.bookingsystem.repos.employee.EmployeeJPARepo;
+import com.itkolleg.bookingsystem.service.deskbooking.DeskBookingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:booking-metrics",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class BookingMetricsAspectTest {
+
+    @Autowired
+    DeskBookingService deskBookingService;
+
+    @Autowired
+    DeskJPARepo deskJPARepo;
+
+    @Autowired
+    EmployeeJPARepo employeeJPARepo;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    void bookingsFindersAndLoginsAreTimedByOutcomeAndScrapedAsPrometheus() throws Exception {
+        Desk newDesk = new Desk();
+        newDesk.setDeskNr("METRICS1");
+        newDesk.setNrOfMonitors(1);
+        newDesk.setPorts(new ArrayList<>(List.of(new Port("HDMI"))));
+        Desk desk = deskJPARepo.save(newDesk);
+        Employee employee = employeeJPARepo.save(new Employee("Metrics", "Test", "metrics", "metrics@wabs.test",
+                EmployeePasswordListener.encode("password"), Role.ROLE_P_EMPLOYEE));
+        LocalDate day = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.WEDNESDAY));
+
+        deskBookingService.addDeskBooking(new DeskBooking(employee, desk, day, LocalTime.of(9, 0), LocalTime.of(10, 0)));
+        assertThrows(DeskNotAvailableException.class,
+                () -> deskBookingService.addDeskBooking(new DeskBooking(employee, desk, day, LocalTime.of(9, 30), LocalTime.of(11, 0))));
+
+        assertEquals(1, serviceTimer("SUCCESS", "none").count());
+        assertEquals(1, serviceTimer("REJECTED", "DeskNotAvailableException").count());
+        assertNotNull(registry.find(BookingMetricsAspect.FINDER_TIMER).tag("repository", "DeskBookingRepo_JPAH2").tag("outcome", "SUCCESS").timer());
+
+        mockMvc.perform(formLogin("/web/login").user("metrics").password("wrong"));
+        assertEquals(1, registry.get(LoginMetrics.LOGIN_TIMER).tag("outcome", "REJECTED").tag("exception", "BadCredentialsException").timer().count());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("admin", "password")))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("wabs_booking_service_seconds_bucket{")))
+                .andExpect(content().string(containsString("exception=\"DeskNotAvailableException\"")))
+                .andExpect(content().string(containsString("wabs_login_seconds_count{")));
+    }
+
+    private Timer serviceTimer(String outcome, String exception) {
+        return registry.get(BookingMetricsAspect.SERVICE_TIMER)
+                .tag("service", "DeskBookingServiceImplementation")
+                .tag("method", "addDeskBooking")
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .timer();
+    }
+}
@@ -0,0 +1,81 @@
+package com.itkolleg.bookingsystem.config;
+
+import com.itkolleg.bookingsystem.domains.CustomEmployeeDetails;
+import com.itkolleg.bookingsystem.domains.Employee;
+import com.itkolleg.bookingsystem.domains.Role;
+import com.itkolleg.bookingsystem.service.employee.EmployeePrincipalService;
+import com.itkolleg.bookingsystem.service.employee.EmployeeService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:employee-principal",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class EmployeePrincipalArgumentResolverTest {
+
+    @Autowired
+    EmployeePrincipalArgumentResolver resolver;
+
+    @Autowired
+    EmployeePrincipalService employeePrincipalService;
+
+    @Autowired
+    EmployeeService employeeService;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void theSessionPrincipalIsResolvedWithoutQueriesUntilTheEmployeeChanges() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        CustomEmployeeDetails loggedIn = employeePrincipalService.loadPrincipal("joslech");
+        loggedIn.eraseCredentials();
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(loggedIn, null, loggedIn.getAuthorities()));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        ServletWebRequest webRequest = new ServletWebRequest(request, new MockHttpServletResponse());
+
+        statistics.clear();
+        assertSame(loggedIn, resolver.resolveArgument(null, null, webRequest, null));
+        assertSame(loggedIn, resolver.resolveArgument(null, null, webRequest, null));
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        Employee employee = employeeService.getEmployeeById(loggedIn.getId());
+        employee.setLname("Strobl");
+        employee.setRole(Role.ROLE_P_EMPLOYEE);
+        employeeService.updateEmployeeById(employee);
+
+        CustomEmployeeDetails reloaded = resolver.resolveArgument(null, null, webRequest, null);
+        assertNotSame(loggedIn, reloaded);
+        assertEquals(loggedIn.getId(), reloaded.getId());
+        assertEquals(Role.ROLE_P_EMPLOYEE, reloaded.getRole());
+        assertNull(reloaded.getPassword());
+        SecurityContext stored = (SecurityContext) request.getSession()
+                .getAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY);
+        assertSame(reloaded, stored.getAuthentication().getPrincipal());
+
+        statistics.clear();
+        assertSame(reloaded, resolver.resolveArgument(null, null, webRequest, null));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+}
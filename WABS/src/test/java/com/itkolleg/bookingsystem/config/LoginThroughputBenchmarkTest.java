@@ -0,0 +1,122 @@
+package com.itkolleg.bookingsystem.config;
+
+import com.itkolleg.bookingsystem.domains.Employee;
+import com.itkolleg.bookingsystem.service.employee.EmployeeService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures login throughput of the {@link AuthenticationManager} at 50, 200 and 1000 concurrent logins, next to the
+ * former setup that loaded the employee and re-encoded the password on every login. Run with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:login-benchmark",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.springframework.security=INFO"
+})
+class LoginThroughputBenchmarkTest {
+
+    private static final int[] CONCURRENT_LOGINS = {50, 200, 1_000};
+    private static final List<String> NICKS = List.of("admin", "operator", "nemployee", "pemployee", "sonlech", "jaslech", "joslech", "camlech");
+    private static final String PASSWORD = "password";
+
+    @Autowired
+    AuthenticationManager authenticationManager;
+
+    @Autowired
+    EmployeeService employeeService;
+
+    @Autowired
+    BCryptPasswordEncoder bCryptPasswordEncoder;
+
+    @Test
+    void loginThroughput() throws Exception {
+        AuthenticationManager formerAuthenticationManager = formerAuthenticationManager();
+        for (int logins : CONCURRENT_LOGINS) {
+            Result current = login(authenticationManager, logins);
+            Result former = login(formerAuthenticationManager, logins);
+            log.info("{} concurrent logins: {} logins/s (p50 {} ms, p99 {} ms), formerly {} logins/s (p50 {} ms, p99 {} ms)",
+                    logins,
+                    String.format("%.1f", current.perSecond()), current.p50Millis(), current.p99Millis(),
+                    String.format("%.1f", former.perSecond()), former.p50Millis(), former.p99Millis());
+            assertTrue(current.perSecond() > former.perSecond());
+        }
+    }
+
+    private Result login(AuthenticationManager manager, int logins) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(logins);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            Future<?>[] futures = new Future<?>[logins];
+            long[] latencies = new long[logins];
+            for (int i = 0; i < logins; i++) {
+                int login = i;
+                futures[i] = executor.submit(() -> {
+                    start.await();
+                    long t0 = System.nanoTime();
+                    boolean authenticated = manager.authenticate(
+                            new UsernamePasswordAuthenticationToken(NICKS.get(login % NICKS.size()), PASSWORD)).isAuthenticated();
+                    latencies[login] = System.nanoTime() - t0;
+                    assertTrue(authenticated);
+                    return null;
+                });
+            }
+            long t0 = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - t0;
+            Arrays.sort(latencies);
+            return new Result(logins * 1e9 / elapsed,
+                    latencies[logins / 2] / 1_000_000,
+                    latencies[Math.min(logins - 1, logins * 99 / 100)] / 1_000_000);
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * The login as it was before passwords were stored hashed: one employee lookup and one bcrypt encode per login,
+     * followed by the bcrypt match.
+     */
+    private AuthenticationManager formerAuthenticationManager() {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setPasswordEncoder(bCryptPasswordEncoder);
+        provider.setUserDetailsService(username -> {
+            Employee employee = employeeService.getEmployeeByNick(username);
+            return User.builder()
+                    .username(employee.getNick())
+                    .password(bCryptPasswordEncoder.encode(PASSWORD))
+                    .authorities(employee.getAuthorities())
+                    .build();
+        });
+        return new ProviderManager(provider);
+    }
+
+    private record Result(double perSecond, long p50Millis, long p99Millis) {
+    }
+}
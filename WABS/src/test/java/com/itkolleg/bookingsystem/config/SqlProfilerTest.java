@@ -0,0 +1,88 @@
+package com.itkolleg.bookingsystem.config;
+
+import com.itkolleg.bookingsystem.domains.Desk;
+import com.itkolleg.bookingsystem.repos.desk.DeskJPARepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sql-profiler",
+        "spring.jpa.show-sql=false",
+        "wabs.sql-profiler.n-plus-one-threshold=3",
+        "wabs.sql-profiler.slow-query-ms=0"
+})
+@AutoConfigureMockMvc
+class SqlProfilerTest {
+
+    @Autowired
+    SqlProfiler sqlProfiler;
+
+    @Autowired
+    DeskJPARepo deskJPARepo;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    void repeatedStatementsOfARequestAreReportedAsNPlusOneAndSlowQueriesKeepTheirBindValues() throws Exception {
+        List<Long> deskIds = deskJPARepo.findAll().stream().map(Desk::getId).limit(4).toList();
+        assertEquals(4, deskIds.size());
+
+        sqlProfiler.beginRequest("GET /test/desks");
+        for (Long deskId : deskIds) {
+            jdbcTemplate.queryForObject("select desk_nr from desk where id = ?", String.class, deskId);
+        }
+        jdbcTemplate.queryForObject("select count(*) from desk where desk_nr = 'X1'", Long.class);
+        SqlProfiler.RequestProfile profile = sqlProfiler.endRequest();
+
+        assertEquals(5, profile.statements());
+        assertEquals(2, profile.distinctStatements());
+        assertEquals(List.of(new SqlProfiler.StatementCount("select desk_nr from desk where id = ?", 4)), profile.repeated());
+
+        SqlProfiler.Report report = sqlProfiler.getReport();
+        assertTrue(report.nPlusOne().stream().anyMatch(finding -> finding.request().equals("GET /test/desks") && finding.executions() == 4));
+        assertTrue(report.slowQueries().stream().anyMatch(query -> query.statement().equals("select desk_nr from desk where id = ?")
+                && query.bindValues().equals(List.of(String.valueOf(deskIds.get(3))))));
+        assertNull(sqlProfiler.endRequest());
+
+        mockMvc.perform(get("/actuator/sqlprofile").with(httpBasic("admin", "password")))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"request\":\"GET /test/desks\"")));
+    }
+
+    @Test
+    void bindValuesOfPasswordAndEmailColumnsAreNotKept() {
+        jdbcTemplate.queryForObject("select count(*) from employee where email = ? or password = ?", Long.class,
+                "secret@wabs.test", "$2a$10$secret");
+
+        SqlProfiler.SlowQuery slowQuery = sqlProfiler.getReport().slowQueries().stream()
+                .filter(query -> query.statement().startsWith("select count(*) from employee where email"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(List.of(SqlProfiler.MASK, SqlProfiler.MASK), slowQuery.bindValues());
+    }
+
+    @Test
+    void literalsAndInListsDoNotChangeTheShapeOfAStatement() {
+        assertEquals("select * from desk where desk_nr = ? and id in (?) and monitors > ?",
+                SqlProfiler.normalize("select *  from desk\n where desk_nr = 'A''1' and id in (1, 2,3) and monitors > 2"));
+        assertEquals("select d1_0.id from desk d1_0 where d1_0.id in (?)",
+                SqlProfiler.normalize("select d1_0.id from desk d1_0 where d1_0.id in (?,?,?)"));
+    }
+}
@@ -0,0 +1,109 @@
+package com.itkolleg.bookingsystem.controller;
+
+import com.itkolleg.bookingsystem.domains.CustomEmployeeDetails;
+import com.itkolleg.bookingsystem.domains.Desk;
+import com.itkolleg.bookingsystem.domains.Employee;
+import com.itkolleg.bookingsystem.domains.EmployeePasswordListener;
+import com.itkolleg.bookingsystem.domains.Port;
+import com.itkolleg.bookingsystem.domains.Role;
+import com.itkolleg.bookingsystem.repos.deskbooking.DeskBookingJPARepo;
+import com.itkolleg.bookingsystem.repos.desk.DeskJPARepo;
+import com.itkolleg.bookingsystem.repos.employee.EmployeeJPARepo;
+import com.itkolleg.bookingsystem.service.employee.EmployeePrincipalService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+
+/**
+ * Asserts that an employee books a desk without loading the own employee: the role comes from the principal and the
+ * only employee statement is the lock taken by the repository.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:desk-booking-statements",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.itkolleg.bookingsystem.controller.DeskBookingStatementCountTest$RecordingInspector"
+})
+@AutoConfigureMockMvc
+class DeskBookingStatementCountTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    DeskJPARepo deskJPARepo;
+
+    @Autowired
+    EmployeeJPARepo employeeJPARepo;
+
+    @Autowired
+    DeskBookingJPARepo deskBookingJPARepo;
+
+    @Autowired
+    EmployeePrincipalService employeePrincipalService;
+
+    @Test
+    void bookingADeskDoesNotLoadTheEmployeeOfThePrincipal() throws Exception {
+        Desk newDesk = new Desk();
+        newDesk.setDeskNr("STATEMENTS1");
+        newDesk.setNrOfMonitors(1);
+        newDesk.setPorts(new ArrayList<>(List.of(new Port("HDMI"))));
+        Desk desk = deskJPARepo.save(newDesk);
+        employeeJPARepo.save(new Employee("Statement", "Count", "statements", "statements@wabs.test",
+                EmployeePasswordListener.encode("password"), Role.ROLE_P_EMPLOYEE));
+        CustomEmployeeDetails principal = employeePrincipalService.loadPrincipal("statements");
+        principal.eraseCredentials();
+        LocalDate monday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+        // the first booking fills the reference data cache of the booking form
+        book(principal, desk, monday);
+        RecordingInspector.STATEMENTS.clear();
+        book(principal, desk, monday.plusDays(1));
+
+        List<String> employeeStatements = RecordingInspector.STATEMENTS.stream()
+                .map(String::toLowerCase)
+                .filter(sql -> sql.contains(" from employee "))
+                .toList();
+        assertEquals(1, employeeStatements.size(), "employee statements: " + employeeStatements);
+        assertTrue(employeeStatements.get(0).contains(" for update"), employeeStatements.get(0));
+        assertEquals(2, deskBookingJPARepo.findBookingsByEmployeeId(principal.getId()).size());
+    }
+
+    private void book(CustomEmployeeDetails principal, Desk desk, LocalDate date) throws Exception {
+        mockMvc.perform(post("/web/deskbookings/add").with(user(principal)).with(csrf())
+                        .param("desk.id", desk.getId().toString())
+                        .param("date", date.toString())
+                        .param("start", "09:00")
+                        .param("endTime", "12:00"))
+                .andExpect(redirectedUrl("/web/deskbookings/mydeskbookings"));
+    }
+
+    /**
+     * Keeps every SQL statement Hibernate prepares.
+     */
+    public static class RecordingInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.itkolleg.bookingsystem.domains;
+
+import com.itkolleg.idbenchmark.IdentityBenchmarkRow;
+import com.itkolleg.idbenchmark.SequenceBenchmarkRow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Inserts 100k rows once with ids from an IDENTITY column, as {@code Employee} and {@code PublicHoliday} did before,
+ * and once with ids from a {@link PooledSequenceGenerator}, and logs statements and time of both. The two row
+ * entities exist only for this comparison and are mapped by {@link BenchmarkRows} alone. Run with {@code mvn test -Pbenchmark}; the row count can be changed with
+ * {@code -Dwabs.benchmark.id-rows}.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:id-benchmark",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "wabs.id.sequencebenchmarkrow.allocation-size=500"
+})
+class IdGenerationBenchmarkTest {
+
+    private static final int CHUNK = 1_000;
+
+    @Value("${wabs.benchmark.id-rows:100000}")
+    int rows;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    void pooledSequenceIdsInsertFasterThanIdentityIds() {
+        // Warm up both paths once
+        insert(CHUNK, IdentityBenchmarkRow::new);
+        insert(CHUNK, SequenceBenchmarkRow::new);
+
+        Result identity = insert(rows, IdentityBenchmarkRow::new);
+        Result sequence = insert(rows, SequenceBenchmarkRow::new);
+
+        log.info("{} rows | IDENTITY: {} statements, {} ms | pooled-lo sequence: {} statements, {} ms | speedup {}x",
+                rows, identity.statements, identity.millis, sequence.statements, sequence.millis,
+                String.format("%.1f", (double) identity.millis / Math.max(1, sequence.millis)));
+        assertTrue(identity.statements >= rows);
+        assertTrue(sequence.statements < rows / 10, "statements: " + sequence.statements);
+    }
+
+    /**
+     * Persists the rows in transactions of {@value #CHUNK}, flushing and clearing the persistence context after each.
+     */
+    private Result insert(int count, IntFunction<Object> row) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long started = System.nanoTime();
+        for (int from = 0; from < count; from += CHUNK) {
+            int first = from;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = first; i < Math.min(first + CHUNK, count); i++) {
+                    entityManager.persist(row.apply(i));
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        return new Result(statistics.getPrepareStatementCount(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private record Result(long statements, long millis) {
+    }
+
+    /**
+     * Maps the two row entities in this context only; they are outside the application's entity scan.
+     */
+    @TestConfiguration
+    @EntityScan(basePackageClasses = IdentityBenchmarkRow.class)
+    static class BenchmarkRows {
+    }
+}
@@ -0,0 +1,68 @@
+package com.itkolleg.bookingsystem.domains;
+
+import com.itkolleg.bookingsystem.repos.employee.EmployeeJPARepo;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pooled-sequence",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "wabs.id.employee.allocation-size=40"
+})
+class PooledSequenceGeneratorTest {
+
+    private static final int EMPLOYEES = 100;
+
+    @Autowired
+    EmployeeJPARepo employeeJPARepo;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void sequencesAreCreatedWithTheConfiguredAllocationSizes() {
+        assertEquals(40, increment("EMPLOYEE_SEQ"));
+        assertEquals(500, increment("BOOKING_SEQ"));
+        assertEquals(PooledSequenceGenerator.DEFAULT_ALLOCATION_SIZE, increment("DESK_SEQ"));
+    }
+
+    @Test
+    void employeesAreInsertedInBatchesWithIdsFromTheConfiguredBlocks() {
+        String password = EmployeePasswordListener.encode("password");
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < EMPLOYEES; i++) {
+            employees.add(new Employee("Pool", "Test", "pool" + i, "pool" + i + "@wabs.test", password, Role.ROLE_N_EMPLOYEE));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Employee> saved = employeeJPARepo.saveAll(employees);
+
+        // 100 ids from blocks of 40 need at most 4 sequence calls (the seed data may have opened one), 50 rows per batch
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= 4 + 2, "statements: " + statements);
+        for (int i = 1; i < saved.size(); i++) {
+            assertEquals(saved.get(i - 1).getId() + 1, saved.get(i).getId());
+        }
+    }
+
+    private long increment(String sequence) {
+        return jdbcTemplate.queryForObject("SELECT INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?",
+                Long.class, sequence);
+    }
+}
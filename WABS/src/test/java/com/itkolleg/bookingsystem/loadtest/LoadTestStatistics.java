@@ -0,0 +1,102 @@
+package com.itkolleg.bookingsystem.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Latencies and outcomes of the requests of a load test, grouped by endpoint ({@code POST /web/deskbookings/add},
+ * ids in the path replaced by {@code {id}}). Thread safe, every virtual user records into the same instance.
+ */
+class LoadTestStatistics {
+
+    private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * @param outcome The status code, followed by the target of a redirect, or the name of the exception.
+     */
+    void record(String endpoint, long nanos, String outcome, boolean error) {
+        endpoints.computeIfAbsent(endpoint, name -> new Endpoint()).record(nanos, outcome, error);
+    }
+
+    boolean isEmpty() {
+        return endpoints.isEmpty();
+    }
+
+    List<EndpointSummary> summaries() {
+        List<EndpointSummary> summaries = new ArrayList<>();
+        new TreeMap<>(endpoints).forEach((name, endpoint) -> summaries.add(endpoint.summary(name)));
+        return summaries;
+    }
+
+    String table() {
+        List<EndpointSummary> summaries = summaries();
+        int width = summaries.stream().mapToInt(summary -> summary.endpoint().length()).max().orElse(8);
+        String row = "%-" + width + "s %8s %7s %7s %9s %9s %9s %9s  %s%n";
+        StringBuilder table = new StringBuilder(String.format(row, "endpoint", "requests", "errors", "error%",
+                "p50 ms", "p95 ms", "p99 ms", "max ms", "outcomes"));
+        for (EndpointSummary summary : summaries) {
+            table.append(String.format(row, summary.endpoint(), summary.requests(), summary.errors(),
+                    String.format("%.1f", summary.errorRate() * 100), millis(summary.p50Millis()),
+                    millis(summary.p95Millis()), millis(summary.p99Millis()), millis(summary.maxMillis()),
+                    summary.outcomes()));
+        }
+        return table.toString();
+    }
+
+    void writeJson(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), summaries());
+    }
+
+    private static String millis(double millis) {
+        return String.format("%.1f", millis);
+    }
+
+    record EndpointSummary(String endpoint, long requests, long errors, double errorRate, double p50Millis,
+                           double p95Millis, double p99Millis, double maxMillis, Map<String, Long> outcomes) {
+    }
+
+    private static class Endpoint {
+        private long[] nanos = new long[1024];
+        private int count;
+        private long errors;
+        private final Map<String, Long> outcomes = new TreeMap<>();
+
+        synchronized void record(long latency, String outcome, boolean error) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = latency;
+            if (error) {
+                errors++;
+            }
+            outcomes.merge(outcome, 1L, Long::sum);
+        }
+
+        synchronized EndpointSummary summary(String name) {
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            return new EndpointSummary(name, count, errors, (double) errors / count, percentile(sorted, 50),
+                    percentile(sorted, 95), percentile(sorted, 99), sorted[count - 1] / 1e6, new TreeMap<>(outcomes));
+        }
+
+        /**
+         * Nearest rank, in milliseconds.
+         */
+        private static double percentile(long[] sorted, int percentile) {
+            int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+            return sorted[Math.max(rank, 1) - 1] / 1e6;
+        }
+    }
+}
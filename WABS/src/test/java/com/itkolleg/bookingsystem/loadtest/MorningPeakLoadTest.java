@@ -0,0 +1,176 @@
+package com.itkolleg.bookingsystem.loadtest;
+
+import com.itkolleg.bookingsystem.WABS;
+import com.itkolleg.bookingsystem.domains.Role;
+import com.itkolleg.bookingsystem.service.synthetic.SyntheticDataGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Replays the morning peak of {@link MorningPeakScenario} over HTTP and reports the p50/p95/p99 latency and the error
+ * rate of every endpoint, in the log and as JSON in {@code target/loadtest-result.json}. Run with
+ * {@code mvn test -Ploadtest}.
+ * <p>
+ * Without {@code wabs.loadtest.base-url} the application is started on a random port with the profiles
+ * {@code synthetic} and {@code loadtest} and an in-memory H2; otherwise the application at that url is used, which
+ * must have been started with the profile {@code synthetic}, e.g.
+ * {@code mvn test -Ploadtest -Dwabs.loadtest.base-url=http://localhost:8080 -Dwabs.loadtest.users=200}.
+ * </p>
+ * <p>
+ * The users log in over {@code wabs.loadtest.ramp-seconds}, most of them around the middle of the ramp, like around
+ * 9:00, alternating privileged and normal employees of the synthetic data. Every user runs
+ * {@code wabs.loadtest.sessions} sessions on the same day ({@code wabs.loadtest.day}, by default the next working day).
+ * </p>
+ */
+@Slf4j
+@Tag("loadtest")
+class MorningPeakLoadTest {
+
+    private static final String RESULT_FILE = "target/loadtest-result.json";
+    private static final Pattern DESK_OPTION = Pattern.compile("<option value=\"(\\d+)\"");
+    private static final Pattern DESK_BOOKING = Pattern.compile("/web/deskbookings/update/(\\d+)");
+    private static final Pattern ROOM = Pattern.compile("/web/roomBooking/createBookingEmployee/(\\d+)");
+    private static final Pattern RESSOURCE = Pattern.compile("/web/ressourceBooking/createBookingEmployee/(\\d+)");
+
+    private final int users = Integer.getInteger("wabs.loadtest.users", 100);
+    private final int sessions = Integer.getInteger("wabs.loadtest.sessions", 3);
+    private final int rampSeconds = Integer.getInteger("wabs.loadtest.ramp-seconds", 60);
+    private final long thinkMillis = Long.getLong("wabs.loadtest.think-millis", 500);
+    private final int hotDesks = Integer.getInteger("wabs.loadtest.hot-desks", 10);
+    private final long seed = Long.getLong("wabs.loadtest.seed", 42);
+    private final Duration timeout = Duration.ofSeconds(Integer.getInteger("wabs.loadtest.timeout-seconds", 30));
+    private final String password = System.getProperty("wabs.loadtest.password", "password");
+
+    @Test
+    void morningPeak() throws Exception {
+        String baseUrl = System.getProperty("wabs.loadtest.base-url");
+        ConfigurableApplicationContext context = null;
+        if (baseUrl == null) {
+            context = new SpringApplicationBuilder(WABS.class)
+                    .profiles("synthetic", "loadtest")
+                    .run("--spring.datasource.url=jdbc:h2:mem:loadtest", "--server.port=0");
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+
+        try {
+            URI baseUri = URI.create(baseUrl);
+            LoadTestStatistics statistics = replay(baseUri, scenario(baseUri));
+
+            log.info("Morning peak with {} users and {} sessions each against {}:{}{}", users, sessions, baseUrl,
+                    System.lineSeparator(), statistics.table());
+            statistics.writeJson(Path.of(RESULT_FILE));
+            log.info("Load test results written to {}", RESULT_FILE);
+            assertFalse(statistics.isEmpty());
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private LoadTestStatistics replay(URI baseUri, MorningPeakScenario scenario) throws Exception {
+        LoadTestStatistics statistics = new LoadTestStatistics();
+        Random arrivals = new Random(seed);
+        ScheduledExecutorService executor = Executors.newScheduledThreadPool(users);
+        List<Future<?>> runs = new ArrayList<>();
+        for (int user = 0; user < users; user++) {
+            String nick = nick(user);
+            Random random = new Random(seed + user);
+            // the mean of two uniform draws peaks in the middle of the ramp
+            long arrival = (long) (rampSeconds * 1000 * (arrivals.nextDouble() + arrivals.nextDouble()) / 2);
+            runs.add(executor.schedule(() -> {
+                VirtualUser virtualUser = new VirtualUser(baseUri, timeout, statistics);
+                for (int session = 0; session < sessions; session++) {
+                    scenario.run(virtualUser, nick, random);
+                }
+                return null;
+            }, arrival, TimeUnit.MILLISECONDS));
+        }
+        executor.shutdown();
+        try {
+            for (Future<?> run : runs) {
+                run.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return statistics;
+    }
+
+    /**
+     * Finds the desks in the update form of an existing desk booking, and the rooms and ressources in their lists.
+     * Employees cannot list the desks directly.
+     */
+    private MorningPeakScenario scenario(URI baseUri) {
+        LoadTestStatistics discovery = new LoadTestStatistics();
+        List<Long> desks = List.of();
+        List<Long> rooms = List.of();
+        List<Long> ressources = List.of();
+        for (int user = 0; user < Math.min(users, 20) && desks.isEmpty(); user++) {
+            VirtualUser virtualUser = new VirtualUser(baseUri, timeout, discovery);
+            if (!virtualUser.login(nick(user), password)) {
+                continue;
+            }
+            List<Long> bookings = ids(DESK_BOOKING, virtualUser.get(MorningPeakScenario.MY_DESK_BOOKINGS).body());
+            if (!bookings.isEmpty()) {
+                desks = ids(DESK_OPTION, virtualUser.get("/web/deskbookings/update/" + bookings.get(0)).body());
+                rooms = ids(ROOM, virtualUser.get("/web/rooms/allRoomsEmployee").body());
+                ressources = ids(RESSOURCE, virtualUser.get("/web/ressource/allRessourcesEmployee").body());
+            }
+            virtualUser.logout();
+        }
+        assertFalse(desks.isEmpty(), "No desks found, is the application running with the profile synthetic?");
+        assertFalse(rooms.isEmpty(), "No rooms found");
+
+        LocalDate day = System.getProperty("wabs.loadtest.day") != null
+                ? LocalDate.parse(System.getProperty("wabs.loadtest.day"))
+                : nextWorkingDay();
+        log.info("Morning peak on {} over {} desks ({} popular), {} rooms and {} ressources", day, desks.size(),
+                Math.min(hotDesks, desks.size()), rooms.size(), ressources.size());
+        return new MorningPeakScenario(day, desks, rooms, ressources, hotDesks, password, thinkMillis);
+    }
+
+    private static String nick(int user) {
+        return SyntheticDataGenerator.nick(user % 2 == 0 ? Role.ROLE_P_EMPLOYEE : Role.ROLE_N_EMPLOYEE, user / 2 + 1);
+    }
+
+    private static List<Long> ids(Pattern pattern, String page) {
+        Matcher matcher = pattern.matcher(page);
+        List<Long> ids = new ArrayList<>();
+        while (matcher.find()) {
+            long id = Long.parseLong(matcher.group(1));
+            if (!ids.contains(id)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private static LocalDate nextWorkingDay() {
+        LocalDate day = LocalDate.now().plusDays(1);
+        while (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            day = day.plusDays(1);
+        }
+        return day;
+    }
+}
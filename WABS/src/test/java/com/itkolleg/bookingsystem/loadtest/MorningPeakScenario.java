@@ -0,0 +1,169 @@
+package com.itkolleg.bookingsystem.loadtest;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One employee arriving at the office on the peak day: logs in, looks at the own desk, room and ressource bookings,
+ * books a desk from 09:00 and sometimes the 09:00 stand-up room and a ressource, then moves or cancels some of the
+ * new bookings and logs out.
+ * <p>
+ * The contention comes from everyone booking the same day and hour: most desk bookings go to a handful of popular
+ * desks and the rooms to the first few, so that many of them are refused and the updates compete for the afternoon.
+ * </p>
+ */
+class MorningPeakScenario {
+
+    static final String MY_DESK_BOOKINGS = "/web/deskbookings/mydeskbookings";
+    static final String MY_ROOM_BOOKINGS = "/web/roomBooking/allBookingsEmployee";
+    static final String MY_RESSOURCE_BOOKINGS = "/web/ressourceBooking/allBookingsEmployee";
+
+    private static final double HOT_DESK_SHARE = 0.6;
+    private static final int HOT_ROOMS = 3;
+    private static final double ROOM_SHARE = 0.4;
+    private static final double RESSOURCE_SHARE = 0.3;
+    private static final double UPDATE_SHARE = 0.25;
+    private static final double CANCEL_SHARE = 0.25;
+
+    private static final Pattern EMPLOYEE_ID = Pattern.compile("name=\"employee\" value=\"(\\d+)\"");
+    private static final Pattern DESK_BOOKING = Pattern.compile("/web/deskbookings/update/(\\d+)");
+    private static final Pattern ROOM_BOOKING = Pattern.compile("/web/roomBooking/deleteBookingEmployee/(\\d+)");
+    private static final Pattern RESSOURCE_BOOKING = Pattern.compile("/web/ressourceBooking/deleteBookingEmployee/(\\d+)");
+
+    private final LocalDate day;
+    private final List<Long> desks;
+    private final List<Long> rooms;
+    private final List<Long> ressources;
+    private final int hotDesks;
+    private final String password;
+    private final long thinkMillis;
+
+    MorningPeakScenario(LocalDate day, List<Long> desks, List<Long> rooms, List<Long> ressources, int hotDesks,
+                        String password, long thinkMillis) {
+        this.day = day;
+        this.desks = desks;
+        this.rooms = rooms;
+        this.ressources = ressources;
+        this.hotDesks = Math.min(hotDesks, desks.size());
+        this.password = password;
+        this.thinkMillis = thinkMillis;
+    }
+
+    void run(VirtualUser user, String nick, Random random) throws InterruptedException {
+        if (!user.login(nick, password)) {
+            return;
+        }
+        think(random);
+        user.get("/web/user/start");
+        user.get(MY_DESK_BOOKINGS);
+        user.get(MY_ROOM_BOOKINGS);
+        user.get(MY_RESSOURCE_BOOKINGS);
+        think(random);
+
+        // the room booking form holds the id of the employee and the CSRF token for the bookings below
+        long room = rooms.get(random.nextInt(Math.min(HOT_ROOMS, rooms.size())));
+        Matcher employee = EMPLOYEE_ID.matcher(user.get("/web/roomBooking/createBookingEmployee/" + room).body());
+        if (!employee.find()) {
+            user.logout();
+            return;
+        }
+        String employeeId = employee.group(1);
+        think(random);
+
+        bookDesk(user, employeeId, random);
+        if (random.nextDouble() < ROOM_SHARE) {
+            bookRoom(user, employeeId, room, random);
+        }
+        if (!ressources.isEmpty() && random.nextDouble() < RESSOURCE_SHARE) {
+            bookRessource(user, employeeId, ressources.get(random.nextInt(ressources.size())), random);
+        }
+        user.logout();
+    }
+
+    private void bookDesk(VirtualUser user, String employeeId, Random random) throws InterruptedException {
+        long desk = desks.get(random.nextInt(random.nextDouble() < HOT_DESK_SHARE ? hotDesks : desks.size()));
+        String end = random.nextBoolean() ? "12:00" : "17:00";
+        if (!user.post("/web/deskbookings/add", form("desk.id", desk, "date", day, "start", "09:00", "endTime", end),
+                MY_DESK_BOOKINGS).ok()) {
+            return;
+        }
+        think(random);
+
+        Long booking = newest(DESK_BOOKING, user.get(MY_DESK_BOOKINGS).body());
+        double change = random.nextDouble();
+        if (booking == null || change >= UPDATE_SHARE + CANCEL_SHARE) {
+            return;
+        }
+        if (change < UPDATE_SHARE) {
+            user.get("/web/deskbookings/update/" + booking);
+            think(random);
+            // the afternoon is still taken by the full days booked on the same desk
+            user.post("/web/deskbookings/update", form("id", booking, "desk.id", desk, "employee.id", employeeId,
+                    "date", day, "start", "13:00", "endTime", "17:00"), MY_DESK_BOOKINGS);
+        } else {
+            user.get("/web/deskbookings/cancel/" + booking);
+            think(random);
+            user.post("/web/deskbookings/cancel/" + booking, Map.of(), MY_DESK_BOOKINGS);
+        }
+    }
+
+    private void bookRoom(VirtualUser user, String employeeId, long room, Random random) throws InterruptedException {
+        if (!user.post("/web/roomBooking/createBookingEmployee", form("employee", employeeId, "room", room,
+                "date", day, "start", "09:00", "endTime", "10:00"), "/web/rooms/allRoomsEmployee").ok()) {
+            return;
+        }
+        think(random);
+        Long booking = newest(ROOM_BOOKING, user.get(MY_ROOM_BOOKINGS).body());
+        if (booking != null && random.nextDouble() < CANCEL_SHARE) {
+            user.get("/web/roomBooking/deleteBookingEmployee/" + booking, MY_ROOM_BOOKINGS);
+        }
+    }
+
+    private void bookRessource(VirtualUser user, String employeeId, long ressource, Random random) throws InterruptedException {
+        user.get("/web/ressourceBooking/createBookingEmployee/" + ressource);
+        think(random);
+        if (!user.post("/web/ressourceBooking/createBookingEmployee", form("employee", employeeId, "ressource", ressource,
+                "date", day, "start", "09:00", "endTime", "12:00"), "/web/ressource/allRessourcesEmployee").ok()) {
+            return;
+        }
+        think(random);
+        Long booking = newest(RESSOURCE_BOOKING, user.get(MY_RESSOURCE_BOOKINGS).body());
+        if (booking != null && random.nextDouble() < CANCEL_SHARE) {
+            user.get("/web/ressourceBooking/deleteBookingEmployee/" + booking, MY_RESSOURCE_BOOKINGS);
+        }
+    }
+
+    /**
+     * The highest booking id linked on the page, which is the booking made just before.
+     */
+    private static Long newest(Pattern link, String page) {
+        Matcher matcher = link.matcher(page);
+        Long newest = null;
+        while (matcher.find()) {
+            long id = Long.parseLong(matcher.group(1));
+            if (newest == null || id > newest) {
+                newest = id;
+            }
+        }
+        return newest;
+    }
+
+    private static Map<String, String> form(Object... fields) {
+        Map<String, String> form = new LinkedHashMap<>();
+        for (int i = 0; i < fields.length; i += 2) {
+            form.put((String) fields[i], String.valueOf(fields[i + 1]));
+        }
+        return form;
+    }
+
+    private void think(Random random) throws InterruptedException {
+        if (thinkMillis > 0) {
+            Thread.sleep((long) (thinkMillis * (0.5 + random.nextDouble())));
+        }
+    }
+}
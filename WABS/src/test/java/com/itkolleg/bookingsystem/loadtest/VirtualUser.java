@@ -0,0 +1,135 @@
+package com.itkolleg.bookingsystem.loadtest;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * One browser session against the web interface: its own cookies, the CSRF token of the last page that held a form
+ * and no automatic redirects, so that every request is timed on its own and recorded in the {@link LoadTestStatistics}.
+ * <p>
+ * A request counts as an error if it fails, answers with 4xx/5xx or redirects to the error page or the login. A
+ * request with an expected redirect is an error if it is not redirected there, e.g. a refused booking.
+ * </p>
+ */
+class VirtualUser {
+
+    private static final Pattern CSRF_TOKEN = Pattern.compile("name=\"_csrf\" value=\"([^\"]+)\"");
+    private static final Pattern ID_IN_PATH = Pattern.compile("/\\d+(?=/|$)");
+
+    private final HttpClient client;
+    private final URI baseUri;
+    private final Duration timeout;
+    private final LoadTestStatistics statistics;
+    private String csrfToken;
+
+    VirtualUser(URI baseUri, Duration timeout, LoadTestStatistics statistics) {
+        this.client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(timeout)
+                .build();
+        this.baseUri = baseUri;
+        this.timeout = timeout;
+        this.statistics = statistics;
+    }
+
+    boolean login(String nick, String password) {
+        get("/web/login");
+        Map<String, String> form = new LinkedHashMap<>();
+        form.put("username", nick);
+        form.put("password", password);
+        return post("/web/login", form, "/web/user/start").ok();
+    }
+
+    void logout() {
+        post("/logout", Map.of(), "/web/login");
+    }
+
+    Response get(String path) {
+        return send("GET", path, HttpRequest.BodyPublishers.noBody(), null);
+    }
+
+    Response get(String path, String expectedRedirect) {
+        return send("GET", path, HttpRequest.BodyPublishers.noBody(), expectedRedirect);
+    }
+
+    Response post(String path, Map<String, String> form, String expectedRedirect) {
+        Map<String, String> body = new LinkedHashMap<>(form);
+        if (csrfToken != null) {
+            body.put("_csrf", csrfToken);
+        }
+        String encoded = body.entrySet().stream()
+                .map(field -> encode(field.getKey()) + "=" + encode(field.getValue()))
+                .collect(Collectors.joining("&"));
+        return send("POST", path, HttpRequest.BodyPublishers.ofString(encoded), expectedRedirect);
+    }
+
+    private Response send(String method, String path, HttpRequest.BodyPublisher body, String expectedRedirect) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(path)).timeout(timeout).method(method, body);
+        if (method.equals("POST")) {
+            builder.header("Content-Type", "application/x-www-form-urlencoded");
+        }
+        HttpRequest request = builder.build();
+        String endpoint = method + " " + ID_IN_PATH.matcher(path).replaceAll("/{id}");
+
+        long start = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            statistics.record(endpoint, System.nanoTime() - start, e.getClass().getSimpleName(), true);
+            return new Response(0, null, "", false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Response(0, null, "", false);
+        }
+        long nanos = System.nanoTime() - start;
+
+        String location = response.headers().firstValue("Location").map(this::pathOf).orElse(null);
+        boolean ok = isOk(response.statusCode(), location, expectedRedirect);
+        String outcome = response.statusCode() + (location == null ? "" : " -> " + ID_IN_PATH.matcher(location).replaceAll("/{id}"));
+        statistics.record(endpoint, nanos, outcome, !ok);
+
+        Matcher token = CSRF_TOKEN.matcher(response.body());
+        if (token.find()) {
+            csrfToken = token.group(1);
+        }
+        return new Response(response.statusCode(), location, response.body(), ok);
+    }
+
+    private static boolean isOk(int status, String location, String expectedRedirect) {
+        if (status >= 400) {
+            return false;
+        }
+        if (expectedRedirect != null) {
+            return location != null && location.equals(expectedRedirect);
+        }
+        return location == null || !(location.startsWith("/error") || location.startsWith("/web/login"));
+    }
+
+    /**
+     * The path of a redirect without the query, e.g. {@code /web/login} for {@code http://localhost:8080/web/login?logout}.
+     */
+    private String pathOf(String location) {
+        return baseUri.resolve(location).getPath();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    record Response(int status, String location, String body, boolean ok) {
+    }
+}
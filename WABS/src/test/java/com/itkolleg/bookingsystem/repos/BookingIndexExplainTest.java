@@ -0,0 +1,194 @@
+package com.itkolleg.bookingsystem.repos;
+
+import com.itkolleg.bookingsystem.domains.Employee;
+import com.itkolleg.bookingsystem.domains.Ressource;
+import com.itkolleg.bookingsystem.domains.Room;
+import com.itkolleg.bookingsystem.repos.deskbooking.DeskBookingJPARepo;
+import com.itkolleg.bookingsystem.repos.employee.EmployeeJPARepo;
+import com.itkolleg.bookingsystem.repos.ressource.RessourceJPARepo;
+import com.itkolleg.bookingsystem.repos.ressourcebooking.RessourceBookingJPARepo;
+import com.itkolleg.bookingsystem.repos.room.RoomJPARepo;
+import com.itkolleg.bookingsystem.repos.roombooking.RoomBookingJPARepo;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs EXPLAIN for the SQL of every hot booking finder against 1M bookings and fails if any of them scans the
+ * booking table instead of using one of the indexes declared on {@code Booking}. Run with {@code mvn test -Pbenchmark}.
+ * The dataset size can be lowered for quick local runs with {@code -Dwabs.explain.bookings=...}.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:booking-index-explain",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.itkolleg.bookingsystem.repos.BookingIndexExplainTest$RecordingInspector"
+})
+class BookingIndexExplainTest {
+
+    private static final int BOOKINGS = Integer.getInteger("wabs.explain.bookings", 1_000_000);
+    private static final int CHUNK = 50_000;
+
+    @Autowired
+    DeskBookingJPARepo deskBookingJPARepo;
+
+    @Autowired
+    RoomBookingJPARepo roomBookingJPARepo;
+
+    @Autowired
+    RessourceBookingJPARepo ressourceBookingJPARepo;
+
+    @Autowired
+    EmployeeJPARepo employeeJPARepo;
+
+    @Autowired
+    RoomJPARepo roomJPARepo;
+
+    @Autowired
+    RessourceJPARepo ressourceJPARepo;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void hotFindersUseAnIndexOnTheBookingTable() {
+        Map<String, String> finders = recordFinderSql();
+        seedBookings();
+
+        jdbcTemplate.execute((Connection connection) -> {
+            for (Map.Entry<String, String> finder : finders.entrySet()) {
+                String plan = explain(connection, finder.getValue());
+                log.info("{}: {}", finder.getKey(), plan.replaceAll("\\s+", " "));
+                assertFalse(plan.contains("PUBLIC.BOOKING.tableScan"), finder.getKey() + " scans the booking table:\n" + plan);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Executes each finder once on the seeded data and keeps the SQL Hibernate generated for it.
+     */
+    private Map<String, String> recordFinderSql() {
+        Employee employee = employeeJPARepo.findAll().get(0);
+        Room room = roomJPARepo.findAll().get(0);
+        Ressource ressource = ressourceJPARepo.findAll().get(0);
+        LocalDate date = LocalDate.now();
+        LocalTime start = LocalTime.of(8, 0);
+        LocalTime end = LocalTime.of(12, 0);
+
+        Map<String, String> finders = new LinkedHashMap<>();
+        finders.put("DeskBookingJPARepo.findBookingsByDeskIdDateAndTimeRange",
+                sqlOf(() -> deskBookingJPARepo.findBookingsByDeskIdDateAndTimeRange(1L, date, start, end)));
+        finders.put("DeskBookingJPARepo.findBookingsByDeskIdAndDate",
+                sqlOf(() -> deskBookingJPARepo.findBookingsByDeskIdAndDate(1L, date)));
+        finders.put("DeskBookingJPARepo.findBookingsByDeskId",
+                sqlOf(() -> deskBookingJPARepo.findBookingsByDeskId(1L)));
+        finders.put("DeskBookingJPARepo.findBookingsByEmployeeIdAndDate",
+                sqlOf(() -> deskBookingJPARepo.findBookingsByEmployeeIdAndDate(employee.getId(), date)));
+        finders.put("DeskBookingJPARepo.findBookingsByEmployeeId",
+                sqlOf(() -> deskBookingJPARepo.findBookingsByEmployeeId(employee.getId())));
+        finders.put("DeskBookingJPARepo.findBookingsByDate",
+                sqlOf(() -> deskBookingJPARepo.findBookingsByDate(date)));
+        finders.put("DeskBookingJPARepo.findAvailableDesks",
+                sqlOf(() -> deskBookingJPARepo.findAvailableDesks(date, start, end)));
+        finders.put("DeskBookingJPARepo.findOccupancyByDate",
+                sqlOf(() -> deskBookingJPARepo.findOccupancyByDate(date)));
+        finders.put("RoomBookingJPARepo.getOverlappingBookings",
+                sqlOf(() -> roomBookingJPARepo.getOverlappingBookings(room, date, start, end)));
+        finders.put("RoomBookingJPARepo.getBookingsByEmployeeAndDate",
+                sqlOf(() -> roomBookingJPARepo.getBookingsByEmployeeAndDate(employee, date)));
+        finders.put("RoomBookingJPARepo.findOccupancyByDate",
+                sqlOf(() -> roomBookingJPARepo.findOccupancyByDate(date)));
+        finders.put("RessourceBookingJPARepo.getOverlappingBookings",
+                sqlOf(() -> ressourceBookingJPARepo.getOverlappingBookings(ressource, date, start, end)));
+        finders.put("RessourceBookingJPARepo.getBookingsByEmployeeAndDate",
+                sqlOf(() -> ressourceBookingJPARepo.getBookingsByEmployeeAndDate(employee, date)));
+        finders.put("RessourceBookingJPARepo.findOccupancyByDate",
+                sqlOf(() -> ressourceBookingJPARepo.findOccupancyByDate(date)));
+        return finders;
+    }
+
+    private static String sqlOf(Runnable finder) {
+        RecordingInspector.STATEMENTS.clear();
+        finder.run();
+        return RecordingInspector.STATEMENTS.stream()
+                .filter(sql -> sql.toLowerCase().contains(" booking "))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("no booking query recorded: " + RecordingInspector.STATEMENTS));
+    }
+
+    /**
+     * Inserts the bookings spread over 500 desks, 50 rooms, 200 ressources, 1000 employees and two years, in chunks so
+     * that H2 does not keep one huge transaction in memory. Foreign keys are not checked during the load, the rows are
+     * only used for query planning. Desk, date and start of the desk bookings repeat every 438000 rows, so the start is
+     * shifted by one slot per repetition to keep them unique.
+     */
+    private void seedBookings() {
+        long started = System.nanoTime();
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        for (int from = 1; from <= BOOKINGS; from += CHUNK) {
+            jdbcTemplate.update("""
+                    INSERT INTO booking (id, dtype, employee_id, date, start, end_time, desk_id, room_id, ressource_id)
+                    SELECT 10000000 + x,
+                           CASE MOD(x, 3) WHEN 0 THEN 'DeskBooking' WHEN 1 THEN 'RoomBooking' ELSE 'RessourceBooking' END,
+                           1 + MOD(x, 1000),
+                           DATEADD(DAY, MOD(x, 730), CURRENT_DATE),
+                           TIME '08:00:00' + MOD(x + x / 438000, 16) * INTERVAL '30' MINUTE,
+                           TIME '09:00:00' + MOD(x + x / 438000, 16) * INTERVAL '30' MINUTE,
+                           CASE MOD(x, 3) WHEN 0 THEN 1 + MOD(x / 3, 500) END,
+                           CASE MOD(x, 3) WHEN 1 THEN 1 + MOD(x / 3, 50) END,
+                           CASE MOD(x, 3) WHEN 2 THEN 1 + MOD(x / 3, 200) END
+                    FROM SYSTEM_RANGE(?, ?)
+                    """, from, Math.min(from + CHUNK - 1, BOOKINGS));
+        }
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        jdbcTemplate.execute("ANALYZE");
+        log.info("Seeded {} bookings in {} ms", BOOKINGS, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static String explain(Connection connection, String sql) throws java.sql.SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setObject(i, null);
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        }
+    }
+
+    /**
+     * Keeps every SQL statement Hibernate prepares, so the test can EXPLAIN exactly what the finders run.
+     */
+    public static class RecordingInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
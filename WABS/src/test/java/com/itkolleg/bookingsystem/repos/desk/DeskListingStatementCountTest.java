@@ -0,0 +1,93 @@
+package com.itkolleg.bookingsystem.repos.desk;
+
+import com.itkolleg.bookingsystem.domains.Desk;
+import com.itkolleg.bookingsystem.domains.Port;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Asserts that listing 500 desks initializes all ports without one {@code desk_ports} select per desk.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:desk-listing",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=warn"
+})
+class DeskListingStatementCountTest {
+
+    private static final int DESKS = 500;
+
+    @Autowired
+    DeskRepo deskRepo;
+
+    @Autowired
+    DeskJPARepo deskJPARepo;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        long existing = deskJPARepo.count();
+        if (existing < DESKS) {
+            List<Desk> desks = new ArrayList<>();
+            for (long i = existing; i < DESKS; i++) {
+                List<Port> ports = new ArrayList<>();
+                ports.add(new Port("HDMI"));
+                ports.add(new Port("USB-C"));
+                desks.add(new Desk("L" + i, 2, ports));
+            }
+            deskJPARepo.saveAll(desks);
+        }
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getAllDesksLoadsPortsInOneStatement() {
+        List<Desk> desks = deskRepo.getAllDesks();
+
+        assertEquals(DESKS, desks.size());
+        assertTrue(countPorts(desks) >= DESKS);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getAllDesksByPageLoadsPortsInBatches() {
+        long statements = transactionTemplate.execute(status -> {
+            Page<Desk> page = deskRepo.getAllDesksByPage(PageRequest.of(0, DESKS));
+            assertEquals(DESKS, page.getNumberOfElements());
+            assertTrue(countPorts(page.getContent()) >= DESKS);
+            return statistics.getPrepareStatementCount();
+        });
+
+        // page select, count select and one select per batch of 100 port collections
+        assertTrue(statements <= 2 + DESKS / 100, "statements: " + statements);
+    }
+
+    private static int countPorts(List<Desk> desks) {
+        return desks.stream().mapToInt(desk -> desk.getPorts().size()).sum();
+    }
+}
@@ -0,0 +1,56 @@
+package com.itkolleg.bookingsystem.repos.desk;
+
+import com.itkolleg.bookingsystem.domains.Desk;
+import com.itkolleg.bookingsystem.domains.Port;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class DeskSecondLevelCacheTest {
+
+    @Autowired
+    DeskJPARepo deskJPARepo;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void loadedDeskIsKeptInSecondLevelCache() {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        Desk desk = deskJPARepo.save(newDesk("L2-1"));
+        cache.evictEntityData(Desk.class, desk.getId());
+
+        deskJPARepo.findById(desk.getId()).orElseThrow();
+
+        assertTrue(cache.containsEntity(Desk.class, desk.getId()));
+    }
+
+    @Test
+    void updatedDeskIsNotServedStale() {
+        Desk desk = deskJPARepo.save(newDesk("L2-2"));
+        assertEquals(2, deskJPARepo.findDeskById(desk.getId()).getNrOfMonitors());
+
+        Desk loaded = deskJPARepo.findById(desk.getId()).orElseThrow();
+        loaded.setNrOfMonitors(3);
+        deskJPARepo.save(loaded);
+
+        assertEquals(3, deskJPARepo.findDeskById(desk.getId()).getNrOfMonitors());
+        assertTrue(deskJPARepo.findAll().stream().anyMatch(d -> d.getId().equals(desk.getId()) && d.getNrOfMonitors() == 3));
+    }
+
+    private Desk newDesk(String deskNr) {
+        Desk desk = new Desk();
+        desk.setDeskNr(deskNr);
+        desk.setNrOfMonitors(2);
+        return desk;
+    }
+}
@@ -0,0 +1,121 @@
+package com.itkolleg.bookingsystem.repos.deskbooking;
+
+import com.itkolleg.bookingsystem.domains.Desk;
+import com.itkolleg.bookingsystem.domains.Employee;
+import com.itkolleg.bookingsystem.domains.Port;
+import com.itkolleg.bookingsystem.domains.booking.DeskBooking;
+import com.itkolleg.bookingsystem.repos.desk.DeskJPARepo;
+import com.itkolleg.bookingsystem.repos.employee.EmployeeJPARepo;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures statement count and latency of {@link DeskBookingRepo#getAvailableDesks} at 100, 1k and 10k desks,
+ * next to the former one-query-per-desk loop. Run with {@code mvn test -Pbenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:availability-benchmark",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class DeskAvailabilityBenchmarkTest {
+
+    private static final int[] DESK_COUNTS = {100, 1_000, 10_000};
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    DeskBookingRepo deskBookingRepo;
+
+    @Autowired
+    DeskBookingJPARepo deskBookingJPARepo;
+
+    @Autowired
+    DeskJPARepo deskJPARepo;
+
+    @Autowired
+    EmployeeJPARepo employeeJPARepo;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void availabilityQueryCountAndLatency() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Employee employee = employeeJPARepo.findAll().get(0);
+        LocalDate date = LocalDate.now().plusWeeks(1).with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+        LocalTime start = LocalTime.of(9, 0);
+        LocalTime end = LocalTime.of(11, 0);
+
+        for (int deskCount : DESK_COUNTS) {
+            seedDesks(deskCount, employee, date);
+            long totalDesks = deskJPARepo.count();
+
+            statistics.clear();
+            long setBasedNanos = 0;
+            List<Desk> available = List.of();
+            for (int round = 0; round < ROUNDS; round++) {
+                long t0 = System.nanoTime();
+                available = deskBookingRepo.getAvailableDesks(date, start, end, null);
+                setBasedNanos += System.nanoTime() - t0;
+            }
+            long setBasedStatements = statistics.getPrepareStatementCount() / ROUNDS;
+
+            statistics.clear();
+            long t0 = System.nanoTime();
+            int loopAvailable = 0;
+            for (Desk desk : deskJPARepo.findAll()) {
+                if (deskBookingJPARepo.findBookingsByDeskIdDateAndTimeRange(desk.getId(), date, start, end).isEmpty()) {
+                    loopAvailable++;
+                }
+            }
+            long loopNanos = System.nanoTime() - t0;
+            long loopStatements = statistics.getPrepareStatementCount();
+
+            log.info("desks={} available={} | set-based: {} statement(s), {} ms | per-desk loop: {} statements, {} ms",
+                    totalDesks, available.size(), setBasedStatements, setBasedNanos / ROUNDS / 1_000_000.0,
+                    loopStatements, loopNanos / 1_000_000.0);
+
+            assertEquals(1, setBasedStatements);
+            assertEquals(loopAvailable, available.size());
+        }
+    }
+
+    /**
+     * Tops the desk table up to the requested size and books every second new desk from 9:30 to 11:30.
+     */
+    private void seedDesks(int targetCount, Employee employee, LocalDate date) {
+        long existing = deskJPARepo.count();
+        List<Desk> desks = new ArrayList<>();
+        for (long i = existing; i < targetCount; i++) {
+            Desk desk = new Desk();
+            desk.setDeskNr("B" + i);
+            desk.setNrOfMonitors(2);
+            desk.setPorts(new ArrayList<>(List.of(new Port("HDMI"), new Port("USB-C"))));
+            desks.add(desk);
+        }
+        List<Desk> saved = deskJPARepo.saveAll(desks);
+
+        List<DeskBooking> bookings = new ArrayList<>();
+        for (int i = 0; i < saved.size(); i += 2) {
+            bookings.add(new DeskBooking(employee, saved.get(i), date, LocalTime.of(9, 30), LocalTime.of(11, 30)));
+        }
+        deskBookingJPARepo.saveAll(bookings);
+    }
+}
@@ -0,0 +1,80 @@
+package com.itkolleg.bookingsystem.repos.deskbooking;
+
+import com.itkolleg.bookingsystem.domains.Desk;
+import com.itkolleg.bookingsystem.domains.Employee;
+import com.itkolleg.bookingsystem.domains.Timeslot;
+import com.itkolleg.bookingsystem.domains.booking.Booking;
+import com.itkolleg.bookingsystem.domains.booking.DeskBooking;
+import com.itkolleg.bookingsystem.repos.timeslot.TimeslotJPARepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class DeskBookingSearchTest {
+
+    @Autowired
+    DeskBookingRepo deskBookingRepo;
+
+    @Autowired
+    DeskBookingJPARepo deskBookingJPARepo;
+
+    @Autowired
+    TimeslotJPARepo timeslotJPARepo;
+
+    @Test
+    void searchByEmployeeDeskAndDateMatchesTheSameBookingsAsFilteringInMemory() {
+        DeskBooking sample = deskBookingJPARepo.findAll().get(0);
+        Employee employee = sample.getEmployee();
+        Desk desk = sample.getDesk();
+        LocalDate date = sample.getDate();
+
+        assertSearchMatches(
+                deskBookingRepo.searchBookings(Optional.of(employee), Optional.of(desk), Optional.of(date), Optional.empty(), Optional.empty(), Optional.empty()),
+                booking -> booking.getEmployee().getId().equals(employee.getId())
+                        && booking.getDesk().getId().equals(desk.getId())
+                        && booking.getDate().equals(date));
+        assertSearchMatches(
+                deskBookingRepo.searchBookings(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty()),
+                booking -> true);
+    }
+
+    @Test
+    void timeCriteriaMatchOverlappingBookings() {
+        LocalTime start = LocalTime.of(10, 0);
+        LocalTime end = LocalTime.of(11, 0);
+
+        assertSearchMatches(
+                deskBookingRepo.searchBookings(Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(start), Optional.of(end), Optional.empty()),
+                booking -> booking.getStart().isBefore(end) && booking.getEndTime().isAfter(start));
+        assertSearchMatches(
+                deskBookingRepo.searchBookings(Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(start), Optional.empty(), Optional.empty()),
+                booking -> booking.getEndTime().isAfter(start));
+
+        Timeslot timeslot = timeslotJPARepo.findAll().get(0);
+        assertSearchMatches(
+                deskBookingRepo.searchBookings(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(timeslot)),
+                booking -> booking.getStart().isBefore(timeslot.getEnd()) && booking.getEndTime().isAfter(timeslot.getStart()));
+    }
+
+    private void assertSearchMatches(List<DeskBooking> found, Predicate<DeskBooking> expected) {
+        List<Long> expectedIds = deskBookingJPARepo.findAll().stream()
+                .filter(expected)
+                .map(Booking::getId)
+                .sorted()
+                .toList();
+        List<Long> foundIds = found.stream()
+                .map(Booking::getId)
+                .sorted()
+                .toList();
+        assertEquals(expectedIds, foundIds);
+    }
+}
@@ -0,0 +1,81 @@
+package com.itkolleg.bookingsystem.repos.deskbooking;
+
+import com.itkolleg.bookingsystem.domains.booking.Booking;
+import com.itkolleg.bookingsystem.domains.booking.DeskBooking;
+import com.itkolleg.bookingsystem.repos.booking.BookingCursor;
+import com.itkolleg.bookingsystem.repos.booking.BookingSlice;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class DeskBookingSliceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2000, 1, 1);
+
+    @Autowired
+    DeskBookingRepo deskBookingRepo;
+
+    @Autowired
+    DeskBookingJPARepo deskBookingJPARepo;
+
+    @Test
+    void slicesWalkAllBookingsInDateAndIdOrder() {
+        List<Long> expected = deskBookingJPARepo.findAll().stream()
+                .sorted(Comparator.comparing(Booking::getDate).thenComparing(Booking::getId))
+                .map(Booking::getId)
+                .toList();
+        assertFalse(expected.isEmpty());
+
+        List<Long> walked = new ArrayList<>();
+        BookingCursor cursor = null;
+        do {
+            BookingSlice<DeskBooking> slice = deskBookingRepo.getBookingSlice(FROM, null, cursor, 2);
+            assertTrue(slice.getContent().size() <= 2);
+            slice.getContent().forEach(booking -> walked.add(booking.getId()));
+            cursor = slice.getNext();
+        } while (cursor != null);
+
+        assertEquals(expected, walked);
+    }
+
+    @Test
+    void sliceIsLimitedToTheDateRange() {
+        DeskBooking first = deskBookingJPARepo.findAll().stream()
+                .min(Comparator.comparing(Booking::getDate))
+                .orElseThrow();
+
+        BookingSlice<DeskBooking> slice = deskBookingRepo.getBookingSlice(first.getDate(), first.getDate(), null, BookingSlice.MAX_SIZE);
+
+        assertFalse(slice.getContent().isEmpty());
+        assertTrue(slice.getContent().stream().allMatch(booking -> booking.getDate().equals(first.getDate())));
+    }
+
+    @Test
+    void cursorRoundTripsThroughItsTextForm() {
+        BookingCursor cursor = new BookingCursor(LocalDate.of(2024, 5, 13), 4711L);
+
+        assertEquals("2024-05-13_4711", cursor.toString());
+        assertEquals(cursor, BookingCursor.parse(cursor.toString()));
+        assertNull(BookingCursor.parse(" "));
+    }
+
+    @Test
+    void invalidCursorStartsWithTheFirstPage() {
+        assertNull(BookingCursor.parse("2024-05-13"));
+        assertNull(BookingCursor.parse("13.05.2024_4711"));
+        assertNull(BookingCursor.parse("2024-05-13_x"));
+
+        List<Long> firstPage = deskBookingRepo.getBookingSlice(FROM, null, null, 2).getContent().stream().map(Booking::getId).toList();
+        List<Long> page = deskBookingRepo.getBookingSlice(FROM, null, BookingCursor.parse("2024-05-13_x"), 2).getContent().stream().map(Booking::getId).toList();
+
+        assertEquals(firstPage, page);
+    }
+}
@@ -0,0 +1,42 @@
+package com.itkolleg.bookingsystem.repos.occupancy;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OccupancyGridTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 3, 4);
+
+    private static int packed(int startHour, int startMinute, int endHour, int endMinute) {
+        return (startHour * 60 + startMinute) << 16 | (endHour * 60 + endMinute);
+    }
+
+    @Test
+    void answersRangeQueriesPerSlot() {
+        OccupancyGrid grid = OccupancyGrid.build(DAY, List.of(1L, 2L, 3L),
+                Map.of(1L, new int[]{packed(8, 0, 12, 30)}, 2L, new int[]{packed(9, 10, 9, 20)}),
+                LocalTime.of(8, 0), LocalTime.of(17, 0), 15);
+
+        assertEquals(36, grid.getSlots());
+        assertFalse(grid.isFree(1L, grid.slotOf(LocalTime.of(12, 0)), grid.slotOf(LocalTime.of(13, 0))));
+        assertTrue(grid.isFree(1L, grid.slotOf(LocalTime.of(12, 30)), grid.getSlots()));
+        assertEquals(List.of(1L, 2L, 3L), grid.freeDesks(LocalTime.of(13, 0), LocalTime.of(14, 0)));
+        assertEquals(List.of(3L), grid.freeDesks(LocalTime.of(9, 0), LocalTime.of(9, 30)));
+        assertFalse(grid.isFree(99L, 0, 1));
+    }
+
+    @Test
+    void serializesOneHexDigitPerFourSlots() {
+        OccupancyGrid grid = OccupancyGrid.build(DAY, List.of(7L), Map.of(7L, new int[]{packed(8, 15, 9, 0)}),
+                LocalTime.of(8, 0), LocalTime.of(9, 0), 15);
+
+        assertEquals("{\"date\":\"2030-03-04\",\"start\":\"08:00\",\"slotMinutes\":15,\"slots\":4,\"desks\":{\"7\":\"e\"}}",
+                grid.toPayload());
+    }
+}
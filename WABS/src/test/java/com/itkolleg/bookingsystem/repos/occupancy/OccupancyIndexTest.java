@@ -0,0 +1,87 @@
+package com.itkolleg.bookingsystem.repos.occupancy;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OccupancyIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 3, 4);
+
+    @Test
+    void detectsOverlapsThatStartBeforeTheWindow() {
+        OccupancyIndex index = new OccupancyIndex(date -> List.of(
+                new OccupancyRow(1L, 10L, LocalTime.of(8, 0), LocalTime.of(12, 30))));
+
+        assertFalse(index.isFree(10L, DAY, LocalTime.of(9, 0), LocalTime.of(10, 0), null));
+        assertFalse(index.isFree(10L, DAY, LocalTime.of(12, 0), LocalTime.of(13, 0), null));
+        assertTrue(index.isFree(10L, DAY, LocalTime.of(12, 30), LocalTime.of(17, 0), null));
+        assertTrue(index.isFree(11L, DAY, LocalTime.of(9, 0), LocalTime.of(10, 0), null));
+        assertTrue(index.isFree(10L, DAY, LocalTime.of(9, 0), LocalTime.of(10, 0), 1L));
+    }
+
+    @Test
+    void loadsEachDayOnceAndFollowsWrites() {
+        AtomicInteger loads = new AtomicInteger();
+        OccupancyIndex index = new OccupancyIndex(date -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+
+        assertTrue(index.isFree(10L, DAY, LocalTime.of(8, 0), LocalTime.of(17, 0), null));
+        index.put(5L, 10L, DAY, LocalTime.of(13, 0), LocalTime.of(14, 0));
+        assertFalse(index.isFree(10L, DAY, LocalTime.of(8, 0), LocalTime.of(17, 0), null));
+
+        // moving the booking frees the old slot
+        index.put(5L, 10L, DAY, LocalTime.of(15, 0), LocalTime.of(16, 0));
+        assertTrue(index.isFree(10L, DAY, LocalTime.of(13, 0), LocalTime.of(14, 0), null));
+        assertFalse(index.isFree(10L, DAY, LocalTime.of(15, 30), LocalTime.of(17, 0), null));
+
+        index.remove(5L);
+        assertTrue(index.isFree(10L, DAY, LocalTime.of(8, 0), LocalTime.of(17, 0), null));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void midnightEndsTheDayAndEmptyIntervalsAreNeverFree() {
+        OccupancyIndex index = new OccupancyIndex(date -> List.of(
+                new OccupancyRow(1L, 10L, LocalTime.of(20, 0), LocalTime.MIDNIGHT)));
+
+        assertFalse(index.isFree(10L, DAY, LocalTime.of(22, 0), LocalTime.of(23, 0), null));
+        assertTrue(index.isFree(10L, DAY, LocalTime.of(8, 0), LocalTime.of(20, 0), null));
+
+        index.put(2L, 11L, DAY, LocalTime.of(18, 0), LocalTime.MIDNIGHT);
+        assertFalse(index.isFree(11L, DAY, LocalTime.of(18, 0), LocalTime.MIDNIGHT, null));
+        assertFalse(index.isFree(11L, DAY, LocalTime.of(23, 0), LocalTime.of(23, 30), null));
+
+        assertFalse(index.isFree(12L, DAY, LocalTime.of(10, 0), LocalTime.of(10, 0), null));
+        assertFalse(index.isFree(12L, DAY, LocalTime.of(12, 0), LocalTime.of(9, 0), null));
+        index.put(3L, 12L, DAY, LocalTime.of(12, 0), LocalTime.of(9, 0));
+        assertEquals(0, index.intervals(12L, DAY).length);
+    }
+
+    @Test
+    void browsingFarAheadKeepsTheNumberOfDaysBoundedAndTodayLoaded() {
+        AtomicInteger loads = new AtomicInteger();
+        OccupancyIndex index = new OccupancyIndex(date -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+        LocalDate today = LocalDate.now();
+        index.isFree(10L, today, LocalTime.of(8, 0), LocalTime.of(9, 0), null);
+
+        for (int day = 1; day <= 3 * OccupancyIndex.MAX_LOADED_DAYS; day++) {
+            index.isFree(10L, today.plusDays(day), LocalTime.of(8, 0), LocalTime.of(9, 0), null);
+            assertTrue(index.loadedDays() <= OccupancyIndex.MAX_LOADED_DAYS, "loaded days: " + index.loadedDays());
+        }
+
+        int loadsBefore = loads.get();
+        index.isFree(10L, today, LocalTime.of(8, 0), LocalTime.of(9, 0), null);
+        assertEquals(loadsBefore, loads.get());
+    }
+}
@@ -0,0 +1,139 @@
+package com.itkolleg.bookingsystem.service.analytics;
+
+import com.itkolleg.bookingsystem.domains.Desk;
+import com.itkolleg.bookingsystem.domains.Employee;
+import com.itkolleg.bookingsystem.domains.Room;
+import com.itkolleg.bookingsystem.domains.analytics.OccupancyScope;
+import com.itkolleg.bookingsystem.domains.booking.DeskBooking;
+import com.itkolleg.bookingsystem.domains.booking.RoomBooking;
+import com.itkolleg.bookingsystem.repos.analytics.NoShowCandidate;
+import com.itkolleg.bookingsystem.repos.desk.DeskJPARepo;
+import com.itkolleg.bookingsystem.repos.deskbooking.DeskBookingJPARepo;
+import com.itkolleg.bookingsystem.repos.employee.EmployeeJPARepo;
+import com.itkolleg.bookingsystem.repos.room.RoomJPARepo;
+import com.itkolleg.bookingsystem.repos.roombooking.RoomBookingJPARepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:occupancy-analytics",
+        "spring.jpa.show-sql=false"
+})
+class OccupancyAnalyticsServiceTest {
+
+    // a Monday far away from the seeded bookings
+    private static final LocalDate DAY = LocalDate.of(2031, 3, 3);
+
+    @Autowired
+    OccupancyAnalyticsService occupancyAnalyticsService;
+
+    @Autowired
+    DeskBookingJPARepo deskBookingJPARepo;
+
+    @Autowired
+    RoomBookingJPARepo roomBookingJPARepo;
+
+    @Autowired
+    DeskJPARepo deskJPARepo;
+
+    @Autowired
+    RoomJPARepo roomJPARepo;
+
+    @Autowired
+    EmployeeJPARepo employeeJPARepo;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    void rollupsFollowCreatedMovedAndDeletedBookingsAndMatchTheReconciliation() throws Exception {
+        Employee employee = employeeJPARepo.findAll().get(0);
+        Desk desk = deskJPARepo.findAll().get(0);
+        Room room = new Room();
+        room.setFloor("analytics");
+        room = roomJPARepo.save(room);
+
+        DeskBooking deskBooking = deskBookingJPARepo.save(new DeskBooking(employee, desk, DAY, LocalTime.of(9, 0), LocalTime.of(11, 30)));
+        OccupancyReport report = occupancyAnalyticsService.getReport(OccupancyScope.DESK, DAY, DAY, OccupancyGranularity.DAY);
+        assertEquals(1, report.getWorkdays());
+        assertEquals(150, row(report.getRows(), desk.getId().toString()).bookedMinutes());
+        assertEquals(1, row(report.getHours(), "9").bookings());
+        assertEquals(30, row(report.getHours(), "11").bookedMinutes());
+
+        deskBooking.setStart(LocalTime.of(13, 0));
+        deskBooking.setEndTime(LocalTime.of(14, 0));
+        deskBookingJPARepo.save(deskBooking);
+        deskBookingJPARepo.save(new DeskBooking(employee, deskJPARepo.findAll().get(1), DAY.plusDays(5), LocalTime.of(8, 0), LocalTime.of(9, 0)));
+        roomBookingJPARepo.save(new RoomBooking(employee, room, DAY, LocalTime.of(13, 30), LocalTime.of(15, 0)));
+
+        report = occupancyAnalyticsService.getReport(OccupancyScope.DESK, DAY, DAY.plusDays(6), OccupancyGranularity.WEEK);
+        OccupancyReport.Row moved = row(report.getRows(), desk.getId().toString());
+        assertEquals(60, moved.bookedMinutes());
+        assertEquals(1, moved.bookings());
+        // one desk over five working days from 08:00 to 17:00, the Saturday booking does not add bookable time
+        assertEquals(60.0 / (5 * 540), moved.utilisation(), 1e-9);
+        assertEquals(0, row(report.getHours(), "9").bookedMinutes());
+        assertEquals(60, row(report.getHours(), "13").bookedMinutes());
+        assertEquals(1, report.getPeriods().size());
+        assertEquals(2, report.getTotal().bookings());
+
+        OccupancyReport floors = occupancyAnalyticsService.getReport(OccupancyScope.FLOOR, DAY, DAY, OccupancyGranularity.DAY);
+        assertEquals(90, row(floors.getRows(), "analytics").bookedMinutes());
+
+        List<NoShowCandidate> noShows = occupancyAnalyticsService.getNoShowCandidates(DAY, DAY);
+        assertEquals(1, noShows.size());
+        assertEquals(employee.getNick(), noShows.get(0).employeeNick());
+        assertEquals("Raum " + room.getId(), noShows.get(0).secondLabel());
+
+        occupancyAnalyticsService.reconcile(DAY, DAY.plusDays(6));
+        OccupancyReport reconciled = occupancyAnalyticsService.getReport(OccupancyScope.DESK, DAY, DAY.plusDays(6), OccupancyGranularity.WEEK);
+        assertEquals(report.getRows(), reconciled.getRows());
+        assertEquals(report.getHours(), reconciled.getHours());
+
+        deskBookingJPARepo.delete(deskBooking);
+        report = occupancyAnalyticsService.getReport(OccupancyScope.DESK, DAY, DAY, OccupancyGranularity.DAY);
+        assertEquals(0, row(report.getRows(), desk.getId().toString()).bookedMinutes());
+        assertEquals(0, report.getTotal().bookings());
+    }
+
+    @Test
+    void aReconciliationWaitsForRunningBookingTransactions() throws Exception {
+        LocalDate day = DAY.plusWeeks(2);
+        Employee employee = employeeJPARepo.findAll().get(0);
+        Desk desk = deskJPARepo.findAll().get(0);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> reconciliation = transactionTemplate.execute(status -> {
+                deskBookingJPARepo.saveAndFlush(new DeskBooking(employee, desk, day, LocalTime.of(9, 0), LocalTime.of(10, 0)));
+                Future<Integer> started = executor.submit(() -> occupancyAnalyticsService.reconcile(day, day));
+                // the chunk must neither miss the booking nor wipe its changes
+                assertThrows(TimeoutException.class, () -> started.get(300, TimeUnit.MILLISECONDS));
+                return started;
+            });
+            assertEquals(1, reconciliation.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        OccupancyReport report = occupancyAnalyticsService.getReport(OccupancyScope.DESK, day, day, OccupancyGranularity.DAY);
+        assertEquals(60, row(report.getRows(), desk.getId().toString()).bookedMinutes());
+        assertEquals(1, report.getTotal().bookings());
+    }
+
+    private static OccupancyReport.Row row(List<OccupancyReport.Row> rows, String key) {
+        return rows.stream().filter(row -> row.key().equals(key)).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,77 @@
+package com.itkolleg.bookingsystem.service.archive;
+
+import com.itkolleg.bookingsystem.domains.booking.ArchivedBooking;
+import com.itkolleg.bookingsystem.domains.booking.DeskBooking;
+import com.itkolleg.bookingsystem.repos.booking.BookingArchiveJPARepo;
+import com.itkolleg.bookingsystem.repos.deskbooking.DeskBookingJPARepo;
+import com.itkolleg.bookingsystem.repos.deskbooking.DeskBookingRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:booking-archive",
+        "wabs.archive.chunk-size=2"
+})
+class BookingArchiveServiceTest {
+
+    @Autowired
+    BookingArchiveService bookingArchiveService;
+
+    @Autowired
+    BookingArchiveJPARepo bookingArchiveJPARepo;
+
+    @Autowired
+    DeskBookingJPARepo deskBookingJPARepo;
+
+    @Autowired
+    DeskBookingRepo deskBookingRepo;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void bookingsBeforeTheCutoffAreMovedToTheArchiveAndStayInTheHistory() {
+        LocalDate today = LocalDate.now();
+        // Past bookings cannot be saved through JPA (@FutureOrPresent), so they are inserted directly
+        insertDeskBooking(9_000_001L, today.minusDays(60));
+        insertDeskBooking(9_000_002L, today.minusDays(45));
+        insertDeskBooking(9_000_003L, today.minusDays(40));
+        insertDeskBooking(9_000_004L, today.minusDays(10));
+        Long timeslotId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM timeslot", Long.class);
+        jdbcTemplate.update("UPDATE booking SET time_slot_id = ? WHERE id = 9000003", timeslotId);
+
+        LocalDate cutoff = today.minusDays(30);
+        long due = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM booking WHERE date < ?", Long.class, cutoff);
+
+        int archived = bookingArchiveService.archiveBookingsBefore(cutoff);
+
+        assertEquals(due, archived);
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM booking WHERE date < ?", Long.class, cutoff));
+        assertFalse(deskBookingJPARepo.existsById(9_000_001L));
+        assertTrue(deskBookingJPARepo.existsById(9_000_004L));
+        ArchivedBooking row = bookingArchiveJPARepo.findById(9_000_002L).orElseThrow();
+        assertEquals(ArchivedBooking.typeOf(DeskBooking.class), row.getType());
+        assertEquals(today.minusDays(45), row.getDate());
+
+        List<DeskBooking> history = deskBookingRepo.getBookingHistoryByEmployeeId(1L, today.minusDays(50), today.minusDays(1));
+        List<DeskBooking> inserted = history.stream().filter(booking -> booking.getId() > 9_000_000L).toList();
+        assertEquals(List.of(9_000_002L, 9_000_003L, 9_000_004L), inserted.stream().map(DeskBooking::getId).toList());
+        assertEquals(1L, inserted.get(0).getDesk().getId());
+        assertEquals(1L, inserted.get(1).getDesk().getId());
+        assertEquals(timeslotId, inserted.get(1).getTimeSlot().getId());
+
+        assertEquals(0, bookingArchiveService.archiveBookingsBefore(cutoff));
+    }
+
+    private void insertDeskBooking(long id, LocalDate date) {
+        jdbcTemplate.update("INSERT INTO booking (id, dtype, employee_id, desk_id, date, start, end_time, created_on)"
+                + " VALUES (?, 'DeskBooking', 1, 1, ?, TIME '08:00:00', TIME '12:00:00', CURRENT_TIMESTAMP)", id, date);
+    }
+}
@@ -0,0 +1,169 @@
+package com.itkolleg.bookingsystem.service.availability;
+
+import com.itkolleg.bookingsystem.domains.Desk;
+import com.itkolleg.bookingsystem.domains.Employee;
+import com.itkolleg.bookingsystem.domains.EmployeePasswordListener;
+import com.itkolleg.bookingsystem.domains.Port;
+import com.itkolleg.bookingsystem.domains.Role;
+import com.itkolleg.bookingsystem.domains.booking.DeskBooking;
+import com.itkolleg.bookingsystem.repos.desk.DeskJPARepo;
+import com.itkolleg.bookingsystem.repos.employee.EmployeeJPARepo;
+import com.itkolleg.bookingsystem.service.deskbooking.DeskBookingService;
+import com.itkolleg.bookingsystem.service.deskbooking.FloorPlanOccupancyService;
+import com.itkolleg.bookingsystem.service.events.BookingEvent;
+import com.itkolleg.bookingsystem.service.events.BookingSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:availability-feed",
+        "spring.jpa.show-sql=false"
+})
+@RecordApplicationEvents
+class AvailabilityFeedTest {
+
+    @Autowired
+    DeskBookingService deskBookingService;
+
+    @Autowired
+    FloorPlanOccupancyService floorPlanOccupancyService;
+
+    @Autowired
+    AvailabilityFeed availabilityFeed;
+
+    @Autowired
+    DeskJPARepo deskJPARepo;
+
+    @Autowired
+    EmployeeJPARepo employeeJPARepo;
+
+    @Autowired
+    ApplicationEvents events;
+
+    @Test
+    void bookedMovedAndCancelledDesksArePublishedWithTheirCurrentRow() throws Exception {
+        Desk newDesk = new Desk();
+        newDesk.setDeskNr("LIVE1");
+        newDesk.setNrOfMonitors(1);
+        newDesk.setPorts(new ArrayList<>(List.of(new Port("HDMI"))));
+        Desk desk = deskJPARepo.save(newDesk);
+        Employee employee = employeeJPARepo.save(new Employee("Live", "Feed", "live", "live@wabs.test",
+                EmployeePasswordListener.encode("password"), Role.ROLE_P_EMPLOYEE));
+        LocalDate day = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.TUESDAY));
+
+        SseEmitter emitter = availabilityFeed.subscribe(day, null);
+        assertNotNull(emitter);
+        assertEquals(1, availabilityFeed.getSubscriberCount());
+
+        DeskBooking booking = deskBookingService.addDeskBooking(new DeskBooking(employee, desk, day, LocalTime.of(9, 0), LocalTime.of(10, 0)));
+        // 15 minute slots from 08:00: 09:00 to 10:00 are the slots 4 to 7, i.e. the second hex digit
+        assertEquals("0f0000000", floorPlanOccupancyService.getDeskSlots(day, desk.getId()));
+
+        DeskBooking moved = new DeskBooking(employee, desk, day, LocalTime.of(11, 0), LocalTime.of(12, 0));
+        moved.setId(booking.getId());
+        deskBookingService.updateBooking(moved);
+        deskBookingService.deleteBookingById(booking.getId());
+        assertEquals("000000000", floorPlanOccupancyService.getDeskSlots(day, desk.getId()));
+
+        List<BookingEvent> published = events.stream(BookingEvent.class).toList();
+        assertEquals(List.of(BookingEvent.Type.CREATED, BookingEvent.Type.UPDATED, BookingEvent.Type.CANCELLED),
+                published.stream().map(BookingEvent::type).toList());
+        List<AvailabilityDelta> deltas = published.stream().flatMap(event -> AvailabilityDelta.of(event).stream()).toList();
+        assertEquals(List.of(AvailabilityDelta.Change.BOOKED, AvailabilityDelta.Change.RELEASED,
+                AvailabilityDelta.Change.BOOKED, AvailabilityDelta.Change.RELEASED), deltas.stream().map(AvailabilityDelta::change).toList());
+        assertTrue(deltas.stream().allMatch(delta -> delta.kind() == BookingSnapshot.Kind.DESK && desk.getId().equals(delta.bookableId())));
+        assertEquals(LocalTime.of(9, 0), deltas.get(1).start());
+        assertEquals(LocalTime.of(11, 0), deltas.get(2).start());
+        assertEquals("{\"change\":\"BOOKED\",\"kind\":\"DESK\",\"bookingId\":" + booking.getId() + ",\"id\":" + desk.getId()
+                        + ",\"date\":\"" + day + "\",\"start\":\"11:00\",\"end\":\"12:00\",\"slots\":\"000ff0000\"}",
+                deltas.get(2).toJson("000ff0000"));
+    }
+
+    @Test
+    void aStalledClientIsDisconnectedWithoutHoldingUpTheEventsOrOtherClients() throws Exception {
+        CountDownLatch stalled = new CountDownLatch(1);
+        Semaphore received = new Semaphore(0);
+        AvailabilityFeed feed = new AvailabilityFeed(mock(FloorPlanOccupancyService.class), 10, 30, 2, 4) {
+            private int created;
+
+            @Override
+            SseEmitter newEmitter(long timeoutMillis) {
+                return created++ == 0 ? new StalledEmitter(stalled) : new CountingEmitter(received);
+            }
+        };
+        LocalDate day = LocalDate.of(2031, 3, 4);
+        try {
+            feed.subscribe(day, null);
+            feed.subscribe(day, null);
+
+            // the stalled client blocks on the first event and is disconnected once 4 more are waiting
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+                for (long id = 1; id <= 10; id++) {
+                    feed.onBookingEvent(new BookingEvent(BookingEvent.Type.CREATED,
+                            new BookingSnapshot(BookingSnapshot.Kind.ROOM, id, 1L, "1", 1L, day, LocalTime.of(9, 0), LocalTime.of(10, 0)), null));
+                    assertTrue(received.tryAcquire(5, TimeUnit.SECONDS), "the other client did not receive event " + id);
+                }
+            });
+            assertEquals(1, feed.getSubscriberCount());
+        } finally {
+            stalled.countDown();
+            feed.shutdown();
+        }
+    }
+
+    /**
+     * Blocks every booking event like a client that stopped reading.
+     */
+    private static class StalledEmitter extends SseEmitter {
+        private final CountDownLatch stalled;
+
+        StalledEmitter(CountDownLatch stalled) {
+            this.stalled = stalled;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (builder.build().stream().anyMatch(part -> part.getData().toString().contains("event:booking"))) {
+                try {
+                    stalled.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private static class CountingEmitter extends SseEmitter {
+        private final Semaphore received;
+
+        CountingEmitter(Semaphore received) {
+            this.received = received;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            if (builder.build().stream().anyMatch(part -> part.getData().toString().contains("event:booking"))) {
+                received.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.itkolleg.bookingsystem.service.booking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itkolleg.bookingsystem.domains.Desk;
+import com.itkolleg.bookingsystem.domains.Employee;
+import com.itkolleg.bookingsystem.domains.EmployeePasswordListener;
+import com.itkolleg.bookingsystem.domains.Port;
+import com.itkolleg.bookingsystem.domains.Role;
+import com.itkolleg.bookingsystem.domains.booking.DeskBooking;
+import com.itkolleg.bookingsystem.repos.booking.BookingExportRow;
+import com.itkolleg.bookingsystem.repos.desk.DeskJPARepo;
+import com.itkolleg.bookingsystem.repos.deskbooking.DeskBookingJPARepo;
+import com.itkolleg.bookingsystem.repos.employee.EmployeeJPARepo;
+import com.itkolleg.bookingsystem.service.deskbooking.DeskBookingService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:booking-export",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class BookingExportTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2100, 1, 1);
+    private static final int DAYS = 1000;
+    private static final String DESK_NR = "A,1 \"Fenster\"";
+
+    @Autowired
+    DeskBookingService deskBookingService;
+
+    @Autowired
+    DeskBookingJPARepo deskBookingJPARepo;
+
+    @Autowired
+    DeskJPARepo deskJPARepo;
+
+    @Autowired
+    EmployeeJPARepo employeeJPARepo;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    BookingExportWriter bookingExportWriter;
+
+    @BeforeEach
+    void seedOnce() {
+        if (!deskBookingJPARepo.findBookingsByDate(FIRST_DAY).isEmpty()) {
+            return;
+        }
+        Desk desk = new Desk();
+        desk.setDeskNr(DESK_NR);
+        desk.setNrOfMonitors(1);
+        desk.setPorts(new ArrayList<>(List.of(new Port("USB-C"))));
+        desk = deskJPARepo.save(desk);
+        Employee employee = employeeJPARepo.save(new Employee("Export", "Test", "export", "export@wabs.test",
+                EmployeePasswordListener.encode("password"), Role.ROLE_P_EMPLOYEE));
+        List<DeskBooking> bookings = new ArrayList<>();
+        for (int day = 0; day < DAYS; day++) {
+            bookings.add(new DeskBooking(employee, desk, FIRST_DAY.plusDays(day), LocalTime.of(8, 0), LocalTime.of(12, 0)));
+        }
+        deskBookingJPARepo.saveAll(bookings);
+    }
+
+    @Test
+    void csvExportStreamsTheRangeWithoutLoadingEntities() throws Exception {
+        LocalDate lastDay = FIRST_DAY.plusDays(499);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = deskBookingService.exportBookings(FIRST_DAY, lastDay, BookingExportFormat.CSV, out);
+
+        // One query, and the rows never become managed entities
+        assertEquals(500, count);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(501, lines.length);
+        assertEquals(String.join(",", BookingExportRow.COLUMNS), lines[0]);
+        assertTrue(lines[1].contains(",2100-01-01,08:00,12:00,"), lines[1]);
+        assertTrue(lines[1].contains(",export,"), lines[1]);
+        assertTrue(lines[1].contains(",\"A,1 \"\"Fenster\"\"\","), lines[1]);
+        assertTrue(lines[500].contains("," + lastDay + ","), lines[500]);
+    }
+
+    @Test
+    void ndjsonExportWritesOneObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = deskBookingService.exportBookings(FIRST_DAY, FIRST_DAY.plusDays(9), BookingExportFormat.NDJSON, out);
+
+        String text = out.toString(StandardCharsets.UTF_8);
+        assertEquals(10, count);
+        assertTrue(text.endsWith("\n"));
+        String[] lines = text.split("\n");
+        assertEquals(10, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("2100-01-01", first.get("date").asText());
+        assertEquals(DESK_NR, first.get("bookedLabel").asText());
+        assertEquals("export", first.get("employeeNick").asText());
+    }
+
+    @Test
+    void exportAnswersWithADownloadAndDefusesFormulas() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        BookingExportRow row = new BookingExportRow(1L, FIRST_DAY, LocalTime.of(8, 0), LocalTime.of(12, 0), 2L,
+                "=1+1", 3L, "@SUM(A1:A2)", LocalDateTime.of(2099, 12, 1, 9, 0));
+
+        long count = bookingExportWriter.export(response, "deskbookings", FIRST_DAY, null, "csv",
+                (from, to, format, out) -> bookingExportWriter.write(Stream.of(row), format, out));
+
+        assertEquals(1, count);
+        assertEquals("text/csv;charset=UTF-8", response.getContentType());
+        assertEquals("attachment; filename=\"deskbookings_2100-01-01_2100-01-31.csv\"",
+                response.getHeader("Content-Disposition"));
+        String line = response.getContentAsString(StandardCharsets.UTF_8).split("\r\n")[1];
+        assertTrue(line.contains(",2,'=1+1,3,'@SUM(A1:A2),"), line);
+    }
+
+    @Test
+    void unknownFormatsAreRejected() {
+        assertEquals(BookingExportFormat.CSV, BookingExportFormat.parse(null));
+        assertEquals(BookingExportFormat.NDJSON, BookingExportFormat.parse("ndjson"));
+        assertThrows(IllegalArgumentException.class, () -> BookingExportFormat.parse("xlsx"));
+    }
+}
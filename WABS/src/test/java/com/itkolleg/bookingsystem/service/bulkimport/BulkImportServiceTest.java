@@ -0,0 +1,121 @@
+package com.itkolleg.bookingsystem.service.bulkimport;
+
+import com.itkolleg.bookingsystem.domains.Desk;
+import com.itkolleg.bookingsystem.domains.Employee;
+import com.itkolleg.bookingsystem.domains.EmployeePasswordListener;
+import com.itkolleg.bookingsystem.domains.Role;
+import com.itkolleg.bookingsystem.repos.desk.DeskJPARepo;
+import com.itkolleg.bookingsystem.repos.employee.EmployeeJPARepo;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bulk-import",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class BulkImportServiceTest {
+
+    @Autowired
+    BulkImportService bulkImportService;
+
+    @Autowired
+    DeskJPARepo deskJPARepo;
+
+    @Autowired
+    EmployeeJPARepo employeeJPARepo;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @Transactional
+    void desksAreWrittenInBatchesAndBrokenRowsAreReported() {
+        StringBuilder csv = new StringBuilder("deskNr,nrOfMonitors,ports\r\n");
+        for (int i = 0; i < 400; i++) {
+            csv.append("IMP-").append(i).append(",2,HDMI|USB-C\r\n");
+        }
+        csv.append("IMP-0,1,HDMI\r\n");
+        csv.append("IMP-X,eleven,HDMI\r\n");
+        csv.append("IMP-Y,11,HDMI\r\n");
+        csv.append("IMP-Z,1,\"HDMI,X\"\r\n");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        BulkImportReport report = bulkImportService.importCsv(BulkImportKind.DESKS, stream(csv.toString()), "desks.csv");
+
+        assertEquals(404, report.getRowsRead());
+        assertEquals(400, report.getImported());
+        assertEquals(4, report.getFailed());
+        assertEquals(1, report.getBatches());
+        assertEquals(402, report.getErrors().get(0).line());
+        assertTrue(report.getErrors().get(0).message().contains("already exists"));
+        assertTrue(report.getErrors().get(1).message().contains("not a number"));
+        assertTrue(report.getErrors().get(2).message().startsWith("nrOfMonitors"));
+        assertTrue(report.getErrors().get(3).message().startsWith("ports"), report.getErrors().get(3).message());
+        // 400 desks and 800 ports in JDBC batches instead of 1200 single inserts
+        assertTrue(statistics.getPrepareStatementCount() < 60, "statements: " + statistics.getPrepareStatementCount());
+
+        Desk imported = deskJPARepo.findAll().stream().filter(desk -> "IMP-399".equals(desk.getDeskNr())).findFirst().orElseThrow();
+        assertEquals(2, imported.getPorts().size());
+    }
+
+    @Test
+    void employeesAreReadWithSemicolonsAndTheirPasswordsHashed() {
+        employeeJPARepo.save(new Employee("Bereits", "Da", "taken", "taken@wabs.test",
+                EmployeePasswordListener.encode("password"), Role.ROLE_P_EMPLOYEE));
+        String csv = "\uFEFFFname;LName;Nick;Email;Password;Role\n"
+                + "Anna;\"Muster; Frau\";anna;anna@wabs.test;geheim1;p_employee\n"
+                + "\n"
+                + "Bernd;Beispiel;taken;bernd@wabs.test;geheim2;ADMIN\n"
+                + "Carla;Probe;carla;carla@wabs.test;geheim3;ROLE_CHEF\n";
+
+        BulkImportReport report = bulkImportService.importCsv(BulkImportKind.EMPLOYEES, stream(csv), "staff.csv");
+
+        assertEquals(3, report.getRowsRead());
+        assertEquals(1, report.getImported());
+        assertEquals(4, report.getErrors().get(0).line());
+        assertTrue(report.getErrors().get(1).message().startsWith("Unknown role"));
+        Employee anna = employeeJPARepo.getEmployeeByNick("anna");
+        assertEquals("Muster; Frau", anna.getLname());
+        assertEquals(Role.ROLE_P_EMPLOYEE, anna.getRole());
+        assertTrue(EmployeePasswordListener.isEncoded(anna.getPassword()));
+    }
+
+    @Test
+    void aFailingBatchIsRetriedRowByRow() {
+        String csv = "floor,info\n"
+                + "7,Ecke\n"
+                + "7," + "x".repeat(300) + "\n"
+                + "8,\n";
+
+        BulkImportReport report = bulkImportService.importCsv(BulkImportKind.ROOMS, stream(csv), "rooms.csv");
+
+        assertEquals(2, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertEquals(3, report.getErrors().get(0).line());
+    }
+
+    @Test
+    void aMissingColumnRejectsTheWholeFile() {
+        BulkImportReport report = bulkImportService.importCsv(BulkImportKind.RESSOURCES, stream("name,info\nBeamer 1,\n"), "ressources.csv");
+
+        assertEquals(0, report.getRowsRead());
+        assertFalse(report.isSuccessful());
+        assertTrue(report.getErrors().get(0).message().contains("ressourcetype"));
+    }
+
+    private static ByteArrayInputStream stream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
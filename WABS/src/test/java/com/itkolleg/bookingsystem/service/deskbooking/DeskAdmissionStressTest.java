@@ -0,0 +1,202 @@
+package com.itkolleg.bookingsystem.service.deskbooking;
+
+import com.itkolleg.bookingsystem.domains.Desk;
+import com.itkolleg.bookingsystem.domains.Employee;
+import com.itkolleg.bookingsystem.domains.EmployeePasswordListener;
+import com.itkolleg.bookingsystem.domains.Port;
+import com.itkolleg.bookingsystem.domains.Role;
+import com.itkolleg.bookingsystem.domains.booking.DeskBooking;
+import com.itkolleg.bookingsystem.exceptions.DeskNotAvailableException;
+import com.itkolleg.bookingsystem.repos.desk.DeskJPARepo;
+import com.itkolleg.bookingsystem.repos.deskbooking.DeskBookingJPARepo;
+import com.itkolleg.bookingsystem.repos.deskbooking.DeskBookingRepo;
+import com.itkolleg.bookingsystem.repos.employee.EmployeeJPARepo;
+import com.itkolleg.bookingsystem.repos.holiday.HolidayRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fires many simultaneous bookings of one desk by different employees and checks that exactly one of them is
+ * admitted, once through the service and once directly against the repository, i.e. with only the database
+ * keeping the bookings apart. Bookings moved onto the desk compete with new ones on equal terms.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:desk-admission",
+        "spring.jpa.show-sql=false"
+})
+class DeskAdmissionStressTest {
+
+    private static final int REQUESTS = 1_000;
+    private static final int REPOSITORY_REQUESTS = 50;
+
+    @Autowired
+    DeskBookingService deskBookingService;
+
+    @Autowired
+    DeskBookingRepo deskBookingRepo;
+
+    @Autowired
+    DeskBookingJPARepo deskBookingJPARepo;
+
+    @Autowired
+    DeskJPARepo deskJPARepo;
+
+    @Autowired
+    EmployeeJPARepo employeeJPARepo;
+
+    @Autowired
+    HolidayRepo holidayRepo;
+
+    @Test
+    void simultaneousRequestsForOneDeskAdmitExactlyOne() throws Exception {
+        Desk desk = newDesk("S1");
+        List<Employee> employees = newEmployees("s", REQUESTS);
+        LocalDate date = nextBookableDay(LocalDate.now().plusDays(1));
+
+        Outcome outcome = race(REQUESTS, i -> deskBookingService.addDeskBooking(overlapping(employees.get(i), desk, date, i)));
+
+        log.info("{} simultaneous requests for one desk: {} admitted in {} ms ({} requests/s)",
+                REQUESTS, outcome.winners.get(), outcome.millis, Math.round(REQUESTS * 1000.0 / Math.max(1, outcome.millis)));
+        assertTrue(outcome.errors.isEmpty(), () -> "unexpected errors: " + outcome.errors);
+        assertEquals(1, outcome.winners.get());
+        assertEquals(REQUESTS - 1, outcome.rejected.get());
+        assertEquals(1, deskBookingJPARepo.findBookingsByDeskIdAndDate(desk.getId(), date).size());
+    }
+
+    @Test
+    void theDatabaseAdmitsOneBookingWithoutTheServiceLocks() throws Exception {
+        Desk desk = newDesk("S2");
+        List<Employee> employees = newEmployees("r", REPOSITORY_REQUESTS);
+        LocalDate date = nextBookableDay(LocalDate.now().plusDays(1));
+
+        Outcome outcome = race(REPOSITORY_REQUESTS, i -> deskBookingRepo.addBooking(overlapping(employees.get(i), desk, date, i)));
+
+        assertTrue(outcome.errors.isEmpty(), () -> "unexpected errors: " + outcome.errors);
+        assertEquals(1, outcome.winners.get());
+        assertEquals(REPOSITORY_REQUESTS - 1, outcome.rejected.get());
+        assertEquals(1, deskBookingJPARepo.findBookingsByDeskIdAndDate(desk.getId(), date).size());
+    }
+
+    @Test
+    void movedAndNewBookingsOfOneDeskAdmitExactlyOne() throws Exception {
+        Desk desk = newDesk("S3");
+        List<Employee> employees = newEmployees("m", REPOSITORY_REQUESTS);
+        LocalDate date = nextBookableDay(LocalDate.now().plusDays(1));
+        // every odd employee already has a booking on another desk that day
+        List<DeskBooking> existing = new ArrayList<>();
+        for (int i = 0; i < REPOSITORY_REQUESTS; i++) {
+            existing.add(i % 2 == 0 ? null : deskBookingRepo.addBooking(overlapping(employees.get(i), newDesk("S3-" + i), date, i)));
+        }
+
+        Outcome outcome = race(REPOSITORY_REQUESTS, i -> {
+            DeskBooking booking = overlapping(employees.get(i), desk, date, i);
+            if (existing.get(i) == null) {
+                deskBookingRepo.addBooking(booking);
+            } else {
+                booking.setId(existing.get(i).getId());
+                deskBookingRepo.updateBooking(booking);
+            }
+        });
+
+        assertTrue(outcome.errors.isEmpty(), () -> "unexpected errors: " + outcome.errors);
+        assertEquals(1, outcome.winners.get());
+        assertEquals(REPOSITORY_REQUESTS - 1, outcome.rejected.get());
+        assertEquals(1, deskBookingJPARepo.findBookingsByDeskIdAndDate(desk.getId(), date).size());
+    }
+
+    /**
+     * Every request books two hours starting between 8:00 and 9:45, so all of them overlap.
+     */
+    private static DeskBooking overlapping(Employee employee, Desk desk, LocalDate date, int i) {
+        LocalTime start = LocalTime.of(8, 0).plusMinutes(15L * (i % 8));
+        return new DeskBooking(employee, desk, date, start, start.plusHours(2));
+    }
+
+    private Outcome race(int requests, Request request) throws InterruptedException {
+        Outcome outcome = new Outcome();
+        CountDownLatch ready = new CountDownLatch(requests);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            int n = i;
+            Thread thread = new Thread(() -> {
+                ready.countDown();
+                try {
+                    go.await();
+                    request.send(n);
+                    outcome.winners.incrementAndGet();
+                } catch (DeskNotAvailableException e) {
+                    outcome.rejected.incrementAndGet();
+                } catch (Exception e) {
+                    outcome.errors.add(e);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        ready.await();
+        long started = System.nanoTime();
+        go.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        outcome.millis = (System.nanoTime() - started) / 1_000_000;
+        return outcome;
+    }
+
+    private Desk newDesk(String deskNr) {
+        Desk desk = new Desk();
+        desk.setDeskNr(deskNr);
+        desk.setNrOfMonitors(2);
+        desk.setPorts(new ArrayList<>(List.of(new Port("HDMI"), new Port("USB-C"))));
+        return deskJPARepo.save(desk);
+    }
+
+    /**
+     * Creates employees with an already hashed password, so that saving them does not hash it a thousand times.
+     */
+    private List<Employee> newEmployees(String prefix, int count) {
+        String password = EmployeePasswordListener.encode("password");
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            employees.add(new Employee("Stress", "Test", prefix + i, prefix + i + "@wabs.test", password, Role.ROLE_P_EMPLOYEE));
+        }
+        return employeeJPARepo.saveAll(employees);
+    }
+
+    private LocalDate nextBookableDay(LocalDate from) {
+        LocalDate date = from;
+        while (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY
+                || !holidayRepo.isBookingAllowedOnHoliday(date)) {
+            date = date.plusDays(1);
+        }
+        return date;
+    }
+
+    @FunctionalInterface
+    private interface Request {
+        void send(int i) throws Exception;
+    }
+
+    private static class Outcome {
+        final AtomicInteger winners = new AtomicInteger();
+        final AtomicInteger rejected = new AtomicInteger();
+        final ConcurrentLinkedQueue<Exception> errors = new ConcurrentLinkedQueue<>();
+        long millis;
+    }
+}
@@ -0,0 +1,123 @@
+package com.itkolleg.bookingsystem.service.deskbooking;
+
+import com.itkolleg.bookingsystem.domains.Desk;
+import com.itkolleg.bookingsystem.domains.Employee;
+import com.itkolleg.bookingsystem.domains.EmployeePasswordListener;
+import com.itkolleg.bookingsystem.domains.Port;
+import com.itkolleg.bookingsystem.domains.PublicHoliday;
+import com.itkolleg.bookingsystem.domains.Role;
+import com.itkolleg.bookingsystem.domains.booking.BookingOccurrence;
+import com.itkolleg.bookingsystem.domains.booking.DeskBooking;
+import com.itkolleg.bookingsystem.domains.booking.RecurringDeskBooking;
+import com.itkolleg.bookingsystem.exceptions.CustomIllegalArgumentException;
+import com.itkolleg.bookingsystem.exceptions.DeskNotAvailableException;
+import com.itkolleg.bookingsystem.repos.desk.DeskJPARepo;
+import com.itkolleg.bookingsystem.repos.deskbooking.DeskBookingJPARepo;
+import com.itkolleg.bookingsystem.repos.employee.EmployeeJPARepo;
+import com.itkolleg.bookingsystem.repos.holiday.HolidayJPARepo;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:recurring-desk-booking",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class RecurringDeskBookingTest {
+
+    private static final LocalTime START = LocalTime.of(8, 0);
+    private static final LocalTime END = LocalTime.of(12, 0);
+
+    @Autowired
+    DeskBookingService deskBookingService;
+
+    @Autowired
+    DeskBookingJPARepo deskBookingJPARepo;
+
+    @Autowired
+    DeskJPARepo deskJPARepo;
+
+    @Autowired
+    EmployeeJPARepo employeeJPARepo;
+
+    @Autowired
+    HolidayJPARepo holidayJPARepo;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void elevenWeeksOfTuesdaysAndThursdaysAreBookedInFewStatements() throws Exception {
+        Desk desk = newDesk("R1");
+        Desk otherDesk = newDesk("R2");
+        Employee employee = newEmployee("recurring");
+        Employee colleague = newEmployee("colleague");
+        LocalDate monday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        RecurringDeskBooking series = new RecurringDeskBooking(desk, monday, monday.plusWeeks(11).minusDays(1),
+                EnumSet.of(DayOfWeek.TUESDAY, DayOfWeek.THURSDAY), START, END);
+        List<LocalDate> dates = series.getDates();
+
+        // The desk is taken on the 2nd day, the employee sits elsewhere on the 3rd, the 4th is a closed holiday
+        deskBookingJPARepo.save(new DeskBooking(colleague, desk, dates.get(1), LocalTime.of(9, 0), LocalTime.of(10, 0)));
+        deskBookingJPARepo.save(new DeskBooking(employee, otherDesk, dates.get(2), LocalTime.of(13, 0), LocalTime.of(14, 0)));
+        holidayJPARepo.save(new PublicHoliday(dates.get(3), "Betriebsurlaub", false));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<BookingOccurrence> occurrences = deskBookingService.addRecurringDeskBooking(series, employee);
+        long statements = statistics.getPrepareStatementCount();
+
+        assertEquals(22, occurrences.size());
+        assertEquals(dates, occurrences.stream().map(BookingOccurrence::getDate).toList());
+        assertEquals(BookingOccurrence.Status.CONFLICT, occurrences.get(1).getStatus());
+        assertEquals(BookingOccurrence.Status.CONFLICT, occurrences.get(2).getStatus());
+        assertEquals(BookingOccurrence.Status.NOT_BOOKABLE, occurrences.get(3).getStatus());
+        assertEquals(19, occurrences.stream().filter(BookingOccurrence::isBooked).count());
+        assertEquals(19, deskBookingJPARepo.findBookingsByEmployeeIdAndDeskId(employee.getId(), desk.getId()).size());
+        // holidays, desk and employee lock, two conflict queries, sequence and one insert batch
+        assertTrue(statements <= 8, "statements: " + statements);
+
+        // The booked days are now taken for single bookings as well
+        DeskBooking single = new DeskBooking(colleague, desk, dates.get(0), LocalTime.of(10, 0), LocalTime.of(11, 0));
+        assertThrows(DeskNotAvailableException.class, () -> deskBookingService.addDeskBooking(single));
+    }
+
+    @Test
+    void aSeriesBeyondTheBookingHorizonIsRejected() throws Exception {
+        Desk desk = newDesk("R3");
+        Employee employee = newEmployee("horizon");
+        LocalDate from = LocalDate.now().plusDays(1);
+        RecurringDeskBooking series = new RecurringDeskBooking(desk, from, from.plusWeeks(13),
+                EnumSet.of(DayOfWeek.MONDAY), START, END);
+
+        assertThrows(CustomIllegalArgumentException.class, () -> deskBookingService.addRecurringDeskBooking(series, employee));
+        assertTrue(deskBookingJPARepo.findBookingsByEmployeeId(employee.getId()).isEmpty());
+    }
+
+    private Desk newDesk(String deskNr) {
+        Desk desk = new Desk();
+        desk.setDeskNr(deskNr);
+        desk.setNrOfMonitors(2);
+        desk.setPorts(new ArrayList<>(List.of(new Port("HDMI"))));
+        return deskJPARepo.save(desk);
+    }
+
+    private Employee newEmployee(String nick) {
+        return employeeJPARepo.save(new Employee("Serien", "Bucher", nick, nick + "@wabs.test",
+                EmployeePasswordListener.encode("password"), Role.ROLE_P_EMPLOYEE));
+    }
+}
@@ -0,0 +1,90 @@
+package com.itkolleg.bookingsystem.service.employee;
+
+import com.itkolleg.bookingsystem.domains.Employee;
+import com.itkolleg.bookingsystem.domains.EmployeePasswordListener;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class EmployeeUserCacheTest {
+
+    @Autowired
+    AuthenticationManager authenticationManager;
+
+    @Autowired
+    EmployeeService employeeService;
+
+    @Autowired
+    EmployeeUserCache employeeUserCache;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Test
+    void passwordsAreStoredHashedAndRepeatedLoginsAreServedFromTheCache() throws Exception {
+        Employee employee = employeeService.getEmployeeByNick("jaslech");
+        assertTrue(EmployeePasswordListener.isEncoded(employee.getPassword()));
+
+        authenticate("jaslech", "password");
+        UserDetails cached = employeeUserCache.getUserFromCache("jaslech");
+        assertNotNull(cached);
+        assertEquals(employee.getPassword(), cached.getPassword());
+
+        // the principal handed out by the first login has its credentials erased, the cached copy must not
+        authenticate("jaslech", "password");
+        assertEquals(employee.getPassword(), employeeUserCache.getUserFromCache("jaslech").getPassword());
+
+        employee.setPassword("changed");
+        employeeService.updateEmployeeById(employee);
+        assertNull(employeeUserCache.getUserFromCache("jaslech"));
+        authenticate("jaslech", "changed");
+        assertTrue(EmployeePasswordListener.isEncoded(employeeService.getEmployeeByNick("jaslech").getPassword()));
+
+        employee.setPassword("password");
+        employeeService.updateEmployeeById(employee);
+    }
+
+    @Test
+    void theEditFormDoesNotShowTheHashAndAnEmptyPasswordKeepsIt() throws Exception {
+        Employee employee = employeeService.getEmployeeByNick("jaslech");
+        String hash = employee.getPassword();
+
+        mockMvc.perform(get("/web/admin/editemployee/" + employee.getId()).with(user("admin").roles("ADMIN")))
+                .andExpect(content().string(containsString("type=\"password\"")))
+                .andExpect(content().string(not(containsString(hash))));
+
+        mockMvc.perform(post("/web/admin/editemployee").with(user("admin").roles("ADMIN")).with(csrf())
+                        .param("id", employee.getId().toString())
+                        .param("fname", employee.getFname())
+                        .param("lname", employee.getLname())
+                        .param("nick", employee.getNick())
+                        .param("email", employee.getEmail())
+                        .param("password", "")
+                        .param("role", employee.getRole().name()))
+                .andExpect(redirectedUrl("/web/admin/allemployees"));
+
+        assertEquals(hash, employeeService.getEmployeeByNick("jaslech").getPassword());
+        authenticate("jaslech", "password");
+    }
+
+    private void authenticate(String nick, String password) {
+        assertTrue(authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(nick, password)).isAuthenticated());
+    }
+}
@@ -0,0 +1,63 @@
+package com.itkolleg.bookingsystem.service.events;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingEventDispatcherTest {
+
+    @Test
+    void aBlockedListenerNeitherDelaysThePublisherNorReordersEventsAndOverflowIsDropped() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(3);
+        List<BookingEvent.Type> received = new CopyOnWriteArrayList<>();
+        BookingEventListener slow = event -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(event.type());
+            delivered.countDown();
+        };
+        BookingEventListener failing = event -> {
+            throw new IllegalStateException("listener failure");
+        };
+        // one lane with room for two queued events
+        BookingEventDispatcher dispatcher = new BookingEventDispatcher(List.of(failing, slow), 1, 2, 0);
+        try {
+            dispatcher.dispatch(event(BookingEvent.Type.CREATED));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            long before = System.nanoTime();
+            dispatcher.dispatch(event(BookingEvent.Type.UPDATED));
+            dispatcher.dispatch(event(BookingEvent.Type.CANCELLED));
+            dispatcher.dispatch(event(BookingEvent.Type.CREATED));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - before) < 1000);
+            assertEquals(2, dispatcher.getQueuedCount());
+            assertEquals(1, dispatcher.getDroppedCount());
+
+            release.countDown();
+            assertTrue(delivered.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of(BookingEvent.Type.CREATED, BookingEvent.Type.UPDATED, BookingEvent.Type.CANCELLED), received);
+        } finally {
+            release.countDown();
+            dispatcher.shutdown();
+        }
+    }
+
+    private static BookingEvent event(BookingEvent.Type type) {
+        BookingSnapshot booking = new BookingSnapshot(BookingSnapshot.Kind.DESK, 7L, 3L, null, 1L,
+                LocalDate.of(2031, 3, 3), LocalTime.of(9, 0), LocalTime.of(10, 0));
+        return new BookingEvent(type, booking, type == BookingEvent.Type.UPDATED ? booking : null);
+    }
+}
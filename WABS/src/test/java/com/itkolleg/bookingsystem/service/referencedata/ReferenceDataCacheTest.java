@@ -0,0 +1,67 @@
+package com.itkolleg.bookingsystem.service.referencedata;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.itkolleg.bookingsystem.domains.Desk;
+import com.itkolleg.bookingsystem.domains.Timeslot;
+import com.itkolleg.bookingsystem.repos.desk.DeskRepo;
+import com.itkolleg.bookingsystem.repos.employee.EmployeeDBAccess;
+import com.itkolleg.bookingsystem.repos.timeslot.TimeslotRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+
+public class ReferenceDataCacheTest {
+
+    private DeskRepo deskRepo;
+    private TimeslotRepo timeslotRepo;
+    private ReferenceDataCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        deskRepo = mock(DeskRepo.class);
+        timeslotRepo = mock(TimeslotRepo.class);
+        cache = new ReferenceDataCache(mock(EmployeeDBAccess.class), deskRepo, timeslotRepo);
+    }
+
+    @Test
+    public void testDesksAreLoadedOnceUntilInvalidated() {
+        when(deskRepo.getAllDesks()).thenReturn(List.of(new Desk()));
+
+        cache.getDesks();
+        cache.getDesks();
+        verify(deskRepo, times(1)).getAllDesks();
+
+        cache.invalidateDesks();
+        cache.getDesks();
+        verify(deskRepo, times(2)).getAllDesks();
+    }
+
+    @Test
+    public void testStartAndEndTimesAreDistinctAndDerivedOncePerGeneration() {
+        when(timeslotRepo.getAllTimeslots()).thenReturn(List.of(
+                new Timeslot(LocalTime.of(8, 0), LocalTime.of(12, 0), "Vormittag"),
+                new Timeslot(LocalTime.of(8, 0), LocalTime.of(17, 0), "Ganztags"),
+                new Timeslot(LocalTime.of(13, 0), LocalTime.of(17, 0), "Nachmittag")));
+
+        List<String> startTimes = cache.getStartTimes();
+        assertEquals(2, startTimes.size());
+        assertEquals(2, cache.getEndTimes().size());
+        assertSame(startTimes, cache.getStartTimes());
+        verify(timeslotRepo, times(1)).getAllTimeslots();
+
+        cache.invalidateTimeslots();
+        assertNotSame(startTimes, cache.getStartTimes());
+        verify(timeslotRepo, times(2)).getAllTimeslots();
+    }
+
+    @Test
+    public void testCachedListsAreUnmodifiable() {
+        when(deskRepo.getAllDesks()).thenReturn(List.of(new Desk()));
+
+        assertThrows(UnsupportedOperationException.class, () -> cache.getDesks().add(new Desk()));
+    }
+}
@@ -0,0 +1,98 @@
+package com.itkolleg.bookingsystem.service.synthetic;
+
+import com.itkolleg.bookingsystem.domains.Desk;
+import com.itkolleg.bookingsystem.domains.Port;
+import com.itkolleg.bookingsystem.domains.Role;
+import com.itkolleg.bookingsystem.repos.desk.DeskJPARepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:synthetic-data",
+        "spring.jpa.show-sql=false",
+        "wabs.synthetic.enabled=true",
+        "wabs.synthetic.floors=2",
+        "wabs.synthetic.desks-per-floor=30",
+        "wabs.synthetic.rooms-per-floor=3",
+        "wabs.synthetic.ressources-per-type=2",
+        "wabs.synthetic.employees.admin=1",
+        "wabs.synthetic.employees.operator=2",
+        "wabs.synthetic.employees.p-employee=40",
+        "wabs.synthetic.employees.n-employee=40",
+        "wabs.synthetic.months=2",
+        "wabs.synthetic.future-weeks=4"
+})
+class SyntheticDataGeneratorTest {
+
+    @Autowired
+    SyntheticDataGenerator syntheticDataGenerator;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    DeskJPARepo deskJPARepo;
+
+    @Autowired
+    AuthenticationManager authenticationManager;
+
+    @Test
+    void generatedDataReplacesTheDemoDataAndKeepsBookingsConsistent() {
+        assertEquals(83, count("select count(*) from employee"));
+        assertEquals(0, count("select count(*) from employee where nick = 'admin'"));
+        assertEquals(60, count("select count(*) from desk where desk_nr like 'F%'"));
+        assertEquals(6, count("select count(*) from room"));
+        assertEquals(10, count("select count(*) from ressource"));
+        assertTrue(count("select count(*) from booking where dtype = 'DeskBooking'") > 1000);
+        assertTrue(count("select count(*) from booking where dtype = 'RoomBooking'") > 100);
+        assertTrue(count("select count(*) from booking where dtype = 'RessourceBooking'") > 10);
+
+        assertEquals(0, count("select count(*) from booking where extract(isodow from date) > 5"));
+        assertEquals(0, count("select count(*) from booking where date > ?", syntheticDataGenerator.getLastBookedDate()));
+        assertEquals(0, count("select count(*) from (select employee_id, date from booking where dtype = 'DeskBooking'"
+                + " group by employee_id, date having count(*) > 1)"));
+        assertEquals(0, count("select count(*) from booking a join booking b on a.id < b.id and a.date = b.date"
+                + " and (a.desk_id = b.desk_id or a.room_id = b.room_id or a.ressource_id = b.ressource_id)"
+                + " and a.start < b.end_time and a.end_time > b.start"));
+
+        // the rollups of the analytics cover every generated day, not just the days around today
+        assertEquals(count("select count(distinct date) from booking"), count("select count(distinct rollup_date) from occupancy_rollup"));
+        assertEquals(jdbcTemplate.queryForObject("select min(date) from booking", LocalDate.class),
+                jdbcTemplate.queryForObject("select min(rollup_date) from occupancy_rollup", LocalDate.class));
+
+        String nick = SyntheticDataGenerator.nick(Role.ROLE_P_EMPLOYEE, 7);
+        assertEquals("pemployee7", nick);
+        assertTrue(authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(nick, "password")).isAuthenticated());
+    }
+
+    @Test
+    void idsContinueAfterTheGeneratedRowsAndASecondRunIsSkipped() {
+        // the sequences are back to the block sizes of their generators
+        assertEquals(50, count("select increment from information_schema.sequences where sequence_name = 'DESK_SEQ'"));
+        assertEquals(500, count("select increment from information_schema.sequences where sequence_name = 'BOOKING_SEQ'"));
+        long maxDeskId = count("select max(id) from desk");
+        Desk desk = new Desk();
+        desk.setDeskNr("X-1");
+        desk.setNrOfMonitors(1);
+        desk.setPorts(new ArrayList<>(List.of(new Port("HDMI"))));
+        assertTrue(deskJPARepo.save(desk).getId() > maxDeskId);
+
+        long bookings = count("select count(*) from booking");
+        assertTrue(syntheticDataGenerator.generate().skipped());
+        assertEquals(bookings, count("select count(*) from booking"));
+    }
+
+    private long count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Long.class, args);
+    }
+}
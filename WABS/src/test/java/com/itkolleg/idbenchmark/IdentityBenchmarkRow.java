@@ -0,0 +1,29 @@
+package com.itkolleg.idbenchmark;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * A row with its id from an IDENTITY column, as {@code Employee} and {@code PublicHoliday} had before.
+ * Lives outside {@code com.itkolleg.bookingsystem}, so that only the id generation benchmark maps it.
+ */
+@Entity
+@Table(name = "identity_benchmark_row")
+public class IdentityBenchmarkRow {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    String name;
+
+    protected IdentityBenchmarkRow() {
+    }
+
+    public IdentityBenchmarkRow(int i) {
+        this.name = "row" + i;
+    }
+}
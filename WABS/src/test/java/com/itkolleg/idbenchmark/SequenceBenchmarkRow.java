@@ -0,0 +1,32 @@
+package com.itkolleg.idbenchmark;
+
+import com.itkolleg.bookingsystem.domains.PooledSequenceGenerator;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+/**
+ * A row with its id from a {@link PooledSequenceGenerator}.
+ * Lives outside {@code com.itkolleg.bookingsystem}, so that only the id generation benchmark maps it.
+ */
+@Entity
+@Table(name = "sequence_benchmark_row")
+public class SequenceBenchmarkRow {
+
+    @Id
+    @GeneratedValue(generator = "sequence_benchmark_row_id")
+    @GenericGenerator(name = "sequence_benchmark_row_id", type = PooledSequenceGenerator.class, parameters = @Parameter(name = "sequence_name", value = "sequence_benchmark_row_seq"))
+    Long id;
+
+    String name;
+
+    protected SequenceBenchmarkRow() {
+    }
+
+    public SequenceBenchmarkRow(int i) {
+        this.name = "row" + i;
+    }
+}